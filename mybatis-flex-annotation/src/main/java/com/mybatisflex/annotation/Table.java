@@ -60,4 +60,14 @@ public @interface Table {
      * 在某些场景下，我们需要手动编写 Mapper，可以通过这个注解来关闭 APT 的 Mapper 生成
      */
     boolean mapperGenerateEnable() default true;
+
+    /**
+     * 根据主键查询（selectOneById、selectListByIds）的 entity 缓存数量，配置为 0 时不缓存
+     */
+    int entityCacheSize() default 0;
+
+    /**
+     * entity 缓存的过期时间，单位：毫秒
+     */
+    long entityCacheTtl() default 5 * 60 * 1000L;
 }
\ No newline at end of file
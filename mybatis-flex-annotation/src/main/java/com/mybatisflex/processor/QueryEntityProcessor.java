@@ -17,6 +17,7 @@ package com.mybatisflex.processor;
 
 
 import com.mybatisflex.annotation.Column;
+import com.mybatisflex.annotation.NoneListener;
 import com.mybatisflex.annotation.Table;
 import org.apache.ibatis.type.UnknownTypeHandler;
 
@@ -27,6 +28,7 @@ import javax.annotation.processing.RoundEnvironment;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.*;
 import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.Types;
@@ -100,6 +102,65 @@ public class QueryEntityProcessor extends AbstractProcessor {
     private static final String defaultColumnsTemplate = "\n        public QueryColumn[] DEFAULT_COLUMNS = new QueryColumn[]{@allColumns};\n";
     private static final String allColumnsTemplate = "        public QueryColumn[] ALL_COLUMNS = new QueryColumn[]{@allColumns};\n\n";
 
+    private static final String accessorTemplate = "package @package;\n" +
+            "\n" +
+            "import com.mybatisflex.core.table.TableAccessor;\n" +
+            "\n" +
+            "// Auto generate by mybatis-flex, do not modify it.\n" +
+            "public class @accessorClassName implements TableAccessor<@entityName> {\n" +
+            "\n" +
+            "    private static final String[] PROPERTIES = new String[]{@properties};\n" +
+            "    private static final Class<?>[] PROPERTY_TYPES = new Class<?>[]{@propertyTypes};\n" +
+            "\n" +
+            "    @Override\n" +
+            "    public String[] getProperties() {\n" +
+            "        return PROPERTIES;\n" +
+            "    }\n" +
+            "\n" +
+            "    @Override\n" +
+            "    public Class<?>[] getPropertyTypes() {\n" +
+            "        return PROPERTY_TYPES;\n" +
+            "    }\n" +
+            "\n" +
+            "    @Override\n" +
+            "    public Object get(@entityName entity, int index) {\n" +
+            "        switch (index) {\n" +
+            "@getCases" +
+            "            default:\n" +
+            "                throw new IndexOutOfBoundsException(\"index: \" + index);\n" +
+            "        }\n" +
+            "    }\n" +
+            "\n" +
+            "    @Override\n" +
+            "    @SuppressWarnings({\"unchecked\", \"rawtypes\"})\n" +
+            "    public void set(@entityName entity, int index, Object value) {\n" +
+            "        switch (index) {\n" +
+            "@setCases" +
+            "            default:\n" +
+            "                throw new IndexOutOfBoundsException(\"index: \" + index);\n" +
+            "        }\n" +
+            "    }\n" +
+            "\n" +
+            "    @Override\n" +
+            "    public @entityName newInstance() {\n" +
+            "        return new @entityName();\n" +
+            "    }\n" +
+            "@listeners" +
+            "}\n";
+
+    private static final String accessorGetCaseTemplate = "            case @index:\n" +
+            "                return entity.@getter();\n";
+
+    private static final String accessorSetCaseTemplate = "            case @index:\n" +
+            "                entity.@setter((@type) value);\n" +
+            "                return;\n";
+
+    private static final String accessorListenerTemplate = "\n" +
+            "    @Override\n" +
+            "    public com.mybatisflex.annotation.@listenerType get@listenerType() {\n" +
+            "        return new @listenerClass();\n" +
+            "    }\n";
+
     private Filer filer;
     //    private Elements elementUtils;
     private Types typeUtils;
@@ -130,6 +191,7 @@ public class QueryEntityProcessor extends AbstractProcessor {
             String mappersGenerateEnable = props.getProperties().getProperty("processor.mappersGenerateEnable", "false");
             String genMappersPackage = props.getProperties().getProperty("processor.mappersPackage");
             String className = props.getProperties().getProperty("processor.tablesClassName", "Tables");
+            String accessorsGenerateEnable = props.getProperties().getProperty("processor.accessorsGenerateEnable", "true");
 
             //upperCase, lowerCase, upperCamelCase, lowerCamelCase
             String tablesNameStyle = props.getProperties().getProperty("processor.tablesNameStyle", "upperCase");
@@ -162,11 +224,12 @@ public class QueryEntityProcessor extends AbstractProcessor {
 
 
                 Map<String, String> propertyAndColumns = new LinkedHashMap<>();
+                Map<String, TypeMirror> propertyAndTypes = new LinkedHashMap<>();
                 List<String> defaultColumns = new ArrayList<>();
 
                 TypeElement classElement = (TypeElement) entityClassElement;
                 do {
-                    fillPropertyAndColumns(propertyAndColumns, defaultColumns, classElement);
+                    fillPropertyAndColumns(propertyAndColumns, propertyAndTypes, defaultColumns, classElement);
                     classElement = (TypeElement) typeUtils.asElement(classElement.getSuperclass());
                 } while (classElement != null);
 
@@ -189,6 +252,11 @@ public class QueryEntityProcessor extends AbstractProcessor {
                             ? guessMapperPackage(entityClassElement.toString()) : genMappersPackage;
                     genMapperClass(genPath, realMapperPackage, entityClassElement.toString(), baseMapperClass, entitySimpleName);
                 }
+
+                //生成 entity 的读写器，用于在运行时替代反射
+                if ("true".equalsIgnoreCase(accessorsGenerateEnable)) {
+                    genAccessorClass(genPath, (TypeElement) entityClassElement, propertyAndTypes);
+                }
             });
 
             if (tablesContent.length() > 0) {
@@ -202,7 +270,8 @@ public class QueryEntityProcessor extends AbstractProcessor {
     }
 
 
-    private void fillPropertyAndColumns(Map<String, String> propertyAndColumns, List<String> defaultColumns, TypeElement classElement) {
+    private void fillPropertyAndColumns(Map<String, String> propertyAndColumns, Map<String, TypeMirror> propertyAndTypes
+            , List<String> defaultColumns, TypeElement classElement) {
         for (Element fieldElement : classElement.getEnclosedElements()) {
 
             //all fields
@@ -260,6 +329,7 @@ public class QueryEntityProcessor extends AbstractProcessor {
 
                 String columnName = column != null && column.value().trim().length() > 0 ? column.value() : camelToUnderline(fieldElement.toString());
                 propertyAndColumns.put(fieldElement.toString(), columnName);
+                propertyAndTypes.putIfAbsent(fieldElement.toString(), typeMirror);
 
                 if (column == null || (!column.isLarge() && !column.isLogicDelete())) {
                     defaultColumns.add(columnName);
@@ -361,92 +431,200 @@ public class QueryEntityProcessor extends AbstractProcessor {
                 .replace("@classesInfo", classContent)
                 .replace("@tablesClassName", className);
 
-        Writer writer = null;
-        try {
-            JavaFileObject sourceFile = filer.createSourceFile(genPackageName + "." + className);
-            if (genBasePath == null || genBasePath.trim().length() == 0) {
-                writer = sourceFile.openWriter();
-                writer.write(genContent);
-                writer.flush();
+        genClass(genBasePath, genPackageName, className, genContent);
+    }
 
-//                printMessage(">>>>> mybatis-flex success generate tables class: \n" + sourceFile.toUri());
-                return;
-            }
+    /**
+     * @param genBasePath     生成路径
+     * @param genPackageName  包名
+     * @param entityClass     实体类名
+     * @param baseMapperClass 自定义Mapper的父类全路径和类名 com.xx.mapper.BaseMapper，可通过mybatis-flex.properties 的属性processor.baseMapperClass配置， 默认为 com.mybatisflex.core.BaseMapper
+     */
+    private void genMapperClass(String genBasePath, String genPackageName, String entityClass, String baseMapperClass, String entityName) {
+        entityName = entityClass.substring(entityClass.lastIndexOf(".") + 1);
+        String baseMapperClzName = baseMapperClass.substring(baseMapperClass.lastIndexOf(".") + 1);
+        String genContent = mapperTemplate
+                .replace("@package", genPackageName)
+                .replace("@entityClass", entityClass)
+                .replace("@entityName", entityName)
+                .replace("@baseMapperClass", baseMapperClass)
+                .replace("@baseMapperClzName", baseMapperClzName);
 
+        String mapperClassName = entityName + "Mapper";
+        genClass(genBasePath, genPackageName, mapperClassName, genContent);
+    }
 
-            String defaultGenPath = sourceFile.toUri().getPath();
 
-            //真实的生成代码的目录
-            String realPath;
+    /**
+     * 生成 entity 的读写器（实现 com.mybatisflex.core.table.TableAccessor），与 entity 在同一个包下，类名为 entity 类名 + "TableAccessor"
+     * 只包含有 public getter 和 setter 的属性，entity 不能通过 public 无参构造方法创建时不生成
+     * 只用于属性的读写、entity 以及监听器的创建，列、主键等表信息依然在运行时通过反射解析
+     */
+    private void genAccessorClass(String genBasePath, TypeElement entityElement, Map<String, TypeMirror> propertyAndTypes) {
+        if (entityElement.getEnclosingElement().getKind() != ElementKind.PACKAGE
+                || !entityElement.getTypeParameters().isEmpty()
+                || !isInstantiable(entityElement)) {
+            return;
+        }
 
-            //用户配置的路径为绝对路径
-            if (isAbsolutePath(genBasePath)) {
-                realPath = genBasePath;
+        List<ExecutableElement> methods = new ArrayList<>();
+        TypeElement classElement = entityElement;
+        do {
+            for (Element element : classElement.getEnclosedElements()) {
+                if (element.getKind() == ElementKind.METHOD && element.getModifiers().contains(Modifier.PUBLIC)
+                        && !element.getModifiers().contains(Modifier.STATIC)) {
+                    methods.add((ExecutableElement) element);
+                }
             }
-            //配置的是相对路径，那么则以项目根目录为相对路径
-            else {
-                String projectRootPath = getProjectRootPath(defaultGenPath);
-                realPath = new File(projectRootPath, genBasePath).getAbsolutePath();
+            classElement = (TypeElement) typeUtils.asElement(classElement.getSuperclass());
+        } while (classElement != null);
+
+        StringJoiner properties = new StringJoiner(", ");
+        StringJoiner propertyTypes = new StringJoiner(", ");
+        StringBuilder getCases = new StringBuilder();
+        StringBuilder setCases = new StringBuilder();
+        int index = 0;
+        for (Map.Entry<String, TypeMirror> entry : propertyAndTypes.entrySet()) {
+            String property = entry.getKey();
+            TypeMirror type = entry.getValue();
+            if (type.getKind() == TypeKind.TYPEVAR) {
+                continue;
             }
 
-            //通过在 test/java 目录下执行编译生成的
-            boolean fromTestSource = isFromTestSource(defaultGenPath);
-            if (fromTestSource) {
-                realPath = new File(realPath, "src/test/java").getAbsolutePath();
-            } else {
-                realPath = new File(realPath, "src/main/java").getAbsolutePath();
+            ExecutableElement getter = findMethod(methods, "get" + firstCharToUpperCase(property), type, false);
+            if (getter == null && (type.getKind() == TypeKind.BOOLEAN || Boolean.class.getName().equals(getTypeName(type)))) {
+                getter = findMethod(methods, "is" + firstCharToUpperCase(property), type, false);
+            }
+            ExecutableElement setter = findMethod(methods, "set" + firstCharToUpperCase(property), type, true);
+            if (getter == null || setter == null) {
+                continue;
             }
 
-            File genJavaFile = new File(realPath, (genPackageName + "." + className).replace(".", "/") + ".java");
-            if (!genJavaFile.getParentFile().exists() && !genJavaFile.getParentFile().mkdirs()) {
-                System.out.println(">>>>>ERROR: can not mkdirs by mybatis-flex processor for: " + genJavaFile.getParentFile());
-                return;
+            properties.add("\"" + property + "\"");
+            propertyTypes.add(getTypeName(type) + ".class");
+            getCases.append(accessorGetCaseTemplate.replace("@index", String.valueOf(index))
+                    .replace("@getter", getter.getSimpleName()));
+            setCases.append(accessorSetCaseTemplate.replace("@index", String.valueOf(index))
+                    .replace("@setter", setter.getSimpleName())
+                    .replace("@type", type.getKind().isPrimitive()
+                            ? typeUtils.boxedClass((PrimitiveType) type).getQualifiedName().toString() : getTypeName(type)));
+            index++;
+        }
+
+        //获取 listener 的名称，通过 table.onInsert() 获取会抛出异常：MirroredTypeException
+        StringBuilder listeners = new StringBuilder();
+        for (AnnotationMirror annotationMirror : entityElement.getAnnotationMirrors()) {
+            if (!Table.class.getName().equals(annotationMirror.getAnnotationType().toString())) {
+                continue;
             }
+            annotationMirror.getElementValues().forEach((executableElement, annotationValue) -> {
+                String name = executableElement.getSimpleName().toString();
+                String listenerType = "onInsert".equals(name) ? "InsertListener"
+                        : "onUpdate".equals(name) ? "UpdateListener"
+                        : "onSet".equals(name) ? "SetListener" : null;
+                if (listenerType == null || !(annotationValue.getValue() instanceof DeclaredType)) {
+                    return;
+                }
+                TypeElement listenerElement = (TypeElement) ((DeclaredType) annotationValue.getValue()).asElement();
+                if (!NoneListener.class.getName().equals(listenerElement.getQualifiedName().toString()) && isInstantiable(listenerElement)) {
+                    listeners.append(accessorListenerTemplate.replace("@listenerType", listenerType)
+                            .replace("@listenerClass", listenerElement.getQualifiedName()));
+                }
+            });
+        }
 
-            writer = new PrintWriter(new FileOutputStream(genJavaFile));
-            writer.write(genContent);
-            writer.flush();
+        String entityClassName = entityElement.getQualifiedName().toString();
+        String packageName = entityClassName.contains(".") ? entityClassName.substring(0, entityClassName.lastIndexOf(".")) : "";
+        String entityName = entityElement.getSimpleName().toString();
+        String accessorClassName = entityName + "TableAccessor";
+
+        String genContent = accessorTemplate
+                .replace("@package", packageName)
+                .replace("@accessorClassName", accessorClassName)
+                .replace("@entityName", entityName)
+                .replace("@properties", properties.toString())
+                .replace("@propertyTypes", propertyTypes.toString())
+                .replace("@getCases", getCases)
+                .replace("@setCases", setCases)
+                .replace("@listeners", listeners);
+        if (packageName.isEmpty()) {
+            genContent = genContent.substring(genContent.indexOf('\n') + 1);
+        }
 
-//            printMessage(">>>>> mybatis-flex success generate tables class: \n" + genJavaFile.toURI());
+        genClass(genBasePath, packageName, accessorClassName, genContent);
+    }
 
-        } catch (IOException e) {
-            e.printStackTrace();
-        } finally {
-            if (writer != null) {
-                try {
-                    writer.close();
-                } catch (IOException ignored) {
-                }
+
+    private ExecutableElement findMethod(List<ExecutableElement> methods, String name, TypeMirror type, boolean setter) {
+        for (ExecutableElement method : methods) {
+            if (!method.getSimpleName().contentEquals(name) || method.getParameters().size() != (setter ? 1 : 0)) {
+                continue;
+            }
+            TypeMirror methodType = setter ? method.getParameters().get(0).asType() : method.getReturnType();
+            if (typeUtils.isSameType(typeUtils.erasure(methodType), typeUtils.erasure(type))) {
+                return method;
             }
         }
+        return null;
     }
 
+
     /**
-     * @param genBasePath     生成路径
-     * @param genPackageName  包名
-     * @param entityClass     实体类名
-     * @param baseMapperClass 自定义Mapper的父类全路径和类名 com.xx.mapper.BaseMapper，可通过mybatis-flex.properties 的属性processor.baseMapperClass配置， 默认为 com.mybatisflex.core.BaseMapper
+     * 是否可以在其他类中通过 public 的无参构造方法创建
      */
-    private void genMapperClass(String genBasePath, String genPackageName, String entityClass, String baseMapperClass, String entityName) {
-        entityName = entityClass.substring(entityClass.lastIndexOf(".") + 1);
-        String baseMapperClzName = baseMapperClass.substring(baseMapperClass.lastIndexOf(".") + 1);
-        String genContent = mapperTemplate
-                .replace("@package", genPackageName)
-                .replace("@entityClass", entityClass)
-                .replace("@entityName", entityName)
-                .replace("@baseMapperClass", baseMapperClass)
-                .replace("@baseMapperClzName", baseMapperClzName);
+    private static boolean isInstantiable(TypeElement typeElement) {
+        if (typeElement.getKind() != ElementKind.CLASS || typeElement.getModifiers().contains(Modifier.ABSTRACT)) {
+            return false;
+        }
 
-        String mapperClassName = entityName + "Mapper";
+        //类及其外部类都需要是 public 的，内部类需要是 static 的
+        Element element = typeElement;
+        while (element.getKind() != ElementKind.PACKAGE) {
+            if (!(element instanceof TypeElement) || !element.getModifiers().contains(Modifier.PUBLIC)) {
+                return false;
+            }
+            Element enclosingElement = element.getEnclosingElement();
+            if (enclosingElement.getKind() != ElementKind.PACKAGE && !element.getModifiers().contains(Modifier.STATIC)) {
+                return false;
+            }
+            element = enclosingElement;
+        }
+
+        for (Element enclosedElement : typeElement.getEnclosedElements()) {
+            if (enclosedElement.getKind() == ElementKind.CONSTRUCTOR && enclosedElement.getModifiers().contains(Modifier.PUBLIC)
+                    && ((ExecutableElement) enclosedElement).getParameters().isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * 获取类型的名称（泛型擦除后），用于生成的代码中的类型转换和 class 常量
+     */
+    private String getTypeName(TypeMirror typeMirror) {
+        String typeString = typeUtils.erasure(typeMirror).toString().trim();
+        if (typeString.startsWith("(") && typeString.endsWith(")")) {
+            typeString = typeString.substring(1, typeString.length() - 1);
+        }
+        int lastIndexOf = typeString.lastIndexOf(":");
+        if (lastIndexOf > 0) {
+            typeString = typeString.substring(lastIndexOf + 1).trim();
+        }
+        return typeString;
+    }
+
+
+    private void genClass(String genBasePath, String genPackageName, String className, String genContent) {
+        String genClassName = genPackageName.isEmpty() ? className : genPackageName + "." + className;
         Writer writer = null;
         try {
-            JavaFileObject sourceFile = filer.createSourceFile(genPackageName + "." + mapperClassName);
+            JavaFileObject sourceFile = filer.createSourceFile(genClassName);
             if (genBasePath == null || genBasePath.trim().length() == 0) {
                 writer = sourceFile.openWriter();
                 writer.write(genContent);
                 writer.flush();
-
-//                printMessage(">>>>> mybatis-flex success generate mapper class: \n" + sourceFile.toUri());
                 return;
             }
 
@@ -474,7 +652,7 @@ public class QueryEntityProcessor extends AbstractProcessor {
                 realPath = new File(realPath, "src/main/java").getAbsolutePath();
             }
 
-            File genJavaFile = new File(realPath, (genPackageName + "." + mapperClassName).replace(".", "/") + ".java");
+            File genJavaFile = new File(realPath, genClassName.replace(".", "/") + ".java");
             if (!genJavaFile.getParentFile().exists() && !genJavaFile.getParentFile().mkdirs()) {
                 System.out.println(">>>>>ERROR: can not mkdirs by mybatis-flex processor for: " + genJavaFile.getParentFile());
                 return;
@@ -484,8 +662,6 @@ public class QueryEntityProcessor extends AbstractProcessor {
             writer.write(genContent);
             writer.flush();
 
-//            printMessage(">>>>> mybatis-flex success generate mapper class: \n" + genJavaFile.toURI());
-
         } catch (IOException e) {
             e.printStackTrace();
         } finally {
@@ -15,23 +15,33 @@
  */
 package com.mybatisflex.core;
 
+import com.mybatisflex.core.dialect.DialectFactory;
 import com.mybatisflex.core.exception.FlexExceptions;
+import com.mybatisflex.core.paginate.ConcurrentCounter;
+import com.mybatisflex.core.paginate.CursorPage;
+import com.mybatisflex.core.paginate.CursorPaginator;
 import com.mybatisflex.core.paginate.Page;
+import com.mybatisflex.core.paginate.PaginateCountCache;
 import com.mybatisflex.core.provider.EntitySqlProvider;
-import com.mybatisflex.core.query.QueryColumn;
+import com.mybatisflex.core.provider.InsertBatchPlanner;
+import com.mybatisflex.core.query.CPI;
 import com.mybatisflex.core.query.QueryCondition;
 import com.mybatisflex.core.query.QueryWrapper;
-import com.mybatisflex.core.query.CPI;
+import com.mybatisflex.core.row.Db;
 import com.mybatisflex.core.table.TableInfo;
 import com.mybatisflex.core.table.TableInfoFactory;
 import com.mybatisflex.core.util.ObjectUtil;
 import org.apache.ibatis.annotations.*;
 import org.apache.ibatis.builder.annotation.ProviderContext;
+import org.apache.ibatis.cursor.Cursor;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public interface BaseMapper<T> {
 
@@ -84,25 +94,66 @@ public interface BaseMapper<T> {
 
     /**
      * 批量插入 entity 数据，按 size 切分
+     * 切分时会同时考虑数据库的参数数量和 sql 大小的限制，见 {@link InsertBatchPlanner}
      *
      * @param entities 插入的数据列表
-     * @param size     切分大小
+     * @param size     每批最多插入的条数，小于等于 0 时默认为 1000
      * @return 影响行数
      */
     default int insertBatch(List<T> entities, int size) {
-        if (size <= 0) {
-            size = 1000;//默认1000
+        if (entities == null || entities.isEmpty()) {
+            return 0;
         }
+        TableInfo tableInfo = TableInfoFactory.ofEntityClass(entities.get(0).getClass());
+        int maxRows = size <= 0 ? InsertBatchPlanner.DEFAULT_MAX_ROWS : size;
+        int batchSize = InsertBatchPlanner.computeBatchSize(tableInfo, DialectFactory.getDialect(), entities, maxRows);
+
         int sum = 0;
-        int entitiesSize = entities.size();
-        int maxIndex = entitiesSize / size + (entitiesSize % size == 0 ? 0 : 1);
-        for (int i = 0; i < maxIndex; i++) {
-            List<T> list = entities.subList(i * size, Math.min(i * size + size, entitiesSize));
+        for (List<T> list : InsertBatchPlanner.split(entities, batchSize)) {
             sum += insertBatch(list);
         }
         return sum;
     }
 
+    /**
+     * 通过 jdbc 的 batch 批量插入 entity 数据，所有数据使用同一条 insert sql，每 batchSize 条执行一次
+     * 注意：mysql 需要在 url 中配置 rewriteBatchedStatements=true，否则 jdbc 驱动会逐条执行
+     *
+     * @param entities  插入的数据列表
+     * @param batchSize 每次执行的数据量
+     * @return 每条数据的影响行数，jdbc 驱动无法获取时为 {@link java.sql.Statement#SUCCESS_NO_INFO}
+     */
+    @SuppressWarnings("unchecked")
+    default int[] insertBatchJdbc(List<T> entities, int batchSize) {
+        Class<BaseMapper<T>> mapperClass = (Class<BaseMapper<T>>) getClass().getInterfaces()[0];
+        return Db.executeBatch(mapperClass, entities, batchSize, BaseMapper::insert);
+    }
+
+    /**
+     * 插入或更新 entity 数据，通过数据库原生的 upsert 语句执行，以主键判断数据是否存在，主键必须有值
+     * 例如 mysql 的 INSERT ... ON DUPLICATE KEY UPDATE，postgresql 的 INSERT ... ON CONFLICT DO UPDATE，
+     * 以及 oracle、sqlserver 和 h2 的 MERGE，更新时不会修改租户字段和逻辑删除字段，并且会校验乐观锁
+     *
+     * @param entity 实体类
+     * @return 返回影响的行数，不同的数据库返回的行数可能不同，例如 mysql 更新时返回 2
+     * @see com.mybatisflex.core.provider.EntitySqlProvider#upsert(Map, ProviderContext)
+     * @see com.mybatisflex.core.dialect.UpsertProcesser
+     */
+    @InsertProvider(type = EntitySqlProvider.class, method = "upsert")
+    int upsert(@Param(FlexConsts.ENTITY) T entity);
+
+    /**
+     * 批量插入或更新 entity 数据，数据超出数据库参数数量的限制时会自动拆分
+     * 同一条 sql 中主键相同的数据只保留最后一条
+     *
+     * @param entities 数据列表
+     * @return 返回影响的行数，主键重复的数据不计算在内
+     * @see #upsert(Object)
+     * @see com.mybatisflex.core.provider.EntitySqlProvider#upsertBatch(Map, ProviderContext)
+     */
+    @InsertProvider(type = EntitySqlProvider.class, method = "upsertBatch")
+    int upsertBatch(@Param(FlexConsts.ENTITIES) List<T> entities);
+
     /**
      * 新增 或者 更新，若主键有值，则更新，若没有主键值，则插入
      *
@@ -133,6 +184,8 @@ public interface BaseMapper<T> {
 
     /**
      * 根据多个 id 批量删除数据
+     * 注意：ids 的数量超出数据库单条 sql 的参数限制时，会被拆分成多条 sql 执行，多条 sql 之间不是原子的，
+     * 需要保证原子性时，请在事务中执行
      *
      * @param ids ids 列表
      * @return 返回影响的行数
@@ -198,6 +251,39 @@ public interface BaseMapper<T> {
     int update(@Param(FlexConsts.ENTITY) T entity, @Param(FlexConsts.IGNORE_NULLS) boolean ignoreNulls);
 
 
+    /**
+     * 通过 jdbc 的 batch 根据主键批量更新数据，忽略为 null 的字段
+     *
+     * @param entities  数据列表，必须包含有主键
+     * @param batchSize 每次执行的数据量
+     * @return 每条数据的影响行数
+     * @see #updateBatchById(List, boolean, int)
+     */
+    default int[] updateBatchById(List<T> entities, int batchSize) {
+        return updateBatchById(entities, true, batchSize);
+    }
+
+    /**
+     * 通过 jdbc 的 batch 根据主键批量更新数据，每 batchSize 条执行一次
+     * 数据会按照要更新的字段进行分组（例如 ModifyAttrsRecord 修改过的属性），更新字段相同的数据在同一个 batch 中执行，
+     * 主键相同的多条数据按照原来的顺序执行
+     *
+     * @param entities    数据列表，必须包含有主键
+     * @param ignoreNulls 是否忽略 null 数据
+     * @param batchSize   每次执行的数据量
+     * @return 每条数据的影响行数，jdbc 驱动无法获取时为 {@link java.sql.Statement#SUCCESS_NO_INFO}
+     */
+    @SuppressWarnings("unchecked")
+    default int[] updateBatchById(List<T> entities, boolean ignoreNulls, int batchSize) {
+        Class<BaseMapper<T>> mapperClass = (Class<BaseMapper<T>>) getClass().getInterfaces()[0];
+        TableInfo tableInfo = TableInfoFactory.ofMapperClass(mapperClass);
+        return Db.executeBatch(mapperClass, entities, batchSize
+                , entity -> Arrays.asList(tableInfo.buildPkSqlArgs(entity))
+                , entity -> tableInfo.obtainUpdateColumns(entity, ignoreNulls, false)
+                , (mapper, entity) -> mapper.update(entity, ignoreNulls));
+    }
+
+
     /**
      * 根据 map 构建的条件来更新数据
      *
@@ -368,6 +454,18 @@ public interface BaseMapper<T> {
     List<T> selectListByQuery(@Param(FlexConsts.QUERY) QueryWrapper queryWrapper);
 
 
+    /**
+     * 根据 query 来构建条件，通过游标查询数据，数据在遍历时才逐条从数据库读取，适合大数据量的导出等场景
+     * 注意：游标使用完毕后需要关闭；遍历期间需要保持 SqlSession 不被关闭，在 spring 中需要在事务中使用
+     *
+     * @param queryWrapper 查询条件
+     * @return 数据游标
+     * @see com.mybatisflex.core.provider.EntitySqlProvider#selectListByQuery(Map, ProviderContext)
+     */
+    @SelectProvider(type = EntitySqlProvider.class, method = "selectListByQuery")
+    Cursor<T> selectCursorByQuery(@Param(FlexConsts.QUERY) QueryWrapper queryWrapper);
+
+
     /**
      * 查询全部数据
      *
@@ -466,32 +564,74 @@ public interface BaseMapper<T> {
      */
     default Page<T> paginate(@Param("page") Page<T> page, @Param("query") QueryWrapper queryWrapper) {
 
-        List<QueryColumn> groupByColumns = null;
-
         // 只有 totalRow 小于 0 的时候才会去查询总量
         // 这样方便用户做总数缓存，而非每次都要去查询总量
         // 一般的分页场景中，只有第一页的时候有必要去查询总量，第二页以后是不需要的
+        // 有 group by 时，count sql 会通过子查询统计分组的数量，见 CommonsDialectImpl#buildSelectCountSql
+        // 配置了 paginateCountCacheSize 时，优先从缓存中获取总量，见 PaginateCountCache
+        PaginateCountCache.Key countCacheKey = null;
+        if (page.getTotalRow() < 0 && PaginateCountCache.isEnable()) {
+            TableInfo tableInfo = TableInfoFactory.ofMapperClass(getClass().getInterfaces()[0]);
+            countCacheKey = PaginateCountCache.createKey(queryWrapper, tableInfo != null ? tableInfo.getTableName() : null);
+            Long count = PaginateCountCache.get(countCacheKey);
+            if (count != null) {
+                page.setTotalRow(count);
+            }
+        }
+
+        // 开启 paginateConcurrentEnable 且不在事务中时，count 查询和数据查询会并发执行，见 ConcurrentCounter
+        if (page.getTotalRow() < 0 && ConcurrentCounter.isEnable()) {
+            Class<?> mapperClass = getClass().getInterfaces()[0];
+            TableInfo tableInfo = TableInfoFactory.ofMapperClass(mapperClass);
+
+            // count 查询和数据查询会同时读取 queryWrapper，需要在当前线程中提前完成对 queryWrapper 的修改
+            tableInfo.appendConditions(null, queryWrapper);
+            CPI.setSelectColumnsIfNecessary(queryWrapper, tableInfo.getDefaultQueryColumn());
+            CPI.setFromIfNecessary(queryWrapper, tableInfo.getTableName());
+            queryWrapper.limit(page.getPageSize() * (page.getPageNumber() - 1), page.getPageSize());
+
+            // count 查询使用注册了该 mapper 的环境，见 Db#invoker(Class)
+            CompletableFuture<Long> countFuture = ConcurrentCounter.submit(Db.invoker(mapperClass).getSqlSessionFactory()
+                    , sqlSession -> ((BaseMapper<?>) sqlSession.getMapper(mapperClass)).selectCountByQuery(queryWrapper));
+            List<T> rows = selectListByQuery(queryWrapper);
+            page.setTotalRow(ConcurrentCounter.join(countFuture));
+            PaginateCountCache.put(countCacheKey, page.getTotalRow());
+
+            //count 查询的结果表明当前页超出了总页数时，与串行查询一样返回空数据
+            page.setRecords(page.getTotalRow() > 0 && page.getPageNumber() <= page.getTotalPage() ? rows : Collections.emptyList());
+            return page;
+        }
+
         if (page.getTotalRow() < 0) {
-            groupByColumns = CPI.getGroupByColumns(queryWrapper);
-            //清除group by 去查询数据
-            CPI.setGroupByColumns(queryWrapper, null);
             long count = selectCountByQuery(queryWrapper);
             page.setTotalRow(count);
+            PaginateCountCache.put(countCacheKey, count);
         }
 
         if (page.getTotalRow() == 0 || page.getPageNumber() > page.getTotalPage()) {
             return page;
         }
 
-        //恢复数量查询清除的 groupBy
-        if (groupByColumns != null) {
-            CPI.setGroupByColumns(queryWrapper, groupByColumns);
-        }
-
         int offset = page.getPageSize() * (page.getPageNumber() - 1);
         queryWrapper.limit(offset, page.getPageSize());
         List<T> rows = selectListByQuery(queryWrapper);
         page.setRecords(rows);
         return page;
     }
+
+
+    /**
+     * 游标分页查询（keyset 分页），通过上一页返回的游标查询下一页，不会随着页数的增加而变慢
+     * 排序使用 queryWrapper 的 order by 字段，并自动追加主键以保证排序的唯一性
+     *
+     * @param cursor       上一页返回的 {@link CursorPage#getNextCursor()}，查询第一页时传入 null
+     * @param pageSize     每页的数据量
+     * @param queryWrapper 查询条件
+     * @return 游标分页的数据
+     */
+    default CursorPage<T> paginateAfter(String cursor, int pageSize, QueryWrapper queryWrapper) {
+        TableInfo tableInfo = TableInfoFactory.ofMapperClass(getClass().getInterfaces()[0]);
+        return CursorPaginator.paginate(cursor, pageSize, queryWrapper, tableInfo.getPrimaryKeys()
+                , this::selectListByQuery, tableInfo::getColumnValue);
+    }
 }
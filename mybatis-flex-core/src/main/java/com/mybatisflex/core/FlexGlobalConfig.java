@@ -18,6 +18,7 @@ package com.mybatisflex.core;
 import com.mybatisflex.annotation.InsertListener;
 import com.mybatisflex.annotation.SetListener;
 import com.mybatisflex.annotation.UpdateListener;
+import com.mybatisflex.core.cache.EntityCacheConfig;
 import com.mybatisflex.core.dialect.DbType;
 import com.mybatisflex.annotation.KeyType;
 import org.apache.ibatis.session.Configuration;
@@ -25,6 +26,7 @@ import org.apache.ibatis.session.SqlSessionFactory;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 /**
  * 全局配置文件
@@ -64,6 +66,11 @@ public class FlexGlobalConfig {
     private Map<Class<?>, UpdateListener> entityUpdateListeners = new ConcurrentHashMap<>();
     private Map<Class<?>, InsertListener> entityInsertListeners = new ConcurrentHashMap<>();
 
+    /**
+     * entity 的缓存配置，优先于 @Table 中的配置，见 {@link com.mybatisflex.core.cache.EntityCache}
+     */
+    private Map<Class<?>, EntityCacheConfig> entityCacheConfigs = new ConcurrentHashMap<>();
+
 
     /**
      * 逻辑删除的相关配置
@@ -71,6 +78,68 @@ public class FlexGlobalConfig {
     private Object normalValueOfLogicDelete = FlexConsts.LOGIC_DELETE_NORMAL;
     private Object deletedValueOfLogicDelete = FlexConsts.LOGIC_DELETE_DELETED;
 
+    /**
+     * QueryWrapper 生成的 sql 缓存数量，相同结构的 QueryWrapper 直接使用缓存的 sql，默认为 0，不缓存
+     * 每个方言的缓存是一个加锁的 LRU，并发很高时会有锁竞争，需要根据压测的结果决定是否开启
+     */
+    private int querySqlCacheSize = 0;
+
+    /**
+     * 是否把 in 条件的参数数量补齐到 2 的 n 次方（重复最后一个参数），以减少不同 in 参数数量生成的 sql 种类
+     * 补齐后整条 sql 的参数数量超出数据库的限制时（例如 sqlserver 的 2100 个），不补齐
+     */
+    private boolean inParamsPaddingEnable = false;
+
+    /**
+     * 分页时是否并发执行 count 查询和数据查询，count 查询会使用新的数据库连接，在事务中时不会并发执行
+     */
+    private boolean paginateConcurrentEnable = false;
+
+    /**
+     * 并发分页时执行 count 查询的线程池，不配置时使用默认的线程池
+     */
+    private Executor paginateExecutor;
+
+    /**
+     * 分页查询的总数缓存数量，配置为 0 时不缓存，见 {@link com.mybatisflex.core.paginate.PaginateCountCache}
+     */
+    private int paginateCountCacheSize = 0;
+
+    /**
+     * 分页查询的总数缓存的过期时间，单位：毫秒
+     */
+    private long paginateCountCacheTtl = 60 * 1000L;
+
+    /**
+     * 查询结果的缓存数量，配置为 0 时不缓存，见 {@link com.mybatisflex.core.cache.QueryResultCache}
+     */
+    private int resultCacheSize = 0;
+
+    /**
+     * 查询结果缓存的过期时间，单位：毫秒
+     */
+    private long resultCacheTtl = 5 * 60 * 1000L;
+
+    /**
+     * entity 的查询（selectOneById、selectListByIds、selectListByQuery）是否直接通过 ResultSet 的列索引填充 entity，
+     * 而不经过 mybatis 的 ResultMap 自动映射，见 {@link com.mybatisflex.core.mybatis.FlexResultSetHandler}
+     */
+    private boolean fastResultMappingEnable = false;
+
+    /**
+     * Row 的查询（比如 Db.selectListBySql）是否返回 {@link com.mybatisflex.core.row.CompactRow}，
+     * 同一个查询结果的所有 Row 共享列名，每个 Row 只保存值的数组，适合数据量很大的查询
+     */
+    private boolean compactRowEnable = false;
+
+    /**
+     * BATCH 模式下，同时保持打开的 Statement 数量，默认为 1，与 mybatis 原生的 BatchExecutor 一致，sql 变化时执行之前的 Statement；
+     * 配置大于 1 时，交替执行多条不同的 sql（例如交替插入多张表），每条 sql 都会在各自的 Statement 中累积，
+     * 超出时最早使用的 Statement 会被提前执行，此时 sql 的执行顺序与调用的顺序可能不同，
+     * 见 {@link com.mybatisflex.core.mybatis.executor.FlexBatchExecutor}
+     */
+    private int batchMaxOpenStatements = 1;
+
     public boolean isPrintBanner() {
         return printBanner;
     }
@@ -167,6 +236,24 @@ public class FlexGlobalConfig {
         return entityInsertListeners.get(entityClass);
     }
 
+    public Map<Class<?>, EntityCacheConfig> getEntityCacheConfigs() {
+        return entityCacheConfigs;
+    }
+
+    public void setEntityCacheConfigs(Map<Class<?>, EntityCacheConfig> entityCacheConfigs) {
+        this.entityCacheConfigs = entityCacheConfigs;
+    }
+
+    public void registerEntityCacheConfig(EntityCacheConfig config, Class<?>... classes) {
+        for (Class<?> aClass : classes) {
+            entityCacheConfigs.put(aClass, config);
+        }
+    }
+
+    public EntityCacheConfig getEntityCacheConfig(Class<?> entityClass) {
+        return entityCacheConfigs.get(entityClass);
+    }
+
 
     public Object getNormalValueOfLogicDelete() {
         return normalValueOfLogicDelete;
@@ -190,6 +277,94 @@ public class FlexGlobalConfig {
         this.deletedValueOfLogicDelete = deletedValueOfLogicDelete;
     }
 
+    public int getQuerySqlCacheSize() {
+        return querySqlCacheSize;
+    }
+
+    public void setQuerySqlCacheSize(int querySqlCacheSize) {
+        this.querySqlCacheSize = querySqlCacheSize;
+    }
+
+    public boolean isInParamsPaddingEnable() {
+        return inParamsPaddingEnable;
+    }
+
+    public void setInParamsPaddingEnable(boolean inParamsPaddingEnable) {
+        this.inParamsPaddingEnable = inParamsPaddingEnable;
+    }
+
+    public boolean isPaginateConcurrentEnable() {
+        return paginateConcurrentEnable;
+    }
+
+    public void setPaginateConcurrentEnable(boolean paginateConcurrentEnable) {
+        this.paginateConcurrentEnable = paginateConcurrentEnable;
+    }
+
+    public Executor getPaginateExecutor() {
+        return paginateExecutor;
+    }
+
+    public void setPaginateExecutor(Executor paginateExecutor) {
+        this.paginateExecutor = paginateExecutor;
+    }
+
+    public int getPaginateCountCacheSize() {
+        return paginateCountCacheSize;
+    }
+
+    public void setPaginateCountCacheSize(int paginateCountCacheSize) {
+        this.paginateCountCacheSize = paginateCountCacheSize;
+    }
+
+    public long getPaginateCountCacheTtl() {
+        return paginateCountCacheTtl;
+    }
+
+    public void setPaginateCountCacheTtl(long paginateCountCacheTtl) {
+        this.paginateCountCacheTtl = paginateCountCacheTtl;
+    }
+
+    public int getResultCacheSize() {
+        return resultCacheSize;
+    }
+
+    public void setResultCacheSize(int resultCacheSize) {
+        this.resultCacheSize = resultCacheSize;
+    }
+
+    public long getResultCacheTtl() {
+        return resultCacheTtl;
+    }
+
+    public void setResultCacheTtl(long resultCacheTtl) {
+        this.resultCacheTtl = resultCacheTtl;
+    }
+
+    public boolean isFastResultMappingEnable() {
+        return fastResultMappingEnable;
+    }
+
+    public void setFastResultMappingEnable(boolean fastResultMappingEnable) {
+        this.fastResultMappingEnable = fastResultMappingEnable;
+    }
+
+    public boolean isCompactRowEnable() {
+        return compactRowEnable;
+    }
+
+    public void setCompactRowEnable(boolean compactRowEnable) {
+        this.compactRowEnable = compactRowEnable;
+    }
+
+    public int getBatchMaxOpenStatements() {
+        return batchMaxOpenStatements;
+    }
+
+    public void setBatchMaxOpenStatements(int batchMaxOpenStatements) {
+        this.batchMaxOpenStatements = batchMaxOpenStatements;
+    }
+
     public static ConcurrentHashMap<String, FlexGlobalConfig> getGlobalConfigs() {
         return globalConfigs;
     }
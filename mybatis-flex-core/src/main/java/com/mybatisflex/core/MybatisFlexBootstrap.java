@@ -18,6 +18,8 @@ package com.mybatisflex.core;
 import com.mybatisflex.core.datasource.FlexDataSource;
 import com.mybatisflex.core.mybatis.FlexConfiguration;
 import com.mybatisflex.core.mybatis.FlexSqlSessionFactoryBuilder;
+import com.mybatisflex.core.mybatis.SqlSessionCursor;
+import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 import org.apache.ibatis.mapping.Environment;
@@ -29,6 +31,7 @@ import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
 import org.apache.ibatis.util.MapUtil;
 
 import javax.sql.DataSource;
+import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.ArrayList;
 import java.util.List;
@@ -159,6 +162,10 @@ public class MybatisFlexBootstrap {
                 Proxy.newProxyInstance(mapperClass.getClassLoader()
                         , new Class[]{mapperClass}
                         , (proxy, method, args) -> {
+                            //游标查询需要在游标关闭后才能关闭 SqlSession
+                            if (method.getReturnType() == Cursor.class) {
+                                return invokeCursor(mapperClass, method, args);
+                            }
                             try (SqlSession sqlSession = openSession()) {
                                 T mapper1 = sqlSession.getMapper(mapperClass);
                                 return method.invoke(mapper1, args);
@@ -168,6 +175,19 @@ public class MybatisFlexBootstrap {
     }
 
 
+    private Object invokeCursor(Class<?> mapperClass, Method method, Object[] args) throws Throwable {
+        //关闭 autoCommit，postgresql 等数据库在事务中才会按照 fetchSize 读取数据
+        SqlSession sqlSession = sqlSessionFactory.openSession(configuration.getDefaultExecutorType(), false);
+        try {
+            Object mapper = sqlSession.getMapper(mapperClass);
+            return new SqlSessionCursor<>((Cursor<?>) method.invoke(mapper, args), sqlSession);
+        } catch (Throwable e) {
+            sqlSession.close();
+            throw e;
+        }
+    }
+
+
     public String getEnvironmentId() {
         return environmentId;
     }
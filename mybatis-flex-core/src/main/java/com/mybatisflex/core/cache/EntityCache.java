@@ -0,0 +1,284 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.cache;
+
+import com.mybatisflex.core.BaseMapper;
+import com.mybatisflex.core.FlexGlobalConfig;
+import com.mybatisflex.core.datasource.DataSourceKey;
+import com.mybatisflex.core.mybatis.executor.SqlArgsKey;
+import com.mybatisflex.core.table.TableInfo;
+import com.mybatisflex.core.table.TableInfoFactory;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.util.MapUtil;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 根据主键查询（BaseMapper 的 selectOneById 和 selectListByIds）的 entity 缓存，缓存的 key 为 entity 类型、数据源、租户和主键，
+ * selectListByIds 只查询缓存中不存在的主键，返回的数据按照传入的主键顺序排列
+ * 通过 BaseMapper 和 Db 修改了表的数据之后（update、deleteById、deleteBatchByIds、updateByQuery 等），该表的 entity 缓存会失效，
+ * 执行自定义的增删改 sql 时，所有的缓存都会失效，见 {@link TableVersions}
+ * 写入和读取缓存时都会复制 entity（见 {@link ValueCopier}），无法复制的 entity 不会被缓存；只支持单主键的 entity
+ */
+public class EntityCache {
+
+    private static final String METHOD_SELECT_ONE_BY_ID = "selectOneById";
+    private static final String METHOD_SELECT_LIST_BY_IDS = "selectListByIds";
+
+    /**
+     * MappedStatement id 对应的 entity 类型，不是 BaseMapper 的 selectOneById 和 selectListByIds 时为 void.class
+     */
+    private static final Map<String, Class<?>> statementEntityClasses = new ConcurrentHashMap<>();
+
+    private static final Map<Class<?>, Region> regions = new ConcurrentHashMap<>();
+
+    private EntityCache() {
+    }
+
+
+    /**
+     * 是否有 entity 配置了缓存（通过 {@link FlexGlobalConfig#registerEntityCacheConfig} 或者 @Table 配置）
+     */
+    public static boolean isEnable() {
+        return !FlexGlobalConfig.getDefaultConfig().getEntityCacheConfigs().isEmpty()
+                || TableInfoFactory.isEntityCacheConfigured();
+    }
+
+
+    /**
+     * 获取 selectOneById 或者 selectListByIds 对应的 entity 缓存，其他的查询或者没有配置缓存时返回 null
+     */
+    public static Region getRegion(MappedStatement ms) {
+        Class<?> entityClass = MapUtil.computeIfAbsent(statementEntityClasses, ms.getId(), EntityCache::getEntityClass);
+        return entityClass != void.class ? getRegion(TableInfoFactory.ofEntityClass(entityClass)) : null;
+    }
+
+
+    /**
+     * 获取 entity 的缓存，没有配置缓存或者不是单主键时返回 null
+     */
+    public static Region getRegion(TableInfo tableInfo) {
+        EntityCacheConfig config = getConfig(tableInfo);
+        if (config == null || config.getMaxSize() <= 0 || tableInfo.getPrimaryKeys().length != 1) {
+            return null;
+        }
+
+        Region region = regions.get(tableInfo.getEntityClass());
+        //重新配置后使用新的缓存
+        if (region == null || region.config != config) {
+            region = new Region(tableInfo, config);
+            regions.put(tableInfo.getEntityClass(), region);
+        }
+        return region;
+    }
+
+
+    public static EntityCacheConfig getConfig(TableInfo tableInfo) {
+        EntityCacheConfig config = FlexGlobalConfig.getDefaultConfig().getEntityCacheConfig(tableInfo.getEntityClass());
+        return config != null ? config : tableInfo.getEntityCacheConfig();
+    }
+
+
+    public static void invalidate(Class<?> entityClass) {
+        Region region = regions.get(entityClass);
+        if (region != null) {
+            region.clear();
+        }
+    }
+
+
+    public static void clear() {
+        regions.clear();
+    }
+
+
+    private static Class<?> getEntityClass(String statementId) {
+        int index = statementId.lastIndexOf('.');
+        String method = index > 0 ? statementId.substring(index + 1) : null;
+        if (!METHOD_SELECT_ONE_BY_ID.equals(method) && !METHOD_SELECT_LIST_BY_IDS.equals(method)) {
+            return void.class;
+        }
+        try {
+            Class<?> mapperClass = Resources.classForName(statementId.substring(0, index));
+            TableInfo tableInfo = BaseMapper.class.isAssignableFrom(mapperClass) ? TableInfoFactory.ofMapperClass(mapperClass) : null;
+            return tableInfo != null ? tableInfo.getEntityClass() : void.class;
+        } catch (ClassNotFoundException e) {
+            return void.class;
+        }
+    }
+
+
+    /**
+     * 某个 entity 类型的缓存，超出数量时淘汰最久未使用的 entity
+     */
+    public static final class Region {
+
+        private final TableInfo tableInfo;
+        private final EntityCacheConfig config;
+        private final String[] tables;
+
+        private final Map<Key, Entry> cache = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > config.getMaxSize();
+            }
+        };
+
+        private Region(TableInfo tableInfo, EntityCacheConfig config) {
+            this.tableInfo = tableInfo;
+            this.config = config;
+            this.tables = new String[]{TableVersions.normalizeTableName(tableInfo.getTableName())};
+        }
+
+        public TableInfo getTableInfo() {
+            return tableInfo;
+        }
+
+        public String[] getTables() {
+            return tables;
+        }
+
+        /**
+         * 表当前的版本号，需要在查询之前获取，见 {@link #put(Key, Object, long, long)}
+         */
+        public long getVersion() {
+            return TableVersions.getVersion(tables[0]);
+        }
+
+        public Object getId(Object entity) {
+            return tableInfo.getColumnValue(entity, tableInfo.getPrimaryKeys()[0]);
+        }
+
+        /**
+         * 创建缓存的 key，包含当前的数据源和租户
+         */
+        public Key createKey(Object id) {
+            Object[] tenantIds = tableInfo.buildTenantIdArgs();
+            return new Key(DataSourceKey.get(), tenantIds != null ? new SqlArgsKey(tenantIds) : null, id.toString());
+        }
+
+        /**
+         * 获取缓存的 entity，不存在、过期或者表已被修改时返回 null
+         */
+        public synchronized Object get(Key key) {
+            Entry entry = cache.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expireTime < System.currentTimeMillis()
+                    || !TableVersions.isMatched(tables, new long[]{entry.version}, entry.globalVersion)) {
+                cache.remove(key);
+                return null;
+            }
+            return ValueCopier.copy(entry.entity);
+        }
+
+        /**
+         * 缓存查询到的 entity，查询期间表被修改过，或者当前事务中修改过该表时不缓存
+         *
+         * @param version       查询前表的版本号
+         * @param globalVersion 查询前的全局版本号
+         */
+        public void put(Key key, Object entity, long version, long globalVersion) {
+            if (!TableVersions.isMatched(tables, new long[]{version}, globalVersion)
+                    || TableVersions.isWrittenInTransaction(tables)) {
+                return;
+            }
+            //调用方可能会修改查询返回的 entity，缓存中保存的是复制后的数据
+            Object copy = ValueCopier.copy(entity);
+            if (copy == ValueCopier.UNSUPPORTED) {
+                return;
+            }
+            long expireTime = System.currentTimeMillis() + config.getTtl();
+            synchronized (this) {
+                cache.put(key, new Entry(copy, version, globalVersion, expireTime));
+            }
+        }
+
+        public synchronized int size() {
+            return cache.size();
+        }
+
+        public synchronized void clear() {
+            cache.clear();
+        }
+    }
+
+
+    public static final class Key {
+
+        private final String dataSourceKey;
+        private final SqlArgsKey tenantIds;
+        private final String id;
+        private final int hashCode;
+
+        private Key(String dataSourceKey, SqlArgsKey tenantIds, String id) {
+            this.dataSourceKey = dataSourceKey;
+            this.tenantIds = tenantIds;
+            this.id = id;
+            this.hashCode = Objects.hash(dataSourceKey, tenantIds, id);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return hashCode == key.hashCode
+                    && id.equals(key.id)
+                    && Objects.equals(dataSourceKey, key.dataSourceKey)
+                    && Objects.equals(tenantIds, key.tenantIds);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public String toString() {
+            return "Key{" +
+                    "dataSourceKey='" + dataSourceKey + '\'' +
+                    ", tenantIds=" + tenantIds +
+                    ", id='" + id + '\'' +
+                    '}';
+        }
+    }
+
+
+    private static final class Entry {
+
+        private final Object entity;
+        private final long version;
+        private final long globalVersion;
+        private final long expireTime;
+
+        private Entry(Object entity, long version, long globalVersion, long expireTime) {
+            this.entity = entity;
+            this.version = version;
+            this.globalVersion = globalVersion;
+            this.expireTime = expireTime;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.cache;
+
+/**
+ * entity 缓存的配置，通过 @Table 或者 {@link com.mybatisflex.core.FlexGlobalConfig#registerEntityCacheConfig} 配置
+ */
+public class EntityCacheConfig {
+
+    /**
+     * 缓存的最大数量
+     */
+    private final int maxSize;
+
+    /**
+     * 缓存的过期时间，单位：毫秒
+     */
+    private final long ttl;
+
+    public EntityCacheConfig(int maxSize, long ttl) {
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    @Override
+    public String toString() {
+        return "EntityCacheConfig{" +
+                "maxSize=" + maxSize +
+                ", ttl=" + ttl +
+                '}';
+    }
+}
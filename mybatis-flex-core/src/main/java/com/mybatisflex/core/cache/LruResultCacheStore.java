@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.cache;
+
+import com.mybatisflex.core.FlexGlobalConfig;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 进程内的 LRU 缓存存储，超出数量时淘汰最久未使用的缓存
+ */
+public class LruResultCacheStore implements ResultCacheStore {
+
+    private final int maxSize;
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    private final Map<QueryResultCache.Key, QueryResultCache.Entry> cache = new LinkedHashMap<QueryResultCache.Key, QueryResultCache.Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<QueryResultCache.Key, QueryResultCache.Entry> eldest) {
+            if (size() > getMaxSize()) {
+                evictionCount.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    /**
+     * 缓存的数量使用 {@link FlexGlobalConfig#getResultCacheSize()}
+     */
+    public LruResultCacheStore() {
+        this(-1);
+    }
+
+    public LruResultCacheStore(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize >= 0 ? maxSize : FlexGlobalConfig.getDefaultConfig().getResultCacheSize();
+    }
+
+    /**
+     * 因为超出数量被淘汰的缓存数量
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    @Override
+    public synchronized QueryResultCache.Entry get(QueryResultCache.Key key) {
+        return cache.get(key);
+    }
+
+    @Override
+    public synchronized void put(QueryResultCache.Key key, QueryResultCache.Entry entry) {
+        cache.put(key, entry);
+    }
+
+    @Override
+    public synchronized void remove(QueryResultCache.Key key) {
+        cache.remove(key);
+    }
+
+    @Override
+    public synchronized void clear() {
+        cache.clear();
+    }
+
+    @Override
+    public synchronized int size() {
+        return cache.size();
+    }
+}
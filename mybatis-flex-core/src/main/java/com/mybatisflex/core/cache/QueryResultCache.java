@@ -0,0 +1,303 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.cache;
+
+import com.mybatisflex.core.FlexConsts;
+import com.mybatisflex.core.FlexGlobalConfig;
+import com.mybatisflex.core.datasource.DataSourceKey;
+import com.mybatisflex.core.mybatis.executor.SqlArgsKey;
+import com.mybatisflex.core.query.QueryTableCollector;
+import com.mybatisflex.core.query.QueryWrapper;
+import com.mybatisflex.core.util.StringUtil;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.util.MapUtil;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * BaseMapper 和 Db 的查询结果缓存（二级缓存），记录每个查询引用的表（from、join、子查询以及 union 中的表），
+ * 通过 BaseMapper 和 Db 对表进行增删改之后，以及修改的事务结束时，引用了该表的缓存会失效，执行自定义的增删改 sql 时，所有的缓存都会失效
+ * 只缓存能够确定引用了哪些表的查询：带有 QueryWrapper 的查询、BaseMapper 的 selectOneById 等方法，以及 Db 中传入表名的查询
+ * 写入和读取缓存时都会复制查询结果（见 {@link ValueCopier}），调用方修改查询返回的对象不会影响缓存，无法复制的结果不会被缓存
+ * 缓存的数量通过 {@link FlexGlobalConfig#setResultCacheSize(int)} 配置，配置为 0（默认）时不使用缓存
+ */
+public class QueryResultCache {
+
+    private static volatile ResultCacheStore store;
+
+    private static final Map<String, TableCacheStats> tableStats = new ConcurrentHashMap<>();
+
+    private QueryResultCache() {
+    }
+
+
+    public static boolean isEnable() {
+        return FlexGlobalConfig.getDefaultConfig().getResultCacheSize() > 0;
+    }
+
+
+    public static ResultCacheStore getStore() {
+        if (store == null) {
+            synchronized (QueryResultCache.class) {
+                if (store == null) {
+                    store = new LruResultCacheStore();
+                }
+            }
+        }
+        return store;
+    }
+
+
+    public static void setStore(ResultCacheStore store) {
+        QueryResultCache.store = store;
+    }
+
+
+    /**
+     * 创建缓存的 key，需要在执行查询之前创建，以记录执行查询前表的版本号
+     *
+     * @return 缓存的 key，不使用缓存或者无法缓存时返回 null
+     */
+    public static Key createKey(MappedStatement ms, Object parameter, RowBounds rowBounds, BoundSql boundSql) {
+        if (!isEnable() || !ms.isUseCache() || !(parameter instanceof Map)) {
+            return null;
+        }
+
+        Map<?, ?> params = (Map<?, ?>) parameter;
+        if (!params.containsKey(FlexConsts.SQL_ARGS)) {
+            return null;
+        }
+
+        List<String> queryTableNames = new ArrayList<>();
+        Object tableName = params.containsKey(FlexConsts.TABLE_NAME) ? params.get(FlexConsts.TABLE_NAME) : null;
+        if (tableName != null) {
+            queryTableNames.add(tableName.toString());
+        }
+
+        if (params.containsKey(FlexConsts.QUERY)) {
+            Object queryWrapper = params.get(FlexConsts.QUERY);
+            if (!(queryWrapper instanceof QueryWrapper) || !QueryTableCollector.collect((QueryWrapper) queryWrapper, queryTableNames)) {
+                return null;
+            }
+        } else if (tableName == null) {
+            queryTableNames.add(TableVersions.getSelectTable(ms));
+        }
+
+        Set<String> tableNames = new LinkedHashSet<>();
+        for (String queryTableName : queryTableNames) {
+            String normalizedName = TableVersions.normalizeTableName(queryTableName);
+            if (StringUtil.isBlank(normalizedName)) {
+                return null;
+            }
+            tableNames.add(normalizedName);
+        }
+        if (tableNames.isEmpty()) {
+            return null;
+        }
+
+        long globalVersion = TableVersions.getGlobalVersion();
+        String[] tables = tableNames.toArray(new String[0]);
+        long[] versions = new long[tables.length];
+        for (int i = 0; i < tables.length; i++) {
+            versions[i] = TableVersions.getVersion(tables[i]);
+        }
+
+        return new Key(ms.getId(), boundSql.getSql(), new SqlArgsKey((Object[]) params.get(FlexConsts.SQL_ARGS)), rowBounds.getOffset()
+                , rowBounds.getLimit(), DataSourceKey.get(), tables, versions, globalVersion);
+    }
+
+
+    /**
+     * 获取缓存的查询结果，不存在或者已失效时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> List<E> get(Key key) {
+        if (key == null) {
+            return null;
+        }
+
+        ResultCacheStore store = getStore();
+        Entry entry = store.get(key);
+        if (entry != null && (entry.expireTime < System.currentTimeMillis()
+                || !TableVersions.isMatched(entry.key.tables, entry.key.versions, entry.key.globalVersion))) {
+            store.remove(key);
+            entry = null;
+        }
+
+        for (String table : key.tables) {
+            TableCacheStats stats = getTableStats(table);
+            if (entry != null) {
+                stats.recordHit();
+            } else {
+                stats.recordMiss();
+            }
+        }
+        return entry != null ? (List<E>) ValueCopier.copyList(entry.result) : null;
+    }
+
+
+    public static void put(Key key, List<?> result) {
+        if (key == null || result == null
+                || !TableVersions.isMatched(key.tables, key.versions, key.globalVersion)
+                || TableVersions.isWrittenInTransaction(key.tables)) {
+            return;
+        }
+        //调用方可能会修改查询返回的对象，缓存中保存的是复制后的数据，无法复制时不缓存
+        List<?> copy = ValueCopier.copyList(result);
+        if (copy == null) {
+            return;
+        }
+        long expireTime = System.currentTimeMillis() + FlexGlobalConfig.getDefaultConfig().getResultCacheTtl();
+        getStore().put(key, new Entry(key, copy, expireTime));
+        for (String table : key.tables) {
+            getTableStats(table).recordPut();
+        }
+    }
+
+
+    /**
+     * 使引用了该表的缓存失效
+     */
+    public static void invalidate(String tableName) {
+        TableVersions.increment(tableName);
+    }
+
+
+    public static void invalidateAll() {
+        TableVersions.incrementAll();
+    }
+
+
+    public static TableCacheStats getTableStats(String tableName) {
+        return MapUtil.computeIfAbsent(tableStats, TableVersions.normalizeTableName(tableName), TableCacheStats::new);
+    }
+
+
+    public static Collection<TableCacheStats> getAllTableStats() {
+        return Collections.unmodifiableCollection(tableStats.values());
+    }
+
+
+    public static int size() {
+        return getStore().size();
+    }
+
+
+    public static void clear() {
+        getStore().clear();
+    }
+
+
+    /**
+     * 缓存的 key，表的版本号不参与 equals 和 hashCode
+     */
+    public static final class Key {
+
+        private final String statementId;
+        private final String sql;
+        private final SqlArgsKey args;
+        private final int offset;
+        private final int limit;
+        private final String dataSourceKey;
+        private final String[] tables;
+        private final long[] versions;
+        private final long globalVersion;
+        private final int hashCode;
+
+        private Key(String statementId, String sql, SqlArgsKey args, int offset, int limit, String dataSourceKey
+                , String[] tables, long[] versions, long globalVersion) {
+            this.statementId = statementId;
+            this.sql = sql;
+            this.args = args;
+            this.offset = offset;
+            this.limit = limit;
+            this.dataSourceKey = dataSourceKey;
+            this.tables = tables;
+            this.versions = versions;
+            this.globalVersion = globalVersion;
+            this.hashCode = Objects.hash(statementId, sql, args, offset, limit, dataSourceKey);
+        }
+
+        /**
+         * 查询引用的表
+         */
+        public String[] getTables() {
+            return tables;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return hashCode == key.hashCode
+                    && offset == key.offset
+                    && limit == key.limit
+                    && statementId.equals(key.statementId)
+                    && sql.equals(key.sql)
+                    && args.equals(key.args)
+                    && Objects.equals(dataSourceKey, key.dataSourceKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public String toString() {
+            return "Key{" +
+                    "statementId='" + statementId + '\'' +
+                    ", sql='" + sql + '\'' +
+                    ", args=" + args +
+                    ", tables=" + Arrays.toString(tables) +
+                    '}';
+        }
+    }
+
+
+    public static final class Entry {
+
+        private final Key key;
+        private final List<?> result;
+        private final long expireTime;
+
+        private Entry(Key key, List<?> result, long expireTime) {
+            this.key = key;
+            this.result = result;
+            this.expireTime = expireTime;
+        }
+
+        public Key getKey() {
+            return key;
+        }
+
+        public List<?> getResult() {
+            return result;
+        }
+
+        public long getExpireTime() {
+            return expireTime;
+        }
+    }
+}
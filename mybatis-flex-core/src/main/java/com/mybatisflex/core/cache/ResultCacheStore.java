@@ -0,0 +1,33 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.cache;
+
+/**
+ * 查询结果缓存的存储，默认为进程内的 {@link LruResultCacheStore}，可以通过 {@link QueryResultCache#setStore(ResultCacheStore)} 替换
+ * 注意：表的版本号只在当前进程内维护，其他进程修改数据时不会使缓存失效
+ */
+public interface ResultCacheStore {
+
+    QueryResultCache.Entry get(QueryResultCache.Key key);
+
+    void put(QueryResultCache.Key key, QueryResultCache.Entry entry);
+
+    void remove(QueryResultCache.Key key);
+
+    void clear();
+
+    int size();
+}
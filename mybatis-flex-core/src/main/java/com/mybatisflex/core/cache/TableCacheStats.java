@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 每张表的查询结果缓存统计，一个查询引用了多张表时，每张表都会被统计
+ */
+public class TableCacheStats {
+
+    private final String tableName;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong putCount = new AtomicLong();
+
+    TableCacheStats(String tableName) {
+        this.tableName = tableName;
+    }
+
+    void recordHit() {
+        hitCount.incrementAndGet();
+    }
+
+    void recordMiss() {
+        missCount.incrementAndGet();
+    }
+
+    void recordPut() {
+        putCount.incrementAndGet();
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getPutCount() {
+        return putCount.get();
+    }
+
+    /**
+     * 表的版本号，表每次被修改（以及修改的事务结束）时加 1，可以理解为缓存失效的次数
+     */
+    public long getVersion() {
+        return TableVersions.getVersion(tableName);
+    }
+
+    public double getHitRate() {
+        long hit = hitCount.get();
+        long total = hit + missCount.get();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    @Override
+    public String toString() {
+        return "TableCacheStats{" +
+                "tableName='" + tableName + '\'' +
+                ", hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                ", putCount=" + putCount +
+                ", version=" + getVersion() +
+                '}';
+    }
+}
@@ -0,0 +1,305 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.cache;
+
+import com.mybatisflex.core.BaseMapper;
+import com.mybatisflex.core.FlexConsts;
+import com.mybatisflex.core.table.TableInfo;
+import com.mybatisflex.core.table.TableInfoFactory;
+import com.mybatisflex.core.transaction.TransactionContext;
+import com.mybatisflex.core.util.StringUtil;
+import org.apache.ibatis.annotations.DeleteProvider;
+import org.apache.ibatis.annotations.InsertProvider;
+import org.apache.ibatis.annotations.SelectProvider;
+import org.apache.ibatis.annotations.UpdateProvider;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.util.MapUtil;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 每张表的版本号，表被修改后版本号加 1，缓存中记录的版本号和当前的不一致时，缓存失效
+ * 用于 {@link com.mybatisflex.core.paginate.PaginateCountCache} 和 {@link QueryResultCache}
+ * 表名统一为去掉 schema 和关键字包裹符号后的小写名称，空字符串表示无法确定是哪张表（使所有的缓存失效）
+ */
+public final class TableVersions {
+
+    /**
+     * BaseMapper 中执行增删改的方法，这些方法只会修改 mapper 对应的表
+     */
+    private static final Set<String> ENTITY_WRITE_METHODS = new HashSet<>();
+
+    /**
+     * BaseMapper 中的查询方法，这些方法只会查询 mapper 对应的表
+     */
+    private static final Set<String> ENTITY_SELECT_METHODS = new HashSet<>();
+
+    static {
+        for (Method method : BaseMapper.class.getDeclaredMethods()) {
+            if (method.isAnnotationPresent(InsertProvider.class)
+                    || method.isAnnotationPresent(UpdateProvider.class)
+                    || method.isAnnotationPresent(DeleteProvider.class)) {
+                ENTITY_WRITE_METHODS.add(method.getName());
+            } else if (method.isAnnotationPresent(SelectProvider.class)) {
+                ENTITY_SELECT_METHODS.add(method.getName());
+            }
+        }
+    }
+
+    private static final Map<String, AtomicLong> tableVersions = new ConcurrentHashMap<>();
+    private static final AtomicLong globalVersion = new AtomicLong();
+
+    private static volatile TransactionSynchronizer transactionSynchronizer;
+
+    /**
+     * MappedStatement id 对应的表
+     */
+    private static final Map<String, String> writeStatementTables = new ConcurrentHashMap<>();
+    private static final Map<String, String> selectStatementTables = new ConcurrentHashMap<>();
+
+    /**
+     * 当前线程的事务（{@link com.mybatisflex.core.transaction.TransactionalManager}）中修改过的表，<xid : tables>
+     */
+    private static final ThreadLocal<Map<String, Set<String>>> transactionTables = new ThreadLocal<>();
+
+    private TableVersions() {
+    }
+
+
+    public static long getVersion(String tableName) {
+        return getTableVersion(tableName).get();
+    }
+
+
+    public static long getGlobalVersion() {
+        return globalVersion.get();
+    }
+
+
+    /**
+     * 使该表的缓存失效，表名为空时使所有的缓存失效
+     */
+    public static void increment(String tableName) {
+        if (StringUtil.isBlank(tableName)) {
+            globalVersion.incrementAndGet();
+        } else {
+            getTableVersion(normalizeTableName(tableName)).incrementAndGet();
+        }
+    }
+
+
+    public static void incrementAll() {
+        globalVersion.incrementAndGet();
+    }
+
+
+    /**
+     * 版本号是否和当前的一致
+     *
+     * @param tables        表名
+     * @param versions      创建缓存时表的版本号
+     * @param globalVersion 创建缓存时的全局版本号
+     */
+    public static boolean isMatched(String[] tables, long[] versions, long globalVersion) {
+        if (globalVersion != TableVersions.globalVersion.get()) {
+            return false;
+        }
+        for (int i = 0; i < tables.length; i++) {
+            if (versions[i] != getTableVersion(tables[i]).get()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * 修改了数据之后调用，在事务中时会记录修改的表，事务结束时再次使缓存失效
+     *
+     * @param tableName 修改的表，空字符串表示无法确定
+     */
+    public static void onWrite(String tableName) {
+        increment(tableName);
+
+        String xid = TransactionContext.getXID();
+        if (xid != null) {
+            Map<String, Set<String>> tables = transactionTables.get();
+            if (tables == null) {
+                tables = new HashMap<>();
+                transactionTables.set(tables);
+            }
+            tables.computeIfAbsent(xid, key -> new HashSet<>()).add(normalizeTableName(tableName));
+        }
+    }
+
+
+    /**
+     * 当前线程的事务中是否修改过这些表，修改过时查询的结果不能被缓存（其他线程还读取不到这些数据）
+     */
+    public static boolean isWrittenInTransaction(String[] tables) {
+        Map<String, Set<String>> transactions = transactionTables.get();
+        String xid = TransactionContext.getXID();
+        if (transactions == null || xid == null) {
+            return false;
+        }
+        return containsAny(transactions.get(xid), tables);
+    }
+
+
+    /**
+     * 事务提交或者回滚之后，使事务中修改过的表的缓存再次失效，避免其他线程在事务提交前缓存了旧的数据
+     */
+    public static void onTransactionCompletion(String xid) {
+        Map<String, Set<String>> transactions = transactionTables.get();
+        if (transactions == null) {
+            return;
+        }
+        Set<String> tables = transactions.remove(xid);
+        if (transactions.isEmpty()) {
+            transactionTables.remove();
+        }
+        if (tables != null) {
+            tables.forEach(TableVersions::increment);
+        }
+    }
+
+
+    public static TransactionSynchronizer getTransactionSynchronizer() {
+        return transactionSynchronizer;
+    }
+
+
+    public static void setTransactionSynchronizer(TransactionSynchronizer transactionSynchronizer) {
+        TableVersions.transactionSynchronizer = transactionSynchronizer;
+    }
+
+
+    /**
+     * SqlSession 提交、回滚或者关闭时调用，使修改过的表的缓存失效，
+     * 在外部事务中时（见 {@link TransactionSynchronizer}），事务真正结束后会再次使缓存失效，
+     * 避免其他线程在事务提交前缓存了旧的数据
+     *
+     * @param tables 修改过的表
+     */
+    public static void onSessionCompletion(Collection<String> tables) {
+        tables.forEach(TableVersions::increment);
+
+        TransactionSynchronizer synchronizer = transactionSynchronizer;
+        if (synchronizer != null) {
+            String[] completedTables = tables.toArray(new String[0]);
+            synchronizer.registerAfterCompletion(() -> {
+                for (String table : completedTables) {
+                    increment(table);
+                }
+            });
+        }
+    }
+
+
+    /**
+     * 修改的表中是否包含这些表之一
+     *
+     * @param writtenTables 修改的表，包含空字符串时表示修改了所有的表
+     * @param tables        表名
+     */
+    public static boolean containsAny(Set<String> writtenTables, String[] tables) {
+        if (writtenTables == null || writtenTables.isEmpty()) {
+            return false;
+        }
+        if (writtenTables.contains("")) {
+            return true;
+        }
+        for (String table : tables) {
+            if (writtenTables.contains(table)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * 获取增删改的 MappedStatement 修改的表
+     *
+     * @return 表名，无法确定时返回空字符串
+     */
+    public static String getWriteTable(MappedStatement ms, Object parameter) {
+        //Db（RowMapper）的操作会传入表名
+        if (parameter instanceof Map && ((Map<?, ?>) parameter).containsKey(FlexConsts.TABLE_NAME)) {
+            Object tableName = ((Map<?, ?>) parameter).get(FlexConsts.TABLE_NAME);
+            return tableName != null ? normalizeTableName(tableName.toString()) : "";
+        }
+        return MapUtil.computeIfAbsent(writeStatementTables, ms.getId(), id -> getMapperTable(id, ENTITY_WRITE_METHODS));
+    }
+
+
+    /**
+     * 获取 BaseMapper 中不带 QueryWrapper 的查询方法（比如 selectOneById）查询的表
+     *
+     * @return 表名，无法确定时返回空字符串
+     */
+    public static String getSelectTable(MappedStatement ms) {
+        return MapUtil.computeIfAbsent(selectStatementTables, ms.getId(), id -> getMapperTable(id, ENTITY_SELECT_METHODS));
+    }
+
+
+    private static String getMapperTable(String statementId, Set<String> methods) {
+        int index = statementId.lastIndexOf('.');
+        if (index <= 0 || !methods.contains(statementId.substring(index + 1))) {
+            return "";
+        }
+        try {
+            Class<?> mapperClass = Resources.classForName(statementId.substring(0, index));
+            TableInfo tableInfo = BaseMapper.class.isAssignableFrom(mapperClass) ? TableInfoFactory.ofMapperClass(mapperClass) : null;
+            return tableInfo != null ? normalizeTableName(tableInfo.getTableName()) : "";
+        } catch (ClassNotFoundException e) {
+            return "";
+        }
+    }
+
+
+    /**
+     * 去掉 schema 和关键字包裹的符号，并转为小写，例如 "`db`.`tb_account`" 转换为 "tb_account"
+     */
+    public static String normalizeTableName(String tableName) {
+        String name = tableName.trim();
+        int index = name.lastIndexOf('.');
+        if (index >= 0) {
+            name = name.substring(index + 1);
+        }
+        StringBuilder sb = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c != '`' && c != '"' && c != '[' && c != ']') {
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
+
+    private static AtomicLong getTableVersion(String tableName) {
+        return MapUtil.computeIfAbsent(tableVersions, tableName, key -> new AtomicLong());
+    }
+}
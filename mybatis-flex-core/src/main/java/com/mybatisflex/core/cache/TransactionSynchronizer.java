@@ -0,0 +1,39 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.cache;
+
+/**
+ * 外部事务（例如 Spring 管理的事务）的同步器
+ * 外部事务中 SqlSession 的 commit 在数据库事务真正提交之前执行，
+ * 需要在事务真正提交或者回滚之后再次使修改过的表的缓存失效，见 {@link TableVersions#setTransactionSynchronizer}
+ */
+public interface TransactionSynchronizer {
+
+    /**
+     * 注册在外部事务提交或者回滚之后执行的回调
+     *
+     * @param callback 事务结束后执行的回调
+     * @return 当前不在外部事务中时返回 false
+     */
+    boolean registerAfterCompletion(Runnable callback);
+
+    /**
+     * 当前线程是否在外部事务中
+     */
+    default boolean isTransactionActive() {
+        return false;
+    }
+}
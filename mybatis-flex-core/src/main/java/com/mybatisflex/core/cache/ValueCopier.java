@@ -0,0 +1,190 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.cache;
+
+import com.mybatisflex.core.row.Row;
+import org.apache.ibatis.reflection.DefaultReflectorFactory;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.ReflectorFactory;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+
+/**
+ * 缓存值的复制，写入缓存和从缓存中读取时都会复制，调用方修改查询返回的对象时不会影响缓存中的数据
+ * 支持不可变的类型、Date、byte[]、Row、集合以及有默认构造方法的 Java Bean（复制有 getter 和 setter 的属性），
+ * 其他类型无法复制，查询结果中包含这些类型时不会被缓存
+ */
+public final class ValueCopier {
+
+    /**
+     * 无法复制的值
+     */
+    public static final Object UNSUPPORTED = new Object();
+
+    private static final ReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+
+    private static final Set<Class<?>> immutableTypes = new HashSet<>(Arrays.asList(
+            String.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class, Long.class,
+            Float.class, Double.class, BigDecimal.class, BigInteger.class, UUID.class, Class.class));
+
+    private ValueCopier() {
+    }
+
+
+    /**
+     * 复制 list 及其中的元素
+     *
+     * @return 复制后的 list，无法复制时返回 null
+     */
+    public static <E> List<E> copyList(List<E> list) {
+        Object copy = copy(list);
+        return copy != UNSUPPORTED ? (List<E>) copy : null;
+    }
+
+
+    /**
+     * 复制值
+     *
+     * @return 复制后的值，无法复制时返回 {@link #UNSUPPORTED}
+     */
+    public static Object copy(Object value) {
+        return copy(value, new IdentityHashMap<>());
+    }
+
+
+    private static Object copy(Object value, Map<Object, Object> copied) {
+        if (value == null || isImmutable(value.getClass())) {
+            return value;
+        }
+
+        Object copy = copied.get(value);
+        if (copy != null) {
+            return copy;
+        }
+
+        if (value instanceof Date) {
+            copy = ((Date) value).clone();
+        } else if (value instanceof byte[]) {
+            copy = ((byte[]) value).clone();
+        } else if (value instanceof Row) {
+            copy = copyRow((Row) value, copied);
+        } else if (value instanceof Collection) {
+            copy = copyCollection((Collection<?>) value, copied);
+        } else if (value instanceof Map) {
+            copy = copyMap((Map<?, ?>) value, copied);
+        } else {
+            copy = copyBean(value, copied);
+        }
+
+        if (copy != UNSUPPORTED) {
+            copied.put(value, copy);
+        }
+        return copy;
+    }
+
+
+    private static boolean isImmutable(Class<?> type) {
+        return immutableTypes.contains(type)
+                || type.isEnum()
+                || type.getName().startsWith("java.time.");
+    }
+
+
+    private static Object copyRow(Row row, Map<Object, Object> copied) {
+        Row copy = (Row) row.clone();
+        copied.put(row, copy);
+        for (Map.Entry<String, Object> entry : copy.entrySet()) {
+            Object value = entry.getValue();
+            Object valueCopy = copy(value, copied);
+            if (valueCopy == UNSUPPORTED) {
+                return UNSUPPORTED;
+            }
+            if (valueCopy != value) {
+                entry.setValue(valueCopy);
+            }
+        }
+        return copy;
+    }
+
+
+    private static Object copyCollection(Collection<?> collection, Map<Object, Object> copied) {
+        Collection<Object> copy;
+        if (collection instanceof SortedSet) {
+            copy = new TreeSet<>(((SortedSet<Object>) collection).comparator());
+        } else if (collection instanceof Set) {
+            copy = new LinkedHashSet<>(collection.size());
+        } else {
+            copy = new ArrayList<>(collection.size());
+        }
+        copied.put(collection, copy);
+        for (Object element : collection) {
+            Object elementCopy = copy(element, copied);
+            if (elementCopy == UNSUPPORTED) {
+                return UNSUPPORTED;
+            }
+            copy.add(elementCopy);
+        }
+        return copy;
+    }
+
+
+    private static Object copyMap(Map<?, ?> map, Map<Object, Object> copied) {
+        Map<Object, Object> copy = new LinkedHashMap<>(map.size());
+        copied.put(map, copy);
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            Object valueCopy = copy(entry.getValue(), copied);
+            if (valueCopy == UNSUPPORTED) {
+                return UNSUPPORTED;
+            }
+            copy.put(entry.getKey(), valueCopy);
+        }
+        return copy;
+    }
+
+
+    private static Object copyBean(Object bean, Map<Object, Object> copied) {
+        Class<?> beanClass = bean.getClass();
+        if (beanClass.isArray() || beanClass.getName().startsWith("java.")) {
+            return UNSUPPORTED;
+        }
+
+        Reflector reflector = reflectorFactory.findForClass(beanClass);
+        if (!reflector.hasDefaultConstructor()) {
+            return UNSUPPORTED;
+        }
+
+        try {
+            Object copy = reflector.getDefaultConstructor().newInstance();
+            copied.put(bean, copy);
+            for (String property : reflector.getGetablePropertyNames()) {
+                if (!reflector.hasSetter(property)) {
+                    continue;
+                }
+                Object value = reflector.getGetInvoker(property).invoke(bean, null);
+                Object valueCopy = copy(value, copied);
+                if (valueCopy == UNSUPPORTED) {
+                    return UNSUPPORTED;
+                }
+                reflector.getSetInvoker(property).invoke(copy, new Object[]{valueCopy});
+            }
+            return copy;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return UNSUPPORTED;
+        }
+    }
+}
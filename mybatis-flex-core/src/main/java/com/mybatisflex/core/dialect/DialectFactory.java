@@ -93,9 +93,19 @@ public class DialectFactory {
 
     private static IDialect createDialect(DbType dbType) {
         switch (dbType) {
-            case MYSQL:
             case H2:
+                CommonsDialectImpl h2Dialect = new CommonsDialectImpl(KeywordWrap.BACKQUOTE, LimitOffsetProcesser.MYSQL, InListProcesser.POSTGRESQL);
+                h2Dialect.setUpsertProcesser(UpsertProcesser.MERGE);
+                return h2Dialect;
+            case MYSQL:
             case MARIADB:
+                CommonsDialectImpl mysqlDialect = new CommonsDialectImpl(KeywordWrap.BACKQUOTE, LimitOffsetProcesser.MYSQL);
+                //mysql 驱动只有 fetchSize 为 Integer.MIN_VALUE 时，才会逐行读取游标查询的数据
+                mysqlDialect.setCursorFetchSize(Integer.MIN_VALUE);
+                //max_allowed_packet 的默认值为 4M（MySQL 8.0 为 64M），insertBatch 超出时会被拆分
+                mysqlDialect.setMaxStatementSize(4 * 1024 * 1024);
+                mysqlDialect.setUpsertProcesser(UpsertProcesser.MYSQL);
+                return mysqlDialect;
             case GBASE:
             case OSCAR:
             case XUGU:
@@ -106,12 +116,20 @@ public class DialectFactory {
             case CSIIDB:
                 return new CommonsDialectImpl(KeywordWrap.BACKQUOTE, LimitOffsetProcesser.MYSQL);
             case ORACLE:
-                return new OracleDialect(KeywordWrap.DOUBLE_QUOTATION, LimitOffsetProcesser.ORACLE);
+                OracleDialect oracleDialect = new OracleDialect(KeywordWrap.DOUBLE_QUOTATION, LimitOffsetProcesser.ORACLE, InListProcesser.ORACLE);
+                oracleDialect.setUpsertProcesser(UpsertProcesser.ORACLE);
+                return oracleDialect;
             case DM:
             case GAUSS:
                 return new CommonsDialectImpl(KeywordWrap.DOUBLE_QUOTATION, LimitOffsetProcesser.ORACLE);
             case POSTGRE_SQL:
+                CommonsDialectImpl postgresqlDialect = new CommonsDialectImpl(KeywordWrap.DOUBLE_QUOTATION, LimitOffsetProcesser.POSTGRESQL, InListProcesser.POSTGRESQL);
+                postgresqlDialect.setUpsertProcesser(UpsertProcesser.POSTGRESQL);
+                return postgresqlDialect;
             case SQLITE:
+                CommonsDialectImpl sqliteDialect = new CommonsDialectImpl(KeywordWrap.DOUBLE_QUOTATION, LimitOffsetProcesser.POSTGRESQL, InListProcesser.SQLITE);
+                sqliteDialect.setUpsertProcesser(UpsertProcesser.POSTGRESQL);
+                return sqliteDialect;
             case HSQL:
             case KINGBASE_ES:
             case PHOENIX:
@@ -125,19 +143,25 @@ public class DialectFactory {
             case UXDB:
                 return new CommonsDialectImpl(KeywordWrap.DOUBLE_QUOTATION, LimitOffsetProcesser.POSTGRESQL);
             case ORACLE_12C:
-                return new OracleDialect(KeywordWrap.DOUBLE_QUOTATION, LimitOffsetProcesser.DERBY);
+                OracleDialect oracle12cDialect = new OracleDialect(KeywordWrap.DOUBLE_QUOTATION, LimitOffsetProcesser.DERBY, InListProcesser.ORACLE);
+                oracle12cDialect.setUpsertProcesser(UpsertProcesser.ORACLE);
+                return oracle12cDialect;
             case FIREBIRD:
                 return new CommonsDialectImpl(KeywordWrap.DOUBLE_QUOTATION, LimitOffsetProcesser.DERBY);
             case SQLSERVER:
-                return new CommonsDialectImpl(KeywordWrap.SQUARE_BRACKETS, LimitOffsetProcesser.DERBY);
+                CommonsDialectImpl sqlserverDialect = new CommonsDialectImpl(KeywordWrap.SQUARE_BRACKETS, LimitOffsetProcesser.DERBY, InListProcesser.SQLSERVER);
+                sqlserverDialect.setUpsertProcesser(UpsertProcesser.SQLSERVER);
+                return sqlserverDialect;
             case SQLSERVER_2005:
-                return new CommonsDialectImpl(KeywordWrap.SQUARE_BRACKETS, LimitOffsetProcesser.DB2);
+                CommonsDialectImpl sqlserver2005Dialect = new CommonsDialectImpl(KeywordWrap.SQUARE_BRACKETS, LimitOffsetProcesser.DB2, InListProcesser.SQLSERVER);
+                sqlserver2005Dialect.setUpsertProcesser(UpsertProcesser.SQLSERVER);
+                return sqlserver2005Dialect;
             case INFORMIX:
                 return new CommonsDialectImpl(KeywordWrap.DOUBLE_QUOTATION, LimitOffsetProcesser.INFORMIX);
             case DB2:
                 return new CommonsDialectImpl(KeywordWrap.DOUBLE_QUOTATION, LimitOffsetProcesser.DB2);
             case SYBASE:
-                return new CommonsDialectImpl(KeywordWrap.DOUBLE_QUOTATION, LimitOffsetProcesser.SYBASE);
+                return new CommonsDialectImpl(KeywordWrap.DOUBLE_QUOTATION, LimitOffsetProcesser.SYBASE, InListProcesser.SYBASE);
             default:
                 return new CommonsDialectImpl();
         }
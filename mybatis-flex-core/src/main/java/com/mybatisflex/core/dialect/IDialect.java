@@ -56,6 +56,16 @@ public interface IDialect {
 
     String buildWhereConditionSql(QueryWrapper queryWrapper);
 
+    void buildInConditionSql(StringBuilder sqlBuilder, String columnSql, String logic, int paramsCount);
+
+    Object[] buildInConditionArgs(Object[] args);
+
+    int getMaxParameterCount();
+
+    int getCursorFetchSize();
+
+    int getMaxStatementSize();
+
 
 
     //////for entity /////
@@ -63,6 +73,10 @@ public interface IDialect {
 
     String forInsertEntityBatch(TableInfo tableInfo, List<Object> entities);
 
+    String forUpsertEntity(TableInfo tableInfo, Object entity);
+
+    String forUpsertEntityBatch(TableInfo tableInfo, List<Object> entities);
+
     String forDeleteEntityById(TableInfo tableInfo);
 
     String forDeleteEntityBatchByIds(TableInfo tableInfo, Object[] primaryValues);
@@ -0,0 +1,216 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.dialect;
+
+import com.mybatisflex.core.exception.FlexExceptions;
+import com.mybatisflex.core.mybatis.TypeHandlerObject;
+import com.mybatisflex.core.query.QueryCondition;
+import org.apache.ibatis.type.ArrayTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+
+import java.lang.reflect.Array;
+
+/**
+ * in 和 not in 条件的处理器，用于处理参数很多时的 in 条件
+ * 注意：sql 的构建只能依赖于参数的数量，以保证 sql 和 {@link #processParams(Object[])} 的参数保持一致
+ */
+public interface InListProcesser {
+
+    /**
+     * 一般的 jdbc 驱动，单条 sql 的参数数量最多为 65535 个
+     */
+    int DEFAULT_MAX_PARAMETER_COUNT = 65535;
+
+
+    /**
+     * 通用的处理器，生成 column IN (?,?,?)
+     */
+    InListProcesser DEFAULT = new InListProcesser() {
+    };
+
+    /**
+     * Oracle 的处理器，in 的参数最多只能有 1000 个，超出的部分会拆分为多个 in 条件
+     * 适合 {@link DbType#ORACLE,DbType#ORACLE_12C}
+     */
+    InListProcesser ORACLE = new ChunkedInListProcesser(1000, DEFAULT_MAX_PARAMETER_COUNT);
+
+    /**
+     * Postgresql 的处理器，参数较多时使用 column = ANY(?) 以数组的方式传入一个参数
+     * 适合 {@link DbType#POSTGRE_SQL,DbType#H2}
+     */
+    InListProcesser POSTGRESQL = new ArrayInListProcesser(64, 32767);
+
+    /**
+     * SqlServer 的处理器，一条 sql 最多只能有 2100 个参数，超出时需要拆分成多条 sql 执行
+     * 适合 {@link DbType#SQLSERVER,DbType#SQLSERVER_2005}
+     */
+    InListProcesser SQLSERVER = new ChunkedInListProcesser(Integer.MAX_VALUE, 2000);
+
+    /**
+     * Sqlite 的处理器，一条 sql 默认最多只能有 999 个参数
+     */
+    InListProcesser SQLITE = new ChunkedInListProcesser(Integer.MAX_VALUE, 999);
+
+    /**
+     * Sybase 的处理器，一条 sql 最多只能有 2048 个参数，超出时需要拆分成多条 sql 执行
+     */
+    InListProcesser SYBASE = new ChunkedInListProcesser(Integer.MAX_VALUE, 2000);
+
+
+    /**
+     * 构建 in 或者 not in 条件的 sql
+     *
+     * @param sql         sql 构建器
+     * @param columnSql   列的 sql
+     * @param logic       {@link QueryCondition#LOGIC_IN} 或者 {@link QueryCondition#LOGIC_NOT_IN}
+     * @param paramsCount 参数数量
+     */
+    default void process(StringBuilder sql, String columnSql, String logic, int paramsCount) {
+        sql.append(columnSql).append(" ").append(logic).append(" ").append('(');
+        for (int i = 0; i < paramsCount; i++) {
+            sql.append('?');
+            if (i != paramsCount - 1) {
+                sql.append(',');
+            }
+        }
+        sql.append(')');
+    }
+
+
+    /**
+     * 处理 in 或者 not in 条件的参数
+     *
+     * @param params 已展开的参数
+     * @return 最终传给 jdbc 的参数
+     */
+    default Object[] processParams(Object[] params) {
+        return params;
+    }
+
+
+    /**
+     * 单条 sql 允许的最大参数数量，超出时 selectListByIds 和 deleteBatchByIds 会被拆分成多条 sql 执行
+     */
+    default int getMaxParameterCount() {
+        return DEFAULT_MAX_PARAMETER_COUNT;
+    }
+
+
+    /**
+     * 把参数拆分成多组 in 条件，生成 (column IN (?,?) OR column IN (?,?))
+     */
+    class ChunkedInListProcesser implements InListProcesser {
+
+        private final int chunkSize;
+        private final int maxParameterCount;
+
+        public ChunkedInListProcesser(int chunkSize, int maxParameterCount) {
+            this.chunkSize = chunkSize;
+            this.maxParameterCount = maxParameterCount;
+        }
+
+        @Override
+        public void process(StringBuilder sql, String columnSql, String logic, int paramsCount) {
+            if (paramsCount <= chunkSize) {
+                InListProcesser.super.process(sql, columnSql, logic, paramsCount);
+                return;
+            }
+
+            //not in 的多个条件需要用 AND 连接
+            String connector = QueryCondition.LOGIC_NOT_IN.equals(logic) ? " AND " : " OR ";
+            sql.append('(');
+            for (int start = 0; start < paramsCount; start += chunkSize) {
+                if (start > 0) {
+                    sql.append(connector);
+                }
+                InListProcesser.super.process(sql, columnSql, logic, Math.min(chunkSize, paramsCount - start));
+            }
+            sql.append(')');
+        }
+
+        @Override
+        public int getMaxParameterCount() {
+            return maxParameterCount;
+        }
+    }
+
+
+    /**
+     * 参数数量达到 minArraySize 时，生成 column = ANY(?) 或者 column <> ALL(?)，所有参数以一个数组传入
+     */
+    class ArrayInListProcesser implements InListProcesser {
+
+        private final int minArraySize;
+        private final int maxParameterCount;
+
+        public ArrayInListProcesser(int minArraySize, int maxParameterCount) {
+            this.minArraySize = minArraySize;
+            this.maxParameterCount = maxParameterCount;
+        }
+
+        @Override
+        public void process(StringBuilder sql, String columnSql, String logic, int paramsCount) {
+            if (paramsCount < minArraySize) {
+                InListProcesser.super.process(sql, columnSql, logic, paramsCount);
+                return;
+            }
+            sql.append(columnSql);
+            sql.append(QueryCondition.LOGIC_NOT_IN.equals(logic) ? " <> ALL(?)" : " = ANY(?)");
+        }
+
+        @Override
+        public Object[] processParams(Object[] params) {
+            if (params.length < minArraySize) {
+                return params;
+            }
+            return new Object[]{new TypeHandlerObject(new ArrayTypeHandler(), toTypedArray(params), JdbcType.ARRAY)};
+        }
+
+        @Override
+        public int getMaxParameterCount() {
+            return maxParameterCount;
+        }
+
+        /**
+         * ArrayTypeHandler 通过数组的类型来确定数据库的数组类型，因此需要转换为具体类型的数组
+         * 参数的类型不一致时（例如 Integer 和 Long 混用），无法确定数组的类型，直接抛出异常
+         */
+        private static Object toTypedArray(Object[] params) {
+            Class<?> componentType = null;
+            for (Object param : params) {
+                if (param == null) {
+                    continue;
+                }
+                if (componentType == null) {
+                    componentType = param.getClass();
+                } else if (componentType != param.getClass()) {
+                    throw FlexExceptions.wrap("The values of IN condition must be of the same type when passed as an array parameter, but found \"%s\" and \"%s\".", componentType.getName(), param.getClass().getName());
+                }
+            }
+
+            if (componentType == null || componentType == Object.class) {
+                return params;
+            }
+
+            Object array = Array.newInstance(componentType, params.length);
+            for (int i = 0; i < params.length; i++) {
+                Array.set(array, i, params[i]);
+            }
+            return array;
+        }
+    }
+
+}
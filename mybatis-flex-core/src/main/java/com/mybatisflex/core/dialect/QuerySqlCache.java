@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.dialect;
+
+import com.mybatisflex.core.FlexGlobalConfig;
+import com.mybatisflex.core.query.QueryShapeKey;
+import com.mybatisflex.core.query.QueryWrapper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * QueryWrapper 构建的 sql 缓存（LRU）
+ * 相同结构的 QueryWrapper（参数值不同）生成的 sql 是一样的，通过 {@link QueryShapeKey} 命中缓存后，
+ * 只需要再获取参数即可，不需要重新构建 sql
+ * 缓存的数量通过 {@link FlexGlobalConfig#setQuerySqlCacheSize(int)} 配置，默认为 0，不使用缓存
+ */
+public class QuerySqlCache {
+
+    private final Map<QueryShapeKey, String> cache = new LinkedHashMap<QueryShapeKey, String>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<QueryShapeKey, String> eldest) {
+            return size() > getMaxSize();
+        }
+    };
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+
+    /**
+     * 获取 sql，缓存不存在时，通过 sqlBuilder 构建后放入缓存
+     *
+     * @param dialect      构建 sql 的方言
+     * @param sqlType      sql 类型，例如 select、count 等
+     * @param queryWrapper 查询条件
+     * @param sqlBuilder   sql 构建器
+     * @return sql
+     */
+    public String obtainSql(IDialect dialect, String sqlType, QueryWrapper queryWrapper, Function<QueryWrapper, String> sqlBuilder) {
+        if (getMaxSize() <= 0) {
+            return sqlBuilder.apply(queryWrapper);
+        }
+
+        QueryShapeKey key = QueryShapeKey.of(sqlType, queryWrapper, dialect);
+        if (key == null) {
+            return sqlBuilder.apply(queryWrapper);
+        }
+
+        String sql;
+        synchronized (cache) {
+            sql = cache.get(key);
+        }
+
+        if (sql != null) {
+            hitCount.incrementAndGet();
+            return sql;
+        }
+
+        missCount.incrementAndGet();
+        sql = sqlBuilder.apply(queryWrapper);
+        synchronized (cache) {
+            cache.put(key, sql);
+        }
+        return sql;
+    }
+
+    public int getMaxSize() {
+        return FlexGlobalConfig.getDefaultConfig().getQuerySqlCacheSize();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+        hitCount.set(0);
+        missCount.set(0);
+    }
+}
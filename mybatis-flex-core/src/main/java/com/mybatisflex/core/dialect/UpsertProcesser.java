@@ -0,0 +1,389 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.dialect;
+
+import com.mybatisflex.core.exception.FlexExceptions;
+import com.mybatisflex.core.table.TableInfo;
+import com.mybatisflex.core.util.ArrayUtil;
+import com.mybatisflex.core.util.StringUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * upsert（存在则更新，不存在则插入）的 sql 处理器，以主键判断数据是否存在
+ * 更新时不会修改租户字段和逻辑删除字段，乐观锁字段会自动加 1，并且只会更新满足以下条件的数据：
+ * 未被逻辑删除、租户与插入的租户相同、版本号与插入的版本号相同
+ */
+public interface UpsertProcesser {
+
+    /**
+     * 不支持 upsert 的数据库
+     */
+    UpsertProcesser NONE = (dialect, tableInfo, rowCount, logicNormalValue) -> {
+        throw FlexExceptions.wrap("The dialect \"%s\" does not support upsert.", dialect.getClass().getName());
+    };
+
+    /**
+     * MySql 的处理器，生成 INSERT ... ON DUPLICATE KEY UPDATE
+     * 适合 {@link DbType#MYSQL,DbType#MARIADB}
+     */
+    UpsertProcesser MYSQL = new MysqlUpsertProcesser();
+
+    /**
+     * Postgresql 的处理器，生成 INSERT ... ON CONFLICT (主键) DO UPDATE
+     * 适合 {@link DbType#POSTGRE_SQL,DbType#SQLITE}
+     */
+    UpsertProcesser POSTGRESQL = new PostgresqlUpsertProcesser();
+
+    /**
+     * 标准 MERGE 语句的处理器，数据源为 (VALUES (?, ?), (?, ?)) AS s(a, b)
+     * 适合 {@link DbType#H2}
+     */
+    UpsertProcesser MERGE = new MergeUpsertProcesser(false, false);
+
+    /**
+     * SqlServer 的处理器，MERGE 语句必须以分号结尾
+     * 适合 {@link DbType#SQLSERVER,DbType#SQLSERVER_2005}
+     */
+    UpsertProcesser SQLSERVER = new MergeUpsertProcesser(false, true);
+
+    /**
+     * Oracle 的处理器，数据源为 (SELECT ? a, ? b FROM DUAL UNION ALL SELECT ?, ? FROM DUAL) s
+     * 适合 {@link DbType#ORACLE,DbType#ORACLE_12C}
+     */
+    UpsertProcesser ORACLE = new MergeUpsertProcesser(true, false);
+
+
+    /**
+     * 构建 upsert 的 sql，参数为每条数据的 {@link TableInfo#buildUpsertSqlArgs(Object)}
+     *
+     * @param dialect          方言
+     * @param tableInfo        表信息
+     * @param rowCount         数据条数
+     * @param logicNormalValue 逻辑删除字段的正常值
+     * @return sql
+     */
+    String process(IDialect dialect, TableInfo tableInfo, int rowCount, Object logicNormalValue);
+
+
+    /**
+     * 各数据库的 upsert 处理器的基类，子类只需要确定如何引用插入的值和已存在的数据
+     */
+    abstract class AbstractUpsertProcesser implements UpsertProcesser {
+
+        /**
+         * upsert 以主键判断数据是否存在，没有主键的表无法构建 upsert 的 sql
+         */
+        protected static void checkPrimaryKeys(TableInfo tableInfo) {
+            if (ArrayUtil.isEmpty(tableInfo.getPrimaryKeys())) {
+                throw FlexExceptions.wrap("The table \"%s\" has no primary key, can not upsert.", tableInfo.getTableName());
+            }
+        }
+
+        /**
+         * 引用插入的数据中 column 的值
+         */
+        protected abstract String inserted(IDialect dialect, TableInfo tableInfo, String column);
+
+        /**
+         * 引用已存在的数据中 column 的值
+         */
+        protected abstract String existing(IDialect dialect, TableInfo tableInfo, String column);
+
+
+        /**
+         * 每条数据 values 的部分，onInsert 配置的字段直接使用配置的值
+         */
+        protected String buildValues(TableInfo tableInfo) {
+            Map<String, String> onInsertColumns = tableInfo.getOnInsertColumns();
+            StringJoiner values = new StringJoiner(", ", "(", ")");
+            for (String column : tableInfo.obtainUpsertColumns()) {
+                if (onInsertColumns != null && onInsertColumns.containsKey(column)) {
+                    values.add(onInsertColumns.get(column));
+                } else {
+                    values.add("?");
+                }
+            }
+            return values.toString();
+        }
+
+        protected String buildColumns(IDialect dialect, TableInfo tableInfo) {
+            StringJoiner columns = new StringJoiner(", ", "(", ")");
+            for (String column : tableInfo.obtainUpsertColumns()) {
+                columns.add(dialect.wrap(column));
+            }
+            return columns.toString();
+        }
+
+        /**
+         * 更新的字段及其值，key 为已包装的字段，乐观锁字段放在最后
+         */
+        protected List<String[]> buildUpdateSets(IDialect dialect, TableInfo tableInfo) {
+            Map<String, String> onInsertColumns = tableInfo.getOnInsertColumns();
+            Map<String, String> onUpdateColumns = tableInfo.getOnUpdateColumns();
+            String versionColumn = tableInfo.getVersionColumn();
+
+            List<String[]> updateSets = new ArrayList<>();
+            for (String column : tableInfo.getColumns()) {
+                if (column.equals(versionColumn) || column.equals(tableInfo.getTenantIdColumn())
+                        || column.equals(tableInfo.getLogicDeleteColumn())) {
+                    continue;
+                }
+                if (onUpdateColumns != null && onUpdateColumns.containsKey(column)) {
+                    updateSets.add(new String[]{dialect.wrap(column), onUpdateColumns.get(column)});
+                }
+                //onInsert 配置的字段只在插入时生效
+                else if (onInsertColumns == null || !onInsertColumns.containsKey(column)) {
+                    updateSets.add(new String[]{dialect.wrap(column), inserted(dialect, tableInfo, column)});
+                }
+            }
+
+            if (StringUtil.isNotBlank(versionColumn)) {
+                updateSets.add(new String[]{dialect.wrap(versionColumn), existing(dialect, tableInfo, versionColumn) + " + 1"});
+            }
+            return updateSets;
+        }
+
+        /**
+         * 允许更新的条件，没有条件时返回 null
+         */
+        protected String buildUpdateCondition(IDialect dialect, TableInfo tableInfo, Object logicNormalValue) {
+            StringJoiner condition = new StringJoiner(" AND ");
+            condition.setEmptyValue("");
+
+            String logicDeleteColumn = tableInfo.getLogicDeleteColumn();
+            if (StringUtil.isNotBlank(logicDeleteColumn)) {
+                condition.add(existing(dialect, tableInfo, logicDeleteColumn) + " = " + logicNormalValue);
+            }
+
+            //不能修改其他租户的数据
+            String tenantIdColumn = tableInfo.getTenantIdColumn();
+            if (StringUtil.isNotBlank(tenantIdColumn)) {
+                condition.add(existing(dialect, tableInfo, tenantIdColumn) + " = " + inserted(dialect, tableInfo, tenantIdColumn));
+            }
+
+            //乐观锁，插入的版本号即为当前的版本号
+            String versionColumn = tableInfo.getVersionColumn();
+            if (StringUtil.isNotBlank(versionColumn)) {
+                condition.add(existing(dialect, tableInfo, versionColumn) + " = " + inserted(dialect, tableInfo, versionColumn));
+            }
+
+            String conditionSql = condition.toString();
+            return conditionSql.isEmpty() ? null : conditionSql;
+        }
+
+        protected static void appendRows(StringBuilder sql, String values, String separator, int rowCount) {
+            for (int i = 0; i < rowCount; i++) {
+                if (i > 0) {
+                    sql.append(separator);
+                }
+                sql.append(values);
+            }
+        }
+    }
+
+
+    /**
+     * INSERT INTO t(id, a) VALUES (?, ?) ON DUPLICATE KEY UPDATE a = CASE WHEN 条件 THEN VALUES(a) ELSE a END
+     * mysql 的更新不支持条件，因此通过 CASE WHEN 判断每个字段是否需要更新
+     */
+    class MysqlUpsertProcesser extends AbstractUpsertProcesser {
+
+        @Override
+        public String process(IDialect dialect, TableInfo tableInfo, int rowCount, Object logicNormalValue) {
+            checkPrimaryKeys(tableInfo);
+            String values = buildValues(tableInfo);
+            StringBuilder sql = new StringBuilder();
+            sql.append("INSERT INTO ").append(dialect.wrap(tableInfo.getTableName()))
+                    .append(buildColumns(dialect, tableInfo)).append(" VALUES ");
+            appendRows(sql, values, ", ", rowCount);
+            sql.append(" ON DUPLICATE KEY UPDATE ");
+
+            List<String[]> updateSets = buildUpdateSets(dialect, tableInfo);
+            if (updateSets.isEmpty()) {
+                String primaryKey = dialect.wrap(tableInfo.getPrimaryKeys()[0]);
+                return sql.append(primaryKey).append(" = ").append(primaryKey).toString();
+            }
+
+            String condition = buildUpdateCondition(dialect, tableInfo, logicNormalValue);
+            StringJoiner sets = new StringJoiner(", ");
+            for (String[] updateSet : updateSets) {
+                if (condition == null) {
+                    sets.add(updateSet[0] + " = " + updateSet[1]);
+                } else {
+                    //乐观锁字段放在最后更新，保证前面字段的条件读取的是原来的版本号
+                    sets.add(updateSet[0] + " = CASE WHEN " + condition + " THEN " + updateSet[1] + " ELSE " + updateSet[0] + " END");
+                }
+            }
+            return sql.append(sets).toString();
+        }
+
+        @Override
+        protected String inserted(IDialect dialect, TableInfo tableInfo, String column) {
+            return "VALUES(" + dialect.wrap(column) + ")";
+        }
+
+        @Override
+        protected String existing(IDialect dialect, TableInfo tableInfo, String column) {
+            return dialect.wrap(column);
+        }
+    }
+
+
+    /**
+     * INSERT INTO t(id, a) VALUES (?, ?) ON CONFLICT (id) DO UPDATE SET a = EXCLUDED.a WHERE 条件
+     */
+    class PostgresqlUpsertProcesser extends AbstractUpsertProcesser {
+
+        @Override
+        public String process(IDialect dialect, TableInfo tableInfo, int rowCount, Object logicNormalValue) {
+            checkPrimaryKeys(tableInfo);
+            String values = buildValues(tableInfo);
+            StringBuilder sql = new StringBuilder();
+            sql.append("INSERT INTO ").append(dialect.wrap(tableInfo.getTableName()))
+                    .append(buildColumns(dialect, tableInfo)).append(" VALUES ");
+            appendRows(sql, values, ", ", rowCount);
+
+            StringJoiner primaryKeys = new StringJoiner(", ", "(", ")");
+            for (String primaryKey : tableInfo.getPrimaryKeys()) {
+                primaryKeys.add(dialect.wrap(primaryKey));
+            }
+            sql.append(" ON CONFLICT ").append(primaryKeys);
+
+            List<String[]> updateSets = buildUpdateSets(dialect, tableInfo);
+            if (updateSets.isEmpty()) {
+                return sql.append(" DO NOTHING").toString();
+            }
+
+            StringJoiner sets = new StringJoiner(", ");
+            for (String[] updateSet : updateSets) {
+                sets.add(updateSet[0] + " = " + updateSet[1]);
+            }
+            sql.append(" DO UPDATE SET ").append(sets);
+
+            String condition = buildUpdateCondition(dialect, tableInfo, logicNormalValue);
+            if (condition != null) {
+                sql.append(" WHERE ").append(condition);
+            }
+            return sql.toString();
+        }
+
+        @Override
+        protected String inserted(IDialect dialect, TableInfo tableInfo, String column) {
+            return "EXCLUDED." + dialect.wrap(column);
+        }
+
+        @Override
+        protected String existing(IDialect dialect, TableInfo tableInfo, String column) {
+            return dialect.wrap(tableInfo.getTableName()) + "." + dialect.wrap(column);
+        }
+    }
+
+
+    /**
+     * MERGE INTO t USING (数据) s ON (t.id = s.id)
+     * WHEN MATCHED AND 条件 THEN UPDATE SET a = s.a
+     * WHEN NOT MATCHED THEN INSERT (id, a) VALUES (s.id, s.a)
+     */
+    class MergeUpsertProcesser extends AbstractUpsertProcesser {
+
+        private static final String SOURCE_ALIAS = "s";
+
+        private final boolean fromDual;
+        private final boolean withSemicolon;
+
+        public MergeUpsertProcesser(boolean fromDual, boolean withSemicolon) {
+            this.fromDual = fromDual;
+            this.withSemicolon = withSemicolon;
+        }
+
+        @Override
+        public String process(IDialect dialect, TableInfo tableInfo, int rowCount, Object logicNormalValue) {
+            checkPrimaryKeys(tableInfo);
+            String[] columns = tableInfo.obtainUpsertColumns();
+            StringBuilder sql = new StringBuilder();
+            sql.append("MERGE INTO ").append(dialect.wrap(tableInfo.getTableName())).append(" USING (");
+            if (fromDual) {
+                //oracle 不支持 VALUES 构建多条数据，通过 UNION ALL 拼接
+                Map<String, String> onInsertColumns = tableInfo.getOnInsertColumns();
+                StringJoiner firstRow = new StringJoiner(", ", "SELECT ", " FROM DUAL");
+                StringJoiner otherRow = new StringJoiner(", ", "SELECT ", " FROM DUAL");
+                for (String column : columns) {
+                    String value = onInsertColumns != null && onInsertColumns.containsKey(column) ? onInsertColumns.get(column) : "?";
+                    firstRow.add(value + " " + dialect.wrap(column));
+                    otherRow.add(value);
+                }
+                sql.append(firstRow);
+                appendRows(sql, " UNION ALL " + otherRow, "", rowCount - 1);
+                sql.append(") ").append(SOURCE_ALIAS);
+            } else {
+                sql.append("VALUES ");
+                appendRows(sql, buildValues(tableInfo), ", ", rowCount);
+                sql.append(") AS ").append(SOURCE_ALIAS).append(buildColumns(dialect, tableInfo));
+            }
+
+            StringJoiner on = new StringJoiner(" AND ", " ON (", ")");
+            for (String primaryKey : tableInfo.getPrimaryKeys()) {
+                on.add(existing(dialect, tableInfo, primaryKey) + " = " + inserted(dialect, tableInfo, primaryKey));
+            }
+            sql.append(on);
+
+            List<String[]> updateSets = buildUpdateSets(dialect, tableInfo);
+            if (!updateSets.isEmpty()) {
+                String condition = buildUpdateCondition(dialect, tableInfo, logicNormalValue);
+                sql.append(" WHEN MATCHED");
+                if (condition != null && !fromDual) {
+                    sql.append(" AND ").append(condition);
+                }
+                StringJoiner sets = new StringJoiner(", ");
+                for (String[] updateSet : updateSets) {
+                    sets.add(updateSet[0] + " = " + updateSet[1]);
+                }
+                sql.append(" THEN UPDATE SET ").append(sets);
+                //oracle 的更新条件需要写在 UPDATE SET 之后
+                if (condition != null && fromDual) {
+                    sql.append(" WHERE ").append(condition);
+                }
+            }
+
+            StringJoiner insertValues = new StringJoiner(", ", "(", ")");
+            for (String column : columns) {
+                insertValues.add(inserted(dialect, tableInfo, column));
+            }
+            sql.append(" WHEN NOT MATCHED THEN INSERT ").append(buildColumns(dialect, tableInfo))
+                    .append(" VALUES ").append(insertValues);
+
+            if (withSemicolon) {
+                sql.append(';');
+            }
+            return sql.toString();
+        }
+
+        @Override
+        protected String inserted(IDialect dialect, TableInfo tableInfo, String column) {
+            return SOURCE_ALIAS + "." + dialect.wrap(column);
+        }
+
+        @Override
+        protected String existing(IDialect dialect, TableInfo tableInfo, String column) {
+            return dialect.wrap(tableInfo.getTableName()) + "." + dialect.wrap(column);
+        }
+    }
+
+}
@@ -17,8 +17,11 @@ package com.mybatisflex.core.dialect.impl;
 
 import com.mybatisflex.core.FlexGlobalConfig;
 import com.mybatisflex.core.dialect.IDialect;
+import com.mybatisflex.core.dialect.InListProcesser;
 import com.mybatisflex.core.dialect.KeywordWrap;
 import com.mybatisflex.core.dialect.LimitOffsetProcesser;
+import com.mybatisflex.core.dialect.QuerySqlCache;
+import com.mybatisflex.core.dialect.UpsertProcesser;
 import com.mybatisflex.core.exception.FlexExceptions;
 import com.mybatisflex.core.query.*;
 import com.mybatisflex.core.row.Row;
@@ -39,8 +42,30 @@ import java.util.StringJoiner;
  */
 public class CommonsDialectImpl implements IDialect {
 
+    //entity sql 缓存的类型
+    protected static final String SQL_TYPE_INSERT = "insert";
+    protected static final String SQL_TYPE_INSERT_BATCH = "insertBatch";
+    protected static final String SQL_TYPE_INSERT_BATCH_VALUES = "insertBatchValues";
+    protected static final String SQL_TYPE_UPSERT = "upsert";
+    protected static final String SQL_TYPE_UPDATE = "update";
+    protected static final String SQL_TYPE_DELETE_BY_ID = "deleteById";
+    protected static final String SQL_TYPE_SELECT_ONE_BY_ID = "selectOneById";
+    protected static final String SQL_TYPE_SELECT = "select";
+    protected static final String SQL_TYPE_SELECT_COUNT = "selectCount";
+
     protected KeywordWrap keywordWrap = KeywordWrap.BACKQUOTE;
     private LimitOffsetProcesser limitOffsetProcesser = LimitOffsetProcesser.MYSQL;
+    private InListProcesser inListProcesser = InListProcesser.DEFAULT;
+    private UpsertProcesser upsertProcesser = UpsertProcesser.NONE;
+
+    //游标查询（Cursor）时的 fetchSize，避免 jdbc 驱动一次性把所有数据读取到内存中
+    private int cursorFetchSize = 1000;
+
+    //单条 sql 允许的最大字节数，insertBatch 会根据它拆分数据，Integer.MAX_VALUE 表示不限制
+    private int maxStatementSize = Integer.MAX_VALUE;
+
+    //QueryWrapper 生成的 sql 缓存
+    private final QuerySqlCache querySqlCache = new QuerySqlCache();
 
     public CommonsDialectImpl() {
     }
@@ -54,6 +79,40 @@ public class CommonsDialectImpl implements IDialect {
         this.limitOffsetProcesser = limitOffsetProcesser;
     }
 
+    public CommonsDialectImpl(KeywordWrap keywordWrap, LimitOffsetProcesser limitOffsetProcesser, InListProcesser inListProcesser) {
+        this.keywordWrap = keywordWrap;
+        this.limitOffsetProcesser = limitOffsetProcesser;
+        this.inListProcesser = inListProcesser;
+    }
+
+    public InListProcesser getInListProcesser() {
+        return inListProcesser;
+    }
+
+    public void setInListProcesser(InListProcesser inListProcesser) {
+        this.inListProcesser = inListProcesser;
+    }
+
+    public UpsertProcesser getUpsertProcesser() {
+        return upsertProcesser;
+    }
+
+    public void setUpsertProcesser(UpsertProcesser upsertProcesser) {
+        this.upsertProcesser = upsertProcesser;
+    }
+
+    public void setCursorFetchSize(int cursorFetchSize) {
+        this.cursorFetchSize = cursorFetchSize;
+    }
+
+    public void setMaxStatementSize(int maxStatementSize) {
+        this.maxStatementSize = maxStatementSize;
+    }
+
+    public QuerySqlCache getQuerySqlCache() {
+        return querySqlCache;
+    }
+
     @Override
     public String wrap(String keyword) {
         return keywordWrap.wrap(keyword);
@@ -153,12 +212,7 @@ public class CommonsDialectImpl implements IDialect {
         }
         // 单主键
         else {
-            for (int i = 0; i < ids.length; i++) {
-                if (i > 0) {
-                    sql.append(" OR ");
-                }
-                sql.append(wrap(primaryKeys[0])).append(" = ?");
-            }
+            buildInConditionSql(sql, wrap(primaryKeys[0]), QueryCondition.LOGIC_IN, ids.length);
         }
         return sql.toString();
     }
@@ -256,25 +310,34 @@ public class CommonsDialectImpl implements IDialect {
 
     @Override
     public String forSelectListByQuery(QueryWrapper queryWrapper) {
-        return buildSelectSql(queryWrapper);
+        return querySqlCache.obtainSql(this, SQL_TYPE_SELECT, queryWrapper, this::buildSelectSql);
     }
 
 
     @Override
     public String forSelectCountByQuery(QueryWrapper queryWrapper) {
-        return buildSelectCountSql(queryWrapper);
+        return querySqlCache.obtainSql(this, SQL_TYPE_SELECT_COUNT, queryWrapper, this::buildSelectCountSql);
     }
 
 
     ////////////build query sql///////
     @Override
     public String buildSelectSql(QueryWrapper queryWrapper) {
+        return buildSelectSql(queryWrapper, CPI.getSelectColumns(queryWrapper), true);
+    }
+
+    /**
+     * 构建查询 sql，不会修改 queryWrapper，分页时 count 和数据查询可以同时使用同一个 queryWrapper
+     *
+     * @param queryWrapper        查询条件
+     * @param selectColumns       查询的列
+     * @param withOrderByAndLimit 是否构建 order by 和 limit
+     */
+    protected String buildSelectSql(QueryWrapper queryWrapper, List<QueryColumn> selectColumns, boolean withOrderByAndLimit) {
         List<QueryTable> queryTables = CPI.getQueryTables(queryWrapper);
         List<QueryTable> joinTables = CPI.getJoinTables(queryWrapper);
         List<QueryTable> allTables = CollectionUtil.merge(queryTables, joinTables);
 
-        List<QueryColumn> selectColumns = CPI.getSelectColumns(queryWrapper);
-
         StringBuilder sqlBuilder = buildSelectColumnSql(allTables, selectColumns);
         sqlBuilder.append(" FROM ").append(StringUtil.join(", ", queryTables, queryTable -> queryTable.toSql(this)));
 
@@ -282,7 +345,9 @@ public class CommonsDialectImpl implements IDialect {
         buildWhereSql(sqlBuilder, queryWrapper, allTables, true);
         buildGroupBySql(sqlBuilder, queryWrapper, allTables);
         buildHavingSql(sqlBuilder, queryWrapper, allTables);
-        buildOrderBySql(sqlBuilder, queryWrapper, allTables);
+        if (withOrderByAndLimit) {
+            buildOrderBySql(sqlBuilder, queryWrapper, allTables);
+        }
 
         List<UnionWrapper> unions = CPI.getUnions(queryWrapper);
         if (CollectionUtil.isNotEmpty(unions)) {
@@ -292,6 +357,10 @@ public class CommonsDialectImpl implements IDialect {
             }
         }
 
+        if (!withOrderByAndLimit) {
+            return sqlBuilder.toString();
+        }
+
         Integer limitRows = CPI.getLimitRows(queryWrapper);
         Integer limitOffset = CPI.getLimitOffset(queryWrapper);
         if (limitRows != null || limitOffset != null) {
@@ -323,6 +392,11 @@ public class CommonsDialectImpl implements IDialect {
 
     @Override
     public String buildSelectCountSql(QueryWrapper queryWrapper) {
+        //group by、distinct 和 union 需要通过子查询才能得到正确的数量
+        if (CountQueryOptimizer.isWrapRequired(queryWrapper)) {
+            return buildWrappedSelectCountSql(queryWrapper);
+        }
+
         List<QueryTable> queryTables = CPI.getQueryTables(queryWrapper);
         List<QueryTable> joinTables = CPI.getJoinTables(queryWrapper);
         List<QueryTable> allTables = CollectionUtil.merge(queryTables, joinTables);
@@ -331,10 +405,17 @@ public class CommonsDialectImpl implements IDialect {
         StringBuilder sqlBuilder = new StringBuilder("SELECT COUNT(*) FROM ");
         sqlBuilder.append(StringUtil.join(", ", queryTables, queryTable -> queryTable.toSql(this)));
 
+        //没有被引用的 left join 不影响数量
+        List<Join> joins = CountQueryOptimizer.getCountJoins(queryWrapper);
+        if (joins != null) {
+            for (Join join : joins) {
+                if (join.checkEffective()) {
+                    sqlBuilder.append(join.toSql(allTables, this));
+                }
+            }
+        }
 
-        buildJoinSql(sqlBuilder, queryWrapper, allTables);
         buildWhereSql(sqlBuilder, queryWrapper, allTables, true);
-        buildGroupBySql(sqlBuilder, queryWrapper, allTables);
         buildHavingSql(sqlBuilder, queryWrapper, allTables);
 
         // ignore orderBy and limit
@@ -344,6 +425,22 @@ public class CommonsDialectImpl implements IDialect {
         return sqlBuilder.toString();
     }
 
+
+    /**
+     * 构建 SELECT COUNT(*) FROM (...) 的 sql，子查询中不需要 order by 和 limit
+     * 只有 group by 时，子查询只查询 group by 的列
+     */
+    protected String buildWrappedSelectCountSql(QueryWrapper queryWrapper) {
+        List<QueryColumn> selectColumns = CPI.getSelectColumns(queryWrapper);
+        if (CollectionUtil.isEmpty(CPI.getUnions(queryWrapper))
+                && CPI.getHavingQueryCondition(queryWrapper) == null
+                && CollectionUtil.isNotEmpty(CPI.getGroupByColumns(queryWrapper))
+                && !CountQueryOptimizer.hasDistinct(queryWrapper)) {
+            selectColumns = CPI.getGroupByColumns(queryWrapper);
+        }
+        return "SELECT COUNT(*) FROM (" + buildSelectSql(queryWrapper, selectColumns, false) + ") " + wrap("t");
+    }
+
     @Override
     public String buildDeleteSql(QueryWrapper queryWrapper) {
         List<QueryTable> queryTables = CPI.getQueryTables(queryWrapper);
@@ -372,12 +469,41 @@ public class CommonsDialectImpl implements IDialect {
         return whereQueryCondition != null ? whereQueryCondition.toSql(CPI.getQueryTables(queryWrapper), this) : "";
     }
 
+    @Override
+    public void buildInConditionSql(StringBuilder sqlBuilder, String columnSql, String logic, int paramsCount) {
+        inListProcesser.process(sqlBuilder, columnSql, logic, paramsCount);
+    }
+
+    @Override
+    public Object[] buildInConditionArgs(Object[] args) {
+        return inListProcesser.processParams(args);
+    }
+
+    @Override
+    public int getMaxParameterCount() {
+        return inListProcesser.getMaxParameterCount();
+    }
+
+    @Override
+    public int getCursorFetchSize() {
+        return cursorFetchSize;
+    }
+
+    @Override
+    public int getMaxStatementSize() {
+        return maxStatementSize;
+    }
+
     @Override
     public String forInsertEntity(TableInfo tableInfo, Object entity, boolean ignoreNulls) {
+        String[] insertColumns = tableInfo.obtainInsertColumns(entity, ignoreNulls);
+        return tableInfo.obtainSql(this, SQL_TYPE_INSERT, insertColumns, () -> buildInsertEntitySql(tableInfo, insertColumns));
+    }
+
+    protected String buildInsertEntitySql(TableInfo tableInfo, String[] insertColumns) {
         StringBuilder sql = new StringBuilder();
         sql.append("INSERT INTO ").append(wrap(tableInfo.getTableName()));
 
-        String[] insertColumns = tableInfo.obtainInsertColumns(entity, ignoreNulls);
         Map<String, String> onInsertColumns = tableInfo.getOnInsertColumns();
 
         StringJoiner sqlFields = new StringJoiner(", ");
@@ -399,6 +525,23 @@ public class CommonsDialectImpl implements IDialect {
 
     @Override
     public String forInsertEntityBatch(TableInfo tableInfo, List<Object> entities) {
+        //sql 的前缀和每条数据的 values 部分只和表有关，缓存后只需要按照数据条数拼接
+        String sqlPrefix = tableInfo.obtainSql(this, SQL_TYPE_INSERT_BATCH, (String[]) null, () -> buildInsertEntityBatchPrefix(tableInfo));
+        String sqlValues = tableInfo.obtainSql(this, SQL_TYPE_INSERT_BATCH_VALUES, (String[]) null, () -> buildInsertEntityBatchValues(tableInfo));
+
+        int size = entities.size();
+        StringBuilder sql = new StringBuilder(sqlPrefix.length() + (sqlValues.length() + 2) * size);
+        sql.append(sqlPrefix);
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(sqlValues);
+        }
+        return sql.toString();
+    }
+
+    protected String buildInsertEntityBatchPrefix(TableInfo tableInfo) {
         StringBuilder sql = new StringBuilder();
         sql.append("INSERT INTO ").append(wrap(tableInfo.getTableName()));
         String[] insertColumns = tableInfo.obtainInsertColumns(null, false);
@@ -407,30 +550,44 @@ public class CommonsDialectImpl implements IDialect {
             warpedInsertColumns[i] = wrap(insertColumns[i]);
         }
         sql.append("(").append(StringUtil.join(", ", warpedInsertColumns)).append(")");
-        sql.append(" VALUES ");
+        return sql.append(" VALUES ").toString();
+    }
 
+    protected String buildInsertEntityBatchValues(TableInfo tableInfo) {
+        String[] insertColumns = tableInfo.obtainInsertColumns(null, false);
         Map<String, String> onInsertColumns = tableInfo.getOnInsertColumns();
-        for (int i = 0; i < entities.size(); i++) {
-            StringJoiner stringJoiner = new StringJoiner(", ", "(", ")");
-            for (String insertColumn : insertColumns) {
-                if (onInsertColumns != null && onInsertColumns.containsKey(insertColumn)) {
-                    //直接读取 onInsert 配置的值，而不用 "?" 代替
-                    stringJoiner.add(onInsertColumns.get(insertColumn));
-                } else {
-                    stringJoiner.add("?");
-                }
-            }
-            sql.append(stringJoiner);
-            if (i != entities.size() - 1) {
-                sql.append(", ");
+        StringJoiner stringJoiner = new StringJoiner(", ", "(", ")");
+        for (String insertColumn : insertColumns) {
+            if (onInsertColumns != null && onInsertColumns.containsKey(insertColumn)) {
+                //直接读取 onInsert 配置的值，而不用 "?" 代替
+                stringJoiner.add(onInsertColumns.get(insertColumn));
+            } else {
+                stringJoiner.add("?");
             }
         }
+        return stringJoiner.toString();
+    }
 
-        return sql.toString();
+    @Override
+    public String forUpsertEntity(TableInfo tableInfo, Object entity) {
+        return tableInfo.obtainSql(this, SQL_TYPE_UPSERT, (String[]) null
+                , () -> upsertProcesser.process(this, tableInfo, 1, getLogicNormalValue()));
+    }
+
+    @Override
+    public String forUpsertEntityBatch(TableInfo tableInfo, List<Object> entities) {
+        if (entities.size() == 1) {
+            return forUpsertEntity(tableInfo, entities.get(0));
+        }
+        return upsertProcesser.process(this, tableInfo, entities.size(), getLogicNormalValue());
     }
 
     @Override
     public String forDeleteEntityById(TableInfo tableInfo) {
+        return tableInfo.obtainSql(this, SQL_TYPE_DELETE_BY_ID, (String[]) null, () -> buildDeleteEntityByIdSql(tableInfo));
+    }
+
+    protected String buildDeleteEntityByIdSql(TableInfo tableInfo) {
         String logicDeleteColumn = tableInfo.getLogicDeleteColumn();
         Object[] tenantIdArgs = tableInfo.buildTenantIdArgs();
         //正常删除
@@ -512,12 +669,7 @@ public class CommonsDialectImpl implements IDialect {
         }
         // 单主键
         else {
-            for (int i = 0; i < primaryValues.length; i++) {
-                if (i > 0) {
-                    sql.append(" OR ");
-                }
-                sql.append(wrap(primaryKeys[0])).append(" = ?");
-            }
+            buildInConditionSql(sql, wrap(primaryKeys[0]), QueryCondition.LOGIC_IN, primaryValues.length);
         }
 
         sql.append(") AND ").append(wrap(logicDeleteColumn)).append(" = ").append(getLogicNormalValue());
@@ -566,9 +718,13 @@ public class CommonsDialectImpl implements IDialect {
 
     @Override
     public String forUpdateEntity(TableInfo tableInfo, Object entity, boolean ignoreNulls) {
+        Set<String> modifyAttrs = tableInfo.obtainUpdateColumns(entity, ignoreNulls, false);
+        return tableInfo.obtainSql(this, SQL_TYPE_UPDATE, modifyAttrs, () -> buildUpdateEntitySql(tableInfo, modifyAttrs));
+    }
+
+    protected String buildUpdateEntitySql(TableInfo tableInfo, Set<String> modifyAttrs) {
         StringBuilder sql = new StringBuilder();
 
-        Set<String> modifyAttrs = tableInfo.obtainUpdateColumns(entity, ignoreNulls, false);
         String[] primaryKeys = tableInfo.getPrimaryKeys();
 
         sql.append("UPDATE ").append(wrap(tableInfo.getTableName())).append(" SET ");
@@ -617,13 +773,9 @@ public class CommonsDialectImpl implements IDialect {
             }
         }
 
-        //乐观锁条件
+        //乐观锁条件，版本号通过参数传入，以便 sql 能够被缓存
         if (StringUtil.isNotBlank(versionColumn)) {
-            Object versionValue = tableInfo.buildColumnSqlArg(entity, versionColumn);
-            if (versionValue == null) {
-                throw FlexExceptions.wrap("The version value of entity[%s] must not be null.", entity);
-            }
-            sql.append(" AND ").append(wrap(versionColumn)).append(" = ").append(versionValue);
+            sql.append(" AND ").append(wrap(versionColumn)).append(" = ?");
         }
 
 
@@ -671,6 +823,10 @@ public class CommonsDialectImpl implements IDialect {
 
     @Override
     public String forSelectOneEntityById(TableInfo tableInfo) {
+        return tableInfo.obtainSql(this, SQL_TYPE_SELECT_ONE_BY_ID, (String[]) null, () -> buildSelectOneEntityByIdSql(tableInfo));
+    }
+
+    protected String buildSelectOneEntityByIdSql(TableInfo tableInfo) {
         StringBuilder sql = buildSelectColumnSql(null, tableInfo.getDefaultQueryColumn());
         sql.append(" FROM ").append(wrap(tableInfo.getTableName()));
         sql.append(" WHERE ");
@@ -729,12 +885,7 @@ public class CommonsDialectImpl implements IDialect {
         }
         // 单主键
         else {
-            for (int i = 0; i < primaryValues.length; i++) {
-                if (i > 0) {
-                    sql.append(" OR ");
-                }
-                sql.append(wrap(primaryKeys[0])).append(" = ?");
-            }
+            buildInConditionSql(sql, wrap(primaryKeys[0]), QueryCondition.LOGIC_IN, primaryValues.length);
         }
 
         if (StringUtil.isNotBlank(logicDeleteColumn) || ArrayUtil.isNotEmpty(tenantIdArgs)) {
@@ -770,11 +921,15 @@ public class CommonsDialectImpl implements IDialect {
     protected void buildWhereSql(StringBuilder sqlBuilder, QueryWrapper queryWrapper, List<QueryTable> queryTables, boolean allowNoCondition) {
         QueryCondition whereQueryCondition = CPI.getWhereQueryCondition(queryWrapper);
         if (whereQueryCondition != null) {
-            String whereSql = whereQueryCondition.toSql(queryTables, this);
-            if (StringUtil.isNotBlank(whereSql)) {
-                sqlBuilder.append(" WHERE ").append(whereSql);
-            } else if (!allowNoCondition) {
-                throw new IllegalArgumentException("Not allowed DELETE a table without where condition.");
+            int start = sqlBuilder.length();
+            sqlBuilder.append(" WHERE ");
+            int conditionStart = sqlBuilder.length();
+            whereQueryCondition.toSql(sqlBuilder, queryTables, this);
+            if (StringUtil.isBlank(sqlBuilder, conditionStart)) {
+                sqlBuilder.setLength(start);
+                if (!allowNoCondition) {
+                    throw new IllegalArgumentException("Not allowed DELETE a table without where condition.");
+                }
             }
         }
     }
@@ -800,9 +955,12 @@ public class CommonsDialectImpl implements IDialect {
     protected void buildHavingSql(StringBuilder sqlBuilder, QueryWrapper queryWrapper, List<QueryTable> queryTables) {
         QueryCondition havingQueryCondition = CPI.getHavingQueryCondition(queryWrapper);
         if (havingQueryCondition != null) {
-            String havingSql = havingQueryCondition.toSql(queryTables, this);
-            if (StringUtil.isNotBlank(havingSql)) {
-                sqlBuilder.append(" HAVING ").append(havingSql);
+            int start = sqlBuilder.length();
+            sqlBuilder.append(" HAVING ");
+            int conditionStart = sqlBuilder.length();
+            havingQueryCondition.toSql(sqlBuilder, queryTables, this);
+            if (StringUtil.isBlank(sqlBuilder, conditionStart)) {
+                sqlBuilder.setLength(start);
             }
         }
     }
@@ -15,6 +15,7 @@
  */
 package com.mybatisflex.core.dialect.impl;
 
+import com.mybatisflex.core.dialect.InListProcesser;
 import com.mybatisflex.core.dialect.KeywordWrap;
 import com.mybatisflex.core.dialect.LimitOffsetProcesser;
 
@@ -33,6 +34,10 @@ public class OracleDialect extends CommonsDialectImpl {
         super(keywordWrap, limitOffsetProcesser);
     }
 
+    public OracleDialect(KeywordWrap keywordWrap, LimitOffsetProcesser limitOffsetProcesser, InListProcesser inListProcesser) {
+        super(keywordWrap, limitOffsetProcesser, inListProcesser);
+    }
+
     public boolean isToUpperCase() {
         return toUpperCase;
     }
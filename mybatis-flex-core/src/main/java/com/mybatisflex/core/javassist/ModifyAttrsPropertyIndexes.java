@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.javassist;
+
+import com.mybatisflex.core.table.TableInfo;
+import com.mybatisflex.core.table.TableInfoFactory;
+import com.mybatisflex.core.util.StringUtil;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * entity 属性的索引，前面部分的索引和 {@link TableInfo#getColumnIndex(String)} 一致，
+ * 其余没有对应字段的属性排在后面，用于 {@link ModifyAttrsRecordHandler} 通过 bitset 记录修改过的属性
+ */
+public class ModifyAttrsPropertyIndexes {
+
+    private final TableInfo tableInfo;
+    private final String[] properties;
+    private final Map<String, Integer> propertyIndexes = new HashMap<>();
+    private final Map<String, Integer> setterIndexes = new HashMap<>();
+
+    public ModifyAttrsPropertyIndexes(Class<?> entityClass) {
+        this.tableInfo = TableInfoFactory.ofEntityClass(entityClass);
+
+        List<String> propertyList = new ArrayList<>(Arrays.asList(tableInfo.getIndexedProperties()));
+        for (int i = 0; i < propertyList.size(); i++) {
+            propertyIndexes.put(propertyList.get(i), i);
+        }
+
+        for (Class<?> clazz = entityClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            for (Method method : clazz.getDeclaredMethods()) {
+                String methodName = method.getName();
+                int modifiers = method.getModifiers();
+                if (!methodName.startsWith("set") || methodName.length() == 3
+                        || Modifier.isStatic(modifiers) || Modifier.isPrivate(modifiers)
+                        || setterIndexes.containsKey(methodName)) {
+                    continue;
+                }
+
+                String property = StringUtil.firstCharToLowerCase(methodName.substring(3));
+                Integer index = propertyIndexes.get(property);
+                if (index == null) {
+                    index = propertyList.size();
+                    propertyList.add(property);
+                    propertyIndexes.put(property, index);
+                }
+                setterIndexes.put(methodName, index);
+            }
+        }
+
+        this.properties = propertyList.toArray(new String[0]);
+    }
+
+    public TableInfo getTableInfo() {
+        return tableInfo;
+    }
+
+    public int size() {
+        return properties.length;
+    }
+
+    public String getProperty(int index) {
+        return properties[index];
+    }
+
+    public Integer getPropertyIndex(String property) {
+        return propertyIndexes.get(property);
+    }
+
+    /**
+     * 获取 setter 方法对应的属性索引，不是 setter 方法时返回 null
+     */
+    public Integer getSetterIndex(String methodName) {
+        return setterIndexes.get(methodName);
+    }
+}
@@ -16,37 +16,168 @@
 package com.mybatisflex.core.javassist;
 
 
+import com.mybatisflex.core.table.TableInfo;
 import com.mybatisflex.core.util.StringUtil;
 import org.apache.ibatis.javassist.util.proxy.MethodHandler;
 
 import java.lang.reflect.Method;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 
+/**
+ * 通过 bitset 记录 entity 修改过的属性，bit 的位置为 {@link ModifyAttrsPropertyIndexes} 中属性的索引，
+ * 不在索引中的属性（比如手动 add 的属性）存放在 otherAttrs 中
+ */
 public class ModifyAttrsRecordHandler implements MethodHandler {
 
-    private Set<String>  modifyAttrs = new LinkedHashSet<>();
+    private final ModifyAttrsPropertyIndexes propertyIndexes;
+    private final BitSet modifyFlags;
+    private Set<String> otherAttrs;
+    private Set<String> modifyAttrs;
+
+    public ModifyAttrsRecordHandler() {
+        this(null);
+    }
+
+    public ModifyAttrsRecordHandler(ModifyAttrsPropertyIndexes propertyIndexes) {
+        this.propertyIndexes = propertyIndexes;
+        this.modifyFlags = new BitSet(propertyIndexes != null ? propertyIndexes.size() : 0);
+    }
 
     public Set<String> getModifyAttrs() {
+        if (modifyAttrs == null) {
+            modifyAttrs = new ModifyAttrsSet();
+        }
         return modifyAttrs;
     }
 
 
+    /**
+     * 获取修改过的字段，bit 的位置为字段在 tableInfo 中的索引（{@link TableInfo#getColumnIndex(String)}）
+     *
+     * @param tableInfo 表信息
+     * @return 不是同一个 tableInfo 或者有不在索引中的属性时返回 null
+     */
+    public BitSet getModifyColumnFlags(TableInfo tableInfo) {
+        if (propertyIndexes == null || propertyIndexes.getTableInfo() != tableInfo
+                || (otherAttrs != null && !otherAttrs.isEmpty())) {
+            return null;
+        }
+        return modifyFlags;
+    }
+
+
     @Override
     public Object invoke(Object self, Method originalMethod, Method proxyMethod, Object[] args) throws Throwable {
 
-        if (originalMethod.getName().startsWith("set")){
-            String property = StringUtil.firstCharToLowerCase(originalMethod.getName().substring(3));
-            modifyAttrs.add(property);
-//            ((ModifyAttrsRecord) self).addModifyAttr(property);
+        Integer index = propertyIndexes != null ? propertyIndexes.getSetterIndex(originalMethod.getName()) : null;
+        if (index != null) {
+            modifyFlags.set(index);
+        } else if (originalMethod.getName().startsWith("set")) {
+            getModifyAttrs().add(StringUtil.firstCharToLowerCase(originalMethod.getName().substring(3)));
         }
 
         return proxyMethod.invoke(self, args);
     }
 
 
+    private Integer indexOf(Object attr) {
+        return propertyIndexes != null && attr instanceof String ? propertyIndexes.getPropertyIndex((String) attr) : null;
+    }
 
-}
 
+    private class ModifyAttrsSet extends AbstractSet<String> {
+
+        @Override
+        public int size() {
+            return modifyFlags.cardinality() + (otherAttrs != null ? otherAttrs.size() : 0);
+        }
 
+        @Override
+        public boolean isEmpty() {
+            return modifyFlags.isEmpty() && (otherAttrs == null || otherAttrs.isEmpty());
+        }
+
+        @Override
+        public boolean contains(Object attr) {
+            Integer index = indexOf(attr);
+            if (index != null) {
+                return modifyFlags.get(index);
+            }
+            return otherAttrs != null && otherAttrs.contains(attr);
+        }
+
+        @Override
+        public boolean add(String attr) {
+            Integer index = indexOf(attr);
+            if (index != null) {
+                boolean exists = modifyFlags.get(index);
+                modifyFlags.set(index);
+                return !exists;
+            }
+            if (otherAttrs == null) {
+                otherAttrs = new LinkedHashSet<>();
+            }
+            return otherAttrs.add(attr);
+        }
+
+        @Override
+        public boolean remove(Object attr) {
+            Integer index = indexOf(attr);
+            if (index != null) {
+                boolean exists = modifyFlags.get(index);
+                modifyFlags.clear(index);
+                return exists;
+            }
+            return otherAttrs != null && otherAttrs.remove(attr);
+        }
+
+        @Override
+        public void clear() {
+            modifyFlags.clear();
+            if (otherAttrs != null) {
+                otherAttrs.clear();
+            }
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            List<String> attrs = new ArrayList<>(size());
+            for (int i = modifyFlags.nextSetBit(0); i >= 0; i = modifyFlags.nextSetBit(i + 1)) {
+                attrs.add(propertyIndexes.getProperty(i));
+            }
+            if (otherAttrs != null) {
+                attrs.addAll(otherAttrs);
+            }
+
+            Iterator<String> iterator = attrs.iterator();
+            return new Iterator<String>() {
+                private String current;
+
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public String next() {
+                    current = iterator.next();
+                    return current;
+                }
+
+                @Override
+                public void remove() {
+                    iterator.remove();
+                    ModifyAttrsSet.this.remove(current);
+                }
+            };
+        }
+    }
+
+}
@@ -18,8 +18,11 @@ package com.mybatisflex.core.javassist;
 import org.apache.ibatis.javassist.util.proxy.ProxyFactory;
 import org.apache.ibatis.javassist.util.proxy.ProxyObject;
 import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.util.MapUtil;
 
 import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 public class ModifyAttrsRecordProxyFactory {
@@ -32,21 +35,18 @@ public class ModifyAttrsRecordProxyFactory {
 
     private ModifyAttrsRecordProxyFactory(){}
 
-    public <T> T get(Class<T> target) {
-        ProxyFactory factory = new ProxyFactory();
-        factory.setSuperclass(target);
-
-        Class<?>[] interfaces = Arrays.copyOf(target.getInterfaces(), target.getInterfaces().length + 1);
-        interfaces[interfaces.length - 1] = ModifyAttrsRecord.class;
-        factory.setInterfaces(interfaces);
-
+    /**
+     * 每个 entity 类型只创建一次代理类，以及 setter 方法和属性索引的对应关系
+     */
+    private final Map<Class<?>, ProxyClass> proxyClasses = new ConcurrentHashMap<>();
 
-        final Class<?> proxyClass = factory.createClass();
+    public <T> T get(Class<T> target) {
+        ProxyClass proxyClass = MapUtil.computeIfAbsent(proxyClasses, target, ProxyClass::new);
 
         T proxyObject = null;
         try {
-            proxyObject = (T) proxyClass.newInstance();
-            ((ProxyObject) proxyObject).setHandler(new ModifyAttrsRecordHandler());
+            proxyObject = (T) proxyClass.clazz.newInstance();
+            ((ProxyObject) proxyObject).setHandler(new ModifyAttrsRecordHandler(proxyClass.propertyIndexes));
         } catch (Throwable e) {
             LogFactory.getLog(ModifyAttrsRecordProxyFactory.class).error(e.toString(),e);
         }
@@ -55,9 +55,26 @@ public class ModifyAttrsRecordProxyFactory {
     }
 
 
+    private static class ProxyClass {
 
+        private final ModifyAttrsPropertyIndexes propertyIndexes;
+        private final Class<?> clazz;
 
-}
+        ProxyClass(Class<?> target) {
+            this.propertyIndexes = new ModifyAttrsPropertyIndexes(target);
 
+            ProxyFactory factory = new ProxyFactory();
+            factory.setSuperclass(target);
 
+            Class<?>[] interfaces = Arrays.copyOf(target.getInterfaces(), target.getInterfaces().length + 1);
+            interfaces[interfaces.length - 1] = ModifyAttrsRecord.class;
+            factory.setInterfaces(interfaces);
 
+            //只拦截 setter 方法，其他方法直接调用父类的方法
+            factory.setFilter(method -> propertyIndexes.getSetterIndex(method.getName()) != null);
+
+            this.clazz = factory.createClass();
+        }
+    }
+
+}
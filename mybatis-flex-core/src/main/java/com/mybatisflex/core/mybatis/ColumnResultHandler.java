@@ -0,0 +1,176 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.mybatis;
+
+import com.mybatisflex.core.util.ConvertUtil;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 读取查询结果第一列数据的 ResultHandler，{@link FlexResultSetHandler} 会直接调用 {@link #handleResultSet(ResultSet)}
+ * 从 ResultSet 中读取数据，不创建 Row，数值类型也不会装箱
+ * 注意：数值类型的 null 值会被读取为 0
+ *
+ * @param <R> 读取的结果，例如 long[]
+ */
+public abstract class ColumnResultHandler<R> implements ResultHandler<Object> {
+
+    /**
+     * 直接从 ResultSet 中读取所有行的第一列数据
+     */
+    public abstract void handleResultSet(ResultSet rs) throws SQLException;
+
+    /**
+     * 读取到的结果
+     */
+    public abstract R getResult();
+
+
+    /**
+     * 有其他的 ResultSetHandler（比如插件）时，依然会通过 mybatis 逐行回调
+     */
+    @Override
+    public void handleResult(ResultContext<?> resultContext) {
+        handleValue(resultContext.getResultObject());
+    }
+
+    protected abstract void handleValue(Object value);
+
+
+    public static class LongArray extends ColumnResultHandler<long[]> {
+
+        private long[] values = new long[16];
+        private int size;
+
+        @Override
+        public void handleResultSet(ResultSet rs) throws SQLException {
+            while (rs.next()) {
+                add(rs.getLong(1));
+            }
+        }
+
+        @Override
+        protected void handleValue(Object value) {
+            Long l = ConvertUtil.toLong(value);
+            add(l != null ? l : 0L);
+        }
+
+        private void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size + (size >> 1));
+            }
+            values[size++] = value;
+        }
+
+        @Override
+        public long[] getResult() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+
+    public static class IntArray extends ColumnResultHandler<int[]> {
+
+        private int[] values = new int[16];
+        private int size;
+
+        @Override
+        public void handleResultSet(ResultSet rs) throws SQLException {
+            while (rs.next()) {
+                add(rs.getInt(1));
+            }
+        }
+
+        @Override
+        protected void handleValue(Object value) {
+            Integer i = ConvertUtil.toInt(value);
+            add(i != null ? i : 0);
+        }
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size + (size >> 1));
+            }
+            values[size++] = value;
+        }
+
+        @Override
+        public int[] getResult() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+
+    public static class DoubleArray extends ColumnResultHandler<double[]> {
+
+        private double[] values = new double[16];
+        private int size;
+
+        @Override
+        public void handleResultSet(ResultSet rs) throws SQLException {
+            while (rs.next()) {
+                add(rs.getDouble(1));
+            }
+        }
+
+        @Override
+        protected void handleValue(Object value) {
+            Double d = ConvertUtil.toDouble(value);
+            add(d != null ? d : 0D);
+        }
+
+        private void add(double value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size + (size >> 1));
+            }
+            values[size++] = value;
+        }
+
+        @Override
+        public double[] getResult() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+
+    public static class StringList extends ColumnResultHandler<List<String>> {
+
+        private final List<String> values = new ArrayList<>();
+
+        @Override
+        public void handleResultSet(ResultSet rs) throws SQLException {
+            while (rs.next()) {
+                values.add(rs.getString(1));
+            }
+        }
+
+        @Override
+        protected void handleValue(Object value) {
+            values.add(value != null ? value.toString() : null);
+        }
+
+        @Override
+        public List<String> getResult() {
+            return values;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.mybatis;
+
+import com.mybatisflex.core.table.TableInfo;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.session.AutoMappingBehavior;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.TypeHandler;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * entity 查询的 ResultSet 映射，根据 ResultSet 的列名把每一列绑定到 ResultMap 的 TypeHandler 和 entity 属性的索引上
+ * 同一个 MappedStatement 的 ResultSet 列名一般都是一样的，只有列名变化时才重新绑定
+ */
+class EntityResultSetMapping {
+
+    private final TableInfo tableInfo;
+    private final ResultMap resultMap;
+
+    //entity 没有无参构造方法时，mybatis 会通过构造方法映射创建 entity，此时不能使用
+    private final boolean instantiable;
+
+    private volatile Binding lastBinding;
+
+    EntityResultSetMapping(TableInfo tableInfo, ResultMap resultMap) {
+        this.tableInfo = tableInfo;
+        this.resultMap = resultMap;
+        this.instantiable = hasDefaultConstructor(tableInfo.getEntityClass());
+    }
+
+
+    TableInfo getTableInfo() {
+        return tableInfo;
+    }
+
+
+    /**
+     * 获取 ResultSet 列的绑定关系，有列需要 mybatis 的自动映射（比如 entity 中的非数据库字段）时返回 null
+     */
+    Binding getBinding(Configuration configuration, ResultSetMetaData metaData) throws SQLException {
+        int columnCount = metaData.getColumnCount();
+        String[] labels = new String[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            labels[i] = configuration.isUseColumnLabel() ? metaData.getColumnLabel(i + 1) : metaData.getColumnName(i + 1);
+        }
+
+        Binding binding = lastBinding;
+        if (binding == null || !Arrays.equals(binding.labels, labels)) {
+            binding = buildBinding(configuration, labels);
+            lastBinding = binding;
+        }
+        return binding.supported ? binding : null;
+    }
+
+
+    private Binding buildBinding(Configuration configuration, String[] labels) {
+        Map<String, ResultMapping> mappings = new HashMap<>();
+        for (ResultMapping resultMapping : resultMap.getPropertyResultMappings()) {
+            mappings.put(resultMapping.getColumn().toUpperCase(Locale.ENGLISH), resultMapping);
+        }
+
+        List<Integer> columnIndexes = new ArrayList<>();
+        List<ResultMapping> resultMappings = new ArrayList<>();
+        boolean supported = instantiable;
+        for (int i = 0; i < labels.length && supported; i++) {
+            String column = labels[i].toUpperCase(Locale.ENGLISH);
+            ResultMapping resultMapping = mappings.remove(column);
+            if (resultMapping != null) {
+                columnIndexes.add(i + 1);
+                resultMappings.add(resultMapping);
+            }
+            //重复的列名，mybatis 只读取第一个
+            else if (!resultMap.getMappedColumns().contains(column) && isAutoMappable(configuration, labels[i])) {
+                supported = false;
+            }
+        }
+
+        Binding binding = new Binding(labels, supported, columnIndexes.size());
+        for (int i = 0; i < binding.columnIndexes.length; i++) {
+            ResultMapping resultMapping = resultMappings.get(i);
+            binding.columnIndexes[i] = columnIndexes.get(i);
+            binding.typeHandlers[i] = resultMapping.getTypeHandler();
+            binding.properties[i] = resultMapping.getProperty();
+            binding.propertyTypes[i] = resultMapping.getJavaType();
+            binding.accessorIndexes[i] = tableInfo.getColumnIndex(resultMapping.getColumn());
+        }
+        return binding;
+    }
+
+
+    /**
+     * 没有在 ResultMap 中配置的列，是否会被 mybatis 自动映射到 entity 的属性上，
+     * 与 mybatis 一致，已经在 ResultMap 中配置了的属性不会被自动映射
+     */
+    private boolean isAutoMappable(Configuration configuration, String label) {
+        if (configuration.getAutoMappingBehavior() == AutoMappingBehavior.NONE) {
+            return false;
+        }
+        if (label.contains(".")) {
+            return true;
+        }
+        String name = configuration.isMapUnderscoreToCamelCase() ? label.replace("_", "") : label;
+        Reflector reflector = tableInfo.getReflector();
+        String property = reflector.findPropertyName(name);
+        return property != null && reflector.hasSetter(property) && !resultMap.getMappedProperties().contains(property);
+    }
+
+
+    private static boolean hasDefaultConstructor(Class<?> entityClass) {
+        try {
+            entityClass.getDeclaredConstructor();
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+
+    /**
+     * ResultSet 的列与 entity 属性的绑定关系
+     */
+    static class Binding {
+
+        private final String[] labels;
+        private final boolean supported;
+
+        final int[] columnIndexes;
+        final TypeHandler<?>[] typeHandlers;
+        final String[] properties;
+        final Class<?>[] propertyTypes;
+        final int[] accessorIndexes;
+
+        Binding(String[] labels, boolean supported, int size) {
+            this.labels = labels;
+            this.supported = supported;
+            this.columnIndexes = new int[size];
+            this.typeHandlers = new TypeHandler[size];
+            this.properties = new String[size];
+            this.propertyTypes = new Class[size];
+            this.accessorIndexes = new int[size];
+        }
+    }
+}
@@ -16,6 +16,7 @@
 package com.mybatisflex.core.mybatis;
 
 import com.mybatisflex.core.FlexConsts;
+import com.mybatisflex.core.FlexGlobalConfig;
 import com.mybatisflex.core.keygen.MultiEntityKeyGenerator;
 import com.mybatisflex.core.keygen.MultiRowKeyGenerator;
 import com.mybatisflex.core.keygen.MybatisKeyGeneratorUtil;
@@ -35,6 +36,7 @@ import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.NoKeyGenerator;
 import org.apache.ibatis.executor.keygen.SelectKeyGenerator;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
 import org.apache.ibatis.executor.statement.StatementHandler;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.Environment;
@@ -45,9 +47,12 @@ import org.apache.ibatis.transaction.Transaction;
 
 import java.lang.reflect.Proxy;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class FlexConfiguration extends Configuration {
 
+    //entity 查询的 ResultSet 映射，key 为 MappedStatement 的 id
+    private final Map<String, EntityResultSetMapping> entityResultSetMappings = new ConcurrentHashMap<>();
 
     public FlexConfiguration(Environment environment) {
         super(environment);
@@ -103,6 +108,29 @@ public class FlexConfiguration extends Configuration {
     }
 
 
+    /**
+     * 替换为 FlexResultSetHandler，开启 {@link FlexGlobalConfig#isFastResultMappingEnable()} 时，
+     * entity 的查询直接通过 ResultSet 的列索引填充 entity
+     */
+    @Override
+    public ResultSetHandler newResultSetHandler(Executor executor, MappedStatement mappedStatement, RowBounds rowBounds, ParameterHandler parameterHandler, ResultHandler resultHandler, BoundSql boundSql) {
+        EntityResultSetMapping entityResultSetMapping = getGlobalConfig().isFastResultMappingEnable()
+                ? entityResultSetMappings.get(mappedStatement.getId()) : null;
+        ResultSetHandler resultSetHandler = new FlexResultSetHandler(executor, mappedStatement, parameterHandler, resultHandler, boundSql, rowBounds, entityResultSetMapping);
+        resultSetHandler = (ResultSetHandler) interceptorChain.pluginAll(resultSetHandler);
+        return resultSetHandler;
+    }
+
+
+    /**
+     * 当前环境的全局配置，未配置时使用默认的全局配置
+     */
+    public FlexGlobalConfig getGlobalConfig() {
+        FlexGlobalConfig globalConfig = environment != null ? FlexGlobalConfig.getConfig(environment.getId()) : null;
+        return globalConfig != null ? globalConfig : FlexGlobalConfig.getDefaultConfig();
+    }
+
+
     /**
      * 替换为 Flex 的 Executor，主要用于重建 CacheKey
      * 默认情况下，Mybatis 的 CacheKey 构建是必须有 ParameterMapping，而 Flex 的 select 是不带有 ParameterMapping 的
@@ -167,6 +195,7 @@ public class FlexConfiguration extends Configuration {
             resultMap = tableInfo.buildResultMap(this);
             this.addResultMap(resultMap);
         }
+        entityResultSetMappings.put(ms.getId(), new EntityResultSetMapping(tableInfo, resultMap));
 
         return new MappedStatement.Builder(ms.getConfiguration(), ms.getId(), ms.getSqlSource(), ms.getSqlCommandType())
                 .resource(ms.getResource())
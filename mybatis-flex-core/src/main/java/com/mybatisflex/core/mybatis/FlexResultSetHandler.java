@@ -0,0 +1,254 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.mybatis;
+
+import com.mybatisflex.core.FlexGlobalConfig;
+import com.mybatisflex.core.row.CompactRow;
+import com.mybatisflex.core.row.Row;
+import com.mybatisflex.core.table.EntityAccessor;
+import com.mybatisflex.core.table.TableInfo;
+import org.apache.ibatis.executor.ErrorContext;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
+import org.apache.ibatis.executor.resultset.ResultSetWrapper;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
+import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.session.AutoMappingBehavior;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.type.TypeHandler;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * entity 查询的 ResultSetHandler，直接通过列的索引和 TypeHandler 读取数据，并通过 {@link EntityAccessor} 填充 entity，
+ * 不再经过 mybatis 的 ResultMap 映射和 MetaObject
+ * 以下情况依然使用 mybatis 默认的处理：自定义 ResultHandler、RowBounds 分页、有需要自动映射的列（比如 entity 中的非数据库字段）
+ * 开启 {@link FlexGlobalConfig#isCompactRowEnable()} 时，Row 的查询结果使用 {@link CompactRow}
+ * 使用 {@link ColumnResultHandler} 查询时，直接从 ResultSet 中读取第一列的数据
+ */
+public class FlexResultSetHandler extends DefaultResultSetHandler {
+
+    private final MappedStatement mappedStatement;
+    private final Configuration configuration;
+    private final FlexGlobalConfig globalConfig;
+    private final ResultHandler<?> resultHandler;
+    private final RowBounds rowBounds;
+    private final EntityResultSetMapping entityResultSetMapping;
+
+    public FlexResultSetHandler(Executor executor, MappedStatement mappedStatement, ParameterHandler parameterHandler
+            , ResultHandler<?> resultHandler, BoundSql boundSql, RowBounds rowBounds) {
+        this(executor, mappedStatement, parameterHandler, resultHandler, boundSql, rowBounds, null);
+    }
+
+    FlexResultSetHandler(Executor executor, MappedStatement mappedStatement, ParameterHandler parameterHandler
+            , ResultHandler<?> resultHandler, BoundSql boundSql, RowBounds rowBounds, EntityResultSetMapping entityResultSetMapping) {
+        super(executor, mappedStatement, parameterHandler, resultHandler, boundSql, rowBounds);
+        this.mappedStatement = mappedStatement;
+        this.configuration = mappedStatement.getConfiguration();
+        this.globalConfig = configuration instanceof FlexConfiguration
+                ? ((FlexConfiguration) configuration).getGlobalConfig() : FlexGlobalConfig.getDefaultConfig();
+        this.resultHandler = resultHandler;
+        this.rowBounds = rowBounds;
+        this.entityResultSetMapping = entityResultSetMapping;
+    }
+
+
+    @Override
+    public List<Object> handleResultSets(Statement stmt) throws SQLException {
+        if (resultHandler instanceof ColumnResultHandler && rowBounds == RowBounds.DEFAULT) {
+            return handleColumn(stmt, (ColumnResultHandler<?>) resultHandler);
+        }
+
+        if (resultHandler != null || rowBounds != RowBounds.DEFAULT) {
+            return super.handleResultSets(stmt);
+        }
+
+        if (entityResultSetMapping == null) {
+            return isCompactRowResult() ? handleCompactRows(stmt) : super.handleResultSets(stmt);
+        }
+
+        ErrorContext.instance().activity("handling results").object(mappedStatement.getId());
+
+        ResultSet rs = getFirstResultSet(stmt);
+        if (rs == null) {
+            return new ArrayList<>();
+        }
+
+        EntityResultSetMapping.Binding binding = entityResultSetMapping.getBinding(configuration, rs.getMetaData());
+        if (binding == null) {
+            //当前的 ResultSet 还未读取，交给 mybatis 处理，mybatis 会再次调用 getResultSet，需要返回已经获取的 ResultSet
+            return super.handleResultSets(withFetchedResultSet(stmt, rs));
+        }
+
+        try {
+            return handleEntities(rs, binding);
+        } finally {
+            rs.close();
+        }
+    }
+
+
+    private List<Object> handleEntities(ResultSet rs, EntityResultSetMapping.Binding binding) throws SQLException {
+        TableInfo tableInfo = entityResultSetMapping.getTableInfo();
+        EntityAccessor entityAccessor = tableInfo.getEntityAccessor();
+        ObjectFactory objectFactory = configuration.getObjectFactory();
+        boolean defaultObjectFactory = objectFactory.getClass() == DefaultObjectFactory.class;
+        boolean callSettersOnNulls = configuration.isCallSettersOnNulls();
+        boolean returnInstanceForEmptyRow = configuration.isReturnInstanceForEmptyRow();
+
+        List<Object> entities = new ArrayList<>();
+        while (rs.next()) {
+            Object entity = defaultObjectFactory ? entityAccessor.newInstance() : objectFactory.create(tableInfo.getEntityClass());
+            boolean foundValues = false;
+            for (int i = 0; i < binding.columnIndexes.length; i++) {
+                Object value = binding.typeHandlers[i].getResult(rs, binding.columnIndexes[i]);
+                if (value != null) {
+                    foundValues = true;
+                } else if (!callSettersOnNulls || binding.propertyTypes[i].isPrimitive()) {
+                    continue;
+                }
+                value = tableInfo.invokeOnSetListener(entity, binding.properties[i], value);
+                entityAccessor.set(entity, binding.accessorIndexes[i], value);
+            }
+            //与 mybatis 保持一致，所有列都为 null 时返回 null
+            entities.add(foundValues || returnInstanceForEmptyRow ? entity : null);
+        }
+        return entities;
+    }
+
+
+    private List<Object> handleColumn(Statement stmt, ColumnResultHandler<?> columnResultHandler) throws SQLException {
+        ErrorContext.instance().activity("handling results").object(mappedStatement.getId());
+
+        ResultSet rs = getFirstResultSet(stmt);
+        if (rs != null) {
+            try {
+                columnResultHandler.handleResultSet(rs);
+            } finally {
+                rs.close();
+            }
+        }
+        return new ArrayList<>();
+    }
+
+
+    /**
+     * 开启 {@link FlexGlobalConfig#isCompactRowEnable()} 时，返回值为 Row 的查询使用 CompactRow
+     */
+    private boolean isCompactRowResult() {
+        if (!globalConfig.isCompactRowEnable()
+                || configuration.getObjectFactory().getClass() != DefaultObjectFactory.class
+                || configuration.getAutoMappingBehavior() == AutoMappingBehavior.NONE
+                || mappedStatement.getResultSets() != null) {
+            return false;
+        }
+        List<ResultMap> resultMaps = mappedStatement.getResultMaps();
+        return resultMaps.size() == 1 && resultMaps.get(0).getType() == Row.class
+                && resultMaps.get(0).getResultMappings().isEmpty();
+    }
+
+
+    private List<Object> handleCompactRows(Statement stmt) throws SQLException {
+        ErrorContext.instance().activity("handling results").object(mappedStatement.getId());
+
+        ResultSet rs = getFirstResultSet(stmt);
+        if (rs == null) {
+            return new ArrayList<>();
+        }
+
+        try {
+            //与 mybatis 对 Map 的自动映射保持一致，使用 Object 类型的 TypeHandler
+            ResultSetWrapper rsw = new ResultSetWrapper(rs, configuration);
+            List<String> columnNames = rsw.getColumnNames();
+            TypeHandler<?>[] typeHandlers = new TypeHandler[columnNames.size()];
+            for (int i = 0; i < typeHandlers.length; i++) {
+                typeHandlers[i] = rsw.getTypeHandler(Object.class, columnNames.get(i));
+            }
+
+            CompactRow.Header header = new CompactRow.Header(columnNames);
+            boolean callSettersOnNulls = configuration.isCallSettersOnNulls();
+            boolean returnInstanceForEmptyRow = configuration.isReturnInstanceForEmptyRow();
+
+            List<Object> rows = new ArrayList<>();
+            while (rs.next()) {
+                Object[] values = new Object[typeHandlers.length];
+                boolean foundValues = false;
+                for (int i = 0; i < typeHandlers.length; i++) {
+                    Object value = typeHandlers[i].getResult(rs, i + 1);
+                    if (value != null) {
+                        foundValues = true;
+                    } else if (!callSettersOnNulls) {
+                        value = CompactRow.absent();
+                    }
+                    values[i] = value;
+                }
+                rows.add(foundValues || returnInstanceForEmptyRow ? new CompactRow(header, values) : null);
+            }
+            return rows;
+        } finally {
+            rs.close();
+        }
+    }
+
+
+    /**
+     * 部分 jdbc 驱动对同一个结果多次调用 getResultSet 时返回 null，已经获取过 ResultSet 的 Statement 交给 mybatis 处理时，
+     * 第一次调用 getResultSet 返回已经获取的 ResultSet，其他方法直接调用原来的 Statement
+     */
+    private static Statement withFetchedResultSet(Statement stmt, ResultSet rs) {
+        boolean[] fetched = {false};
+        return (Statement) Proxy.newProxyInstance(FlexResultSetHandler.class.getClassLoader(), new Class[]{Statement.class}
+                , (proxy, method, args) -> {
+                    if (!fetched[0] && "getResultSet".equals(method.getName())) {
+                        fetched[0] = true;
+                        return rs;
+                    }
+                    try {
+                        return method.invoke(stmt, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+
+
+    /**
+     * 与 mybatis 一致，跳过 ResultSet 之前的更新数量
+     */
+    private static ResultSet getFirstResultSet(Statement stmt) throws SQLException {
+        ResultSet rs = stmt.getResultSet();
+        while (rs == null) {
+            if (stmt.getMoreResults()) {
+                rs = stmt.getResultSet();
+            } else if (stmt.getUpdateCount() == -1) {
+                break;
+            }
+        }
+        return rs;
+    }
+}
@@ -16,6 +16,7 @@
 package com.mybatisflex.core.mybatis;
 
 import com.mybatisflex.core.audit.AuditManager;
+import com.mybatisflex.core.dialect.DialectFactory;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
@@ -42,6 +43,7 @@ import java.util.List;
 public class FlexStatementHandler implements StatementHandler {
 
     private final StatementHandler delegate;
+    private final MappedStatement ms;
     private final BoundSql boundSql;
     private final boolean auditEnable = AuditManager.isAuditEnable();
 
@@ -63,6 +65,7 @@ public class FlexStatementHandler implements StatementHandler {
                 throw new ExecutorException("Unknown statement type: " + ms.getStatementType());
         }
 
+        this.ms = ms;
         this.boundSql = delegate.getBoundSql();
     }
 
@@ -102,6 +105,11 @@ public class FlexStatementHandler implements StatementHandler {
 
     @Override
     public <E> Cursor<E> queryCursor(Statement statement) throws SQLException {
+        //没有配置 fetchSize 时，使用方言的 fetchSize，比如 mysql 需要设置为 Integer.MIN_VALUE 才能流式读取
+        //注意：postgresql 等数据库还需要关闭 autoCommit 才能生效
+        if (ms.getFetchSize() == null && ms.getConfiguration().getDefaultFetchSize() == null) {
+            statement.setFetchSize(DialectFactory.getDialect().getCursorFetchSize());
+        }
         return auditEnable ? AuditManager.startAudit(() -> delegate.queryCursor(statement), boundSql)
                 : delegate.queryCursor(statement);
     }
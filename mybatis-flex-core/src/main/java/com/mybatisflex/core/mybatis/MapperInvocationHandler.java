@@ -16,11 +16,14 @@
 package com.mybatisflex.core.mybatis;
 
 import com.mybatisflex.annotation.UseDataSource;
+import com.mybatisflex.core.FlexConsts;
 import com.mybatisflex.core.FlexGlobalConfig;
 import com.mybatisflex.core.datasource.DataSourceKey;
 import com.mybatisflex.core.datasource.FlexDataSource;
 import com.mybatisflex.core.dialect.DbType;
 import com.mybatisflex.core.dialect.DialectFactory;
+import com.mybatisflex.core.dialect.IDialect;
+import com.mybatisflex.core.provider.InsertBatchPlanner;
 import com.mybatisflex.core.row.RowMapper;
 import com.mybatisflex.core.table.TableInfo;
 import com.mybatisflex.core.table.TableInfoFactory;
@@ -29,6 +32,9 @@ import org.apache.ibatis.session.Configuration;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 public class MapperInvocationHandler implements InvocationHandler {
 
@@ -71,6 +77,14 @@ public class MapperInvocationHandler implements InvocationHandler {
                 DialectFactory.setHintDbType(dbType);
                 clearDbType = true;
             }
+
+            //参数数量超出数据库的限制时，拆分成多条 sql 执行
+            if (isSplittable(method, args)) {
+                return invokeBySplit(proxy, method, args);
+            }
+            if (isInsertBatch(method, args)) {
+                return invokeInsertBatchBySplit(proxy, method, (List<?>) args[0]);
+            }
             return method.invoke(mapper, args);
         } finally {
             if (clearDbType) {
@@ -83,6 +97,96 @@ public class MapperInvocationHandler implements InvocationHandler {
     }
 
 
+    private static boolean isSplittable(Method method, Object[] args) {
+        return args != null && args.length > 0
+                && args[args.length - 1] instanceof Collection
+                && ("selectListByIds".equals(method.getName()) || "deleteBatchByIds".equals(method.getName()));
+    }
+
+
+    /**
+     * 拆分 selectListByIds 和 deleteBatchByIds 的 ids 分批执行
+     * 注意：deleteBatchByIds 拆分后的多条 sql 不是原子的，没有事务时，中途失败会导致部分数据已被删除
+     */
+    private Object invokeBySplit(Object proxy, Method method, Object[] args) throws Throwable {
+        int primaryKeyCount;
+        int reservedCount = 0;
+
+        //RowMapper.deleteBatchByIds(tableName, primaryKey, ids)
+        if (args.length == 3) {
+            primaryKeyCount = ((String) args[1]).split(",").length;
+        } else {
+            TableInfo tableInfo = TableInfoFactory.ofMapperClass(proxy.getClass().getInterfaces()[0]);
+            if (tableInfo == null) {
+                return method.invoke(mapper, args);
+            }
+            primaryKeyCount = tableInfo.getPrimaryKeys().length;
+            Object[] tenantIdArgs = tableInfo.buildTenantIdArgs();
+            if (tenantIdArgs != null) {
+                reservedCount = tenantIdArgs.length;
+            }
+        }
+
+        List<?> ids = new ArrayList<>((Collection<?>) args[args.length - 1]);
+        int maxParameterCount = DialectFactory.getDialect().getMaxParameterCount() - reservedCount;
+
+        //多主键时，ids 中每 primaryKeyCount 个值为一组主键
+        int splitSize = Math.max(1, maxParameterCount / primaryKeyCount) * primaryKeyCount;
+        if (ids.size() <= splitSize) {
+            return method.invoke(mapper, args);
+        }
+
+        List<Object> resultList = null;
+        int resultCount = 0;
+        for (int start = 0; start < ids.size(); start += splitSize) {
+            Object[] splitArgs = args.clone();
+            splitArgs[args.length - 1] = ids.subList(start, Math.min(start + splitSize, ids.size()));
+            Object result = method.invoke(mapper, splitArgs);
+            if (result instanceof List) {
+                if (resultList == null) {
+                    resultList = new ArrayList<>();
+                }
+                resultList.addAll((List<?>) result);
+            } else if (result instanceof Number) {
+                resultCount += ((Number) result).intValue();
+            }
+        }
+        return resultList != null ? resultList : resultCount;
+    }
+
+
+    private static boolean isInsertBatch(Method method, Object[] args) {
+        return args != null && args.length == 1
+                && args[0] instanceof List
+                && (FlexConsts.METHOD_INSERT_BATCH.equals(method.getName()) || "upsertBatch".equals(method.getName()));
+    }
+
+
+    /**
+     * 直接调用 insertBatch(List) 或者 upsertBatch(List) 时，数据超出数据库参数数量或者 sql 大小的限制，拆分成多条 sql 执行
+     */
+    private Object invokeInsertBatchBySplit(Object proxy, Method method, List<?> entities) throws Throwable {
+        TableInfo tableInfo = TableInfoFactory.ofMapperClass(proxy.getClass().getInterfaces()[0]);
+        if (tableInfo == null || entities.isEmpty()) {
+            return method.invoke(mapper, entities);
+        }
+
+        IDialect dialect = DialectFactory.getDialect();
+        int batchSize = FlexConsts.METHOD_INSERT_BATCH.equals(method.getName())
+                ? InsertBatchPlanner.computeBatchSize(tableInfo, dialect, entities, Integer.MAX_VALUE)
+                : InsertBatchPlanner.computeUpsertBatchSize(tableInfo, dialect, entities, Integer.MAX_VALUE);
+        if (entities.size() <= batchSize) {
+            return method.invoke(mapper, entities);
+        }
+
+        int resultCount = 0;
+        for (List<?> list : InsertBatchPlanner.split(entities, batchSize)) {
+            resultCount += (int) method.invoke(mapper, list);
+        }
+        return resultCount;
+    }
+
+
     private static String getConfigDataSourceKey(Method method, Object proxy) {
         UseDataSource useDataSource = method.getAnnotation(UseDataSource.class);
         if (useDataSource != null && StringUtil.isNotBlank(useDataSource.value())) {
@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.mybatis;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.SqlSession;
+
+import java.util.Iterator;
+
+/**
+ * 持有 SqlSession 的游标，游标关闭（或者数据读取完毕）时同时关闭 SqlSession，释放数据库连接
+ * 用于 SqlSession 由 mybatis-flex 自己创建的场景，比如 Db 和 MybatisFlexBootstrap 的 mapper
+ */
+public class SqlSessionCursor<T> implements Cursor<T> {
+
+    private final Cursor<T> cursor;
+    private final SqlSession sqlSession;
+    private boolean closed = false;
+
+    public SqlSessionCursor(Cursor<T> cursor, SqlSession sqlSession) {
+        this.cursor = cursor;
+        this.sqlSession = sqlSession;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return cursor.isOpen();
+    }
+
+    @Override
+    public boolean isConsumed() {
+        return cursor.isConsumed();
+    }
+
+    @Override
+    public int getCurrentIndex() {
+        return cursor.getCurrentIndex();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        Iterator<T> iterator = cursor.iterator();
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                boolean hasNext = iterator.hasNext();
+                if (!hasNext) {
+                    close();
+                }
+                return hasNext;
+            }
+
+            @Override
+            public T next() {
+                return iterator.next();
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            cursor.close();
+        } catch (Exception e) {
+            //ignore, sqlSession.close() 会关闭游标
+        } finally {
+            sqlSession.close();
+        }
+    }
+}
@@ -37,4 +37,16 @@ public class TypeHandlerObject implements Serializable {
     public void setParameter(PreparedStatement ps, int i) throws SQLException {
         typeHandler.setParameter(ps, i, value, jdbcType);
     }
+
+    public TypeHandler getTypeHandler() {
+        return typeHandler;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public JdbcType getJdbcType() {
+        return jdbcType;
+    }
 }
@@ -18,14 +18,14 @@ package com.mybatisflex.core.mybatis.executor;
 import com.mybatisflex.core.FlexConsts;
 import org.apache.ibatis.cache.CacheKey;
 
-import java.util.Arrays;
 import java.util.Map;
 
 public interface CacheKeyBuilder {
 
     default CacheKey buildCacheKey(CacheKey cacheKey, Object parameterObject){
         if (parameterObject instanceof Map && ((Map) parameterObject).containsKey(FlexConsts.SQL_ARGS)){
-            cacheKey.update(Arrays.toString((Object[]) ((Map<?, ?>) parameterObject).get(FlexConsts.SQL_ARGS)));
+            //逐个比较参数，而不是把所有参数转换为字符串，见 SqlArgsKey
+            cacheKey.update(new SqlArgsKey((Object[]) ((Map<?, ?>) parameterObject).get(FlexConsts.SQL_ARGS)));
         }
         return cacheKey;
     }
@@ -0,0 +1,184 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.mybatis.executor;
+
+import com.mybatisflex.core.FlexConsts;
+import com.mybatisflex.core.cache.EntityCache;
+import com.mybatisflex.core.cache.QueryResultCache;
+import com.mybatisflex.core.cache.TableVersions;
+import com.mybatisflex.core.paginate.PaginateCountCache;
+import com.mybatisflex.core.util.ArrayUtil;
+import org.apache.ibatis.binding.MapperMethod;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Executor 中分页总数缓存、查询结果缓存和 entity 缓存的处理，记录当前 Executor（SqlSession）修改过的表，
+ * 这些表在提交之前不会读取和写入缓存，提交、回滚或者关闭时再次使缓存失效
+ */
+class ExecutorCacheSupport {
+
+    private final Set<String> writtenTables = new HashSet<>();
+
+
+    void afterUpdate(MappedStatement ms, Object parameter) {
+        if (!PaginateCountCache.isEnable() && !QueryResultCache.isEnable() && !EntityCache.isEnable()) {
+            return;
+        }
+        String tableName = TableVersions.getWriteTable(ms, parameter);
+        TableVersions.onWrite(tableName);
+        writtenTables.add(tableName);
+    }
+
+
+    <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler<?> resultHandler
+            , BoundSql boundSql, QueryExecution<E> execution) throws SQLException {
+        if (resultHandler == null && rowBounds == RowBounds.DEFAULT && parameter instanceof Map) {
+            EntityCache.Region region = EntityCache.getRegion(ms);
+            if (region != null) {
+                return queryByIds(region, ms, (Map<?, ?>) parameter, boundSql, execution);
+            }
+        }
+
+        QueryResultCache.Key key = resultHandler == null ? QueryResultCache.createKey(ms, parameter, rowBounds, boundSql) : null;
+        if (key == null || TableVersions.containsAny(writtenTables, key.getTables())) {
+            return execution.execute(parameter, boundSql);
+        }
+
+        List<E> result = QueryResultCache.get(key);
+        if (result == null) {
+            result = execution.execute(parameter, boundSql);
+            QueryResultCache.put(key, result);
+        }
+        return result;
+    }
+
+
+    /**
+     * selectOneById 和 selectListByIds 先从 entity 缓存中获取，只查询缓存中不存在的主键，结果按照传入的主键顺序排列
+     */
+    @SuppressWarnings("unchecked")
+    private <E> List<E> queryByIds(EntityCache.Region region, MappedStatement ms, Map<?, ?> parameter, BoundSql boundSql
+            , QueryExecution<E> execution) throws SQLException {
+        Object[] ids = getPrimaryValues(parameter);
+        if (ArrayUtil.isEmpty(ids) || TableVersions.containsAny(writtenTables, region.getTables())) {
+            return execution.execute(parameter, boundSql);
+        }
+
+        long version = region.getVersion();
+        long globalVersion = TableVersions.getGlobalVersion();
+
+        EntityCache.Key[] keys = new EntityCache.Key[ids.length];
+        Map<EntityCache.Key, Object> entities = new HashMap<>(ids.length);
+        List<Object> missingIds = new ArrayList<>();
+        List<E> unmatchedEntities = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == null) {
+                continue;
+            }
+            keys[i] = region.createKey(ids[i]);
+            Object entity = region.get(keys[i]);
+            if (entity != null) {
+                entities.put(keys[i], entity);
+            } else {
+                missingIds.add(ids[i]);
+            }
+        }
+
+        if (!missingIds.isEmpty()) {
+            List<E> loaded;
+            if (missingIds.size() == ids.length) {
+                loaded = execution.execute(parameter, boundSql);
+            } else {
+                MapperMethod.ParamMap<Object> missingParameter = new MapperMethod.ParamMap<>();
+                missingParameter.putAll((Map<String, Object>) parameter);
+                missingParameter.put(FlexConsts.PRIMARY_VALUE, missingIds);
+                loaded = execution.execute(missingParameter, ms.getBoundSql(missingParameter));
+            }
+
+            for (E entity : loaded) {
+                Object id = entity != null ? region.getId(entity) : null;
+                if (id == null) {
+                    unmatchedEntities.add(entity);
+                    continue;
+                }
+                EntityCache.Key key = region.createKey(id);
+                region.put(key, entity, version, globalVersion);
+                entities.put(key, entity);
+            }
+        }
+
+        List<E> result = new ArrayList<>(entities.size() + unmatchedEntities.size());
+        Set<EntityCache.Key> addedKeys = new HashSet<>();
+        for (EntityCache.Key key : keys) {
+            Object entity = key != null ? entities.get(key) : null;
+            if (entity != null && addedKeys.add(key)) {
+                result.add((E) entity);
+            }
+        }
+        //传入的主键和 entity 的主键类型不同（例如 BigDecimal 和 Long）时，可能无法对应，这些数据放在最后
+        if (addedKeys.size() < entities.size()) {
+            for (Map.Entry<EntityCache.Key, Object> entry : entities.entrySet()) {
+                if (!addedKeys.contains(entry.getKey())) {
+                    result.add((E) entry.getValue());
+                }
+            }
+        }
+        result.addAll(unmatchedEntities);
+        return result;
+    }
+
+
+    private static Object[] getPrimaryValues(Map<?, ?> parameter) {
+        Object primaryValue = parameter.containsKey(FlexConsts.PRIMARY_VALUE) ? parameter.get(FlexConsts.PRIMARY_VALUE) : null;
+        if (primaryValue == null) {
+            return null;
+        }
+        //基本类型的数组不使用缓存
+        if (primaryValue.getClass().isArray()) {
+            return primaryValue instanceof Object[] ? (Object[]) primaryValue : null;
+        } else if (primaryValue instanceof Collection) {
+            return ((Collection<?>) primaryValue).toArray();
+        } else {
+            return new Object[]{primaryValue};
+        }
+    }
+
+
+    void afterCompletion() {
+        if (writtenTables.isEmpty()) {
+            return;
+        }
+        TableVersions.onSessionCompletion(writtenTables);
+        writtenTables.clear();
+    }
+
+
+    interface QueryExecution<E> {
+        List<E> execute(Object parameter, BoundSql boundSql) throws SQLException;
+    }
+}
@@ -15,6 +15,7 @@
  */
 package com.mybatisflex.core.mybatis.executor;
 
+import com.mybatisflex.core.FlexGlobalConfig;
 import com.mybatisflex.core.keygen.RowKeyGenerator;
 import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.executor.BatchExecutor;
@@ -27,6 +28,7 @@ import org.apache.ibatis.executor.statement.StatementHandler;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.transaction.Transaction;
 
@@ -36,18 +38,32 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * BATCH 模式的 Executor，连续执行相同的 sql 时在同一个 Statement 中累积，
+ * 配置了 {@link FlexGlobalConfig#setBatchMaxOpenStatements(int)} 大于 1 时，交替执行多条不同的 sql 也不会每次切换都重新创建 Statement，
+ * flush 时按照 Statement 第一次使用的顺序执行
+ * 注意：此时执行的顺序与调用的顺序可能不同，例如交替插入 order 和 order_item 时，所有的 order 会先被插入
+ */
 public class FlexBatchExecutor extends BatchExecutor implements CacheKeyBuilder {
 
-    private final List<Statement> statementList = new ArrayList<>();
-    private final List<BatchResult> batchResultList = new ArrayList<>();
-    private String currentSql;
-    private MappedStatement currentStatement;
+    //按照第一次使用的顺序保存，超出 maxOpenStatements 时，最早使用的 Statement 会被提前执行
+    private final Map<StatementKey, BatchStatement> batchStatements = new LinkedHashMap<>();
+    private final List<BatchResult> executedResults = new ArrayList<>();
+    private final int maxOpenStatements;
+    private final ExecutorCacheSupport cacheSupport = new ExecutorCacheSupport();
+
+    //当前批次中执行的序号，用于还原每条数据的执行结果
+    private int sequence;
 
 
     public FlexBatchExecutor(Configuration configuration, Transaction transaction) {
         super(configuration, transaction);
+        this.maxOpenStatements = Math.max(1, FlexGlobalConfig.getDefaultConfig().getBatchMaxOpenStatements());
     }
 
     @Override
@@ -55,92 +71,199 @@ public class FlexBatchExecutor extends BatchExecutor implements CacheKeyBuilder
         return buildCacheKey(super.createCacheKey(ms, parameterObject, rowBounds, boundSql), parameterObject);
     }
 
+    @Override
+    public int update(MappedStatement ms, Object parameter) throws SQLException {
+        int result = super.update(ms, parameter);
+        //数据被修改后，使分页的总数缓存和查询结果缓存失效
+        cacheSupport.afterUpdate(ms, parameter);
+        return result;
+    }
+
+    @Override
+    public <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, CacheKey key, BoundSql boundSql) throws SQLException {
+        return cacheSupport.query(ms, parameter, rowBounds, resultHandler, boundSql
+                , (param, sql) -> super.query(ms, param, rowBounds, resultHandler
+                        , param == parameter ? key : createCacheKey(ms, param, rowBounds, sql), sql));
+    }
+
+    @Override
+    public void commit(boolean required) throws SQLException {
+        try {
+            super.commit(required);
+        } finally {
+            cacheSupport.afterCompletion();
+        }
+    }
+
+    @Override
+    public void rollback(boolean required) throws SQLException {
+        try {
+            super.rollback(required);
+        } finally {
+            cacheSupport.afterCompletion();
+        }
+    }
+
+    @Override
+    public void close(boolean forceRollback) {
+        try {
+            super.close(forceRollback);
+        } finally {
+            cacheSupport.afterCompletion();
+        }
+    }
+
     @Override
     public int doUpdate(MappedStatement ms, Object parameterObject) throws SQLException {
         final Configuration configuration = ms.getConfiguration();
         final StatementHandler handler = configuration.newStatementHandler(this, ms, parameterObject, RowBounds.DEFAULT, null, null);
         final BoundSql boundSql = handler.getBoundSql();
         final String sql = boundSql.getSql();
-        final Statement stmt;
-        if (sql.equals(currentSql) && ms.equals(currentStatement)) {
-            int last = statementList.size() - 1;
-            stmt = statementList.get(last);
-            applyTransactionTimeout(stmt);
-            handler.parameterize(stmt);// fix Issues 322
-            BatchResult batchResult = batchResultList.get(last);
-            batchResult.addParameterObject(parameterObject);
+        final StatementKey key = new StatementKey(ms, sql);
+
+        BatchStatement batchStatement = batchStatements.get(key);
+        if (batchStatement != null) {
+            applyTransactionTimeout(batchStatement.statement);
+            handler.parameterize(batchStatement.statement);// fix Issues 322
         } else {
+            if (batchStatements.size() >= maxOpenStatements) {
+                executeEldestStatement();
+            }
             Connection connection = getConnection(ms.getStatementLog());
-            stmt = handler.prepare(connection, transaction.getTimeout());
+            Statement stmt = handler.prepare(connection, transaction.getTimeout());
             handler.parameterize(stmt);    // fix Issues 322
-            currentSql = sql;
-            currentStatement = ms;
-            statementList.add(stmt);
-            batchResultList.add(new BatchResult(ms, sql, parameterObject));
+            batchStatement = new BatchStatement(stmt, new FlexBatchResult(ms, sql));
+            batchStatements.put(key, batchStatement);
         }
-        handler.batch(stmt);
+        batchStatement.batchResult.addParameterObject(parameterObject, sequence++);
+        handler.batch(batchStatement.statement);
         return BATCH_UPDATE_RETURN_VALUE;
     }
 
 
+    /**
+     * 打开的 Statement 数量超出限制时，提前执行最早使用的 Statement，执行结果在 flush 时返回
+     */
+    private void executeEldestStatement() throws SQLException {
+        Iterator<BatchStatement> iterator = batchStatements.values().iterator();
+        BatchStatement eldest = iterator.next();
+        iterator.remove();
+        try {
+            executeBatch(eldest, executedResults.size(), executedResults);
+        } finally {
+            closeStatement(eldest.statement);
+        }
+        executedResults.add(eldest.batchResult);
+    }
+
+
     @Override
     public List<BatchResult> doFlushStatements(boolean isRollback) throws SQLException {
         try {
-            List<BatchResult> results = new ArrayList<>();
             if (isRollback) {
                 return Collections.emptyList();
             }
-            for (int i = 0, n = statementList.size(); i < n; i++) {
-                Statement stmt = statementList.get(i);
-                applyTransactionTimeout(stmt);
-                BatchResult batchResult = batchResultList.get(i);
-                try {
-                    batchResult.setUpdateCounts(stmt.executeBatch());
-                    MappedStatement ms = batchResult.getMappedStatement();
-                    List<Object> parameterObjects = batchResult.getParameterObjects();
-                    KeyGenerator keyGenerator = ms.getKeyGenerator();
-                    if (Jdbc3KeyGenerator.class.equals(keyGenerator.getClass())) {
-                        Jdbc3KeyGenerator jdbc3KeyGenerator = (Jdbc3KeyGenerator) keyGenerator;
-                        jdbc3KeyGenerator.processBatch(ms, stmt, parameterObjects);
-                    }
-                    // 修复批量插入并设置主键时出错
-                    // fixed https://gitee.com/mybatis-flex/mybatis-flex/issues/I6Y8ZU
-                    else if (RowKeyGenerator.class.equals(keyGenerator.getClass())
-                            && ((RowKeyGenerator) keyGenerator).hasGeneratedKeys()) {
-                        keyGenerator.processAfter(this, ms, stmt, parameterObjects);
-                    }
-                    // issue #141
-                    else if (!NoKeyGenerator.class.equals(keyGenerator.getClass())) {
-                        for (Object parameter : parameterObjects) {
-                            keyGenerator.processAfter(this, ms, stmt, parameter);
-                        }
-                    }
-                    // Close statement to close cursor #1109
-                    closeStatement(stmt);
-                } catch (BatchUpdateException e) {
-                    StringBuilder message = new StringBuilder();
-                    message.append(batchResult.getMappedStatement().getId())
-                            .append(" (batch index #")
-                            .append(i + 1)
-                            .append(")")
-                            .append(" failed.");
-                    if (i > 0) {
-                        message.append(" ")
-                                .append(i)
-                                .append(" prior sub executor(s) completed successfully, but will be rolled back.");
-                    }
-                    throw new BatchExecutorException(message.toString(), e, results, batchResult);
-                }
-                results.add(batchResult);
+            List<BatchResult> results = new ArrayList<>(executedResults);
+            for (BatchStatement batchStatement : batchStatements.values()) {
+                executeBatch(batchStatement, results.size(), results);
+                results.add(batchStatement.batchResult);
             }
             return results;
         } finally {
-            for (Statement stmt : statementList) {
-                closeStatement(stmt);
+            for (BatchStatement batchStatement : batchStatements.values()) {
+                closeStatement(batchStatement.statement);
+            }
+            batchStatements.clear();
+            executedResults.clear();
+            sequence = 0;
+        }
+    }
+
+
+    private void executeBatch(BatchStatement batchStatement, int index, List<BatchResult> results) throws SQLException {
+        Statement stmt = batchStatement.statement;
+        BatchResult batchResult = batchStatement.batchResult;
+        applyTransactionTimeout(stmt);
+        try {
+            batchResult.setUpdateCounts(stmt.executeBatch());
+            MappedStatement ms = batchResult.getMappedStatement();
+            List<Object> parameterObjects = batchResult.getParameterObjects();
+            KeyGenerator keyGenerator = ms.getKeyGenerator();
+            if (Jdbc3KeyGenerator.class.equals(keyGenerator.getClass())) {
+                Jdbc3KeyGenerator jdbc3KeyGenerator = (Jdbc3KeyGenerator) keyGenerator;
+                jdbc3KeyGenerator.processBatch(ms, stmt, parameterObjects);
+            }
+            // 修复批量插入并设置主键时出错
+            // fixed https://gitee.com/mybatis-flex/mybatis-flex/issues/I6Y8ZU
+            else if (RowKeyGenerator.class.equals(keyGenerator.getClass())
+                    && ((RowKeyGenerator) keyGenerator).hasGeneratedKeys()) {
+                keyGenerator.processAfter(this, ms, stmt, parameterObjects);
             }
-            currentSql = null;
-            statementList.clear();
-            batchResultList.clear();
+            // issue #141
+            else if (!NoKeyGenerator.class.equals(keyGenerator.getClass())) {
+                for (Object parameter : parameterObjects) {
+                    keyGenerator.processAfter(this, ms, stmt, parameter);
+                }
+            }
+            // Close statement to close cursor #1109
+            closeStatement(stmt);
+        } catch (BatchUpdateException e) {
+            StringBuilder message = new StringBuilder();
+            message.append(batchResult.getMappedStatement().getId())
+                    .append(" (batch index #")
+                    .append(index + 1)
+                    .append(")")
+                    .append(" failed.");
+            if (index > 0) {
+                message.append(" ")
+                        .append(index)
+                        .append(" prior sub executor(s) completed successfully, but will be rolled back.");
+            }
+            throw new BatchExecutorException(message.toString(), e, results, batchResult);
+        }
+    }
+
+
+    private static class BatchStatement {
+        private final Statement statement;
+        private final FlexBatchResult batchResult;
+
+        private BatchStatement(Statement statement, FlexBatchResult batchResult) {
+            this.statement = statement;
+            this.batchResult = batchResult;
+        }
+    }
+
+
+    /**
+     * 相同的 MappedStatement 和 sql 才能使用同一个 Statement
+     */
+    private static class StatementKey {
+        private final MappedStatement ms;
+        private final String sql;
+        private final int hashCode;
+
+        private StatementKey(MappedStatement ms, String sql) {
+            this.ms = ms;
+            this.sql = sql;
+            this.hashCode = 31 * ms.hashCode() + sql.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof StatementKey)) {
+                return false;
+            }
+            StatementKey that = (StatementKey) o;
+            return ms.equals(that.ms) && sql.equals(that.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
         }
     }
 }
@@ -0,0 +1,50 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.mybatis.executor;
+
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.mapping.MappedStatement;
+
+import java.util.Arrays;
+
+/**
+ * 记录了每个参数在当前批次中的执行序号，同一批次中交替执行多条 sql 时，
+ * 可以通过序号把 {@link #getUpdateCounts()} 还原为执行的顺序
+ */
+public class FlexBatchResult extends BatchResult {
+
+    private int[] sequences = new int[8];
+    private int size;
+
+    public FlexBatchResult(MappedStatement mappedStatement, String sql) {
+        super(mappedStatement, sql);
+    }
+
+    public void addParameterObject(Object parameterObject, int sequence) {
+        addParameterObject(parameterObject);
+        if (size == sequences.length) {
+            sequences = Arrays.copyOf(sequences, size * 2);
+        }
+        sequences[size++] = sequence;
+    }
+
+    /**
+     * 每个参数的执行序号，与 {@link #getParameterObjects()} 一一对应，从 0 开始，每次 flush 后重新计数
+     */
+    public int[] getSequences() {
+        return Arrays.copyOf(sequences, size);
+    }
+}
@@ -20,11 +20,17 @@ import org.apache.ibatis.executor.ReuseExecutor;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.transaction.Transaction;
 
+import java.sql.SQLException;
+import java.util.List;
+
 public class FlexReuseExecutor extends ReuseExecutor implements CacheKeyBuilder {
 
+    private final ExecutorCacheSupport cacheSupport = new ExecutorCacheSupport();
+
     public FlexReuseExecutor(Configuration configuration, Transaction transaction) {
         super(configuration, transaction);
     }
@@ -33,4 +39,46 @@ public class FlexReuseExecutor extends ReuseExecutor implements CacheKeyBuilder
     public CacheKey createCacheKey(MappedStatement ms, Object parameterObject, RowBounds rowBounds, BoundSql boundSql) {
         return buildCacheKey(super.createCacheKey(ms, parameterObject, rowBounds, boundSql),parameterObject);
     }
+
+    @Override
+    public int update(MappedStatement ms, Object parameter) throws SQLException {
+        int result = super.update(ms, parameter);
+        //数据被修改后，使分页的总数缓存和查询结果缓存失效
+        cacheSupport.afterUpdate(ms, parameter);
+        return result;
+    }
+
+    @Override
+    public <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, CacheKey key, BoundSql boundSql) throws SQLException {
+        return cacheSupport.query(ms, parameter, rowBounds, resultHandler, boundSql
+                , (param, sql) -> super.query(ms, param, rowBounds, resultHandler
+                        , param == parameter ? key : createCacheKey(ms, param, rowBounds, sql), sql));
+    }
+
+    @Override
+    public void commit(boolean required) throws SQLException {
+        try {
+            super.commit(required);
+        } finally {
+            cacheSupport.afterCompletion();
+        }
+    }
+
+    @Override
+    public void rollback(boolean required) throws SQLException {
+        try {
+            super.rollback(required);
+        } finally {
+            cacheSupport.afterCompletion();
+        }
+    }
+
+    @Override
+    public void close(boolean forceRollback) {
+        try {
+            super.close(forceRollback);
+        } finally {
+            cacheSupport.afterCompletion();
+        }
+    }
 }
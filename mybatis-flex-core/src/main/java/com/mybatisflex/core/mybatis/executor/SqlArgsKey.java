@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.mybatis.executor;
+
+import com.mybatisflex.core.mybatis.TypeHandlerObject;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * sql 参数的缓存 key，逐个比较参数的值，并在创建时计算好 hashCode，
+ * 参数为 {@link TypeHandlerObject} 时比较其中的值，数组（包括基本类型的数组）比较数组的内容
+ */
+public final class SqlArgsKey implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Object[] args;
+    private final int hashCode;
+
+    public SqlArgsKey(Object[] args) {
+        this.args = args;
+        this.hashCode = hash(args);
+    }
+
+    public Object[] getArgs() {
+        return args;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        SqlArgsKey that = (SqlArgsKey) o;
+        return hashCode == that.hashCode && isEquals(args, that.args);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.deepToString(args);
+    }
+
+
+    private static int hash(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof TypeHandlerObject) {
+            TypeHandlerObject object = (TypeHandlerObject) value;
+            int result = hash(object.getValue());
+            result = 31 * result + (object.getTypeHandler() != null ? object.getTypeHandler().getClass().hashCode() : 0);
+            return 31 * result + Objects.hashCode(object.getJdbcType());
+        }
+        if (value instanceof Object[]) {
+            int result = 1;
+            for (Object element : (Object[]) value) {
+                result = 31 * result + hash(element);
+            }
+            return result;
+        }
+        if (!value.getClass().isArray()) {
+            return value.hashCode();
+        }
+        if (value instanceof long[]) {
+            return Arrays.hashCode((long[]) value);
+        } else if (value instanceof int[]) {
+            return Arrays.hashCode((int[]) value);
+        } else if (value instanceof short[]) {
+            return Arrays.hashCode((short[]) value);
+        } else if (value instanceof char[]) {
+            return Arrays.hashCode((char[]) value);
+        } else if (value instanceof byte[]) {
+            return Arrays.hashCode((byte[]) value);
+        } else if (value instanceof boolean[]) {
+            return Arrays.hashCode((boolean[]) value);
+        } else if (value instanceof float[]) {
+            return Arrays.hashCode((float[]) value);
+        } else {
+            return Arrays.hashCode((double[]) value);
+        }
+    }
+
+
+    private static boolean isEquals(Object value, Object other) {
+        if (value == other) {
+            return true;
+        }
+        if (value == null || other == null) {
+            return false;
+        }
+        if (value instanceof TypeHandlerObject) {
+            if (!(other instanceof TypeHandlerObject)) {
+                return false;
+            }
+            TypeHandlerObject object = (TypeHandlerObject) value;
+            TypeHandlerObject otherObject = (TypeHandlerObject) other;
+            return object.getJdbcType() == otherObject.getJdbcType()
+                    && getClass(object.getTypeHandler()) == getClass(otherObject.getTypeHandler())
+                    && isEquals(object.getValue(), otherObject.getValue());
+        }
+        if (value instanceof Object[]) {
+            if (!(other instanceof Object[])) {
+                return false;
+            }
+            Object[] array = (Object[]) value;
+            Object[] otherArray = (Object[]) other;
+            if (array.length != otherArray.length) {
+                return false;
+            }
+            for (int i = 0; i < array.length; i++) {
+                if (!isEquals(array[i], otherArray[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (!value.getClass().isArray()) {
+            return value.equals(other);
+        }
+        if (value.getClass() != other.getClass()) {
+            return false;
+        }
+        if (value instanceof long[]) {
+            return Arrays.equals((long[]) value, (long[]) other);
+        } else if (value instanceof int[]) {
+            return Arrays.equals((int[]) value, (int[]) other);
+        } else if (value instanceof short[]) {
+            return Arrays.equals((short[]) value, (short[]) other);
+        } else if (value instanceof char[]) {
+            return Arrays.equals((char[]) value, (char[]) other);
+        } else if (value instanceof byte[]) {
+            return Arrays.equals((byte[]) value, (byte[]) other);
+        } else if (value instanceof boolean[]) {
+            return Arrays.equals((boolean[]) value, (boolean[]) other);
+        } else if (value instanceof float[]) {
+            return Arrays.equals((float[]) value, (float[]) other);
+        } else {
+            return Arrays.equals((double[]) value, (double[]) other);
+        }
+    }
+
+
+    private static Class<?> getClass(Object object) {
+        return object != null ? object.getClass() : null;
+    }
+}
@@ -0,0 +1,158 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.paginate;
+
+import com.mybatisflex.core.FlexGlobalConfig;
+import com.mybatisflex.core.cache.TableVersions;
+import com.mybatisflex.core.cache.TransactionSynchronizer;
+import com.mybatisflex.core.datasource.DataSourceKey;
+import com.mybatisflex.core.dialect.DbType;
+import com.mybatisflex.core.dialect.DialectFactory;
+import com.mybatisflex.core.exception.FlexExceptions;
+import com.mybatisflex.core.tenant.TenantManager;
+import com.mybatisflex.core.transaction.TransactionContext;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 分页时并发执行 count 查询，count 查询在新的线程中通过新的 SqlSession（新的数据库连接）执行，
+ * 当前线程的 {@link DataSourceKey}、{@link DialectFactory#getHintDbType()} 以及忽略租户条件的标识会传递到执行 count 的线程
+ * 注意：count 和数据查询使用同一个 QueryWrapper，需要在提交 count 查询之前完成 QueryWrapper 的所有修改（比如 limit、租户条件等）
+ */
+public class ConcurrentCounter {
+
+    private static volatile Executor defaultExecutor;
+
+    private ConcurrentCounter() {
+    }
+
+
+    /**
+     * 是否可以并发执行 count 查询，在事务中时不能使用新的数据库连接，否则 count 查询无法读取到事务中未提交的数据
+     * 包括 mybatis-flex 的事务以及外部事务（例如 Spring 管理的事务，见 {@link TransactionSynchronizer#isTransactionActive()}）
+     */
+    public static boolean isEnable() {
+        FlexGlobalConfig config = FlexGlobalConfig.getDefaultConfig();
+        if (!config.isPaginateConcurrentEnable() || config.getSqlSessionFactory() == null
+                || TransactionContext.getXID() != null) {
+            return false;
+        }
+        TransactionSynchronizer synchronizer = TableVersions.getTransactionSynchronizer();
+        return synchronizer == null || !synchronizer.isTransactionActive();
+    }
+
+
+    /**
+     * 提交 count 查询
+     *
+     * @param sqlSessionFactory 用于创建新的 SqlSession
+     * @param countFunction     count 查询
+     * @return count 查询的结果，通过 {@link #join(CompletableFuture)} 获取
+     */
+    public static CompletableFuture<Long> submit(SqlSessionFactory sqlSessionFactory, Function<SqlSession, Long> countFunction) {
+        String dataSourceKey = DataSourceKey.get();
+        DbType hintDbType = DialectFactory.getHintDbType();
+        boolean ignoreTenantCondition = TenantManager.isIgnoreTenantCondition();
+        return CompletableFuture.supplyAsync(() -> {
+            //线程池满时（CallerRunsPolicy）或者使用同步的 Executor 时，count 查询会在当前线程执行，执行后需要恢复原来的值
+            String previousDataSourceKey = DataSourceKey.get();
+            DbType previousHintDbType = DialectFactory.getHintDbType();
+            boolean previousIgnoreTenantCondition = TenantManager.isIgnoreTenantCondition();
+            try (SqlSession sqlSession = sqlSessionFactory.openSession(true)) {
+                if (dataSourceKey != null) {
+                    DataSourceKey.use(dataSourceKey);
+                }
+                if (hintDbType != null) {
+                    DialectFactory.setHintDbType(hintDbType);
+                }
+                if (ignoreTenantCondition) {
+                    TenantManager.ignoreTenantCondition();
+                } else {
+                    TenantManager.restoreTenantCondition();
+                }
+                return countFunction.apply(sqlSession);
+            } finally {
+                if (previousDataSourceKey != null) {
+                    DataSourceKey.use(previousDataSourceKey);
+                } else {
+                    DataSourceKey.clear();
+                }
+                if (previousHintDbType != null) {
+                    DialectFactory.setHintDbType(previousHintDbType);
+                } else {
+                    DialectFactory.clearHintDbType();
+                }
+                if (previousIgnoreTenantCondition) {
+                    TenantManager.ignoreTenantCondition();
+                } else {
+                    TenantManager.restoreTenantCondition();
+                }
+            }
+        }, getExecutor());
+    }
+
+
+    /**
+     * 等待并获取 count 查询的结果，count 查询的异常会原样抛出
+     */
+    public static long join(CompletableFuture<Long> countFuture) {
+        try {
+            return countFuture.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw FlexExceptions.wrap(cause);
+        }
+    }
+
+
+    private static Executor getExecutor() {
+        Executor executor = FlexGlobalConfig.getDefaultConfig().getPaginateExecutor();
+        if (executor != null) {
+            return executor;
+        }
+        if (defaultExecutor == null) {
+            synchronized (ConcurrentCounter.class) {
+                if (defaultExecutor == null) {
+                    defaultExecutor = createDefaultExecutor();
+                }
+            }
+        }
+        return defaultExecutor;
+    }
+
+
+    /**
+     * 默认的线程池，线程空闲 60 秒后回收，线程数达到上限时在当前线程执行 count 查询
+     */
+    private static Executor createDefaultExecutor() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "mybatis-flex-paginate-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        int maximumPoolSize = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        return new ThreadPoolExecutor(0, maximumPoolSize, 60L, TimeUnit.SECONDS
+                , new SynchronousQueue<>(), threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.paginate;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游标分页（keyset 分页）的数据，通过 nextCursor 查询下一页的数据
+ */
+public class CursorPage<T> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<T> records = Collections.emptyList();
+    private int pageSize;
+    private String nextCursor;
+
+    public CursorPage() {
+    }
+
+    public CursorPage(List<T> records, int pageSize, String nextCursor) {
+        this.records = records;
+        this.pageSize = pageSize;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getRecords() {
+        return records;
+    }
+
+    public void setRecords(List<T> records) {
+        this.records = records;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * 下一页的游标，没有下一页时返回 null
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> mapper) {
+        CursorPage<R> newPage = new CursorPage<>();
+        newPage.pageSize = pageSize;
+        newPage.nextCursor = nextCursor;
+
+        if (records != null) {
+            List<R> newRecords = new ArrayList<>(records.size());
+            for (T t : records) {
+                newRecords.add(mapper.apply(t));
+            }
+            newPage.records = newRecords;
+        }
+        return newPage;
+    }
+
+
+    @Override
+    public String toString() {
+        return "CursorPage{" +
+                "pageSize=" + pageSize +
+                ", nextCursor='" + nextCursor + '\'' +
+                ", records=" + records +
+                '}';
+    }
+}
@@ -0,0 +1,297 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.paginate;
+
+import com.mybatisflex.core.exception.FlexExceptions;
+import com.mybatisflex.core.query.*;
+import com.mybatisflex.core.util.StringUtil;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * 游标分页（keyset 分页），通过上一页最后一条数据的排序字段值构建条件，而不是使用 offset
+ * 例如 ORDER BY a ASC, b DESC 构建的条件为：(a > ? OR (a = ? AND b < ?))
+ * 注意：排序字段不能为 null，主键会自动追加到排序字段中，以保证排序的唯一性
+ */
+public class CursorPaginator {
+
+    private static final String CURSOR_SEPARATOR = ".";
+    private static final String DESC = "DESC";
+
+    private CursorPaginator() {
+    }
+
+
+    /**
+     * 游标分页查询
+     *
+     * @param cursor         上一页返回的游标，查询第一页时传入 null
+     * @param pageSize       每页的数据量
+     * @param queryWrapper   查询条件，执行后会恢复为原来的条件
+     * @param primaryKeys    主键列
+     * @param selectFunction 查询数据的方法
+     * @param valueGetter    读取数据中某一列的值
+     * @return 游标分页的数据
+     */
+    public static <T> CursorPage<T> paginate(String cursor, int pageSize, QueryWrapper queryWrapper, String[] primaryKeys
+            , Function<QueryWrapper, List<T>> selectFunction, BiFunction<T, String, Object> valueGetter) {
+        if (pageSize <= 0) {
+            throw FlexExceptions.wrap("pageSize must be greater than 0.");
+        }
+
+        QueryCondition whereQueryCondition = CPI.getWhereQueryCondition(queryWrapper);
+        List<QueryOrderBy> orderBys = CPI.getOrderBys(queryWrapper);
+        Integer limitOffset = CPI.getLimitOffset(queryWrapper);
+        Integer limitRows = CPI.getLimitRows(queryWrapper);
+
+        List<QueryOrderBy> keysetOrderBys = buildKeysetOrderBys(orderBys, primaryKeys);
+        try {
+            CPI.setOrderBys(queryWrapper, keysetOrderBys);
+
+            if (StringUtil.isNotBlank(cursor)) {
+                Object[] values = decodeCursor(cursor);
+                if (values.length != keysetOrderBys.size()) {
+                    throw FlexExceptions.wrap("The cursor \"%s\" does not match the order by of queryWrapper.", cursor);
+                }
+                QueryCondition seekCondition = buildSeekCondition(keysetOrderBys, values);
+                if (whereQueryCondition == null) {
+                    CPI.setWhereQueryCondition(queryWrapper, seekCondition);
+                } else {
+                    //原有的条件需要用括号包裹，避免和 or 条件混在一起，同时也不会修改原有的条件
+                    CPI.setWhereQueryCondition(queryWrapper, new Brackets(whereQueryCondition));
+                    queryWrapper.and(seekCondition);
+                }
+            }
+
+            //多查询一条数据，用于判断是否有下一页
+            queryWrapper.limit(null, pageSize + 1);
+            List<T> records = selectFunction.apply(queryWrapper);
+
+            if (records.size() <= pageSize) {
+                return new CursorPage<>(records, pageSize, null);
+            }
+
+            records = new ArrayList<>(records.subList(0, pageSize));
+            T last = records.get(pageSize - 1);
+            Object[] lastValues = new Object[keysetOrderBys.size()];
+            for (int i = 0; i < lastValues.length; i++) {
+                String column = CPI.getOrderByColumn(keysetOrderBys.get(i)).getName();
+                lastValues[i] = valueGetter.apply(last, column);
+                if (lastValues[i] == null) {
+                    throw FlexExceptions.wrap("The value of order by column \"%s\" can not be null in cursor paginate.", column);
+                }
+            }
+            return new CursorPage<>(records, pageSize, encodeCursor(lastValues));
+        } finally {
+            CPI.setWhereQueryCondition(queryWrapper, whereQueryCondition);
+            CPI.setOrderBys(queryWrapper, orderBys);
+            CPI.setLimitOffset(queryWrapper, limitOffset);
+            CPI.setLimitRows(queryWrapper, limitRows);
+        }
+    }
+
+
+    private static List<QueryOrderBy> buildKeysetOrderBys(List<QueryOrderBy> orderBys, String[] primaryKeys) {
+        List<QueryOrderBy> keysetOrderBys = new ArrayList<>();
+        List<String> columns = new ArrayList<>();
+        String lastOrderType = "ASC";
+        if (orderBys != null) {
+            for (QueryOrderBy orderBy : orderBys) {
+                QueryColumn column = orderBy.getClass() == QueryOrderBy.class ? CPI.getOrderByColumn(orderBy) : null;
+                if (column == null || column.getClass() != QueryColumn.class) {
+                    throw FlexExceptions.wrap("Cursor paginate only support order by table columns.");
+                }
+                keysetOrderBys.add(orderBy);
+                columns.add(column.getName());
+                lastOrderType = CPI.getOrderType(orderBy);
+            }
+        }
+
+        //追加主键，保证排序的唯一性
+        if (primaryKeys != null) {
+            for (String primaryKey : primaryKeys) {
+                if (!columns.contains(primaryKey)) {
+                    keysetOrderBys.add(new QueryOrderBy(new QueryColumn(primaryKey), lastOrderType));
+                    columns.add(primaryKey);
+                }
+            }
+        }
+
+        if (keysetOrderBys.isEmpty()) {
+            throw FlexExceptions.wrap("Cursor paginate need order by columns or primary keys.");
+        }
+        return keysetOrderBys;
+    }
+
+
+    private static QueryCondition buildSeekCondition(List<QueryOrderBy> orderBys, Object[] values) {
+        Brackets seekCondition = null;
+        for (int i = 0; i < orderBys.size(); i++) {
+            QueryOrderBy orderBy = orderBys.get(i);
+            QueryColumn column = CPI.getOrderByColumn(orderBy);
+            QueryCondition compare = DESC.equalsIgnoreCase(CPI.getOrderType(orderBy)) ? column.lt(values[i]) : column.gt(values[i]);
+
+            QueryCondition condition = compare;
+            if (i > 0) {
+                Brackets brackets = new Brackets(CPI.getOrderByColumn(orderBys.get(0)).eq(values[0]));
+                for (int j = 1; j < i; j++) {
+                    brackets.and(CPI.getOrderByColumn(orderBys.get(j)).eq(values[j]));
+                }
+                brackets.and(compare);
+                condition = brackets;
+            }
+
+            if (seekCondition == null) {
+                seekCondition = new Brackets(condition);
+            } else {
+                seekCondition.or(condition);
+            }
+        }
+        return seekCondition;
+    }
+
+
+    /**
+     * 把排序字段的值编码为游标，每个值为 "类型标识 + base64(值)"，多个值之间用 "." 分隔
+     */
+    public static String encodeCursor(Object[] values) {
+        StringBuilder cursor = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                cursor.append(CURSOR_SEPARATOR);
+            }
+            Object value = values[i];
+            char type;
+            String content;
+            if (value instanceof String) {
+                type = 'S';
+                content = (String) value;
+            } else if (value instanceof Integer) {
+                type = 'I';
+                content = value.toString();
+            } else if (value instanceof Long) {
+                type = 'L';
+                content = value.toString();
+            } else if (value instanceof Short) {
+                type = 'H';
+                content = value.toString();
+            } else if (value instanceof BigInteger) {
+                type = 'G';
+                content = value.toString();
+            } else if (value instanceof BigDecimal) {
+                type = 'D';
+                content = value.toString();
+            } else if (value instanceof Double) {
+                type = 'F';
+                content = value.toString();
+            } else if (value instanceof Boolean) {
+                type = 'B';
+                content = value.toString();
+            } else if (value instanceof Timestamp) {
+                type = 'T';
+                content = value.toString();
+            } else if (value instanceof java.sql.Date) {
+                type = 'd';
+                content = value.toString();
+            } else if (value instanceof Date) {
+                type = 'U';
+                content = String.valueOf(((Date) value).getTime());
+            } else if (value instanceof LocalDateTime) {
+                type = 'X';
+                content = value.toString();
+            } else if (value instanceof LocalDate) {
+                type = 'Y';
+                content = value.toString();
+            } else {
+                throw FlexExceptions.wrap("Cursor paginate not support the value type: %s", value.getClass().getName());
+            }
+            cursor.append(type).append(Base64.getUrlEncoder().withoutPadding().encodeToString(content.getBytes(StandardCharsets.UTF_8)));
+        }
+        return cursor.toString();
+    }
+
+
+    /**
+     * 解析 {@link #encodeCursor(Object[])} 生成的游标
+     */
+    public static Object[] decodeCursor(String cursor) {
+        String[] items = cursor.split("\\" + CURSOR_SEPARATOR);
+        Object[] values = new Object[items.length];
+        try {
+            for (int i = 0; i < items.length; i++) {
+                String item = items[i];
+                String content = new String(Base64.getUrlDecoder().decode(item.substring(1)), StandardCharsets.UTF_8);
+                switch (item.charAt(0)) {
+                    case 'S':
+                        values[i] = content;
+                        break;
+                    case 'I':
+                        values[i] = Integer.valueOf(content);
+                        break;
+                    case 'L':
+                        values[i] = Long.valueOf(content);
+                        break;
+                    case 'H':
+                        values[i] = Short.valueOf(content);
+                        break;
+                    case 'G':
+                        values[i] = new BigInteger(content);
+                        break;
+                    case 'D':
+                        values[i] = new BigDecimal(content);
+                        break;
+                    case 'F':
+                        values[i] = Double.valueOf(content);
+                        break;
+                    case 'B':
+                        values[i] = Boolean.valueOf(content);
+                        break;
+                    case 'T':
+                        values[i] = Timestamp.valueOf(content);
+                        break;
+                    case 'd':
+                        values[i] = java.sql.Date.valueOf(content);
+                        break;
+                    case 'U':
+                        values[i] = new Date(Long.parseLong(content));
+                        break;
+                    case 'X':
+                        values[i] = LocalDateTime.parse(content);
+                        break;
+                    case 'Y':
+                        values[i] = LocalDate.parse(content);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("unknown value type: " + item.charAt(0));
+                }
+            }
+        } catch (RuntimeException e) {
+            throw FlexExceptions.wrap(e, "Invalid cursor: %s", cursor);
+        }
+        return values;
+    }
+}
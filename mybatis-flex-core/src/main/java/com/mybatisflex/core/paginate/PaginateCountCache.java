@@ -0,0 +1,248 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.paginate;
+
+import com.mybatisflex.core.FlexGlobalConfig;
+import com.mybatisflex.core.cache.TableVersions;
+import com.mybatisflex.core.datasource.DataSourceKey;
+import com.mybatisflex.core.dialect.DialectFactory;
+import com.mybatisflex.core.query.*;
+import com.mybatisflex.core.tenant.TenantManager;
+import com.mybatisflex.core.util.CollectionUtil;
+import com.mybatisflex.core.util.StringUtil;
+import org.apache.ibatis.mapping.MappedStatement;
+
+import java.util.*;
+
+/**
+ * 分页查询的总数缓存（LRU + 过期时间）
+ * 缓存的 key 由 QueryWrapper 的结构、参数值、租户 id 以及数据源组成；
+ * 通过 BaseMapper 和 Db 对表进行增删改之后，引用了该表的缓存会失效，执行自定义的增删改 sql 时，所有的缓存都会失效
+ * 表的版本号由 {@link TableVersions} 维护，事务中修改过的表在事务结束时会再次失效
+ * 注意：事务提交前，其他线程可能读取到旧的总数，适用于可以接受总数短时间不准确的场景
+ * 缓存的数量通过 {@link FlexGlobalConfig#setPaginateCountCacheSize(int)} 配置，配置为 0（默认）时不使用缓存
+ */
+public class PaginateCountCache {
+
+    private static final String SQL_TYPE_COUNT = "paginateCount";
+
+    private static final Map<Key, Entry> cache = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            return size() > FlexGlobalConfig.getDefaultConfig().getPaginateCountCacheSize();
+        }
+    };
+
+    private PaginateCountCache() {
+    }
+
+
+    public static boolean isEnable() {
+        return FlexGlobalConfig.getDefaultConfig().getPaginateCountCacheSize() > 0;
+    }
+
+
+    /**
+     * 创建缓存的 key，需要在执行 count 查询之前创建，以记录执行查询前表的版本号
+     *
+     * @param queryWrapper     查询条件
+     * @param defaultTableName queryWrapper 没有设置 from 时查询的表
+     * @return 缓存的 key，不使用缓存或者无法缓存时返回 null
+     */
+    public static Key createKey(QueryWrapper queryWrapper, String defaultTableName) {
+        if (!isEnable()) {
+            return null;
+        }
+
+        QueryShapeKey shapeKey = QueryShapeKey.of(SQL_TYPE_COUNT, queryWrapper, DialectFactory.getDialect());
+        if (shapeKey == null) {
+            return null;
+        }
+
+        List<String> queryTableNames = new ArrayList<>();
+        if (CollectionUtil.isEmpty(CPI.getQueryTables(queryWrapper))) {
+            if (StringUtil.isBlank(defaultTableName)) {
+                return null;
+            }
+            queryTableNames.add(defaultTableName);
+        }
+        if (!QueryTableCollector.collect(queryWrapper, queryTableNames)) {
+            return null;
+        }
+
+        Set<String> tableNames = new LinkedHashSet<>();
+        for (String tableName : queryTableNames) {
+            tableNames.add(TableVersions.normalizeTableName(tableName));
+        }
+
+        long globalVersion = TableVersions.getGlobalVersion();
+        String[] tables = tableNames.toArray(new String[0]);
+        long[] versions = new long[tables.length];
+        for (int i = 0; i < tables.length; i++) {
+            versions[i] = TableVersions.getVersion(tables[i]);
+        }
+
+        return new Key(shapeKey, CPI.getValueArray(queryWrapper), TenantManager.getTenantIds(), DataSourceKey.get()
+                , defaultTableName, tables, versions, globalVersion);
+    }
+
+
+    /**
+     * 获取缓存的总数，不存在或者已失效时返回 null
+     */
+    public static Long get(Key key) {
+        if (key == null) {
+            return null;
+        }
+
+        Entry entry;
+        synchronized (cache) {
+            entry = cache.get(key);
+        }
+        if (entry == null) {
+            return null;
+        }
+
+        if (entry.expireTime < System.currentTimeMillis() || !isVersionMatched(entry.key)) {
+            synchronized (cache) {
+                cache.remove(key, entry);
+            }
+            return null;
+        }
+        return entry.count;
+    }
+
+
+    public static void put(Key key, long count) {
+        if (key == null || !isVersionMatched(key) || TableVersions.isWrittenInTransaction(key.tables)) {
+            return;
+        }
+        long expireTime = System.currentTimeMillis() + FlexGlobalConfig.getDefaultConfig().getPaginateCountCacheTtl();
+        synchronized (cache) {
+            cache.put(key, new Entry(key, count, expireTime));
+        }
+    }
+
+
+    /**
+     * 使引用了该表的缓存失效
+     */
+    public static void invalidate(String tableName) {
+        TableVersions.increment(tableName);
+    }
+
+
+    /**
+     * 执行增删改之后，根据执行的 MappedStatement 使对应表的缓存失效
+     */
+    public static void invalidate(MappedStatement ms, Object parameter) {
+        if (!isEnable()) {
+            return;
+        }
+        TableVersions.onWrite(TableVersions.getWriteTable(ms, parameter));
+    }
+
+
+    public static void invalidateAll() {
+        TableVersions.incrementAll();
+    }
+
+
+    public static int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+
+    public static void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+
+    private static boolean isVersionMatched(Key key) {
+        return TableVersions.isMatched(key.tables, key.versions, key.globalVersion);
+    }
+
+
+    /**
+     * 缓存的 key，表的版本号不参与 equals 和 hashCode
+     */
+    public static final class Key {
+
+        private final QueryShapeKey shapeKey;
+        private final Object[] values;
+        private final Object[] tenantIds;
+        private final String dataSourceKey;
+        private final String defaultTableName;
+        private final String[] tables;
+        private final long[] versions;
+        private final long globalVersion;
+        private final int hashCode;
+
+        private Key(QueryShapeKey shapeKey, Object[] values, Object[] tenantIds, String dataSourceKey
+                , String defaultTableName, String[] tables, long[] versions, long globalVersion) {
+            this.shapeKey = shapeKey;
+            this.values = values;
+            this.tenantIds = tenantIds;
+            this.dataSourceKey = dataSourceKey;
+            this.defaultTableName = defaultTableName;
+            this.tables = tables;
+            this.versions = versions;
+            this.globalVersion = globalVersion;
+            this.hashCode = Objects.hash(shapeKey, Arrays.deepHashCode(values), Arrays.deepHashCode(tenantIds)
+                    , dataSourceKey, defaultTableName);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return hashCode == key.hashCode
+                    && shapeKey.equals(key.shapeKey)
+                    && Arrays.deepEquals(values, key.values)
+                    && Arrays.deepEquals(tenantIds, key.tenantIds)
+                    && Objects.equals(dataSourceKey, key.dataSourceKey)
+                    && Objects.equals(defaultTableName, key.defaultTableName);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+
+    private static final class Entry {
+
+        private final Key key;
+        private final long count;
+        private final long expireTime;
+
+        private Entry(Key key, long count, long expireTime) {
+            this.key = key;
+            this.count = count;
+            this.expireTime = expireTime;
+        }
+    }
+}
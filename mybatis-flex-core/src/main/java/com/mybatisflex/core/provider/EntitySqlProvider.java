@@ -16,18 +16,18 @@
 package com.mybatisflex.core.provider;
 
 import com.mybatisflex.core.dialect.DialectFactory;
+import com.mybatisflex.core.dialect.IDialect;
 import com.mybatisflex.core.exception.FlexExceptions;
 import com.mybatisflex.core.query.CPI;
 import com.mybatisflex.core.query.QueryWrapper;
 import com.mybatisflex.core.table.TableInfo;
 import com.mybatisflex.core.util.ArrayUtil;
 import com.mybatisflex.core.util.CollectionUtil;
+import com.mybatisflex.core.util.StringUtil;
 import org.apache.ibatis.builder.annotation.ProviderContext;
 
 import java.io.Serializable;
-import java.util.Collection;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 public class EntitySqlProvider {
 
@@ -103,9 +103,13 @@ public class EntitySqlProvider {
         }
 
 
-        Object[] allValues = new Object[0];
-        for (Object entity : entities) {
-            allValues = ArrayUtil.concat(allValues, tableInfo.buildInsertSqlArgs(entity, false));
+        //ignoreNulls 为 false 时，每条数据的参数数量都是一样的，可以预先分配好参数数组
+        Object[] firstValues = tableInfo.buildInsertSqlArgs(entities.get(0), false);
+        int valuesCount = firstValues.length;
+        Object[] allValues = new Object[valuesCount * entities.size()];
+        System.arraycopy(firstValues, 0, allValues, 0, valuesCount);
+        for (int i = 1; i < entities.size(); i++) {
+            System.arraycopy(tableInfo.buildInsertSqlArgs(entities.get(i), false), 0, allValues, i * valuesCount, valuesCount);
         }
 
         ProviderUtil.setSqlArgs(params, allValues);
@@ -114,6 +118,90 @@ public class EntitySqlProvider {
     }
 
 
+    /**
+     * upsert 的 sql 构建
+     *
+     * @param params
+     * @param context
+     * @return sql
+     * @see com.mybatisflex.core.BaseMapper#upsert(Object)
+     */
+    public static String upsert(Map params, ProviderContext context) {
+        Object entity = ProviderUtil.getEntity(params);
+        if (entity == null) {
+            throw FlexExceptions.wrap("entity can not be null.");
+        }
+
+        TableInfo tableInfo = ProviderUtil.getTableInfo(context);
+        initUpsertEntity(tableInfo, entity);
+
+        ProviderUtil.setSqlArgs(params, tableInfo.buildUpsertSqlArgs(entity));
+
+        return DialectFactory.getDialect().forUpsertEntity(tableInfo, entity);
+    }
+
+
+    /**
+     * upsertBatch 的 sql 构建
+     *
+     * @param params
+     * @param context
+     * @return sql
+     * @see com.mybatisflex.core.BaseMapper#upsertBatch(List)
+     */
+    public static String upsertBatch(Map params, ProviderContext context) {
+        List<Object> entities = ProviderUtil.getEntities(params);
+        if (CollectionUtil.isEmpty(entities)) {
+            throw FlexExceptions.wrap("entities can not be null or empty.");
+        }
+
+        TableInfo tableInfo = ProviderUtil.getTableInfo(context);
+
+        //同一条 sql 中主键重复时，postgresql 和 merge 语句会直接报错，mysql 则会重复更新（乐观锁字段会多次加 1），
+        //因此主键相同的数据只保留最后一条
+        Map<List<Object>, Object> uniqueEntities = new LinkedHashMap<>(entities.size());
+        for (Object entity : entities) {
+            initUpsertEntity(tableInfo, entity);
+            uniqueEntities.put(Arrays.asList(tableInfo.buildPkSqlArgs(entity)), entity);
+        }
+        if (uniqueEntities.size() < entities.size()) {
+            entities = new ArrayList<>(uniqueEntities.values());
+        }
+
+        Object[] allValues = null;
+        int valuesCount = 0;
+        for (int i = 0; i < entities.size(); i++) {
+            //每条数据的参数数量都是一样的，可以预先分配好参数数组
+            Object[] values = tableInfo.buildUpsertSqlArgs(entities.get(i));
+            if (allValues == null) {
+                valuesCount = values.length;
+                allValues = new Object[valuesCount * entities.size()];
+            }
+            System.arraycopy(values, 0, allValues, i * valuesCount, valuesCount);
+        }
+
+        ProviderUtil.setSqlArgs(params, allValues);
+
+        return DialectFactory.getDialect().forUpsertEntityBatch(tableInfo, entities);
+    }
+
+
+    private static void initUpsertEntity(TableInfo tableInfo, Object entity) {
+        //upsert 通过主键判断数据是否存在，必须有主键并且主键必须有值
+        if (ArrayUtil.isEmpty(tableInfo.getPrimaryKeys())) {
+            throw FlexExceptions.wrap("The table \"%s\" has no primary key, can not upsert.", tableInfo.getTableName());
+        }
+        FlexExceptions.assertAreNotNull(tableInfo.buildPkSqlArgs(entity), "The value of primary key must not be null, entity[%s]", entity);
+
+        tableInfo.initVersionValueIfNecessary(entity);
+        tableInfo.initTenantIdIfNecessary(entity);
+        tableInfo.initLogicDeleteValueIfNecessary(entity);
+
+        //执行 onInsert 监听器
+        tableInfo.invokeOnInsertListener(entity);
+    }
+
+
     /**
      * deleteById 的 sql 构建
      *
@@ -153,10 +241,12 @@ public class EntitySqlProvider {
 
         TableInfo tableInfo = ProviderUtil.getTableInfo(context);
 
+        IDialect dialect = DialectFactory.getDialect();
+        Object[] primaryValueArgs = ProviderUtil.buildPrimaryValueArgs(dialect, tableInfo.getPrimaryKeys(), primaryValues);
         Object[] tenantIdArgs = tableInfo.buildTenantIdArgs();
-        ProviderUtil.setSqlArgs(params, ArrayUtil.concat(primaryValues, tenantIdArgs));
+        ProviderUtil.setSqlArgs(params, ArrayUtil.concat(primaryValueArgs, tenantIdArgs));
 
-        return DialectFactory.getDialect().forDeleteEntityBatchByIds(tableInfo, primaryValues);
+        return dialect.forDeleteEntityBatchByIds(tableInfo, primaryValues);
     }
 
 
@@ -178,10 +268,12 @@ public class EntitySqlProvider {
         CPI.setFromIfNecessary(queryWrapper, tableInfo.getTableName());
 
         tableInfo.appendConditions(null, queryWrapper);
-        ProviderUtil.setSqlArgs(params, CPI.getValueArray(queryWrapper));
-
+        IDialect dialect = DialectFactory.getDialect();
+        return CPI.withInParamsPadding(queryWrapper, dialect, 0, () -> {
+            ProviderUtil.setSqlArgs(params, CPI.getValueArray(queryWrapper, dialect));
 
-        return DialectFactory.getDialect().forDeleteEntityBatchByQuery(tableInfo, queryWrapper);
+            return dialect.forDeleteEntityBatchByQuery(tableInfo, queryWrapper);
+        });
     }
 
 
@@ -212,7 +304,18 @@ public class EntitySqlProvider {
 
         FlexExceptions.assertAreNotNull(primaryValues, "The value of primary key must not be null, entity[%s]", entity);
 
-        ProviderUtil.setSqlArgs(params, ArrayUtil.concat(updateValues, primaryValues, tenantIdArgs));
+        //乐观锁的版本号
+        Object[] versionArgs = null;
+        String versionColumn = tableInfo.getVersionColumn();
+        if (StringUtil.isNotBlank(versionColumn)) {
+            Object versionValue = tableInfo.buildColumnSqlArg(entity, versionColumn);
+            if (versionValue == null) {
+                throw FlexExceptions.wrap("The version value of entity[%s] must not be null.", entity);
+            }
+            versionArgs = new Object[]{versionValue};
+        }
+
+        ProviderUtil.setSqlArgs(params, ArrayUtil.concat(updateValues, primaryValues, tenantIdArgs, versionArgs));
 
         return DialectFactory.getDialect().forUpdateEntity(tableInfo, entity, ignoreNulls);
     }
@@ -240,11 +343,14 @@ public class EntitySqlProvider {
         tableInfo.appendConditions(entity, queryWrapper);
 
         Object[] values = tableInfo.buildUpdateSqlArgs(entity, ignoreNulls, true);
-        Object[] queryParams = CPI.getValueArray(queryWrapper);
+        IDialect dialect = DialectFactory.getDialect();
+        return CPI.withInParamsPadding(queryWrapper, dialect, values.length, () -> {
+            Object[] queryParams = CPI.getValueArray(queryWrapper, dialect);
 
-        ProviderUtil.setSqlArgs(params, ArrayUtil.concat(values, queryParams));
+            ProviderUtil.setSqlArgs(params, ArrayUtil.concat(values, queryParams));
 
-        return DialectFactory.getDialect().forUpdateEntityByQuery(tableInfo, entity, ignoreNulls, queryWrapper);
+            return dialect.forUpdateEntityByQuery(tableInfo, entity, ignoreNulls, queryWrapper);
+        });
     }
 
 
@@ -288,10 +394,12 @@ public class EntitySqlProvider {
 
         TableInfo tableInfo = ProviderUtil.getTableInfo(context);
 
-        Object[] allValues = ArrayUtil.concat(primaryValues, tableInfo.buildTenantIdArgs());
+        IDialect dialect = DialectFactory.getDialect();
+        Object[] primaryValueArgs = ProviderUtil.buildPrimaryValueArgs(dialect, tableInfo.getPrimaryKeys(), primaryValues);
+        Object[] allValues = ArrayUtil.concat(primaryValueArgs, tableInfo.buildTenantIdArgs());
         ProviderUtil.setSqlArgs(params, allValues);
 
-        return DialectFactory.getDialect().forSelectEntityListByIds(tableInfo, primaryValues);
+        return dialect.forSelectEntityListByIds(tableInfo, primaryValues);
     }
 
 
@@ -312,13 +420,16 @@ public class EntitySqlProvider {
         TableInfo tableInfo = ProviderUtil.getTableInfo(context);
         tableInfo.appendConditions(null, queryWrapper);
 
-        Object[] values = CPI.getValueArray(queryWrapper);
-        ProviderUtil.setSqlArgs(params, values);
+        IDialect dialect = DialectFactory.getDialect();
+        return CPI.withInParamsPadding(queryWrapper, dialect, 0, () -> {
+            Object[] values = CPI.getValueArray(queryWrapper, dialect);
+            ProviderUtil.setSqlArgs(params, values);
 
-        CPI.setSelectColumnsIfNecessary(queryWrapper, tableInfo.getDefaultQueryColumn());
-        CPI.setFromIfNecessary(queryWrapper, tableInfo.getTableName());
+            CPI.setSelectColumnsIfNecessary(queryWrapper, tableInfo.getDefaultQueryColumn());
+            CPI.setFromIfNecessary(queryWrapper, tableInfo.getTableName());
 
-        return DialectFactory.getDialect().forSelectListByQuery(queryWrapper);
+            return dialect.forSelectListByQuery(queryWrapper);
+        });
     }
 
     /**
@@ -338,11 +449,14 @@ public class EntitySqlProvider {
         TableInfo tableInfo = ProviderUtil.getTableInfo(context);
         tableInfo.appendConditions(null, queryWrapper);
 
-        Object[] values = CPI.getValueArray(queryWrapper);
-        ProviderUtil.setSqlArgs(params, values);
+        IDialect dialect = DialectFactory.getDialect();
+        return CPI.withInParamsPadding(queryWrapper, dialect, 0, () -> {
+            Object[] values = CPI.getValueArray(queryWrapper, dialect);
+            ProviderUtil.setSqlArgs(params, values);
 
-        CPI.setFromIfNecessary(queryWrapper, tableInfo.getTableName());
-        return DialectFactory.getDialect().forSelectCountByQuery(queryWrapper);
+            CPI.setFromIfNecessary(queryWrapper, tableInfo.getTableName());
+            return dialect.forSelectCountByQuery(queryWrapper);
+        });
     }
 
 
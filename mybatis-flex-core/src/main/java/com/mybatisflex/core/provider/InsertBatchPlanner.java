@@ -0,0 +1,171 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.provider;
+
+import com.mybatisflex.core.dialect.IDialect;
+import com.mybatisflex.core.mybatis.TypeHandlerObject;
+import com.mybatisflex.core.table.TableInfo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 批量插入（insertBatch）的拆分计划，根据数据库单条 sql 的参数数量限制（例如 SqlServer 的 2100 个）
+ * 和 sql 的大小限制（例如 MySQL 的 max_allowed_packet）计算每批插入的数据条数
+ */
+public class InsertBatchPlanner {
+
+    /**
+     * 未指定时，每批最多插入的数据条数
+     */
+    public static final int DEFAULT_MAX_ROWS = 1000;
+
+    //估算 sql 大小时采样的数据条数
+    private static final int SAMPLE_COUNT = 16;
+
+    //无法确定大小的参数，按照 32 个字节估算
+    private static final int UNKNOWN_VALUE_BYTES = 32;
+
+    private InsertBatchPlanner() {
+    }
+
+
+    /**
+     * 计算每批插入的数据条数
+     *
+     * @param tableInfo 表信息
+     * @param dialect   方言
+     * @param entities  插入的数据列表
+     * @param maxRows   每批最多插入的数据条数
+     * @return 每批插入的数据条数，最小为 1
+     */
+    public static int computeBatchSize(TableInfo tableInfo, IDialect dialect, List<?> entities, int maxRows) {
+        //ignoreNulls 为 false 时，每条数据的参数数量都是一样的
+        return computeBatchSize(dialect, entities, maxRows, tableInfo.obtainInsertColumns(null, false).length
+                , entity -> tableInfo.buildInsertSqlArgs(entity, false));
+    }
+
+
+    /**
+     * 计算 upsertBatch 每批的数据条数
+     *
+     * @param tableInfo 表信息
+     * @param dialect   方言
+     * @param entities  数据列表
+     * @param maxRows   每批最多的数据条数
+     * @return 每批的数据条数，最小为 1
+     */
+    public static int computeUpsertBatchSize(TableInfo tableInfo, IDialect dialect, List<?> entities, int maxRows) {
+        //upsert 的 sql 除了 insert 部分，每个字段还有更新的部分，按照两倍的字段数量估算
+        return computeBatchSize(dialect, entities, maxRows, tableInfo.obtainUpsertColumns().length * 2
+                , tableInfo::buildUpsertSqlArgs);
+    }
+
+
+    private static int computeBatchSize(IDialect dialect, List<?> entities, int maxRows, int columnCount
+            , Function<Object, Object[]> argsBuilder) {
+        int batchSize = Math.max(1, maxRows);
+        if (entities == null || entities.isEmpty()) {
+            return batchSize;
+        }
+
+        int argsCount = argsBuilder.apply(entities.get(0)).length;
+        if (argsCount > 0) {
+            batchSize = Math.min(batchSize, dialect.getMaxParameterCount() / argsCount);
+        }
+
+        int maxStatementSize = dialect.getMaxStatementSize();
+        if (maxStatementSize > 0 && maxStatementSize != Integer.MAX_VALUE) {
+            long rowBytes = estimateRowBytes(entities, columnCount, argsBuilder);
+
+            //"INSERT INTO table(columns) VALUES " 部分
+            long availableBytes = maxStatementSize - 64L - columnCount * 32L;
+            batchSize = (int) Math.min(batchSize, availableBytes / rowBytes);
+        }
+
+        return Math.max(1, batchSize);
+    }
+
+
+    /**
+     * 按照 batchSize 把数据拆分为条数尽量相同的多批，例如 2100 条数据、batchSize 为 1000 时，
+     * 拆分为 3 批 700 条，而不是 1000、1000、100，每批的条数最多相差 1 条，生成的 sql 也最多只有两种
+     */
+    public static <T> List<List<T>> split(List<T> entities, int batchSize) {
+        int size = entities.size();
+        if (size <= batchSize) {
+            return Collections.singletonList(entities);
+        }
+
+        int batchCount = (size + batchSize - 1) / batchSize;
+        int splitSize = size / batchCount;
+        int remainder = size % batchCount;
+
+        List<List<T>> batches = new ArrayList<>(batchCount);
+        int start = 0;
+        for (int i = 0; i < batchCount; i++) {
+            int end = start + splitSize + (i < remainder ? 1 : 0);
+            batches.add(entities.subList(start, end));
+            start = end;
+        }
+        return batches;
+    }
+
+
+    /**
+     * 采样部分数据估算每条数据在 sql 中的大小，取采样中的最大值
+     */
+    private static long estimateRowBytes(List<?> entities, int columnCount, Function<Object, Object[]> argsBuilder) {
+        int size = entities.size();
+        int step = Math.max(1, size / SAMPLE_COUNT);
+
+        //"(?, ?, ?), " 部分
+        long rowBytes = columnCount * 3L + 4;
+        long maxValueBytes = 0;
+        for (int i = 0; i < size; i += step) {
+            long valueBytes = 0;
+            for (Object value : argsBuilder.apply(entities.get(i))) {
+                valueBytes += estimateValueBytes(value);
+            }
+            maxValueBytes = Math.max(maxValueBytes, valueBytes);
+        }
+
+        //采样之外的数据可能更大，预留一半的余量
+        return Math.max(1, rowBytes + maxValueBytes + maxValueBytes / 2);
+    }
+
+
+    private static long estimateValueBytes(Object value) {
+        if (value == null) {
+            return 4;
+        }
+        if (value instanceof TypeHandlerObject) {
+            return UNKNOWN_VALUE_BYTES;
+        }
+        if (value instanceof CharSequence) {
+            //utf8 编码及转义字符
+            return ((CharSequence) value).length() * 3L + 2;
+        }
+        if (value instanceof byte[]) {
+            //jdbc 驱动可能以十六进制的方式拼接
+            return ((byte[]) value).length * 2L + 3;
+        }
+        return UNKNOWN_VALUE_BYTES;
+    }
+
+}
@@ -16,6 +16,7 @@
 package com.mybatisflex.core.provider;
 
 import com.mybatisflex.core.FlexConsts;
+import com.mybatisflex.core.dialect.IDialect;
 import com.mybatisflex.core.exception.FlexExceptions;
 import com.mybatisflex.core.query.QueryWrapper;
 import com.mybatisflex.core.row.Row;
@@ -71,6 +72,13 @@ class ProviderUtil {
         }
     }
 
+    /**
+     * 单主键时主键使用 in 条件，其参数需要交由方言处理，见 {@link IDialect#buildInConditionSql}
+     */
+    public static Object[] buildPrimaryValueArgs(IDialect dialect, String[] primaryKeys, Object[] primaryValues) {
+        return primaryKeys.length == 1 ? dialect.buildInConditionArgs(primaryValues) : primaryValues;
+    }
+
     public static QueryWrapper getQueryWrapper(Map params) {
         return (QueryWrapper) params.get(FlexConsts.QUERY);
     }
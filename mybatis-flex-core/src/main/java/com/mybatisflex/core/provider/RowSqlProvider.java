@@ -16,6 +16,7 @@
 package com.mybatisflex.core.provider;
 
 import com.mybatisflex.core.dialect.DialectFactory;
+import com.mybatisflex.core.dialect.IDialect;
 import com.mybatisflex.core.exception.FlexExceptions;
 import com.mybatisflex.core.query.CPI;
 import com.mybatisflex.core.query.QueryWrapper;
@@ -129,8 +130,9 @@ public class RowSqlProvider {
         String[] primaryKeys = ProviderUtil.getPrimaryKeys(params);
         Object[] primaryValues = ProviderUtil.getPrimaryValues(params);
 
-        ProviderUtil.setSqlArgs(params, primaryValues);
-        return DialectFactory.getDialect().forDeleteBatchByIds(tableName, primaryKeys, primaryValues);
+        IDialect dialect = DialectFactory.getDialect();
+        ProviderUtil.setSqlArgs(params, ProviderUtil.buildPrimaryValueArgs(dialect, primaryKeys, primaryValues));
+        return dialect.forDeleteBatchByIds(tableName, primaryKeys, primaryValues);
     }
 
 
@@ -146,10 +148,13 @@ public class RowSqlProvider {
         QueryWrapper queryWrapper = ProviderUtil.getQueryWrapper(params);
         CPI.setFromIfNecessary(queryWrapper, tableName);
 
-        Object[] valueArray = CPI.getValueArray(queryWrapper);
-        ProviderUtil.setSqlArgs(params, valueArray);
+        IDialect dialect = DialectFactory.getDialect();
+        return CPI.withInParamsPadding(queryWrapper, dialect, 0, () -> {
+            Object[] valueArray = CPI.getValueArray(queryWrapper, dialect);
+            ProviderUtil.setSqlArgs(params, valueArray);
 
-        return DialectFactory.getDialect().forDeleteByQuery(queryWrapper);
+            return dialect.forDeleteByQuery(queryWrapper);
+        });
     }
 
     /**
@@ -182,11 +187,14 @@ public class RowSqlProvider {
         CPI.setFromIfNecessary(queryWrapper, tableName);
 
         Object[] modifyValues = RowCPI.obtainModifyValues(data);
-        Object[] valueArray = CPI.getValueArray(queryWrapper);
+        IDialect dialect = DialectFactory.getDialect();
+        return CPI.withInParamsPadding(queryWrapper, dialect, modifyValues.length, () -> {
+            Object[] valueArray = CPI.getValueArray(queryWrapper, dialect);
 
-        ProviderUtil.setSqlArgs(params, ArrayUtil.concat(modifyValues, valueArray));
+            ProviderUtil.setSqlArgs(params, ArrayUtil.concat(modifyValues, valueArray));
 
-        return DialectFactory.getDialect().forUpdateByQuery(queryWrapper, data);
+            return dialect.forUpdateByQuery(queryWrapper, data);
+        });
     }
 
 
@@ -244,11 +252,14 @@ public class RowSqlProvider {
         QueryWrapper queryWrapper = ProviderUtil.getQueryWrapper(params);
         CPI.setFromIfNecessary(queryWrapper, tableName);
 
-        Object[] valueArray = CPI.getValueArray(queryWrapper);
-        ProviderUtil.setSqlArgs(params, valueArray);
+        IDialect dialect = DialectFactory.getDialect();
+        return CPI.withInParamsPadding(queryWrapper, dialect, 0, () -> {
+            Object[] valueArray = CPI.getValueArray(queryWrapper, dialect);
+            ProviderUtil.setSqlArgs(params, valueArray);
 
 
-        return DialectFactory.getDialect().forSelectListByQuery(queryWrapper);
+            return dialect.forSelectListByQuery(queryWrapper);
+        });
     }
 
     /**
@@ -264,10 +275,13 @@ public class RowSqlProvider {
         QueryWrapper queryWrapper = ProviderUtil.getQueryWrapper(params);
         CPI.setFromIfNecessary(queryWrapper, tableName);
 
-        Object[] valueArray = CPI.getValueArray(queryWrapper);
-        ProviderUtil.setSqlArgs(params, valueArray);
+        IDialect dialect = DialectFactory.getDialect();
+        return CPI.withInParamsPadding(queryWrapper, dialect, 0, () -> {
+            Object[] valueArray = CPI.getValueArray(queryWrapper, dialect);
+            ProviderUtil.setSqlArgs(params, valueArray);
 
-        return DialectFactory.getDialect().forSelectCountByQuery(queryWrapper);
+            return dialect.forSelectCountByQuery(queryWrapper);
+        });
     }
 
 
@@ -15,6 +15,7 @@
  */
 package com.mybatisflex.core.query;
 
+import com.mybatisflex.core.dialect.DialectFactory;
 import com.mybatisflex.core.dialect.IDialect;
 import com.mybatisflex.core.util.StringUtil;
 
@@ -51,7 +52,12 @@ public class Brackets extends QueryCondition {
 
     @Override
     public Object getValue() {
-        return checkEffective() ? WrapperUtil.getValues(childCondition) : null;
+        return getValue(DialectFactory.getDialect());
+    }
+
+    @Override
+    Object getValue(IDialect dialect) {
+        return checkEffective() ? WrapperUtil.getValues(childCondition, dialect) : null;
     }
 
     public QueryCondition getChildCondition() {
@@ -59,29 +65,27 @@ public class Brackets extends QueryCondition {
     }
 
     @Override
-    public String toSql(List<QueryTable> queryTables, IDialect dialect) {
+    protected void appendConditionSql(StringBuilder sqlBuilder, QueryCondition effectiveBefore, List<QueryTable> queryTables, IDialect dialect) {
+        if (checkEffective()) {
+            int start = sqlBuilder.length();
+            if (effectiveBefore != null) {
+                sqlBuilder.append(effectiveBefore.connector);
+            }
 
-        String sqlNext = next == null ? null : next.toSql(queryTables, dialect);
+            //当前括号是第一个生效的条件时，若后面没有其他条件，括号会在 QueryCondition.toSql 中被移除
+            sqlBuilder.append("(");
+            int childStart = sqlBuilder.length();
+            childCondition.toSql(sqlBuilder, queryTables, dialect);
 
-        StringBuilder sql = new StringBuilder();
-        if (checkEffective()) {
-            String childSql = childCondition.toSql(queryTables, dialect);
-            if (StringUtil.isNotBlank(childSql)) {
-                QueryCondition effectiveBefore = getEffectiveBefore();
-                if (effectiveBefore != null) {
-                    childSql = effectiveBefore.connector + "(" + childSql + ")";
-                } else if (StringUtil.isNotBlank(sqlNext)) {
-                    childSql = "(" + childSql + ")";
-                }
-                sql.append(childSql);
-            } else {
+            if (StringUtil.isBlank(sqlBuilder, childStart)) {
+                sqlBuilder.setLength(start);
                 //all child conditions is not effective
                 //fixed gitee #I6W89G
                 this.effective = false;
+            } else {
+                sqlBuilder.append(")");
             }
         }
-
-        return sqlNext != null ? sql + sqlNext : sql.toString();
     }
 
 
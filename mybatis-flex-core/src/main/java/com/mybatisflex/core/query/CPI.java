@@ -21,6 +21,7 @@ import com.mybatisflex.core.util.StringUtil;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * Cross Package Invoke
@@ -35,6 +36,17 @@ public class CPI {
         return queryWrapper.getValueArray();
     }
 
+    public static Object[] getValueArray(QueryWrapper queryWrapper, IDialect dialect) {
+        return queryWrapper.getValueArray(dialect);
+    }
+
+    /**
+     * 根据整条 sql 的参数数量决定是否补齐 in 条件的参数，需要在 supplier 中获取参数以及构建 sql
+     */
+    public static <T> T withInParamsPadding(QueryWrapper queryWrapper, IDialect dialect, int reservedCount, Supplier<T> supplier) {
+        return WrapperUtil.withInParamsPadding(queryWrapper, dialect, reservedCount, supplier);
+    }
+
     public static List<QueryWrapper> getChildSelect(QueryWrapper queryWrapper) {
         return queryWrapper.getChildSelect();
     }
@@ -94,6 +106,13 @@ public class CPI {
         return queryWrapper.getWhereQueryCondition();
     }
 
+    /**
+     * 直接替换 where 条件，与 {@link QueryWrapper#where(QueryCondition)} 不同，不会连接原有的条件
+     */
+    public static void setWhereQueryCondition(QueryWrapper queryWrapper, QueryCondition queryCondition) {
+        queryWrapper.whereQueryCondition = queryCondition;
+    }
+
     public static List<QueryColumn> getGroupByColumns(QueryWrapper queryWrapper) {
         return queryWrapper.getGroupByColumns();
     }
@@ -118,6 +137,14 @@ public class CPI {
         queryWrapper.setOrderBys(orderBys);
     }
 
+    public static QueryColumn getOrderByColumn(QueryOrderBy queryOrderBy) {
+        return queryOrderBy.queryColumn;
+    }
+
+    public static String getOrderType(QueryOrderBy queryOrderBy) {
+        return queryOrderBy.orderType;
+    }
+
     public static List<UnionWrapper> getUnions(QueryWrapper queryWrapper) {
         return queryWrapper.getUnions();
     }
@@ -0,0 +1,198 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.query;
+
+import com.mybatisflex.core.dialect.DialectFactory;
+import com.mybatisflex.core.util.CollectionUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * count 查询的优化工具，用于分页等场景下的 count sql 构建
+ */
+public class CountQueryOptimizer {
+
+    private CountQueryOptimizer() {
+    }
+
+
+    /**
+     * 是否需要使用 SELECT COUNT(*) FROM (...) 的方式查询数量
+     * 有 group by、distinct 或者 union 时，直接 count 的结果是错误的
+     */
+    public static boolean isWrapRequired(QueryWrapper queryWrapper) {
+        return CollectionUtil.isNotEmpty(queryWrapper.getGroupByColumns())
+                || CollectionUtil.isNotEmpty(queryWrapper.getUnions())
+                || hasDistinct(queryWrapper);
+    }
+
+
+    /**
+     * 查询的列中是否有 distinct
+     */
+    public static boolean hasDistinct(QueryWrapper queryWrapper) {
+        List<QueryColumn> selectColumns = queryWrapper.getSelectColumns();
+        if (selectColumns != null) {
+            for (QueryColumn selectColumn : selectColumns) {
+                if (selectColumn instanceof DistinctQueryColumn) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * 获取 count 查询需要的 join，没有被 where 和其他 join 引用的 left join 不影响 count 结果（一对一关联），
+     * 会被移除。无法确定引用关系时（比如原生 sql 条件、没有指定表的列），保留所有的 join
+     */
+    public static List<Join> getCountJoins(QueryWrapper queryWrapper) {
+        List<Join> joins = queryWrapper.getJoins();
+        if (CollectionUtil.isEmpty(joins)) {
+            return joins;
+        }
+
+        List<QueryTable> referencedTables = new ArrayList<>();
+        if (!collectTables(queryWrapper.getWhereQueryCondition(), referencedTables)
+                || !collectTables(queryWrapper.getHavingQueryCondition(), referencedTables)
+                || !collectColumnTables(queryWrapper.getGroupByColumns(), referencedTables)) {
+            return joins;
+        }
+
+        //从后往前检查，被保留的 join 中 on 条件引用的表也需要保留
+        List<Join> countJoins = new ArrayList<>(joins.size());
+        for (int i = joins.size() - 1; i >= 0; i--) {
+            Join join = joins.get(i);
+            if (!join.checkEffective()) {
+                continue;
+            }
+
+            if (isRemovable(join, referencedTables)) {
+                continue;
+            }
+
+            if (!collectTables(join.on, referencedTables)) {
+                return joins;
+            }
+            countJoins.add(join);
+        }
+
+        Collections.reverse(countJoins);
+        return countJoins;
+    }
+
+
+    private static boolean isRemovable(Join join, List<QueryTable> referencedTables) {
+        if (!Join.TYPE_LEFT.equals(join.type) || join.queryTable.getClass() != QueryTable.class) {
+            return false;
+        }
+
+        //on 条件中有参数时不能移除，否则 sql 参数会对应不上
+        if (WrapperUtil.getValues(join.on, DialectFactory.getDialect()).length > 0) {
+            return false;
+        }
+
+        for (QueryTable referencedTable : referencedTables) {
+            if (join.queryTable.isSameTable(referencedTable)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * 收集条件中引用的表，无法确定时返回 false
+     */
+    private static boolean collectTables(QueryCondition condition, List<QueryTable> tables) {
+        while (condition != null) {
+            if (condition.checkEffective()) {
+                Class<?> conditionClass = condition.getClass();
+                if (conditionClass == Brackets.class) {
+                    if (!collectTables(((Brackets) condition).getChildCondition(), tables)) {
+                        return false;
+                    }
+                } else if (conditionClass == OperatorQueryCondition.class) {
+                    if (!collectTables(((OperatorQueryCondition) condition).child, tables)) {
+                        return false;
+                    }
+                } else if (conditionClass == OperatorSelectCondition.class) {
+                    if (!collectWrapperTables(((OperatorSelectCondition) condition).queryWrapper, tables)) {
+                        return false;
+                    }
+                } else if (conditionClass == QueryCondition.class) {
+                    if (!collectColumnTable(condition.column, tables) || !collectValueTables(condition.value, tables)) {
+                        return false;
+                    }
+                } else {
+                    return false;
+                }
+            }
+            condition = condition.next;
+        }
+        return true;
+    }
+
+
+    private static boolean collectValueTables(Object value, List<QueryTable> tables) {
+        if (value instanceof QueryColumn) {
+            return collectColumnTable((QueryColumn) value, tables);
+        } else if (value instanceof QueryWrapper) {
+            return collectWrapperTables((QueryWrapper) value, tables);
+        } else if (value instanceof Object[]) {
+            for (Object object : (Object[]) value) {
+                if (object instanceof QueryColumn || object instanceof QueryWrapper || object instanceof RawValue) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return !(value instanceof RawValue);
+    }
+
+
+    /**
+     * 子查询中可能引用了外部的表（关联子查询）
+     */
+    private static boolean collectWrapperTables(QueryWrapper queryWrapper, List<QueryTable> tables) {
+        return collectTables(queryWrapper.getWhereQueryCondition(), tables)
+                && collectTables(queryWrapper.getHavingQueryCondition(), tables);
+    }
+
+
+    private static boolean collectColumnTables(List<QueryColumn> columns, List<QueryTable> tables) {
+        if (columns != null) {
+            for (QueryColumn column : columns) {
+                if (!collectColumnTable(column, tables)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+
+    private static boolean collectColumnTable(QueryColumn column, List<QueryTable> tables) {
+        if (column == null || column.getClass() != QueryColumn.class || column.table == null) {
+            return false;
+        }
+        tables.add(column.table);
+        return true;
+    }
+}
@@ -37,10 +37,10 @@ public class Join implements Serializable {
     static final String TYPE_CROSS = " CROSS JOIN ";
 
 
-    private String type;
-    private QueryTable queryTable;
-    private QueryCondition on;
-    private boolean effective;
+    protected String type;
+    protected QueryTable queryTable;
+    protected QueryCondition on;
+    protected boolean effective;
 
     public Join(String type, String table, boolean when) {
         this.type = type;
@@ -89,7 +89,8 @@ public class Join implements Serializable {
         //left join xxx as xxx2 on xxx2.id = xxx3.other
         List<QueryTable> newQueryTables = new ArrayList<>(queryTables);
         newQueryTables.add(queryTable);
-        sql.append(" ON ").append(on.toSql(newQueryTables, dialect));
+        sql.append(" ON ");
+        on.toSql(sql, newQueryTables, dialect);
         return sql.toString();
     }
 }
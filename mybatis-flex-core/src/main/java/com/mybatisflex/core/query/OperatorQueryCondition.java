@@ -15,6 +15,7 @@
  */
 package com.mybatisflex.core.query;
 
+import com.mybatisflex.core.dialect.DialectFactory;
 import com.mybatisflex.core.dialect.IDialect;
 import com.mybatisflex.core.util.StringUtil;
 
@@ -26,8 +27,8 @@ import java.util.List;
  */
 public class OperatorQueryCondition extends QueryCondition {
     
-    private String operator;
-    private QueryCondition child;
+    protected String operator;
+    protected QueryCondition child;
 
     public OperatorQueryCondition(String operator, QueryCondition child) {
         this.operator = operator;
@@ -35,30 +36,32 @@ public class OperatorQueryCondition extends QueryCondition {
     }
 
     @Override
-    public String toSql(List<QueryTable> queryTables, IDialect dialect) {
-        StringBuilder sql = new StringBuilder();
-
+    protected void appendConditionSql(StringBuilder sqlBuilder, QueryCondition effectiveBefore, List<QueryTable> queryTables, IDialect dialect) {
         //检测是否生效
         if (checkEffective()) {
-            String childSql = child.toSql(queryTables, dialect);
-            if (StringUtil.isNotBlank(childSql)) {
-                QueryCondition effectiveBefore = getEffectiveBefore();
-                if (effectiveBefore != null) {
-                    sql.append(effectiveBefore.connector);
-                }
-                sql.append(operator).append("(").append(childSql).append(")");
+            int start = sqlBuilder.length();
+            if (effectiveBefore != null) {
+                sqlBuilder.append(effectiveBefore.connector);
             }
-        }
+            sqlBuilder.append(operator).append("(");
+            int childStart = sqlBuilder.length();
+            child.toSql(sqlBuilder, queryTables, dialect);
 
-        if (this.next != null) {
-            return sql + next.toSql(queryTables, dialect);
+            if (StringUtil.isBlank(sqlBuilder, childStart)) {
+                sqlBuilder.setLength(start);
+            } else {
+                sqlBuilder.append(")");
+            }
         }
-
-        return sql.toString();
     }
 
     @Override
     public Object getValue() {
-        return WrapperUtil.getValues(child);
+        return getValue(DialectFactory.getDialect());
+    }
+
+    @Override
+    Object getValue(IDialect dialect) {
+        return WrapperUtil.getValues(child, dialect);
     }
 }
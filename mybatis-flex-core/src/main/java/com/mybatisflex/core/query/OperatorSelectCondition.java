@@ -27,8 +27,8 @@ import java.util.List;
  */
 public class OperatorSelectCondition extends QueryCondition {
     //操作符，例如 exist, not exist
-    private String operator;
-    private QueryWrapper queryWrapper;
+    protected String operator;
+    protected QueryWrapper queryWrapper;
 
     public OperatorSelectCondition(String operator, QueryWrapper queryWrapper) {
         this.operator = operator;
@@ -36,31 +36,26 @@ public class OperatorSelectCondition extends QueryCondition {
     }
 
     @Override
-    public String toSql(List<QueryTable> queryTables, IDialect dialect) {
-        StringBuilder sql = new StringBuilder();
-
+    protected void appendConditionSql(StringBuilder sqlBuilder, QueryCondition effectiveBefore, List<QueryTable> queryTables, IDialect dialect) {
         //检测是否生效
         if (checkEffective()) {
             String childSql = dialect.buildSelectSql(queryWrapper);
             if (StringUtil.isNotBlank(childSql)) {
-
-                QueryCondition effectiveBefore = getEffectiveBefore();
                 if (effectiveBefore != null) {
-                    sql.append(effectiveBefore.connector);
+                    sqlBuilder.append(effectiveBefore.connector);
                 }
-                sql.append(operator).append("(").append(childSql).append(")");
+                sqlBuilder.append(operator).append("(").append(childSql).append(")");
             }
         }
-
-        if (this.next != null) {
-            return sql + next.toSql(queryTables, dialect);
-        }
-
-        return sql.toString();
     }
 
     @Override
     public Object getValue() {
         return queryWrapper.getValueArray();
     }
+
+    @Override
+    Object getValue(IDialect dialect) {
+        return queryWrapper.getValueArray(dialect);
+    }
 }
@@ -96,6 +96,13 @@ public class QueryCondition implements Serializable {
         return checkEffective() ? value : null;
     }
 
+    /**
+     * 获取参数，括号、子查询等包含其他条件的参数时，子条件的参数需要使用构建 sql 的方言处理
+     */
+    Object getValue(IDialect dialect) {
+        return getValue();
+    }
+
     public void setValue(Object value) {
         this.value = value;
     }
@@ -176,47 +183,98 @@ public class QueryCondition implements Serializable {
 
     public String toSql(List<QueryTable> queryTables, IDialect dialect) {
         StringBuilder sql = new StringBuilder();
+        toSql(sql, queryTables, dialect);
+        return sql.toString();
+    }
+
+
+    /**
+     * 从当前条件开始，把整个条件链的 sql 追加到 sqlBuilder 中
+     * 只对条件链进行一次正向遍历，避免递归 next 以及中间字符串的拼接
+     *
+     * @param sqlBuilder  sql 构建器
+     * @param queryTables 查询的表
+     * @param dialect     方言
+     */
+    public void toSql(StringBuilder sqlBuilder, List<QueryTable> queryTables, IDialect dialect) {
+        QueryCondition effectiveBefore = getEffectiveBefore();
+
+        //第一个生效的括号，只有在后面还有条件时才需要保留括号
+        int bracketsStart = -1;
+
+        QueryCondition condition = this;
+        while (condition != null) {
+            int start = sqlBuilder.length();
+            condition.appendConditionSql(sqlBuilder, effectiveBefore, queryTables, dialect);
+
+            if (sqlBuilder.length() > start) {
+                if (bracketsStart >= 0) {
+                    bracketsStart = -1;
+                } else if (effectiveBefore == null && condition instanceof Brackets) {
+                    bracketsStart = start;
+                }
+            }
+
+            if (condition.checkEffective()) {
+                effectiveBefore = condition;
+            }
+            condition = condition.next;
+        }
+
+        if (bracketsStart >= 0) {
+            sqlBuilder.deleteCharAt(sqlBuilder.length() - 1);
+            sqlBuilder.deleteCharAt(bracketsStart);
+        }
+    }
+
+
+    /**
+     * 构建当前条件（不包含 next 条件）的 sql
+     *
+     * @param sqlBuilder      sql 构建器
+     * @param effectiveBefore 上一个生效的条件
+     * @param queryTables     查询的表
+     * @param dialect         方言
+     */
+    protected void appendConditionSql(StringBuilder sqlBuilder, QueryCondition effectiveBefore, List<QueryTable> queryTables, IDialect dialect) {
         //检测是否生效
         if (checkEffective()) {
-            QueryCondition effectiveBefore = getEffectiveBefore();
             if (effectiveBefore != null) {
-                sql.append(effectiveBefore.connector);
+                sqlBuilder.append(effectiveBefore.connector);
+            }
+            String columnSql = getColumn().toConditionSql(queryTables, dialect);
+            //in 和 not in 交由方言处理，以支持参数很多的场景
+            if (isInLogic() && value != null && value.getClass().isArray()) {
+                dialect.buildInConditionSql(sqlBuilder, columnSql, logic, calculateInParamsCount(dialect));
+                return;
             }
-            sql.append(getColumn().toConditionSql(queryTables, dialect));
-            sql.append(" ").append(logic).append(" ");
+            sqlBuilder.append(columnSql);
+            sqlBuilder.append(" ").append(logic).append(" ");
             if (value instanceof QueryColumn) {
-                sql.append(((QueryColumn) value).toConditionSql(queryTables, dialect));
+                sqlBuilder.append(((QueryColumn) value).toConditionSql(queryTables, dialect));
             }
             //子查询
             else if (value instanceof QueryWrapper) {
-                sql.append("(").append(dialect.buildSelectSql((QueryWrapper) value)).append(")");
+                sqlBuilder.append("(").append(dialect.buildSelectSql((QueryWrapper) value)).append(")");
             }
             //原生sql
             else if (value instanceof RawValue) {
-                sql.append(((RawValue) value).getContent());
+                sqlBuilder.append(((RawValue) value).getContent());
             }
             //正常查询，构建问号
             else {
-                appendQuestionMark(sql);
+                appendQuestionMark(sqlBuilder);
             }
         }
-
-        if (this.next != null) {
-            return sql + next.toSql(queryTables, dialect);
-        }
-
-        return sql.toString();
     }
 
 
     protected QueryCondition getEffectiveBefore() {
-        if (before != null && before.checkEffective()) {
-            return before;
-        } else if (before != null) {
-            return before.getEffectiveBefore();
-        } else {
-            return null;
+        QueryCondition condition = before;
+        while (condition != null && !condition.checkEffective()) {
+            condition = condition.before;
         }
+        return condition;
     }
 
 
@@ -250,7 +308,31 @@ public class QueryCondition implements Serializable {
     }
 
 
-    private int calculateValueArrayCount() {
+    boolean isInLogic() {
+        return LOGIC_IN.equals(logic) || LOGIC_NOT_IN.equals(logic);
+    }
+
+
+    /**
+     * in 条件最终的参数数量，开启 inParamsPaddingEnable 时补齐到 2 的 n 次方
+     * 补齐后超出方言允许的最大参数数量时（例如 sqlserver 的 2100 个），不再补齐
+     * 整条 sql 的参数数量见 {@link CPI#withInParamsPadding(QueryWrapper, IDialect, int, Supplier)}
+     *
+     * @param dialect 构建 sql 的方言，sql 和参数需要使用同一个方言计算
+     */
+    int calculateInParamsCount(IDialect dialect) {
+        int paramsCount = calculateValueArrayCount();
+        if (paramsCount > 1 && WrapperUtil.isInParamsPaddingEnable()) {
+            int paddedCount = Integer.highestOneBit(paramsCount - 1) << 1;
+            if (paddedCount > 0 && paddedCount <= dialect.getMaxParameterCount()) {
+                return paddedCount;
+            }
+        }
+        return paramsCount;
+    }
+
+
+    int calculateValueArrayCount() {
         Object[] values = (Object[]) value;
         int paramsCount = 0;
         for (Object object : values) {
@@ -26,12 +26,12 @@ import java.util.List;
  */
 public class QueryOrderBy implements Serializable {
 
-    private QueryColumn queryColumn;
+    protected QueryColumn queryColumn;
 
-    private String orderType = "ASC"; //asc desc
+    protected String orderType = "ASC"; //asc desc
 
-    private boolean nullsFirst = false;
-    private boolean nullsLast = false;
+    protected boolean nullsFirst = false;
+    protected boolean nullsLast = false;
 
     protected QueryOrderBy() {
     }
@@ -0,0 +1,311 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.query;
+
+import com.mybatisflex.core.dialect.IDialect;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * QueryWrapper 的结构（形状）key，用于缓存 QueryWrapper 构建出来的 sql
+ * 只记录会影响 sql 内容的结构信息，例如：表、字段、条件、join、排序、union 以及 limit 等，
+ * 而忽略条件的参数值，但 IN 的参数数量以及 when(false) 等是否生效的信息会被记录
+ * 遇到无法识别的类型（例如用户自定义扩展的 QueryColumn）时，返回 null，表示不能被缓存
+ */
+public final class QueryShapeKey {
+
+    private final Object[] shapes;
+    private final int hashCode;
+
+    private QueryShapeKey(List<Object> shapes) {
+        this.shapes = shapes.toArray();
+        this.hashCode = shapes.hashCode();
+    }
+
+    /**
+     * 构建 QueryWrapper 的结构 key
+     *
+     * @param sqlType      sql 类型，例如 select、count 等
+     * @param queryWrapper 查询条件
+     * @param dialect      构建 sql 的方言，用于计算 IN 的参数数量
+     * @return 结构 key，无法被缓存时返回 null
+     */
+    public static QueryShapeKey of(String sqlType, QueryWrapper queryWrapper, IDialect dialect) {
+        List<Object> shapes = new ArrayList<>();
+        shapes.add(sqlType);
+        return appendWrapper(shapes, dialect, queryWrapper) ? new QueryShapeKey(shapes) : null;
+    }
+
+
+    private static boolean appendWrapper(List<Object> shapes, IDialect dialect, QueryWrapper queryWrapper) {
+        if (queryWrapper == null || queryWrapper.getClass() != QueryWrapper.class) {
+            return false;
+        }
+        shapes.add(Shape.WRAPPER);
+
+        List<QueryTable> queryTables = CPI.getQueryTables(queryWrapper);
+        if (queryTables == null) {
+            shapes.add(null);
+        } else {
+            shapes.add(queryTables.size());
+            for (QueryTable queryTable : queryTables) {
+                if (!appendTable(shapes, dialect, queryTable)) {
+                    return false;
+                }
+            }
+        }
+
+        List<QueryColumn> selectColumns = CPI.getSelectColumns(queryWrapper);
+        if (!appendColumns(shapes, dialect, selectColumns)) {
+            return false;
+        }
+
+        List<Join> joins = CPI.getJoins(queryWrapper);
+        if (joins != null) {
+            shapes.add(Shape.JOIN);
+            shapes.add(joins.size());
+            for (Join join : joins) {
+                if (join.getClass() != Join.class) {
+                    return false;
+                }
+                shapes.add(join.type);
+                shapes.add(join.effective);
+                if (!appendTable(shapes, dialect, join.queryTable) || !appendCondition(shapes, dialect, join.on)) {
+                    return false;
+                }
+            }
+        }
+
+        shapes.add(Shape.WHERE);
+        if (!appendCondition(shapes, dialect, CPI.getWhereQueryCondition(queryWrapper))) {
+            return false;
+        }
+
+        shapes.add(Shape.GROUP_BY);
+        if (!appendColumns(shapes, dialect, CPI.getGroupByColumns(queryWrapper))) {
+            return false;
+        }
+
+        shapes.add(Shape.HAVING);
+        if (!appendCondition(shapes, dialect, CPI.getHavingQueryCondition(queryWrapper))) {
+            return false;
+        }
+
+        List<QueryOrderBy> orderBys = CPI.getOrderBys(queryWrapper);
+        if (orderBys != null) {
+            shapes.add(Shape.ORDER_BY);
+            shapes.add(orderBys.size());
+            for (QueryOrderBy orderBy : orderBys) {
+                if (orderBy.getClass() == StringQueryOrderBy.class) {
+                    shapes.add(((StringQueryOrderBy) orderBy).orderBy);
+                } else if (orderBy.getClass() == QueryOrderBy.class) {
+                    shapes.add(orderBy.orderType);
+                    shapes.add(orderBy.nullsFirst);
+                    shapes.add(orderBy.nullsLast);
+                    if (!appendColumn(shapes, dialect, orderBy.queryColumn)) {
+                        return false;
+                    }
+                } else {
+                    return false;
+                }
+            }
+        }
+
+        List<UnionWrapper> unions = CPI.getUnions(queryWrapper);
+        if (unions != null) {
+            shapes.add(Shape.UNION);
+            shapes.add(unions.size());
+            for (UnionWrapper union : unions) {
+                shapes.add(union.getKey());
+                if (!appendWrapper(shapes, dialect, union.getQueryWrapper())) {
+                    return false;
+                }
+            }
+        }
+
+        //limit 和 offset 会直接拼接到 sql 中
+        shapes.add(CPI.getLimitRows(queryWrapper));
+        shapes.add(CPI.getLimitOffset(queryWrapper));
+        shapes.add(Shape.END);
+        return true;
+    }
+
+
+    private static boolean appendTable(List<Object> shapes, IDialect dialect, QueryTable queryTable) {
+        if (queryTable == null) {
+            shapes.add(null);
+            return true;
+        }
+        if (queryTable.getClass() == QueryTable.class) {
+            shapes.add(Shape.TABLE);
+            shapes.add(queryTable.name);
+            shapes.add(queryTable.alias);
+            return true;
+        }
+        if (queryTable.getClass() == SelectQueryTable.class) {
+            shapes.add(Shape.SELECT_TABLE);
+            shapes.add(queryTable.alias);
+            return appendWrapper(shapes, dialect, ((SelectQueryTable) queryTable).getQueryWrapper());
+        }
+        return false;
+    }
+
+
+    private static boolean appendColumns(List<Object> shapes, IDialect dialect, List<QueryColumn> columns) {
+        if (columns == null) {
+            shapes.add(null);
+            return true;
+        }
+        shapes.add(columns.size());
+        for (QueryColumn column : columns) {
+            if (!appendColumn(shapes, dialect, column)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    private static boolean appendColumn(List<Object> shapes, IDialect dialect, QueryColumn column) {
+        if (column == null) {
+            shapes.add(null);
+            return true;
+        }
+
+        Class<?> columnClass = column.getClass();
+        if (columnClass == QueryColumn.class) {
+            shapes.add(Shape.COLUMN);
+        } else if (columnClass == FunctionQueryColumn.class) {
+            shapes.add(Shape.FUNCTION_COLUMN);
+            shapes.add(((FunctionQueryColumn) column).fnName);
+            if (!appendColumn(shapes, dialect, ((FunctionQueryColumn) column).column)) {
+                return false;
+            }
+        } else if (columnClass == DistinctQueryColumn.class) {
+            shapes.add(Shape.DISTINCT_COLUMN);
+            if (!appendColumns(shapes, dialect, ((DistinctQueryColumn) column).queryColumns)) {
+                return false;
+            }
+        } else if (columnClass == StringQueryColumn.class) {
+            shapes.add(Shape.STRING_COLUMN);
+            shapes.add(((StringQueryColumn) column).content);
+        } else {
+            return false;
+        }
+
+        shapes.add(column.name);
+        shapes.add(column.alias);
+        return appendTable(shapes, dialect, column.table);
+    }
+
+
+    private static boolean appendCondition(List<Object> shapes, IDialect dialect, QueryCondition condition) {
+        //条件链表可能很长，使用循环而非递归
+        while (condition != null) {
+            Class<?> conditionClass = condition.getClass();
+            shapes.add(conditionClass);
+            shapes.add(condition.checkEffective());
+            shapes.add(condition.connector);
+
+            if (conditionClass == QueryCondition.class) {
+                if (!appendConditionValue(shapes, dialect, condition)) {
+                    return false;
+                }
+            } else if (conditionClass == Brackets.class) {
+                if (!appendCondition(shapes, dialect, ((Brackets) condition).getChildCondition())) {
+                    return false;
+                }
+            } else if (conditionClass == OperatorQueryCondition.class) {
+                shapes.add(((OperatorQueryCondition) condition).operator);
+                if (!appendCondition(shapes, dialect, ((OperatorQueryCondition) condition).child)) {
+                    return false;
+                }
+            } else if (conditionClass == OperatorSelectCondition.class) {
+                shapes.add(((OperatorSelectCondition) condition).operator);
+                if (!appendWrapper(shapes, dialect, ((OperatorSelectCondition) condition).queryWrapper)) {
+                    return false;
+                }
+            } else if (conditionClass == StringQueryCondition.class) {
+                shapes.add(((StringQueryCondition) condition).sqlContent);
+            } else {
+                return false;
+            }
+
+            condition = condition.next;
+        }
+        shapes.add(Shape.END);
+        return true;
+    }
+
+
+    private static boolean appendConditionValue(List<Object> shapes, IDialect dialect, QueryCondition condition) {
+        if (!appendColumn(shapes, dialect, condition.column)) {
+            return false;
+        }
+
+        String logic = condition.logic;
+        shapes.add(logic);
+
+        Object value = condition.value;
+        if (value instanceof QueryColumn) {
+            shapes.add(Shape.COLUMN_VALUE);
+            return appendColumn(shapes, dialect, (QueryColumn) value);
+        } else if (value instanceof QueryWrapper) {
+            shapes.add(Shape.SELECT_VALUE);
+            return appendWrapper(shapes, dialect, (QueryWrapper) value);
+        } else if (value instanceof RawValue) {
+            shapes.add(Shape.RAW_VALUE);
+            shapes.add(((RawValue) value).getContent());
+        } else if (QueryCondition.LOGIC_IN.equals(logic) || QueryCondition.LOGIC_NOT_IN.equals(logic)) {
+            if (!(value instanceof Object[])) {
+                return false;
+            }
+            //IN 的参数数量决定了问号的数量
+            shapes.add(condition.calculateInParamsCount(dialect));
+        }
+        return true;
+    }
+
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        QueryShapeKey that = (QueryShapeKey) o;
+        return hashCode == that.hashCode && Arrays.equals(shapes, that.shapes);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+
+    /**
+     * 结构的分隔标记，避免不同结构生成相同的 key
+     */
+    private enum Shape {
+        WRAPPER, TABLE, SELECT_TABLE, JOIN, WHERE, GROUP_BY, HAVING, ORDER_BY, UNION,
+        COLUMN, FUNCTION_COLUMN, DISTINCT_COLUMN, STRING_COLUMN,
+        COLUMN_VALUE, SELECT_VALUE, RAW_VALUE, END
+    }
+}
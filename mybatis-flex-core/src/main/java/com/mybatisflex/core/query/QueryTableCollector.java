@@ -0,0 +1,173 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.query;
+
+import com.mybatisflex.core.util.StringUtil;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 收集 QueryWrapper 引用的所有表，包括 from、join、from 子查询、条件中的子查询以及 union 中的表，用于查询结果的缓存失效
+ * 原生的 sql 片段（比如 where("...")、RawValue）中包含子查询时，无法确定引用了哪些表，返回 false
+ */
+public class QueryTableCollector {
+
+    private QueryTableCollector() {
+    }
+
+
+    /**
+     * 收集 QueryWrapper 引用的表名
+     *
+     * @param queryWrapper 查询条件
+     * @param tableNames   表名
+     * @return 无法确定引用的表时返回 false
+     */
+    public static boolean collect(QueryWrapper queryWrapper, Collection<String> tableNames) {
+        if (queryWrapper == null) {
+            return true;
+        }
+
+        List<QueryTable> queryTables = CPI.getQueryTables(queryWrapper);
+        if (queryTables != null) {
+            for (QueryTable queryTable : queryTables) {
+                if (!collectTable(queryTable, tableNames)) {
+                    return false;
+                }
+            }
+        }
+
+        List<Join> joins = CPI.getJoins(queryWrapper);
+        if (joins != null) {
+            for (Join join : joins) {
+                if (!collectTable(join.queryTable, tableNames) || !collectCondition(join.on, tableNames)) {
+                    return false;
+                }
+            }
+        }
+
+        if (!collectColumns(CPI.getSelectColumns(queryWrapper))
+                || !collectColumns(CPI.getGroupByColumns(queryWrapper))
+                || !collectCondition(CPI.getWhereQueryCondition(queryWrapper), tableNames)
+                || !collectCondition(CPI.getHavingQueryCondition(queryWrapper), tableNames)) {
+            return false;
+        }
+
+        List<QueryOrderBy> orderBys = CPI.getOrderBys(queryWrapper);
+        if (orderBys != null) {
+            for (QueryOrderBy orderBy : orderBys) {
+                if (orderBy instanceof StringQueryOrderBy ? isSubSelect(((StringQueryOrderBy) orderBy).orderBy)
+                        : !collectColumn(orderBy.queryColumn)) {
+                    return false;
+                }
+            }
+        }
+
+        List<UnionWrapper> unions = CPI.getUnions(queryWrapper);
+        if (unions != null) {
+            for (UnionWrapper union : unions) {
+                if (!collect(union.getQueryWrapper(), tableNames)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+
+    private static boolean collectTable(QueryTable queryTable, Collection<String> tableNames) {
+        if (queryTable instanceof SelectQueryTable) {
+            return collect(((SelectQueryTable) queryTable).getQueryWrapper(), tableNames);
+        }
+        if (queryTable == null || StringUtil.isBlank(queryTable.getName())) {
+            return false;
+        }
+        tableNames.add(queryTable.getName());
+        return true;
+    }
+
+
+    private static boolean collectCondition(QueryCondition condition, Collection<String> tableNames) {
+        while (condition != null) {
+            if (condition instanceof Brackets) {
+                if (!collectCondition(((Brackets) condition).getChildCondition(), tableNames)) {
+                    return false;
+                }
+            } else if (condition instanceof OperatorQueryCondition) {
+                if (!collectCondition(((OperatorQueryCondition) condition).child, tableNames)) {
+                    return false;
+                }
+            } else if (condition instanceof OperatorSelectCondition) {
+                if (!collect(((OperatorSelectCondition) condition).queryWrapper, tableNames)) {
+                    return false;
+                }
+            } else if (condition instanceof StringQueryCondition) {
+                if (isSubSelect(((StringQueryCondition) condition).sqlContent)) {
+                    return false;
+                }
+            } else if (!collectColumn(condition.column) || !collectValue(condition.value, tableNames)) {
+                return false;
+            }
+            condition = condition.next;
+        }
+        return true;
+    }
+
+
+    private static boolean collectValue(Object value, Collection<String> tableNames) {
+        if (value instanceof QueryWrapper) {
+            return collect((QueryWrapper) value, tableNames);
+        } else if (value instanceof RawValue) {
+            return !isSubSelect(((RawValue) value).getContent());
+        } else if (value instanceof QueryColumn) {
+            return collectColumn((QueryColumn) value);
+        } else if (value instanceof Object[]) {
+            for (Object object : (Object[]) value) {
+                if (!collectValue(object, tableNames)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+
+    private static boolean collectColumns(List<QueryColumn> columns) {
+        if (columns != null) {
+            for (QueryColumn column : columns) {
+                if (!collectColumn(column)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * 列本身引用的表已经在 from 或者 join 中，只需要检查原生的 sql 列
+     */
+    private static boolean collectColumn(QueryColumn column) {
+        return !(column instanceof StringQueryColumn) || !isSubSelect(((StringQueryColumn) column).content);
+    }
+
+
+    private static boolean isSubSelect(String sql) {
+        return sql != null && sql.toLowerCase(Locale.ENGLISH).contains("select");
+    }
+}
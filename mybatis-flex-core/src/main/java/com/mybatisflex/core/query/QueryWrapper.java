@@ -15,6 +15,8 @@
  */
 package com.mybatisflex.core.query;
 
+import com.mybatisflex.core.dialect.DialectFactory;
+import com.mybatisflex.core.dialect.IDialect;
 import com.mybatisflex.core.exception.FlexExceptions;
 import com.mybatisflex.core.table.TableDef;
 import com.mybatisflex.core.util.ArrayUtil;
@@ -348,12 +350,21 @@ public class QueryWrapper extends BaseQueryWrapper<QueryWrapper> {
      * 在构建 sql 的时候，需要保证 where 在 having 的前面
      */
     Object[] getValueArray() {
+        return getValueArray(DialectFactory.getDialect());
+    }
+
+    /**
+     * 获取 queryWrapper 的参数
+     *
+     * @param dialect 构建 sql 的方言，in 条件的参数需要与 sql 使用同一个方言处理
+     */
+    Object[] getValueArray(IDialect dialect) {
         List<Object> joinValues = null;
         List<Join> joins = getJoins();
         if (CollectionUtil.isNotEmpty(joins)) {
             for (Join join : joins) {
                 QueryCondition onCondition = join.getOnCondition();
-                Object[] values = WrapperUtil.getValues(onCondition);
+                Object[] values = WrapperUtil.getValues(onCondition, dialect);
                 if (values.length > 0) {
                     if (joinValues == null) {
                         joinValues = new ArrayList<>();
@@ -363,15 +374,15 @@ public class QueryWrapper extends BaseQueryWrapper<QueryWrapper> {
             }
         }
 
-        Object[] whereValues = WrapperUtil.getValues(whereQueryCondition);
-        Object[] havingValues = WrapperUtil.getValues(havingQueryCondition);
+        Object[] whereValues = WrapperUtil.getValues(whereQueryCondition, dialect);
+        Object[] havingValues = WrapperUtil.getValues(havingQueryCondition, dialect);
 
         Object[] values = ArrayUtil.concat(whereValues, havingValues);
 
         if (CollectionUtil.isNotEmpty(unions)) {
             for (UnionWrapper union : unions) {
                 QueryWrapper queryWrapper = union.getQueryWrapper();
-                values = ArrayUtil.concat(values, queryWrapper.getValueArray());
+                values = ArrayUtil.concat(values, queryWrapper.getValueArray(dialect));
             }
         }
 
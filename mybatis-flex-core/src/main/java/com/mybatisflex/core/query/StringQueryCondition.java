@@ -38,22 +38,13 @@ public class StringQueryCondition extends QueryCondition {
     }
 
     @Override
-    public String toSql(List<QueryTable> queryTables, IDialect dialect) {
-        StringBuilder sql = new StringBuilder();
-
+    protected void appendConditionSql(StringBuilder sqlBuilder, QueryCondition effectiveBefore, List<QueryTable> queryTables, IDialect dialect) {
         //检测是否生效
         if (checkEffective()) {
-            QueryCondition effectiveBefore = getEffectiveBefore();
             if (effectiveBefore != null) {
-                sql.append(effectiveBefore.connector);
+                sqlBuilder.append(effectiveBefore.connector);
             }
-            sql.append(" ").append(sqlContent).append(" ");
-        }
-
-        if (this.next != null) {
-            return sql + next.toSql(queryTables, dialect);
+            sqlBuilder.append(" ").append(sqlContent).append(" ");
         }
-
-        return sql.toString();
     }
 }
@@ -16,6 +16,8 @@
 package com.mybatisflex.core.query;
 
 
+import com.mybatisflex.core.FlexGlobalConfig;
+import com.mybatisflex.core.dialect.IDialect;
 import com.mybatisflex.core.util.CollectionUtil;
 import com.mybatisflex.core.util.StringUtil;
 
@@ -24,9 +26,13 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Supplier;
 
 class WrapperUtil {
 
+    //当前线程构建的 sql 是否补齐 in 条件的参数，由整条 sql 的参数数量决定，为 null 时只检查单个 in 条件的参数数量
+    private static final ThreadLocal<Boolean> inParamsPadding = new ThreadLocal<>();
+
 
     static String buildAsAlias(String alias) {
         return StringUtil.isBlank(alias) ? "" : " AS " + alias;
@@ -76,55 +82,109 @@ class WrapperUtil {
     }
 
 
-    static Object[] getValues(QueryCondition condition) {
+    /**
+     * 获取条件的参数
+     *
+     * @param condition 条件
+     * @param dialect   构建 sql 的方言，in 条件的参数需要与 sql 使用同一个方言处理
+     */
+    static Object[] getValues(QueryCondition condition, IDialect dialect) {
         if (condition == null) {
             return NULL_PARA_ARRAY;
         }
 
         List<Object> paras = new ArrayList<>();
-        getValues(condition, paras);
+        getValues(condition, paras, dialect);
 
         return paras.isEmpty() ? NULL_PARA_ARRAY : paras.toArray();
     }
 
 
-    private static void getValues(QueryCondition condition, List<Object> paras) {
+    private static void getValues(QueryCondition condition, List<Object> paras, IDialect dialect) {
         if (condition == null) {
             return;
         }
 
-        Object value = condition.getValue();
+        Object value = condition.getValue(dialect);
         if (value == null
                 || value instanceof QueryColumn
                 || value instanceof RawValue) {
-            getValues(condition.next, paras);
+            getValues(condition.next, paras, dialect);
             return;
         }
 
         if (value.getClass().isArray()) {
             Object[] values = (Object[]) value;
-            for (Object object : values) {
-                if (object != null && (object.getClass().isArray()
-                        || object.getClass() == int[].class
-                        || object.getClass() == long[].class
-                        || object.getClass() == short[].class
-                        || object.getClass() == float[].class
-                        || object.getClass() == double[].class)) {
-                    for (int i = 0; i < Array.getLength(object); i++) {
-                        paras.add(Array.get(object, i));
-                    }
-                } else {
-                    paras.add(object);
+            //in 和 not in 的参数交由方言处理，比如转换为数组参数
+            if (condition.isInLogic()) {
+                List<Object> inParas = new ArrayList<>(values.length);
+                addArrayValues(values, inParas);
+
+                //补齐参数数量，与 QueryCondition 生成的问号数量保持一致
+                int paramsCount = condition.calculateInParamsCount(dialect);
+                while (!inParas.isEmpty() && inParas.size() < paramsCount) {
+                    inParas.add(inParas.get(inParas.size() - 1));
                 }
+                paras.addAll(Arrays.asList(dialect.buildInConditionArgs(inParas.toArray())));
+            } else {
+                addArrayValues(values, paras);
             }
         } else if (value instanceof QueryWrapper) {
-            Object[] valueArray = ((QueryWrapper) value).getValueArray();
+            Object[] valueArray = ((QueryWrapper) value).getValueArray(dialect);
             paras.addAll(Arrays.asList(valueArray));
         } else {
             paras.add(value);
         }
 
-        getValues(condition.next, paras);
+        getValues(condition.next, paras, dialect);
+    }
+
+
+    private static void addArrayValues(Object[] values, List<Object> paras) {
+        for (Object object : values) {
+            if (object != null && (object.getClass().isArray()
+                    || object.getClass() == int[].class
+                    || object.getClass() == long[].class
+                    || object.getClass() == short[].class
+                    || object.getClass() == float[].class
+                    || object.getClass() == double[].class)) {
+                for (int i = 0; i < Array.getLength(object); i++) {
+                    paras.add(Array.get(object, i));
+                }
+            } else {
+                paras.add(object);
+            }
+        }
+    }
+
+
+    /**
+     * 根据整条 sql 的参数数量决定是否补齐 in 条件的参数，补齐后超出方言允许的最大参数数量时，所有的 in 条件都不补齐
+     * 获取参数以及构建 sql 都需要在 supplier 中执行，以保证参数和问号的数量一致
+     *
+     * @param queryWrapper  queryWrapper
+     * @param dialect       构建 sql 的方言
+     * @param reservedCount queryWrapper 之外的参数数量，例如 update 的 set 参数
+     * @param supplier      获取参数以及构建 sql
+     */
+    static <T> T withInParamsPadding(QueryWrapper queryWrapper, IDialect dialect, int reservedCount, Supplier<T> supplier) {
+        if (!FlexGlobalConfig.getDefaultConfig().isInParamsPaddingEnable() || inParamsPadding.get() != null) {
+            return supplier.get();
+        }
+        try {
+            inParamsPadding.set(Boolean.TRUE);
+            if (reservedCount + queryWrapper.getValueArray(dialect).length > dialect.getMaxParameterCount()) {
+                inParamsPadding.set(Boolean.FALSE);
+            }
+            return supplier.get();
+        } finally {
+            inParamsPadding.remove();
+        }
+    }
+
+
+    static boolean isInParamsPaddingEnable() {
+        return FlexGlobalConfig.getDefaultConfig().isInParamsPaddingEnable() && inParamsPadding.get() != Boolean.FALSE;
     }
 
 
@@ -0,0 +1,471 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.row;
+
+import java.io.Serializable;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * 紧凑的 Row，同一个查询结果的所有 Row 共享一个只读的列头（列名和索引的映射），每个 Row 只保存一个值的数组，
+ * 用于大量数据的查询，避免每个 Row 都创建 hash 表和 entry 对象
+ * 当 put 新的列或者调用 compute、merge 等方法时，会转换为普通的 Row（数据存放到 LinkedHashMap 中）
+ */
+public class CompactRow extends Row {
+
+    //查询结果中值为 null 且不需要设置的列（与 mybatis 的 callSettersOnNulls 保持一致）
+    private enum Absent {
+        INSTANCE
+    }
+
+    private static final Object ABSENT = Absent.INSTANCE;
+
+    private final Header header;
+
+    //为 null 时表示已经转换为普通的 Row
+    private Object[] values;
+
+    public CompactRow(Header header, Object[] values) {
+        if (values.length != header.columns.length) {
+            throw new IllegalArgumentException("The length of values must be equals to the columns of header.");
+        }
+        this.header = header;
+        this.values = values;
+    }
+
+
+    /**
+     * 未设置的列
+     */
+    public static Object absent() {
+        return ABSENT;
+    }
+
+
+    private boolean isCompact() {
+        return values != null;
+    }
+
+
+    private int indexOf(Object key) {
+        Integer index = header.indexes.get(key);
+        return index != null ? index : -1;
+    }
+
+
+    /**
+     * 转换为普通的 Row，之后所有的操作都交给 LinkedHashMap 处理
+     */
+    private void inflate() {
+        if (values == null) {
+            return;
+        }
+        Object[] oldValues = values;
+        values = null;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != ABSENT) {
+                super.putValue(header.columns[i], oldValues[i]);
+            }
+        }
+    }
+
+
+    @Override
+    Object putValue(String key, Object value) {
+        if (isCompact()) {
+            int index = indexOf(key);
+            if (index >= 0) {
+                Object oldValue = values[index];
+                values[index] = value;
+                return oldValue == ABSENT ? null : oldValue;
+            }
+            inflate();
+        }
+        return super.putValue(key, value);
+    }
+
+
+    @Override
+    public Object put(String key, Object value) {
+        if (isCompact()) {
+            int index = indexOf(key);
+            if (index >= 0 && values[index] == ABSENT) {
+                values[index] = value;
+                return null;
+            }
+            //已经存在的列，需要生成新的 key
+            inflate();
+        }
+        return super.put(key, value);
+    }
+
+
+    @Override
+    public Object get(Object key) {
+        if (isCompact()) {
+            int index = indexOf(key);
+            Object value = index >= 0 ? values[index] : null;
+            return value == ABSENT ? null : value;
+        }
+        return super.get(key);
+    }
+
+
+    @Override
+    public Object getOrDefault(Object key, Object defaultValue) {
+        if (isCompact()) {
+            int index = indexOf(key);
+            return index >= 0 && values[index] != ABSENT ? values[index] : defaultValue;
+        }
+        return super.getOrDefault(key, defaultValue);
+    }
+
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (isCompact()) {
+            int index = indexOf(key);
+            return index >= 0 && values[index] != ABSENT;
+        }
+        return super.containsKey(key);
+    }
+
+
+    @Override
+    public boolean containsValue(Object value) {
+        if (isCompact()) {
+            for (Object v : values) {
+                if (v != ABSENT && Objects.equals(v, value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return super.containsValue(value);
+    }
+
+
+    @Override
+    public int size() {
+        if (isCompact()) {
+            int size = 0;
+            for (Object value : values) {
+                if (value != ABSENT) {
+                    size++;
+                }
+            }
+            return size;
+        }
+        return super.size();
+    }
+
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+
+    @Override
+    public Object remove(Object key) {
+        if (isCompact()) {
+            removeModifyAttr(key.toString());
+            int index = indexOf(key);
+            if (index < 0) {
+                return null;
+            }
+            Object oldValue = values[index];
+            values[index] = ABSENT;
+            return oldValue == ABSENT ? null : oldValue;
+        }
+        return super.remove(key);
+    }
+
+
+    @Override
+    public void clear() {
+        if (isCompact()) {
+            Arrays.fill(values, ABSENT);
+            return;
+        }
+        super.clear();
+    }
+
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super Object> action) {
+        if (isCompact()) {
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != ABSENT) {
+                    action.accept(header.columns[i], values[i]);
+                }
+            }
+            return;
+        }
+        super.forEach(action);
+    }
+
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        return isCompact() ? new EntrySet() : super.entrySet();
+    }
+
+
+    @Override
+    public Set<String> keySet() {
+        if (isCompact()) {
+            return new AbstractSet<String>() {
+                @Override
+                public Iterator<String> iterator() {
+                    Iterator<Map.Entry<String, Object>> iterator = new EntryIterator();
+                    return new Iterator<String>() {
+                        @Override
+                        public boolean hasNext() {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public String next() {
+                            return iterator.next().getKey();
+                        }
+
+                        @Override
+                        public void remove() {
+                            iterator.remove();
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return CompactRow.this.size();
+                }
+
+                @Override
+                public boolean contains(Object key) {
+                    return containsKey(key);
+                }
+            };
+        }
+        return super.keySet();
+    }
+
+
+    @Override
+    public Collection<Object> values() {
+        if (isCompact()) {
+            return new AbstractCollection<Object>() {
+                @Override
+                public Iterator<Object> iterator() {
+                    Iterator<Map.Entry<String, Object>> iterator = new EntryIterator();
+                    return new Iterator<Object>() {
+                        @Override
+                        public boolean hasNext() {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public Object next() {
+                            return iterator.next().getValue();
+                        }
+
+                        @Override
+                        public void remove() {
+                            iterator.remove();
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return CompactRow.this.size();
+                }
+            };
+        }
+        return super.values();
+    }
+
+
+    //以下方法直接操作 HashMap 的数据，需要先转换为普通的 Row
+
+    @Override
+    public void putAll(Map<? extends String, ?> m) {
+        inflate();
+        super.putAll(m);
+    }
+
+    @Override
+    public Object putIfAbsent(String key, Object value) {
+        inflate();
+        return super.putIfAbsent(key, value);
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        inflate();
+        return super.remove(key, value);
+    }
+
+    @Override
+    public boolean replace(String key, Object oldValue, Object newValue) {
+        inflate();
+        return super.replace(key, oldValue, newValue);
+    }
+
+    @Override
+    public Object replace(String key, Object value) {
+        inflate();
+        return super.replace(key, value);
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super String, ? super Object, ?> function) {
+        inflate();
+        super.replaceAll(function);
+    }
+
+    @Override
+    public Object computeIfAbsent(String key, Function<? super String, ?> mappingFunction) {
+        inflate();
+        return super.computeIfAbsent(key, mappingFunction);
+    }
+
+    @Override
+    public Object computeIfPresent(String key, BiFunction<? super String, ? super Object, ?> remappingFunction) {
+        inflate();
+        return super.computeIfPresent(key, remappingFunction);
+    }
+
+    @Override
+    public Object compute(String key, BiFunction<? super String, ? super Object, ?> remappingFunction) {
+        inflate();
+        return super.compute(key, remappingFunction);
+    }
+
+    @Override
+    public Object merge(String key, Object value, BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+        inflate();
+        return super.merge(key, value, remappingFunction);
+    }
+
+    @Override
+    public Object clone() {
+        if (!isCompact()) {
+            return super.clone();
+        }
+        //HashMap.clone() 会通过 entrySet() 把数据复制到 LinkedHashMap 中，数据会同时存在于两处
+        CompactRow row = new CompactRow(header, values.clone());
+        row.copyState(this);
+        return row;
+    }
+
+
+    private class EntrySet extends AbstractSet<Map.Entry<String, Object>> {
+
+        @Override
+        public Iterator<Map.Entry<String, Object>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return CompactRow.this.size();
+        }
+    }
+
+
+    private class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+
+        private int next = nextIndex(0);
+        private int current = -1;
+
+        private int nextIndex(int from) {
+            Object[] values = CompactRow.this.values;
+            while (values != null && from < values.length && values[from] == ABSENT) {
+                from++;
+            }
+            return values != null ? from : Integer.MAX_VALUE;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return values != null && next < values.length;
+        }
+
+        @Override
+        public Map.Entry<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            current = next;
+            next = nextIndex(next + 1);
+            int index = current;
+            return new AbstractMap.SimpleEntry<String, Object>(header.columns[index], values[index]) {
+                @Override
+                public Object setValue(Object value) {
+                    super.setValue(value);
+                    return putValue(getKey(), value);
+                }
+            };
+        }
+
+        @Override
+        public void remove() {
+            if (current < 0) {
+                throw new IllegalStateException();
+            }
+            CompactRow.this.remove(header.columns[current]);
+            current = -1;
+        }
+    }
+
+
+    /**
+     * 列头，同一个查询结果的所有 CompactRow 共享
+     */
+    public static class Header implements Serializable {
+
+        private final String[] columns;
+        private final Map<String, Integer> indexes;
+
+        /**
+         * @param columns 列名，重复的列名会和 {@link Row#put(String, Object)} 一样添加序号，例如 id$1
+         */
+        public Header(List<String> columns) {
+            this.columns = new String[columns.size()];
+            this.indexes = new HashMap<>(columns.size() * 4 / 3 + 1);
+            for (int i = 0; i < this.columns.length; i++) {
+                String column = columns.get(i);
+                for (int j = 1; indexes.containsKey(column); j++) {
+                    column = columns.get(i) + RowUtil.INDEX_SEPARATOR + j;
+                }
+                this.columns[i] = column;
+                this.indexes.put(column, i);
+            }
+        }
+
+        public String[] getColumns() {
+            return columns.clone();
+        }
+
+        public int size() {
+            return columns.length;
+        }
+    }
+}
@@ -17,6 +17,7 @@ package com.mybatisflex.core.row;
 
 import com.mybatisflex.core.FlexGlobalConfig;
 import com.mybatisflex.core.exception.FlexExceptions;
+import com.mybatisflex.core.paginate.CursorPage;
 import com.mybatisflex.core.paginate.Page;
 import com.mybatisflex.core.query.CPI;
 import com.mybatisflex.core.query.QueryCondition;
@@ -24,6 +25,8 @@ import com.mybatisflex.core.query.QueryTable;
 import com.mybatisflex.core.query.QueryWrapper;
 import com.mybatisflex.core.transaction.Propagation;
 import com.mybatisflex.core.transaction.TransactionalManager;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.apache.ibatis.util.MapUtil;
 
@@ -31,6 +34,8 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 /**
@@ -57,6 +62,22 @@ public class Db {
         });
     }
 
+    /**
+     * 注册了该 mapper 的环境的 RowMapperInvoker，默认的环境中注册了该 mapper，或者所有环境中都没有注册时，使用默认的环境
+     */
+    public static RowMapperInvoker invoker(Class<?> mapperClass) {
+        Configuration defaultConfiguration = FlexGlobalConfig.getDefaultConfig().getConfiguration();
+        if (defaultConfiguration == null || !defaultConfiguration.hasMapper(mapperClass)) {
+            for (Map.Entry<String, FlexGlobalConfig> entry : FlexGlobalConfig.getGlobalConfigs().entrySet()) {
+                Configuration configuration = entry.getValue().getConfiguration();
+                if (configuration != null && configuration.hasMapper(mapperClass)) {
+                    return invoker(entry.getKey());
+                }
+            }
+        }
+        return invoker();
+    }
+
 
     /**
      * 网 tableName 插入一条 row 数据
@@ -101,6 +122,52 @@ public class Db {
         return invoker().insertBatch(tableName, rows, batchSize);
     }
 
+    /**
+     * 通过 jdbc 的 batch 批量执行 mapper 的方法，使用注册了该 mapper 的环境（见 {@link #invoker(Class)}），例如：
+     * <pre>{@code Db.executeBatch(AccountMapper.class, accounts, 1000, AccountMapper::insert);}</pre>
+     *
+     * @param mapperClass mapper 类
+     * @param datas       数据列表
+     * @param batchSize   每次提交的数据量
+     * @param consumer    对每条数据执行的 mapper 方法
+     * @return 每条数据的影响行数
+     */
+    public static <M, E> int[] executeBatch(Class<M> mapperClass, Collection<E> datas, int batchSize, BiConsumer<M, E> consumer) {
+        return invoker(mapperClass).executeBatch(mapperClass, datas, batchSize, consumer);
+    }
+
+    /**
+     * 通过 jdbc 的 batch 批量执行 mapper 的方法，执行前按照 groupBy 对数据进行分组，生成相同 sql 的数据会在同一个 batch 中执行
+     * 注意：同一条记录的多条数据的执行顺序可能会改变
+     *
+     * @param mapperClass mapper 类
+     * @param datas       数据列表
+     * @param batchSize   每次提交的数据量
+     * @param groupBy     分组的依据，生成相同 sql 的数据应返回相同的值
+     * @param consumer    对每条数据执行的 mapper 方法
+     * @return 每条数据的影响行数，与 datas 的顺序一致
+     */
+    public static <M, E> int[] executeBatch(Class<M> mapperClass, Collection<E> datas, int batchSize
+            , Function<E, ?> groupBy, BiConsumer<M, E> consumer) {
+        return invoker(mapperClass).executeBatch(mapperClass, datas, batchSize, groupBy, consumer);
+    }
+
+    /**
+     * 通过 jdbc 的 batch 批量执行 mapper 的方法，执行前按照 groupBy 对数据进行分组，keyBy 相同的数据按照原来的顺序执行
+     *
+     * @param mapperClass mapper 类
+     * @param datas       数据列表
+     * @param batchSize   每次提交的数据量
+     * @param keyBy       数据对应的记录，例如主键
+     * @param groupBy     分组的依据，生成相同 sql 的数据应返回相同的值
+     * @param consumer    对每条数据执行的 mapper 方法
+     * @return 每条数据的影响行数，与 datas 的顺序一致
+     */
+    public static <M, E> int[] executeBatch(Class<M> mapperClass, Collection<E> datas, int batchSize
+            , Function<E, ?> keyBy, Function<E, ?> groupBy, BiConsumer<M, E> consumer) {
+        return invoker(mapperClass).executeBatch(mapperClass, datas, batchSize, keyBy, groupBy, consumer);
+    }
+
     /**
      * 批量插入数据，根据第一条内容来构建插入的字段，效率比 {@link #insertBatch(String, Collection, int)} 高
      *
@@ -144,6 +211,7 @@ public class Db {
 
     /**
      * 根据 id 集合来批量删除数据
+     * 注意：ids 的数量超出数据库的参数限制时会拆分成多条 sql 执行，不是原子的，需要时请在事务中执行
      *
      * @param tableName  表名
      * @param primaryKey 主键字段名称
@@ -411,6 +479,42 @@ public class Db {
         return invoker().selectListByQuery(null, queryWrapper);
     }
 
+    /**
+     * 通过原生 sql 游标查询数据，数据在遍历时才逐条从数据库读取，使用完毕后需要关闭游标
+     *
+     * @param sql  sql 语句
+     * @param args sql 参数
+     */
+    public static Cursor<Row> selectCursorBySql(String sql, Object... args) {
+        return invoker().selectCursorBySql(sql, args);
+    }
+
+
+    /**
+     * 通过 query 游标查询数据，数据在遍历时才逐条从数据库读取，使用完毕后需要关闭游标
+     *
+     * @param tableName    表名
+     * @param queryWrapper query 条件
+     */
+    public static Cursor<Row> selectCursorByQuery(String tableName, QueryWrapper queryWrapper) {
+        return invoker().selectCursorByQuery(tableName, queryWrapper);
+    }
+
+
+    /**
+     * 通过 query 游标查询数据，数据在遍历时才逐条从数据库读取，使用完毕后需要关闭游标
+     *
+     * @param queryWrapper 必须带有 from 的 queryWrapper
+     */
+    public static Cursor<Row> selectCursorByQuery(QueryWrapper queryWrapper) {
+        List<QueryTable> queryTables = CPI.getQueryTables(queryWrapper);
+        if (queryTables == null || queryTables.isEmpty()) {
+            throw FlexExceptions.wrap("table must not be null or empty in Db.selectCursorByQuery");
+        }
+        return invoker().selectCursorByQuery(null, queryWrapper);
+    }
+
+
     /**
      * 查询某张表的所有数据
      *
@@ -442,6 +546,154 @@ public class Db {
     }
 
 
+    /**
+     * 查询某列内容为 long 数组，数据返回应该有 多行 1 列，null 值会被读取为 0
+     * 直接从 ResultSet 中读取，不会为每行数据创建 Row
+     *
+     * @param sql  sql 内容
+     * @param args sql 参数
+     */
+    public static long[] selectLongArray(String sql, Object... args) {
+        return invoker().selectLongArray(sql, args);
+    }
+
+
+    /**
+     * 根据 query 构建的条件查询某列内容为 long 数组，query 中应该只查询 1 列
+     *
+     * @param tableName    表名
+     * @param queryWrapper query 条件
+     */
+    public static long[] selectLongArrayByQuery(String tableName, QueryWrapper queryWrapper) {
+        return invoker().selectLongArrayByQuery(tableName, queryWrapper);
+    }
+
+
+    /**
+     * 直接根据 query 查询某列内容为 long 数组，query 中应该只查询 1 列
+     *
+     * @param queryWrapper 必须带有表名的 queryWrapper
+     */
+    public static long[] selectLongArrayByQuery(QueryWrapper queryWrapper) {
+        List<QueryTable> queryTables = CPI.getQueryTables(queryWrapper);
+        if (queryTables == null || queryTables.isEmpty()) {
+            throw FlexExceptions.wrap("table must not be null or empty in Db.selectLongArrayByQuery");
+        }
+        return invoker().selectLongArrayByQuery(null, queryWrapper);
+    }
+
+
+    /**
+     * 查询某列内容为 int 数组，数据返回应该有 多行 1 列，null 值会被读取为 0
+     * 直接从 ResultSet 中读取，不会为每行数据创建 Row
+     *
+     * @param sql  sql 内容
+     * @param args sql 参数
+     */
+    public static int[] selectIntArray(String sql, Object... args) {
+        return invoker().selectIntArray(sql, args);
+    }
+
+
+    /**
+     * 根据 query 构建的条件查询某列内容为 int 数组，query 中应该只查询 1 列
+     *
+     * @param tableName    表名
+     * @param queryWrapper query 条件
+     */
+    public static int[] selectIntArrayByQuery(String tableName, QueryWrapper queryWrapper) {
+        return invoker().selectIntArrayByQuery(tableName, queryWrapper);
+    }
+
+
+    /**
+     * 直接根据 query 查询某列内容为 int 数组，query 中应该只查询 1 列
+     *
+     * @param queryWrapper 必须带有表名的 queryWrapper
+     */
+    public static int[] selectIntArrayByQuery(QueryWrapper queryWrapper) {
+        List<QueryTable> queryTables = CPI.getQueryTables(queryWrapper);
+        if (queryTables == null || queryTables.isEmpty()) {
+            throw FlexExceptions.wrap("table must not be null or empty in Db.selectIntArrayByQuery");
+        }
+        return invoker().selectIntArrayByQuery(null, queryWrapper);
+    }
+
+
+    /**
+     * 查询某列内容为 double 数组，数据返回应该有 多行 1 列，null 值会被读取为 0
+     * 直接从 ResultSet 中读取，不会为每行数据创建 Row
+     *
+     * @param sql  sql 内容
+     * @param args sql 参数
+     */
+    public static double[] selectDoubleArray(String sql, Object... args) {
+        return invoker().selectDoubleArray(sql, args);
+    }
+
+
+    /**
+     * 根据 query 构建的条件查询某列内容为 double 数组，query 中应该只查询 1 列
+     *
+     * @param tableName    表名
+     * @param queryWrapper query 条件
+     */
+    public static double[] selectDoubleArrayByQuery(String tableName, QueryWrapper queryWrapper) {
+        return invoker().selectDoubleArrayByQuery(tableName, queryWrapper);
+    }
+
+
+    /**
+     * 直接根据 query 查询某列内容为 double 数组，query 中应该只查询 1 列
+     *
+     * @param queryWrapper 必须带有表名的 queryWrapper
+     */
+    public static double[] selectDoubleArrayByQuery(QueryWrapper queryWrapper) {
+        List<QueryTable> queryTables = CPI.getQueryTables(queryWrapper);
+        if (queryTables == null || queryTables.isEmpty()) {
+            throw FlexExceptions.wrap("table must not be null or empty in Db.selectDoubleArrayByQuery");
+        }
+        return invoker().selectDoubleArrayByQuery(null, queryWrapper);
+    }
+
+
+    /**
+     * 查询某列内容为 String 列表，数据返回应该有 多行 1 列
+     * 直接从 ResultSet 中读取，不会为每行数据创建 Row
+     *
+     * @param sql  sql 内容
+     * @param args sql 参数
+     */
+    public static List<String> selectStringList(String sql, Object... args) {
+        return invoker().selectStringList(sql, args);
+    }
+
+
+    /**
+     * 根据 query 构建的条件查询某列内容为 String 列表，query 中应该只查询 1 列
+     *
+     * @param tableName    表名
+     * @param queryWrapper query 条件
+     */
+    public static List<String> selectStringListByQuery(String tableName, QueryWrapper queryWrapper) {
+        return invoker().selectStringListByQuery(tableName, queryWrapper);
+    }
+
+
+    /**
+     * 直接根据 query 查询某列内容为 String 列表，query 中应该只查询 1 列
+     *
+     * @param queryWrapper 必须带有表名的 queryWrapper
+     */
+    public static List<String> selectStringListByQuery(QueryWrapper queryWrapper) {
+        List<QueryTable> queryTables = CPI.getQueryTables(queryWrapper);
+        if (queryTables == null || queryTables.isEmpty()) {
+            throw FlexExceptions.wrap("table must not be null or empty in Db.selectStringListByQuery");
+        }
+        return invoker().selectStringListByQuery(null, queryWrapper);
+    }
+
+
     /**
      * 查收 count 数据，一般用于 select count(*)...
      * 或者返回的内容是一行1列，且是数值类型的也可以用此方法
@@ -557,6 +809,20 @@ public class Db {
     }
 
 
+    /**
+     * 游标分页查询（keyset 分页），深度翻页时不会随着 offset 变大而变慢
+     *
+     * @param tableName    表名
+     * @param primaryKey   主键，多个主键用英文逗号隔开
+     * @param cursor       上一页返回的游标，查询第一页时传入 null
+     * @param pageSize     每页的数据量
+     * @param queryWrapper 条件
+     */
+    public static CursorPage<Row> paginateAfter(String tableName, String primaryKey, String cursor, int pageSize, QueryWrapper queryWrapper) {
+        return invoker().paginateAfter(tableName, primaryKey, cursor, pageSize, queryWrapper);
+    }
+
+
     /**
      * 进行事务操作
      *
@@ -42,14 +42,27 @@ public class Row extends LinkedHashMap<String, Object> implements ModifyAttrsRec
     }
 
 
-    private Set<String> modifyAttrs = new LinkedHashSet<>();
+    //只有在修改数据时才创建
+    private Set<String> modifyAttrs;
 
     @Override
     public Set<String> getModifyAttrs() {
+        if (modifyAttrs == null) {
+            modifyAttrs = new LinkedHashSet<>();
+        }
         return modifyAttrs;
     }
 
 
+    /**
+     * 复制主键和修改过的属性，用于 clone
+     */
+    void copyState(Row row) {
+        this.primaryKeys = row.primaryKeys;
+        this.modifyAttrs = row.modifyAttrs != null ? new LinkedHashSet<>(row.modifyAttrs) : null;
+    }
+
+
     public static Row ofKey(String primaryKey, Object value) {
         Row row = new Row();
         String[] primaryKeyStrings = primaryKey.split(",");
@@ -107,7 +120,7 @@ public class Row extends LinkedHashMap<String, Object> implements ModifyAttrsRec
         SqlUtil.keepColumnSafely(column);
 
         //覆盖 put
-        super.put(column, value);
+        putValue(column, value);
 
         boolean isPrimaryKey = false;
         if (this.primaryKeys != null) {
@@ -132,11 +145,19 @@ public class Row extends LinkedHashMap<String, Object> implements ModifyAttrsRec
 
 
     public Object get(String key, Object defaultValue) {
-        Object result = super.get(key);
+        Object result = get(key);
         return result != null ? result : defaultValue;
     }
 
 
+    /**
+     * 直接设置值，不对重复的 key 进行处理
+     */
+    Object putValue(String key, Object value) {
+        return super.put(key, value);
+    }
+
+
     @Override
     public Object put(String key, Object value) {
         if (!containsKey(key)) {
@@ -154,13 +175,13 @@ public class Row extends LinkedHashMap<String, Object> implements ModifyAttrsRec
 
 
     public String getString(String key) {
-        Object s = super.get(key);
+        Object s = get(key);
         return s != null ? s.toString() : null;
     }
 
 
     public String getString(String key, String defaultValue) {
-        Object s = super.get(key);
+        Object s = get(key);
         if (s == null) {
             return defaultValue;
         }
@@ -169,121 +190,121 @@ public class Row extends LinkedHashMap<String, Object> implements ModifyAttrsRec
     }
 
     public Integer getInt(String key) {
-        return ConvertUtil.toInt(super.get(key));
+        return ConvertUtil.toInt(get(key));
     }
 
     public Integer getInt(String key, Integer defaultValue) {
-        Integer r = ConvertUtil.toInt(super.get(key));
+        Integer r = ConvertUtil.toInt(get(key));
         return r != null ? r : defaultValue;
     }
 
     public Long getLong(String key) {
-        return ConvertUtil.toLong(super.get(key));
+        return ConvertUtil.toLong(get(key));
     }
 
     public Long getLong(String key, Long defaultValue) {
-        Long r = ConvertUtil.toLong(super.get(key));
+        Long r = ConvertUtil.toLong(get(key));
         return r != null ? r : defaultValue;
     }
 
     public Double getDouble(String key) {
-        return ConvertUtil.toDouble(super.get(key));
+        return ConvertUtil.toDouble(get(key));
     }
 
     public Double getDouble(String key, Double defaultValue) {
-        Double r = ConvertUtil.toDouble(super.get(key));
+        Double r = ConvertUtil.toDouble(get(key));
         return r != null ? r : defaultValue;
     }
 
 
     public Float getFloat(String key, Float defaultValue) {
-        Float r = ConvertUtil.toFloat(super.get(key));
+        Float r = ConvertUtil.toFloat(get(key));
         return r != null ? r : defaultValue;
     }
 
     public Float getFloat(String key) {
-        return ConvertUtil.toFloat(super.get(key));
+        return ConvertUtil.toFloat(get(key));
     }
 
 
     public Short getShort(String key, Short defaultValue) {
-        Short r = ConvertUtil.toShort(super.get(key));
+        Short r = ConvertUtil.toShort(get(key));
         return r != null ? r : defaultValue;
     }
 
     public Short getShort(String key) {
-        return ConvertUtil.toShort(super.get(key));
+        return ConvertUtil.toShort(get(key));
     }
 
     public BigInteger getBigInteger(String key) {
-        return ConvertUtil.toBigInteger(super.get(key));
+        return ConvertUtil.toBigInteger(get(key));
     }
 
     public BigInteger getBigInteger(String key, BigInteger defaultValue) {
-        BigInteger r = ConvertUtil.toBigInteger(super.get(key));
+        BigInteger r = ConvertUtil.toBigInteger(get(key));
         return r != null ? r : defaultValue;
     }
 
     public BigDecimal getBigDecimal(String key) {
-        return ConvertUtil.toBigDecimal(super.get(key));
+        return ConvertUtil.toBigDecimal(get(key));
     }
 
     public BigDecimal getBigDecimal(String key, BigDecimal defaultValue) {
-        BigDecimal r = ConvertUtil.toBigDecimal(super.get(key));
+        BigDecimal r = ConvertUtil.toBigDecimal(get(key));
         return r != null ? r : defaultValue;
     }
 
     public Boolean getBoolean(String key) {
-        return ConvertUtil.toBoolean(super.get(key));
+        return ConvertUtil.toBoolean(get(key));
     }
 
     public Boolean getBoolean(String key, Boolean defaultValue) {
-        Boolean r = ConvertUtil.toBoolean(super.get(key));
+        Boolean r = ConvertUtil.toBoolean(get(key));
         return r != null ? r : defaultValue;
     }
 
     public Date getDate(String key) {
-        return ConvertUtil.toDate(super.get(key));
+        return ConvertUtil.toDate(get(key));
     }
 
     public Date getDate(String key, Date defaultValue) {
-        Date r = ConvertUtil.toDate(super.get(key));
+        Date r = ConvertUtil.toDate(get(key));
         return r != null ? r : defaultValue;
     }
 
     public LocalDateTime getLocalDateTime(String key) {
-        return ConvertUtil.toLocalDateTime(super.get(key));
+        return ConvertUtil.toLocalDateTime(get(key));
     }
 
     public LocalDateTime getLocalDateTime(String key, LocalDateTime defaultValue) {
-        LocalDateTime r = ConvertUtil.toLocalDateTime(super.get(key));
+        LocalDateTime r = ConvertUtil.toLocalDateTime(get(key));
         return r != null ? r : defaultValue;
     }
 
     public Time getTime(String key) {
-        return (Time) super.get(key);
+        return (Time) get(key);
     }
 
     public Time getTime(String key, Time defaultValue) {
-        Time r = (Time) super.get(key);
+        Time r = (Time) get(key);
         return r != null ? r : defaultValue;
     }
 
     public Timestamp getTimestamp(String key) {
-        return (Timestamp) super.get(key);
+        return (Timestamp) get(key);
     }
 
     public Timestamp getTimestamp(String key, Timestamp defaultValue) {
-        Timestamp r = (Timestamp) super.get(key);
+        Timestamp r = (Timestamp) get(key);
         return r != null ? r : defaultValue;
     }
 
     public Byte getByte(String key) {
-        return ConvertUtil.toByte(super.get(key));
+        return ConvertUtil.toByte(get(key));
     }
 
     public byte[] getBytes(String key) {
-        return (byte[]) super.get(key);
+        return (byte[]) get(key);
     }
 
     @Override
@@ -322,13 +343,14 @@ public class Row extends LinkedHashMap<String, Object> implements ModifyAttrsRec
             throw new NullPointerException("attrs is null.");
         }
         clearModifyFlag();
-        modifyAttrs.addAll(attrs);
+        getModifyAttrs().addAll(attrs);
     }
 
     /**
      * 获取修改的值，值需要保持顺序，返回的内容不包含主键的值
      */
     Object[] obtainModifyValues() {
+        Set<String> modifyAttrs = getModifyAttrs();
         Object[] values = new Object[modifyAttrs.size()];
         int index = 0;
         for (String modifyAttr : modifyAttrs) {
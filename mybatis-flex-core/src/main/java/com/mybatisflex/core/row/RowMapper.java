@@ -17,13 +17,16 @@ package com.mybatisflex.core.row;
 
 import com.mybatisflex.core.FlexConsts;
 import com.mybatisflex.core.exception.FlexExceptions;
+import com.mybatisflex.core.mybatis.ColumnResultHandler;
+import com.mybatisflex.core.paginate.CursorPage;
+import com.mybatisflex.core.paginate.CursorPaginator;
 import com.mybatisflex.core.paginate.Page;
+import com.mybatisflex.core.paginate.PaginateCountCache;
 import com.mybatisflex.core.provider.RowSqlProvider;
-import com.mybatisflex.core.query.CPI;
-import com.mybatisflex.core.query.QueryColumn;
 import com.mybatisflex.core.query.QueryWrapper;
 import com.mybatisflex.core.util.StringUtil;
 import org.apache.ibatis.annotations.*;
+import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.exceptions.TooManyResultsException;
 
 import java.util.Collection;
@@ -111,6 +114,8 @@ public interface RowMapper {
 
     /**
      * 根据 多个 id 值删除多条数据
+     * 注意：ids 的数量超出数据库单条 sql 的参数限制时，会被拆分成多条 sql 执行，多条 sql 之间不是原子的，
+     * 需要保证原子性时，请在事务中执行
      *
      * @param tableName  表名
      * @param primaryKey 主键
@@ -272,6 +277,29 @@ public interface RowMapper {
     List<Row> selectListByQuery(@Param(FlexConsts.TABLE_NAME) String tableName, @Param(FlexConsts.QUERY) QueryWrapper queryWrapper);
 
 
+    /**
+     * 通过自定义 sql 来游标查询 Row 数据，数据在遍历时才逐条从数据库读取
+     *
+     * @param sql  自定义的 sql
+     * @param args sql 参数
+     * @return row 游标
+     */
+    @SelectProvider(value = RowSqlProvider.class, method = RowSqlProvider.METHOD_RAW_SQL)
+    Cursor<Row> selectCursorBySql(@Param(FlexConsts.SQL) String sql, @Param(FlexConsts.SQL_ARGS) Object... args);
+
+
+    /**
+     * 根据 queryWrapper 来游标查询 Row 数据，数据在遍历时才逐条从数据库读取
+     *
+     * @param tableName    表名
+     * @param queryWrapper queryWrapper
+     * @return row 游标
+     * @see RowSqlProvider#selectListByQuery(Map)
+     */
+    @SelectProvider(value = RowSqlProvider.class, method = "selectListByQuery")
+    Cursor<Row> selectCursorByQuery(@Param(FlexConsts.TABLE_NAME) String tableName, @Param(FlexConsts.QUERY) QueryWrapper queryWrapper);
+
+
     /**
      * 查询某张表的全部数据
      *
@@ -305,6 +333,112 @@ public interface RowMapper {
     List<Object> selectObjectList(@Param(FlexConsts.SQL) String sql, @Param(FlexConsts.SQL_ARGS) Object... args);
 
 
+    /**
+     * 通过 sql 查询多行数据的第一列，数据由 resultHandler 直接从 ResultSet 中读取
+     *
+     * @param sql           sql 语句
+     * @param args          sql 参数
+     * @param resultHandler 读取数据的 ResultHandler
+     * @see ColumnResultHandler
+     */
+    @SelectProvider(value = RowSqlProvider.class, method = RowSqlProvider.METHOD_RAW_SQL)
+    @ResultType(Object.class)
+    void selectColumnBySql(@Param(FlexConsts.SQL) String sql, @Param(FlexConsts.SQL_ARGS) Object[] args, ColumnResultHandler<?> resultHandler);
+
+
+    /**
+     * 根据 queryWrapper 查询多行数据的第一列，数据由 resultHandler 直接从 ResultSet 中读取
+     *
+     * @param tableName     表名
+     * @param queryWrapper  queryWrapper
+     * @param resultHandler 读取数据的 ResultHandler
+     * @see ColumnResultHandler
+     */
+    @SelectProvider(value = RowSqlProvider.class, method = "selectListByQuery")
+    @ResultType(Object.class)
+    void selectColumnByQuery(@Param(FlexConsts.TABLE_NAME) String tableName, @Param(FlexConsts.QUERY) QueryWrapper queryWrapper, ColumnResultHandler<?> resultHandler);
+
+
+    /**
+     * 通过 sql 查询 long 数组，sql 执行的结果应该只有 1 列，null 值会被读取为 0
+     *
+     * @param sql  sql 语句
+     * @param args sql 参数
+     * @return long 数组
+     */
+    default long[] selectLongArray(String sql, Object... args) {
+        ColumnResultHandler.LongArray resultHandler = new ColumnResultHandler.LongArray();
+        selectColumnBySql(sql, args, resultHandler);
+        return resultHandler.getResult();
+    }
+
+    default long[] selectLongArrayByQuery(String tableName, QueryWrapper queryWrapper) {
+        ColumnResultHandler.LongArray resultHandler = new ColumnResultHandler.LongArray();
+        selectColumnByQuery(tableName, queryWrapper, resultHandler);
+        return resultHandler.getResult();
+    }
+
+
+    /**
+     * 通过 sql 查询 int 数组，sql 执行的结果应该只有 1 列，null 值会被读取为 0
+     *
+     * @param sql  sql 语句
+     * @param args sql 参数
+     * @return int 数组
+     */
+    default int[] selectIntArray(String sql, Object... args) {
+        ColumnResultHandler.IntArray resultHandler = new ColumnResultHandler.IntArray();
+        selectColumnBySql(sql, args, resultHandler);
+        return resultHandler.getResult();
+    }
+
+    default int[] selectIntArrayByQuery(String tableName, QueryWrapper queryWrapper) {
+        ColumnResultHandler.IntArray resultHandler = new ColumnResultHandler.IntArray();
+        selectColumnByQuery(tableName, queryWrapper, resultHandler);
+        return resultHandler.getResult();
+    }
+
+
+    /**
+     * 通过 sql 查询 double 数组，sql 执行的结果应该只有 1 列，null 值会被读取为 0
+     *
+     * @param sql  sql 语句
+     * @param args sql 参数
+     * @return double 数组
+     */
+    default double[] selectDoubleArray(String sql, Object... args) {
+        ColumnResultHandler.DoubleArray resultHandler = new ColumnResultHandler.DoubleArray();
+        selectColumnBySql(sql, args, resultHandler);
+        return resultHandler.getResult();
+    }
+
+    default double[] selectDoubleArrayByQuery(String tableName, QueryWrapper queryWrapper) {
+        ColumnResultHandler.DoubleArray resultHandler = new ColumnResultHandler.DoubleArray();
+        selectColumnByQuery(tableName, queryWrapper, resultHandler);
+        return resultHandler.getResult();
+    }
+
+
+    /**
+     * 通过 sql 查询 String 列表，sql 执行的结果应该只有 1 列
+     *
+     * @param sql  sql 语句
+     * @param args sql 参数
+     * @return String 列表
+     */
+    default List<String> selectStringList(String sql, Object... args) {
+        ColumnResultHandler.StringList resultHandler = new ColumnResultHandler.StringList();
+        selectColumnBySql(sql, args, resultHandler);
+        return resultHandler.getResult();
+    }
+
+    default List<String> selectStringListByQuery(String tableName, QueryWrapper queryWrapper) {
+        ColumnResultHandler.StringList resultHandler = new ColumnResultHandler.StringList();
+        selectColumnByQuery(tableName, queryWrapper, resultHandler);
+        return resultHandler.getResult();
+    }
+
+
     /**
      * 查询数据，一般用于 select count(*)... 的语言，也可用于执行的结果只有一个数值的其他 sql
      *
@@ -346,25 +480,30 @@ public interface RowMapper {
      */
     default Page<Row> paginate(String tableName, Page<Row> page, QueryWrapper queryWrapper) {
 
-        List<QueryColumn> groupByColumns = CPI.getGroupByColumns(queryWrapper);
-
         // 只有 totalRow 小于 0 的时候才会去查询总量
         // 这样方便用户做总数缓存，而非每次都要去查询总量
         // 一般的分页场景中，只有第一页的时候有必要去查询总量，第二页以后是不需要的
-        if (page.getTotalRow() < 0) {
+        // 有 group by 时，count sql 会通过子查询统计分组的数量，见 CommonsDialectImpl#buildSelectCountSql
+        // 配置了 paginateCountCacheSize 时，优先从缓存中获取总量，见 PaginateCountCache
+        PaginateCountCache.Key countCacheKey = null;
+        if (page.getTotalRow() < 0 && PaginateCountCache.isEnable()) {
+            countCacheKey = PaginateCountCache.createKey(queryWrapper, tableName);
+            Long count = PaginateCountCache.get(countCacheKey);
+            if (count != null) {
+                page.setTotalRow(count);
+            }
+        }
 
-            //清除group by 去查询数据
-            CPI.setGroupByColumns(queryWrapper, null);
+        if (page.getTotalRow() < 0) {
             long count = selectCountByQuery(tableName, queryWrapper);
             page.setTotalRow(count);
+            PaginateCountCache.put(countCacheKey, count);
         }
 
         if (page.getTotalRow() == 0 || page.getPageNumber() > page.getTotalPage()) {
             return page;
         }
 
-        //恢复数量查询清除的 groupBy
-        CPI.setGroupByColumns(queryWrapper, groupByColumns);
         int offset = page.getPageSize() * (page.getPageNumber() - 1);
         queryWrapper.limit(offset, page.getPageSize());
         List<Row> records = selectListByQuery(tableName, queryWrapper);
@@ -373,4 +512,20 @@ public interface RowMapper {
     }
 
 
+    /**
+     * 游标分页查询（keyset 分页）
+     *
+     * @param tableName    表名
+     * @param primaryKey   主键，多个主键用英文逗号隔开，用于保证排序的唯一性
+     * @param cursor       上一页返回的游标，查询第一页时传入 null
+     * @param pageSize     每页的数据量
+     * @param queryWrapper 条件
+     * @return 游标分页的数据
+     */
+    default CursorPage<Row> paginateAfter(String tableName, String primaryKey, String cursor, int pageSize, QueryWrapper queryWrapper) {
+        String[] primaryKeys = StringUtil.isBlank(primaryKey) ? null : primaryKey.trim().split("\\s*,\\s*");
+        return CursorPaginator.paginate(cursor, pageSize, queryWrapper, primaryKeys
+                , wrapper -> selectListByQuery(tableName, wrapper), RowUtil::getColumnValue);
+    }
+
 }
@@ -15,25 +15,53 @@
  */
 package com.mybatisflex.core.row;
 
+import com.mybatisflex.core.exception.FlexExceptions;
+import com.mybatisflex.core.mybatis.SqlSessionCursor;
+import com.mybatisflex.core.mybatis.executor.FlexBatchResult;
+import com.mybatisflex.core.paginate.ConcurrentCounter;
+import com.mybatisflex.core.paginate.CursorPage;
 import com.mybatisflex.core.paginate.Page;
+import com.mybatisflex.core.paginate.PaginateCountCache;
+import com.mybatisflex.core.query.CPI;
 import com.mybatisflex.core.query.QueryWrapper;
+import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.logging.LogFactory;
 import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
 
 public class RowMapperInvoker {
 
+    /**
+     * 已经检查过 rewriteBatchedStatements 的 jdbc url
+     */
+    private static final Set<String> rewriteBatchedStatementsCheckedUrls = ConcurrentHashMap.newKeySet();
+
     private final SqlSessionFactory sqlSessionFactory;
 
     public RowMapperInvoker(SqlSessionFactory sqlSessionFactory) {
         this.sqlSessionFactory = sqlSessionFactory;
     }
 
+
+    public SqlSessionFactory getSqlSessionFactory() {
+        return sqlSessionFactory;
+    }
+
     private <R> R execute(Function<RowMapper, R> function) {
         try (SqlSession sqlSession = sqlSessionFactory.openSession(true)) {
             RowMapper mapper = sqlSession.getMapper(RowMapper.class);
@@ -41,6 +69,20 @@ public class RowMapperInvoker {
         }
     }
 
+    /**
+     * 游标需要在关闭后才能关闭 SqlSession，同时关闭 autoCommit，postgresql 等数据库在事务中才会按照 fetchSize 读取数据
+     */
+    private <T> Cursor<T> executeCursor(Function<RowMapper, Cursor<T>> function) {
+        SqlSession sqlSession = sqlSessionFactory.openSession(false);
+        try {
+            RowMapper mapper = sqlSession.getMapper(RowMapper.class);
+            return new SqlSessionCursor<>(function.apply(mapper), sqlSession);
+        } catch (RuntimeException e) {
+            sqlSession.close();
+            throw e;
+        }
+    }
+
     public int insert(String tableName, Row row) {
         return execute(mapper -> mapper.insert(tableName, row));
     }
@@ -52,40 +94,161 @@ public class RowMapperInvoker {
 
 
     public int[] insertBatch(String tableName, Collection<Row> rows, int batchSize) {
-        int[] results = new int[rows.size()];
-        SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH,true);
-        try {
-            RowMapper mapper = sqlSession.getMapper(RowMapper.class);
+        return executeBatch(RowMapper.class, rows, batchSize, (mapper, row) -> mapper.insert(tableName, row));
+    }
+
+    /**
+     * 通过 {@link ExecutorType#BATCH} 批量执行，每 batchSize 条数据执行一次 jdbc 的 executeBatch
+     *
+     * @param mapperClass mapper 类
+     * @param datas       数据列表
+     * @param batchSize   每次执行的数据量
+     * @param consumer    对每条数据执行的 mapper 方法，每条数据必须执行且只执行一条 sql
+     * @return 每条数据的影响行数
+     */
+    public <M, E> int[] executeBatch(Class<M> mapperClass, Collection<E> datas, int batchSize, BiConsumer<M, E> consumer) {
+        return executeBatch(mapperClass, datas, batchSize, null, consumer);
+    }
+
+    /**
+     * 通过 {@link ExecutorType#BATCH} 批量执行，执行前按照 groupBy 的结果对数据进行分组，同一组的数据连续执行
+     * 例如按照 update 的字段进行分组，使得相同 sql 的数据在同一个 jdbc batch 中执行，而不是每条数据都创建一个 Statement
+     * 注意：分组后同一条记录的多条数据（例如主键相同、更新的字段不同）的执行顺序可能会改变，需要保持顺序时见
+     * {@link #executeBatch(Class, Collection, int, Function, Function, BiConsumer)}
+     *
+     * @param mapperClass mapper 类
+     * @param datas       数据列表
+     * @param batchSize   每次执行的数据量
+     * @param groupBy     分组的依据，生成相同 sql 的数据应返回相同的值，为 null 时不分组
+     * @param consumer    对每条数据执行的 mapper 方法，每条数据必须执行且只执行一条 sql，否则无法对应每条数据的影响行数
+     * @return 每条数据的影响行数，与 datas 的顺序一致
+     */
+    public <M, E> int[] executeBatch(Class<M> mapperClass, Collection<E> datas, int batchSize
+            , Function<E, ?> groupBy, BiConsumer<M, E> consumer) {
+        return executeBatch(mapperClass, datas, batchSize, null, groupBy, consumer);
+    }
+
+    /**
+     * 通过 {@link ExecutorType#BATCH} 批量执行，执行前按照 groupBy 的结果对数据进行分组，同一组的数据连续执行
+     * keyBy 相同的数据（例如主键相同的数据）会按照原来的顺序执行：同一个 key 再次出现时，之前的分组会先被执行
+     *
+     * @param mapperClass mapper 类
+     * @param datas       数据列表
+     * @param batchSize   每次执行的数据量
+     * @param keyBy       数据对应的记录，例如主键，为 null 时不保证同一条记录的执行顺序
+     * @param groupBy     分组的依据，生成相同 sql 的数据应返回相同的值，为 null 时不分组
+     * @param consumer    对每条数据执行的 mapper 方法，每条数据必须执行且只执行一条 sql，否则无法对应每条数据的影响行数
+     * @return 每条数据的影响行数，与 datas 的顺序一致
+     */
+    public <M, E> int[] executeBatch(Class<M> mapperClass, Collection<E> datas, int batchSize
+            , Function<E, ?> keyBy, Function<E, ?> groupBy, BiConsumer<M, E> consumer) {
+        List<E> dataList = datas instanceof List ? (List<E>) datas : new ArrayList<>(datas);
+        int[] order = groupBy == null ? null : groupOrder(dataList, keyBy, groupBy);
+        if (batchSize <= 0) {
+            batchSize = dataList.size();
+        }
+
+        int[] results = new int[dataList.size()];
+        try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH, true)) {
+            checkRewriteBatchedStatements(sqlSession);
+            M mapper = sqlSession.getMapper(mapperClass);
             int counter = 0;
-            int resultsPos = 0;
-            for (Row row : rows) {
-                if (++counter > batchSize) {
+            int windowStart = 0;
+            for (int i = 0; i < dataList.size(); i++) {
+                consumer.accept(mapper, dataList.get(order == null ? i : order[i]));
+                if (++counter >= batchSize) {
                     counter = 0;
-                    List<BatchResult> batchResults = sqlSession.flushStatements();
-                    for (BatchResult batchResult : batchResults) {
-                        int[] updateCounts = batchResult.getUpdateCounts();
-                        for (int updateCount : updateCounts) {
-                            results[resultsPos++] = updateCount;
-                        }
-                    }
-                } else {
-                    mapper.insert(tableName, row);
+                    fillUpdateCounts(sqlSession.flushStatements(), results, order, windowStart, i + 1);
+                    windowStart = i + 1;
                 }
             }
+            if (counter != 0) {
+                fillUpdateCounts(sqlSession.flushStatements(), results, order, windowStart, dataList.size());
+            }
+        }
+        return results;
+    }
 
-            if (counter != 0){
-                List<BatchResult> batchResults = sqlSession.flushStatements();
-                for (BatchResult batchResult : batchResults) {
-                    int[] updateCounts = batchResult.getUpdateCounts();
-                    for (int updateCount : updateCounts) {
-                        results[resultsPos++] = updateCount;
-                    }
+    /**
+     * 分组后的执行顺序，组与组之间按照第一次出现的顺序，组内保持原来的顺序
+     * 同一个 key 再次出现时，先结束之前的所有分组，保证同一个 key 的数据按照原来的顺序执行
+     */
+    private static <E> int[] groupOrder(List<E> datas, Function<E, ?> keyBy, Function<E, ?> groupBy) {
+        int[] order = new int[datas.size()];
+        int pos = 0;
+        Map<Object, List<Integer>> groups = new LinkedHashMap<>();
+        Set<Object> keys = new HashSet<>();
+        for (int i = 0; i < datas.size(); i++) {
+            E data = datas.get(i);
+            if (keyBy != null) {
+                Object key = keyBy.apply(data);
+                if (!keys.add(key)) {
+                    pos = fillGroupOrder(groups, order, pos);
+                    keys.clear();
+                    keys.add(key);
                 }
             }
-        } finally {
-            sqlSession.close();
+            groups.computeIfAbsent(groupBy.apply(data), k -> new ArrayList<>()).add(i);
+        }
+        fillGroupOrder(groups, order, pos);
+        return order;
+    }
+
+    private static int fillGroupOrder(Map<Object, List<Integer>> groups, int[] order, int pos) {
+        for (List<Integer> indexes : groups.values()) {
+            for (Integer index : indexes) {
+                order[pos++] = index;
+            }
+        }
+        groups.clear();
+        return pos;
+    }
+
+    /**
+     * 交替执行多条 sql 时，BatchResult 的顺序与执行的顺序不一定一致，通过 {@link FlexBatchResult#getSequences()} 还原执行的顺序，
+     * 再通过 order 还原为原来数据的位置
+     *
+     * @param windowStart 本次执行的第一条数据的位置（包含）
+     * @param windowEnd   本次执行的最后一条数据的位置（不包含）
+     */
+    private static void fillUpdateCounts(List<BatchResult> batchResults, int[] results, int[] order, int windowStart, int windowEnd) {
+        int executedCount = 0;
+        for (BatchResult batchResult : batchResults) {
+            executedCount += batchResult.getUpdateCounts().length;
+        }
+        //consumer 对某条数据没有执行或者执行了多条 sql 时，无法对应到每条数据
+        if (executedCount != windowEnd - windowStart) {
+            throw FlexExceptions.wrap("executeBatch requires exactly one sql to be executed for each data, " +
+                    "but %s sql were executed for %s data.", executedCount, windowEnd - windowStart);
+        }
+
+        int resultsPos = windowStart;
+        for (BatchResult batchResult : batchResults) {
+            int[] updateCounts = batchResult.getUpdateCounts();
+            int[] sequences = batchResult instanceof FlexBatchResult ? ((FlexBatchResult) batchResult).getSequences() : null;
+            for (int i = 0; i < updateCounts.length; i++) {
+                int pos = sequences != null ? windowStart + sequences[i] : resultsPos++;
+                results[order == null ? pos : order[pos]] = updateCounts[i];
+            }
+        }
+    }
+
+    /**
+     * mysql 驱动默认会把 batch 中的 sql 逐条发送给数据库，需要在 url 中配置 rewriteBatchedStatements=true 才会合并发送
+     * 多数据源时每个数据源的 url 都会检查一次
+     */
+    private static void checkRewriteBatchedStatements(SqlSession sqlSession) {
+        try {
+            String url = sqlSession.getConnection().getMetaData().getURL();
+            if (url != null && rewriteBatchedStatementsCheckedUrls.add(url)
+                    && url.toLowerCase().contains(":mysql:")
+                    && !url.toLowerCase().contains("rewritebatchedstatements=true")) {
+                LogFactory.getLog(RowMapperInvoker.class).warn("The jdbc url does not contain \"rewriteBatchedStatements=true\", " +
+                        "mysql driver will execute batch statements one by one: " + url);
+            }
+        } catch (Exception e) {
+            //ignore
         }
-        return results;
     }
 
     public int insertBatchWithFirstRowColumns(String tableName, List<Row> rows) {
@@ -153,6 +316,14 @@ public class RowMapperInvoker {
         return execute(mapper -> mapper.selectListByQuery(tableName, queryWrapper));
     }
 
+    public Cursor<Row> selectCursorBySql(String sql, Object... args) {
+        return executeCursor(mapper -> mapper.selectCursorBySql(sql, args));
+    }
+
+    public Cursor<Row> selectCursorByQuery(String tableName, QueryWrapper queryWrapper) {
+        return executeCursor(mapper -> mapper.selectCursorByQuery(tableName, queryWrapper));
+    }
+
     public List<Row> selectAll(String tableName) {
         return execute(mapper -> mapper.selectAll(tableName));
     }
@@ -169,14 +340,72 @@ public class RowMapperInvoker {
         return execute(mapper -> mapper.selectCount(sql, args));
     }
 
+    public long[] selectLongArray(String sql, Object... args) {
+        return execute(mapper -> mapper.selectLongArray(sql, args));
+    }
+
+    public long[] selectLongArrayByQuery(String tableName, QueryWrapper queryWrapper) {
+        return execute(mapper -> mapper.selectLongArrayByQuery(tableName, queryWrapper));
+    }
+
+    public int[] selectIntArray(String sql, Object... args) {
+        return execute(mapper -> mapper.selectIntArray(sql, args));
+    }
+
+    public int[] selectIntArrayByQuery(String tableName, QueryWrapper queryWrapper) {
+        return execute(mapper -> mapper.selectIntArrayByQuery(tableName, queryWrapper));
+    }
+
+    public double[] selectDoubleArray(String sql, Object... args) {
+        return execute(mapper -> mapper.selectDoubleArray(sql, args));
+    }
+
+    public double[] selectDoubleArrayByQuery(String tableName, QueryWrapper queryWrapper) {
+        return execute(mapper -> mapper.selectDoubleArrayByQuery(tableName, queryWrapper));
+    }
+
+    public List<String> selectStringList(String sql, Object... args) {
+        return execute(mapper -> mapper.selectStringList(sql, args));
+    }
+
+    public List<String> selectStringListByQuery(String tableName, QueryWrapper queryWrapper) {
+        return execute(mapper -> mapper.selectStringListByQuery(tableName, queryWrapper));
+    }
+
 
     public long selectCountByQuery(String tableName, QueryWrapper queryWrapper) {
         return execute(mapper -> mapper.selectCountByQuery(tableName, queryWrapper));
     }
 
     public Page<Row> paginate(String tableName, Page<Row> page, QueryWrapper queryWrapper) {
+        // 开启 paginateConcurrentEnable 且不在事务中时，count 查询和数据查询会并发执行，见 ConcurrentCounter
+        if (page.getTotalRow() < 0 && ConcurrentCounter.isEnable()) {
+            PaginateCountCache.Key countCacheKey = PaginateCountCache.createKey(queryWrapper, tableName);
+            Long count = PaginateCountCache.get(countCacheKey);
+            if (count != null) {
+                page.setTotalRow(count);
+                return execute(mapper -> mapper.paginate(tableName, page, queryWrapper));
+            }
+
+            CPI.setFromIfNecessary(queryWrapper, tableName);
+            queryWrapper.limit(page.getPageSize() * (page.getPageNumber() - 1), page.getPageSize());
+
+            CompletableFuture<Long> countFuture = ConcurrentCounter.submit(sqlSessionFactory
+                    , sqlSession -> sqlSession.getMapper(RowMapper.class).selectCountByQuery(tableName, queryWrapper));
+            List<Row> records = execute(mapper -> mapper.selectListByQuery(tableName, queryWrapper));
+            page.setTotalRow(ConcurrentCounter.join(countFuture));
+            PaginateCountCache.put(countCacheKey, page.getTotalRow());
+
+            //count 查询的结果表明当前页超出了总页数时，与串行查询一样返回空数据
+            page.setRecords(page.getTotalRow() > 0 && page.getPageNumber() <= page.getTotalPage() ? records : Collections.emptyList());
+            return page;
+        }
         return execute(mapper -> mapper.paginate(tableName, page, queryWrapper));
     }
 
+    public CursorPage<Row> paginateAfter(String tableName, String primaryKey, String cursor, int pageSize, QueryWrapper queryWrapper) {
+        return execute(mapper -> mapper.paginateAfter(tableName, primaryKey, cursor, pageSize, queryWrapper));
+    }
+
 
 }
@@ -15,6 +15,7 @@
  */
 package com.mybatisflex.core.row;
 
+import com.mybatisflex.core.table.RowMapping;
 import com.mybatisflex.core.table.TableInfo;
 import com.mybatisflex.core.table.TableInfoFactory;
 import com.mybatisflex.core.util.ClassUtil;
@@ -34,6 +35,22 @@ public class RowUtil {
     private static final Map<Class<?>, Map<String, Method>> classGettersMapping = new ConcurrentHashMap<>();
 
 
+    /**
+     * 读取 row 中某一列的值，列名忽略大小写
+     */
+    public static Object getColumnValue(Row row, String column) {
+        Object value = row.get(column);
+        if (value == null) {
+            for (Map.Entry<String, Object> entry : row.entrySet()) {
+                if (column.equalsIgnoreCase(entry.getKey())) {
+                    return entry.getValue();
+                }
+            }
+        }
+        return value;
+    }
+
+
     public static <T> T toObject(Row row, Class<T> objectClass) {
         return toObject(row, objectClass, 0);
     }
@@ -118,9 +135,14 @@ public class RowUtil {
             return Collections.emptyList();
         } else {
             TableInfo tableInfo = TableInfoFactory.ofEntityClass(entityClass);
-            List<T> entityList = new ArrayList<>();
+            List<T> entityList = new ArrayList<>(rows.size());
+            RowMapping rowMapping = null;
             for (Row row : rows) {
-                T entity = tableInfo.newInstanceByRow(row, index);
+                //同一个查询结果的 row 的列名一般都是一样的，只需要解析一次映射计划
+                if (rowMapping == null || !rowMapping.matches(row)) {
+                    rowMapping = tableInfo.getRowMapping(row, index);
+                }
+                T entity = tableInfo.newInstanceByRow(row, rowMapping);
                 entityList.add(entity);
             }
             return entityList;
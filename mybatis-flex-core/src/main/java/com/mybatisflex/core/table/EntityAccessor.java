@@ -0,0 +1,250 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.table;
+
+import com.mybatisflex.core.util.ClassUtil;
+import com.mybatisflex.core.util.StringUtil;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.Reflector;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * entity 属性的读写器，按照列的索引（见 TableInfo 的 columnIndexMapping）读写属性，用于替代每次创建 MetaObject 的反射
+ * 优先使用编译期生成的 {@link TableAccessor}，其次通过 LambdaMetafactory 生成 getter 和 setter 的直接调用，
+ * 都无法使用时（比如方法不是 public 的），使用 mybatis 的 Reflector 反射
+ */
+public class EntityAccessor {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private final Function<Object, Object>[] getters;
+    private final BiConsumer<Object, Object>[] setters;
+    private final Supplier<Object> instantiator;
+
+    @SuppressWarnings("unchecked")
+    private EntityAccessor(int size, Supplier<Object> instantiator) {
+        this.getters = new Function[size];
+        this.setters = new BiConsumer[size];
+        this.instantiator = instantiator;
+    }
+
+
+    /**
+     * 读取属性的值，属性没有 getter 时返回 null
+     *
+     * @param entity entity 对象
+     * @param index  列的索引
+     */
+    public Object get(Object entity, int index) {
+        return getters[index].apply(entity);
+    }
+
+
+    /**
+     * 设置属性的值
+     *
+     * @param entity entity 对象
+     * @param index  列的索引
+     * @param value  属性的值
+     */
+    public void set(Object entity, int index, Object value) {
+        setters[index].accept(entity, value);
+    }
+
+
+    public int size() {
+        return getters.length;
+    }
+
+
+    /**
+     * 创建一个新的 entity 对象
+     */
+    public Object newInstance() {
+        return instantiator.get();
+    }
+
+
+    /**
+     * 创建 entity 的读写器
+     *
+     * @param entityClass       entity 类
+     * @param tableAccessor     编译期生成的读写器，没有时传入 null
+     * @param reflectorSupplier entity 的 Reflector，只有在需要反射时才会获取
+     * @param properties        按照列的索引排列的属性名称
+     */
+    @SuppressWarnings("unchecked")
+    public static EntityAccessor create(Class<?> entityClass, TableAccessor<?> tableAccessor
+            , Supplier<Reflector> reflectorSupplier, String[] properties) {
+        TableAccessor<Object> generatedAccessor = (TableAccessor<Object>) tableAccessor;
+        Map<String, Integer> generatedIndexes = new HashMap<>();
+        if (generatedAccessor != null) {
+            String[] generatedProperties = generatedAccessor.getProperties();
+            for (int i = 0; i < generatedProperties.length; i++) {
+                generatedIndexes.put(generatedProperties[i], i);
+            }
+        }
+
+        EntityAccessor accessor = new EntityAccessor(properties.length, generatedAccessor != null
+                ? generatedAccessor::newInstance : () -> ClassUtil.newInstance(entityClass));
+        for (int i = 0; i < properties.length; i++) {
+            String property = properties[i];
+            Integer index = property != null ? generatedIndexes.get(property) : null;
+            if (index != null) {
+                accessor.getters[i] = createGeneratedGetter(generatedAccessor, index);
+                accessor.setters[i] = createGeneratedSetter(generatedAccessor, index, property);
+            } else {
+                accessor.getters[i] = createGetter(entityClass, reflectorSupplier.get(), property);
+                accessor.setters[i] = createSetter(entityClass, reflectorSupplier.get(), property);
+            }
+        }
+        return accessor;
+    }
+
+
+    private static Function<Object, Object> createGeneratedGetter(TableAccessor<Object> generatedAccessor, int index) {
+        return entity -> generatedAccessor.get(entity, index);
+    }
+
+
+    private static BiConsumer<Object, Object> createGeneratedSetter(TableAccessor<Object> generatedAccessor, int index, String property) {
+        if (!generatedAccessor.getPropertyTypes()[index].isPrimitive()) {
+            return (entity, value) -> generatedAccessor.set(entity, index, value);
+        }
+        //与 MetaObject 保持一致，基本类型不能设置为 null
+        return (entity, value) -> {
+            if (value == null) {
+                throw new ReflectionException("Could not set property '" + property + "' of " + entity.getClass() + " with value 'null'");
+            }
+            generatedAccessor.set(entity, index, value);
+        };
+    }
+
+
+    private static Function<Object, Object> createGetter(Class<?> entityClass, Reflector reflector, String property) {
+        if (property == null || !reflector.hasGetter(property)) {
+            return entity -> null;
+        }
+
+        Class<?> type = reflector.getGetterType(property);
+        Method method = findMethod(entityClass, "get" + StringUtil.firstCharToUpperCase(property), type, 0);
+        if (method == null && (type == boolean.class || type == Boolean.class)) {
+            method = findMethod(entityClass, "is" + StringUtil.firstCharToUpperCase(property), type, 0);
+        }
+
+        if (method != null) {
+            try {
+                MethodHandle handle = LOOKUP.unreflect(method);
+                CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, "apply"
+                        , MethodType.methodType(Function.class)
+                        , MethodType.methodType(Object.class, Object.class)
+                        , handle
+                        , MethodType.methodType(ClassUtil.wrap(type), method.getDeclaringClass()));
+                return (Function<Object, Object>) callSite.getTarget().invoke();
+            } catch (Throwable e) {
+                //ignore, 使用反射
+            }
+        }
+
+        return entity -> {
+            try {
+                return reflector.getGetInvoker(property).invoke(entity, null);
+            } catch (Exception e) {
+                throw new ReflectionException("Could not get property '" + property + "' from " + entity.getClass() + ". Cause: " + e, e);
+            }
+        };
+    }
+
+
+    private static BiConsumer<Object, Object> createSetter(Class<?> entityClass, Reflector reflector, String property) {
+        if (property != null && reflector.hasSetter(property)) {
+            Class<?> type = reflector.getSetterType(property);
+            Method method = findMethod(entityClass, "set" + StringUtil.firstCharToUpperCase(property), type, 1);
+            if (method != null) {
+                try {
+                    MethodHandle handle = LOOKUP.unreflect(method);
+                    CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, "accept"
+                            , MethodType.methodType(BiConsumer.class)
+                            , MethodType.methodType(void.class, Object.class, Object.class)
+                            , handle
+                            , MethodType.methodType(void.class, method.getDeclaringClass(), ClassUtil.wrap(type)));
+                    BiConsumer<Object, Object> setter = (BiConsumer<Object, Object>) callSite.getTarget().invoke();
+                    if (!type.isPrimitive()) {
+                        return setter;
+                    }
+                    //与 MetaObject 保持一致，基本类型不能设置为 null
+                    return (entity, value) -> {
+                        if (value == null) {
+                            throw new ReflectionException("Could not set property '" + property + "' of " + entity.getClass() + " with value 'null'");
+                        }
+                        setter.accept(entity, value);
+                    };
+                } catch (Throwable e) {
+                    //ignore, 使用反射
+                }
+            }
+        }
+
+        return (entity, value) -> {
+            try {
+                reflector.getSetInvoker(property).invoke(entity, new Object[]{value});
+            } catch (Exception e) {
+                throw new ReflectionException("Could not set property '" + property + "' of " + entity.getClass() + " with value '" + value + "' Cause: " + e, e);
+            }
+        };
+    }
+
+
+    /**
+     * 查找可以通过 LambdaMetafactory 调用的 public 方法
+     * 生成的调用类与 mybatis-flex 在同一个 ClassLoader 中，需要能通过该 ClassLoader 加载 entity 类（比如 spring devtools 的场景则不能）
+     */
+    private static Method findMethod(Class<?> entityClass, String name, Class<?> type, int paramCount) {
+        for (Method method : entityClass.getMethods()) {
+            if (!method.getName().equals(name) || method.getParameterCount() != paramCount || Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            Class<?> methodType = paramCount == 0 ? method.getReturnType() : method.getParameterTypes()[0];
+            if (methodType != type) {
+                continue;
+            }
+            Class<?> declaringClass = method.getDeclaringClass();
+            return Modifier.isPublic(declaringClass.getModifiers()) && isVisible(declaringClass) ? method : null;
+        }
+        return null;
+    }
+
+
+    private static boolean isVisible(Class<?> clazz) {
+        try {
+            return Class.forName(clazz.getName(), false, EntityAccessor.class.getClassLoader()) == clazz;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+}
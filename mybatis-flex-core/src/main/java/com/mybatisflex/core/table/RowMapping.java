@@ -0,0 +1,56 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.table;
+
+import com.mybatisflex.core.row.Row;
+
+/**
+ * row 转换为 entity 的映射计划，相同列名（和 index）的 row 只需要解析一次 row 的列和 entity 属性的对应关系
+ * 通过 {@link TableInfo#getRowMapping(Row, int)} 获取
+ */
+public class RowMapping {
+
+    //row 的所有列名，用于判断其他的 row 是否可以使用该映射
+    private final String[] rowKeys;
+
+    //需要读取的 row 列名，以及对应的 entity 列信息和列索引，按照设置的顺序排列
+    final String[] mappedRowKeys;
+    final ColumnInfo[] columnInfos;
+    final int[] columnIndexes;
+
+    RowMapping(String[] rowKeys, String[] mappedRowKeys, ColumnInfo[] columnInfos, int[] columnIndexes) {
+        this.rowKeys = rowKeys;
+        this.mappedRowKeys = mappedRowKeys;
+        this.columnInfos = columnInfos;
+        this.columnIndexes = columnIndexes;
+    }
+
+
+    /**
+     * row 的列名是否与构建映射的 row 一致
+     */
+    public boolean matches(Row row) {
+        if (row.size() != rowKeys.length) {
+            return false;
+        }
+        for (String rowKey : rowKeys) {
+            if (!row.containsKey(rowKey)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.table;
+
+import com.mybatisflex.core.dialect.IDialect;
+
+import java.util.BitSet;
+import java.util.Objects;
+
+/**
+ * entity sql 缓存的 key
+ * 由方言、sql 类型、字段组合（bitmask）、租户数量以及逻辑删除的值组成
+ */
+class SqlCacheKey {
+
+    private final IDialect dialect;
+    private final String sqlType;
+    private final BitSet columnsShape;
+    private final int tenantIdCount;
+    private final Object logicNormalValue;
+    private final Object logicDeletedValue;
+    private final int hashCode;
+
+    SqlCacheKey(IDialect dialect, String sqlType, BitSet columnsShape, int tenantIdCount
+            , Object logicNormalValue, Object logicDeletedValue) {
+        this.dialect = dialect;
+        this.sqlType = sqlType;
+        this.columnsShape = columnsShape;
+        this.tenantIdCount = tenantIdCount;
+        this.logicNormalValue = logicNormalValue;
+        this.logicDeletedValue = logicDeletedValue;
+        this.hashCode = Objects.hash(System.identityHashCode(dialect), sqlType, columnsShape, tenantIdCount
+                , logicNormalValue, logicDeletedValue);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        SqlCacheKey that = (SqlCacheKey) o;
+        return dialect == that.dialect
+                && tenantIdCount == that.tenantIdCount
+                && sqlType.equals(that.sqlType)
+                && Objects.equals(columnsShape, that.columnsShape)
+                && Objects.equals(logicNormalValue, that.logicNormalValue)
+                && Objects.equals(logicDeletedValue, that.logicDeletedValue);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.table;
+
+import com.mybatisflex.annotation.InsertListener;
+import com.mybatisflex.annotation.SetListener;
+import com.mybatisflex.annotation.UpdateListener;
+
+/**
+ * 由 mybatis-flex-annotation 的 QueryEntityProcessor 在编译期为 entity 生成的读写器，类名为 entity 的类名 + "TableAccessor"
+ * 存在时 TableInfoFactory 会直接使用该类读写属性、创建 entity 以及监听器，而不再通过反射和 LambdaMetafactory
+ * 注意：只包含属性的读写，表名、列、主键以及 TypeHandler 等表信息依然在启动时通过反射解析；
+ * 读写器与 entity 不一致（已过期）时会被忽略，见 {@link TableInfo#getTableAccessor()}
+ */
+public interface TableAccessor<T> {
+
+    String CLASS_NAME_SUFFIX = "TableAccessor";
+
+
+    /**
+     * 可以直接读写的属性名称，只包含有 public getter 和 setter 的属性，其他的属性依然通过反射读写
+     */
+    String[] getProperties();
+
+
+    /**
+     * 属性的类型，与 {@link #getProperties()} 一一对应
+     */
+    Class<?>[] getPropertyTypes();
+
+
+    /**
+     * 读取属性的值
+     *
+     * @param entity entity 对象
+     * @param index  属性在 {@link #getProperties()} 中的索引
+     */
+    Object get(T entity, int index);
+
+
+    /**
+     * 设置属性的值
+     *
+     * @param entity entity 对象
+     * @param index  属性在 {@link #getProperties()} 中的索引
+     * @param value  属性的值
+     */
+    void set(T entity, int index, Object value);
+
+
+    T newInstance();
+
+
+    default InsertListener getInsertListener() {
+        return null;
+    }
+
+
+    default UpdateListener getUpdateListener() {
+        return null;
+    }
+
+
+    default SetListener getSetListener() {
+        return null;
+    }
+}
@@ -21,27 +21,36 @@ import com.mybatisflex.annotation.SetListener;
 import com.mybatisflex.annotation.UpdateListener;
 import com.mybatisflex.core.FlexConsts;
 import com.mybatisflex.core.FlexGlobalConfig;
+import com.mybatisflex.core.cache.EntityCacheConfig;
+import com.mybatisflex.core.dialect.IDialect;
 import com.mybatisflex.core.exception.FlexExceptions;
 import com.mybatisflex.core.javassist.ModifyAttrsRecord;
+import com.mybatisflex.core.javassist.ModifyAttrsRecordHandler;
 import com.mybatisflex.core.mybatis.TypeHandlerObject;
 import com.mybatisflex.core.query.*;
 import com.mybatisflex.core.row.Row;
 import com.mybatisflex.core.tenant.TenantManager;
 import com.mybatisflex.core.util.*;
+import org.apache.ibatis.javassist.util.proxy.MethodHandler;
+import org.apache.ibatis.javassist.util.proxy.ProxyObject;
 import org.apache.ibatis.mapping.ResultFlag;
 import org.apache.ibatis.mapping.ResultMap;
 import org.apache.ibatis.mapping.ResultMapping;
-import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.Reflector;
 import org.apache.ibatis.reflection.ReflectorFactory;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.TypeHandler;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 public class TableInfo {
 
+    //每个 entity 最多缓存的 row 映射计划数量
+    private static final int MAX_ROW_MAPPING_CACHE_SIZE = 128;
+
     private String schema; //schema
     private String tableName; //表名
     private Class<?> entityClass; //实体类
@@ -86,10 +95,22 @@ public class TableInfo {
     private Map<String, ColumnInfo> columnInfoMapping = new HashMap<>();
     private Map<String, String> propertyColumnMapping = new HashMap<>();
 
+    //column 在 sql 缓存 key 中的位置，用于构建字段组合的 bitmask
+    private Map<String, Integer> columnIndexMapping = new HashMap<>();
+
+    //已构建的 sql 缓存，相同方言下，相同的字段组合生成的 sql 是一样的
+    private final Map<SqlCacheKey, String> sqlCache = new ConcurrentHashMap<>();
+
+    //row 转换为 entity 的映射计划缓存，key 为 index 和 row 的列名
+    private final Map<List<Object>, RowMapping> rowMappingCache = new ConcurrentHashMap<>();
+
     private InsertListener onInsertListener;
     private UpdateListener onUpdateListener;
     private SetListener onSetListener;
 
+    //@Table 中配置的 entity 缓存
+    private EntityCacheConfig entityCacheConfig;
+
 
     private final ReflectorFactory reflectorFactory = new BaseReflectorFactory() {
         @Override
@@ -99,6 +120,12 @@ public class TableInfo {
     };
     private Reflector reflector; //反射工具
 
+    //按照列的索引读写 entity 的属性
+    private EntityAccessor entityAccessor;
+
+    //编译期生成的读写器，不存在或者已过期时为 null
+    private TableAccessor<?> tableAccessor;
+
     public String getSchema() {
         return schema;
     }
@@ -204,6 +231,10 @@ public class TableInfo {
     }
 
     public Reflector getReflector() {
+        //存在编译期生成的 TableAccessor 时，一般不需要 Reflector，使用时才创建
+        if (reflector == null) {
+            reflector = new Reflector(entityClass);
+        }
         return reflector;
     }
 
@@ -215,6 +246,34 @@ public class TableInfo {
         this.reflector = reflector;
     }
 
+    public EntityAccessor getEntityAccessor() {
+        return entityAccessor;
+    }
+
+    void setEntityAccessor(EntityAccessor entityAccessor) {
+        this.entityAccessor = entityAccessor;
+    }
+
+    /**
+     * 获取编译期生成的读写器，没有生成或者与 entity 不一致（已过期）时返回 null，此时通过反射读写
+     */
+    public TableAccessor<?> getTableAccessor() {
+        return tableAccessor;
+    }
+
+    void setTableAccessor(TableAccessor<?> tableAccessor) {
+        this.tableAccessor = tableAccessor;
+    }
+
+    /**
+     * 按照列的索引获取对应的属性名称
+     */
+    public String[] getIndexedProperties() {
+        String[] properties = new String[columnIndexMapping.size()];
+        columnIndexMapping.forEach((column, index) -> properties[index] = columnInfoMapping.get(column).property);
+        return properties;
+    }
+
     public String[] getColumns() {
         return columns;
     }
@@ -257,6 +316,14 @@ public class TableInfo {
         this.onSetListener = onSetListener;
     }
 
+    public EntityCacheConfig getEntityCacheConfig() {
+        return entityCacheConfig;
+    }
+
+    public void setEntityCacheConfig(EntityCacheConfig entityCacheConfig) {
+        this.entityCacheConfig = entityCacheConfig;
+    }
+
     public List<ColumnInfo> getColumnInfoList() {
         return columnInfoList;
     }
@@ -270,6 +337,7 @@ public class TableInfo {
             columns[i] = columnInfo.getColumn();
             columnInfoMapping.put(columnInfo.column, columnInfo);
             propertyColumnMapping.put(columnInfo.property, columnInfo.column);
+            columnIndexMapping.putIfAbsent(columnInfo.column, columnIndexMapping.size());
         }
     }
 
@@ -293,6 +361,7 @@ public class TableInfo {
 
             columnInfoMapping.put(idInfo.column, idInfo);
             propertyColumnMapping.put(idInfo.property, idInfo.column);
+            columnIndexMapping.putIfAbsent(idInfo.column, columnIndexMapping.size());
         }
         this.insertPrimaryKeys = insertIdFields.toArray(new String[0]);
     }
@@ -310,13 +379,12 @@ public class TableInfo {
         if (!ignoreNulls) {
             return defaultInsertColumns;
         } else {
-            MetaObject metaObject = EntityMetaObject.forObject(entity, reflectorFactory);
             List<String> retColumns = new ArrayList<>();
             for (String insertColumn : defaultInsertColumns) {
                 if (onInsertColumns != null && onInsertColumns.containsKey(insertColumn)) {
                     retColumns.add(insertColumn);
                 } else {
-                    Object value = buildColumnSqlArg(metaObject, insertColumn);
+                    Object value = getColumnValue(entity, insertColumn);
                     if (value == null) {
                         continue;
                     }
@@ -336,13 +404,37 @@ public class TableInfo {
      * @return 数组
      */
     public Object[] buildInsertSqlArgs(Object entity, boolean ignoreNulls) {
-        MetaObject metaObject = EntityMetaObject.forObject(entity, reflectorFactory);
-        String[] insertColumns = obtainInsertColumns(entity, ignoreNulls);
+        //与 obtainInsertColumns 的字段顺序保持一致，每个属性只读取一次
+        return buildInsertSqlArgs(entity, ArrayUtil.concat(insertPrimaryKeys, columns), ignoreNulls);
+    }
+
+
+    /**
+     * upsert（插入或更新）时要插入的字段，包含所有的主键
+     *
+     * @return 字段列表
+     */
+    public String[] obtainUpsertColumns() {
+        return ArrayUtil.concat(primaryKeys, columns);
+    }
+
+
+    /**
+     * 构建 upsert 的 Sql 参数，与 {@link #obtainUpsertColumns()} 的字段顺序保持一致
+     *
+     * @param entity 从 entity 中获取
+     * @return 数组
+     */
+    public Object[] buildUpsertSqlArgs(Object entity) {
+        return buildInsertSqlArgs(entity, obtainUpsertColumns(), false);
+    }
+
 
+    private Object[] buildInsertSqlArgs(Object entity, String[] insertColumns, boolean ignoreNulls) {
         List<Object> values = new ArrayList<>(insertColumns.length);
         for (String insertColumn : insertColumns) {
             if (onInsertColumns == null || !onInsertColumns.containsKey(insertColumn)) {
-                Object value = buildColumnSqlArg(metaObject, insertColumn);
+                Object value = buildColumnSqlArg(entity, insertColumn);
                 if (ignoreNulls && value == null) {
                     continue;
                 }
@@ -360,13 +452,18 @@ public class TableInfo {
      * @param ignoreNulls
      */
     public Set<String> obtainUpdateColumns(Object entity, boolean ignoreNulls, boolean includePrimary) {
-        MetaObject metaObject = EntityMetaObject.forObject(entity, reflectorFactory);
         Set<String> columns = new LinkedHashSet<>(); //需使用 LinkedHashSet 保证 columns 的顺序
         if (entity instanceof ModifyAttrsRecord) {
+            BitSet modifyFlags = getModifyColumnFlags(entity);
+            if (modifyFlags != null) {
+                return obtainUpdateColumns(modifyFlags, includePrimary);
+            }
+
             Set<String> properties = ((ModifyAttrsRecord) entity).obtainModifyAttrs();
             if (properties.isEmpty()) {
                 return Collections.emptySet();
             }
+            Set<String> modifyColumns = new HashSet<>(properties.size());
             for (String property : properties) {
                 String column = propertyColumnMapping.get(property);
                 if (onUpdateColumns != null && onUpdateColumns.containsKey(column)) {
@@ -387,7 +484,21 @@ public class TableInfo {
                 // if (ignoreNulls && value == null) {
                 //     continue;
                 // }
-                columns.add(column);
+                if (column != null) {
+                    modifyColumns.add(column);
+                }
+            }
+
+            //按字段定义的顺序返回，保证相同的字段组合生成的 sql 和参数顺序一致
+            for (String column : primaryKeys) {
+                if (modifyColumns.contains(column)) {
+                    columns.add(column);
+                }
+            }
+            for (String column : this.columns) {
+                if (modifyColumns.contains(column)) {
+                    columns.add(column);
+                }
             }
         }
         //not ModifyAttrsRecord
@@ -402,7 +513,7 @@ public class TableInfo {
                     continue;
                 }
 
-                Object value = buildColumnSqlArg(metaObject, column);
+                Object value = getColumnValue(entity, column);
                 if (ignoreNulls && value == null) {
                     continue;
                 }
@@ -424,6 +535,51 @@ public class TableInfo {
         return columns;
     }
 
+    /**
+     * UpdateEntity 创建的代理对象通过 bitset 记录了修改过的字段，bit 的位置为字段的索引
+     */
+    private BitSet getModifyColumnFlags(Object entity) {
+        if (!(entity instanceof ProxyObject) || columnIndexMapping.size() != columns.length + primaryKeys.length) {
+            return null;
+        }
+        MethodHandler handler = ((ProxyObject) entity).getHandler();
+        return handler instanceof ModifyAttrsRecordHandler ? ((ModifyAttrsRecordHandler) handler).getModifyColumnFlags(this) : null;
+    }
+
+
+    private Set<String> obtainUpdateColumns(BitSet modifyFlags, boolean includePrimary) {
+        if (modifyFlags.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        Set<String> columns = new LinkedHashSet<>();
+        if (includePrimary) {
+            for (String column : primaryKeys) {
+                if (modifyFlags.get(columnIndexMapping.get(column)) && isUpdatableColumn(column)) {
+                    columns.add(column);
+                }
+            }
+        }
+
+        //字段的索引和 this.columns 的顺序一致
+        for (int i = modifyFlags.nextSetBit(0); i >= 0 && i < this.columns.length; i = modifyFlags.nextSetBit(i + 1)) {
+            if (isUpdatableColumn(this.columns[i])) {
+                columns.add(this.columns[i]);
+            }
+        }
+        return columns;
+    }
+
+
+    private boolean isUpdatableColumn(String column) {
+        if (onUpdateColumns != null && onUpdateColumns.containsKey(column)) {
+            return false;
+        }
+        //过滤乐观锁字段 和 租户字段
+        return !ObjectUtil.equalsAny(column, versionColumn, tenantIdColumn);
+    }
+
+
     /**
      * 获取所有要修改的值，默认为全部除了主键以外的字段
      *
@@ -431,28 +587,12 @@ public class TableInfo {
      * @return 数组
      */
     public Object[] buildUpdateSqlArgs(Object entity, boolean ignoreNulls, boolean includePrimary) {
-        MetaObject metaObject = EntityMetaObject.forObject(entity, reflectorFactory);
         List<Object> values = new ArrayList<>();
         if (entity instanceof ModifyAttrsRecord) {
-            Set<String> properties = ((ModifyAttrsRecord) entity).obtainModifyAttrs();
-            if (properties.isEmpty()) {
-                return values.toArray();
-            }
-            for (String property : properties) {
-                String column = propertyColumnMapping.get(property);
-                if (onUpdateColumns != null && onUpdateColumns.containsKey(column)) {
-                    continue;
-                }
-                //过滤乐观锁字段 和 租户字段
-                if (ObjectUtil.equalsAny(column, versionColumn, tenantIdColumn)) {
-                    continue;
-                }
-
-                if (!includePrimary && ArrayUtil.contains(primaryKeys, column)) {
-                    continue;
-                }
-
-                Object value = getPropertyValue(metaObject, property);
+            //与 obtainUpdateColumns 的字段顺序保持一致
+            Set<String> updateColumns = obtainUpdateColumns(entity, ignoreNulls, includePrimary);
+            for (String column : updateColumns) {
+                Object value = getColumnValue(entity, column);
 
                 // ModifyAttrsRecord 忽略 ignoreNulls 的设置，
                 // 当使用 ModifyAttrsRecord 时，可以理解为要对字段进行 null 值进行更新，否则没必要使用 ModifyAttrsRecord
@@ -479,7 +619,7 @@ public class TableInfo {
                 // if (includePrimary) {
                 // }
 
-                Object value = buildColumnSqlArg(metaObject, column);
+                Object value = buildColumnSqlArg(entity, column);
                 if (ignoreNulls && value == null) {
                     continue;
                 }
@@ -498,10 +638,9 @@ public class TableInfo {
      * @param entity
      */
     public Object[] buildPkSqlArgs(Object entity) {
-        MetaObject metaObject = EntityMetaObject.forObject(entity, reflectorFactory);
         Object[] values = new Object[primaryKeys.length];
         for (int i = 0; i < primaryKeys.length; i++) {
-            values[i] = buildColumnSqlArg(metaObject, primaryKeys[i]);
+            values[i] = buildColumnSqlArg(entity, primaryKeys[i]);
         }
         return values;
     }
@@ -515,6 +654,55 @@ public class TableInfo {
         return TenantManager.getTenantIds();
     }
 
+    /**
+     * 获取缓存的 sql，若缓存不存在，则通过 sqlBuilder 构建后缓存
+     * 缓存的 key 由方言、sql 类型、字段组合（bitmask）、租户数量以及逻辑删除的值组成
+     *
+     * @param dialect    方言
+     * @param sqlType    sql 类型，例如 insert、update 等
+     * @param columns    参与构建 sql 的字段，可以为 null
+     * @param sqlBuilder sql 构建器
+     * @return sql
+     */
+    public String obtainSql(IDialect dialect, String sqlType, Collection<String> columns, Supplier<String> sqlBuilder) {
+        BitSet columnsShape = null;
+        if (columns != null) {
+            columnsShape = new BitSet(columnIndexMapping.size());
+            for (String column : columns) {
+                Integer index = columnIndexMapping.get(column);
+                //未知的字段，不进行缓存
+                if (index == null) {
+                    return sqlBuilder.get();
+                }
+                columnsShape.set(index);
+            }
+        }
+
+        Object[] tenantIdArgs = buildTenantIdArgs();
+        int tenantIdCount = tenantIdArgs == null ? 0 : tenantIdArgs.length;
+
+        Object normalValue = null;
+        Object deletedValue = null;
+        if (StringUtil.isNotBlank(logicDeleteColumn)) {
+            normalValue = FlexGlobalConfig.getDefaultConfig().getNormalValueOfLogicDelete();
+            deletedValue = FlexGlobalConfig.getDefaultConfig().getDeletedValueOfLogicDelete();
+        }
+
+        SqlCacheKey key = new SqlCacheKey(dialect, sqlType, columnsShape, tenantIdCount, normalValue, deletedValue);
+        String sql = sqlCache.get(key);
+        if (sql == null) {
+            sql = sqlBuilder.get();
+            sqlCache.put(key, sql);
+        }
+        return sql;
+    }
+
+
+    public String obtainSql(IDialect dialect, String sqlType, String[] columns, Supplier<String> sqlBuilder) {
+        return obtainSql(dialect, sqlType, columns == null ? null : Arrays.asList(columns), sqlBuilder);
+    }
+
+
     private static final String APPEND_CONDITIONS_FLAG = "appendConditions";
 
     public void appendConditions(Object entity, QueryWrapper queryWrapper) {
@@ -633,9 +821,9 @@ public class TableInfo {
     }
 
 
-    private Object buildColumnSqlArg(MetaObject metaObject, String column) {
+    public Object buildColumnSqlArg(Object entityObject, String column) {
         ColumnInfo columnInfo = columnInfoMapping.get(column);
-        Object value = getPropertyValue(metaObject, columnInfo.property);
+        Object value = getColumnValue(entityObject, column);
 
         TypeHandler typeHandler = columnInfo.buildTypeHandler();
         if (value != null && typeHandler != null) {
@@ -646,17 +834,29 @@ public class TableInfo {
     }
 
 
-    public Object buildColumnSqlArg(Object entityObject, String column) {
-        MetaObject metaObject = EntityMetaObject.forObject(entityObject, reflectorFactory);
-        return buildColumnSqlArg(metaObject, column);
+    /**
+     * 读取 entity 中某一列对应的属性值
+     */
+    public Object getColumnValue(Object entityObject, String column) {
+        Integer index = columnIndexMapping.get(column);
+        return index != null ? entityAccessor.get(entityObject, index) : null;
     }
 
 
-    private Object getPropertyValue(MetaObject metaObject, String property) {
-        if (property != null && metaObject.hasGetter(property)) {
-            return metaObject.getValue(property);
-        }
-        return null;
+    /**
+     * 获取列在 {@link EntityAccessor} 中的索引，列不存在时返回 -1
+     */
+    public int getColumnIndex(String column) {
+        Integer index = columnIndexMapping.get(column);
+        return index != null ? index : -1;
+    }
+
+
+    /**
+     * 设置 entity 中某一列对应的属性值
+     */
+    private void setColumnValue(Object entityObject, String column, Object value) {
+        entityAccessor.set(entityObject, columnIndexMapping.get(column), value);
     }
 
 
@@ -666,44 +866,87 @@ public class TableInfo {
      * @return entity
      */
     public <T> T newInstanceByRow(Row row, int index) {
-        Object instance = ClassUtil.newInstance(entityClass);
-        MetaObject metaObject = EntityMetaObject.forObject(instance, reflectorFactory);
-        Set<String> rowKeys = row.keySet();
+        return newInstanceByRow(row, getRowMapping(row, index));
+    }
+
+
+    /**
+     * 通过 row 的映射计划转换为一个 entity，转换多个列名相同的 row 时，只需要获取一次映射计划
+     *
+     * @return entity
+     */
+    public <T> T newInstanceByRow(Row row, RowMapping rowMapping) {
+        Object instance = entityAccessor.newInstance();
+        for (int i = 0; i < rowMapping.mappedRowKeys.length; i++) {
+            ColumnInfo columnInfo = rowMapping.columnInfos[i];
+            Object value = ConvertUtil.convert(row.get(rowMapping.mappedRowKeys[i]), columnInfo.propertyType);
+            if (onSetListener != null) {
+                value = onSetListener.onSet(instance, columnInfo.property, value);
+            }
+            entityAccessor.set(instance, rowMapping.columnIndexes[i], value);
+        }
+        return (T) instance;
+    }
+
+
+    /**
+     * 获取 row 转换为 entity 的映射计划
+     *
+     * @param row   row
+     * @param index 列名的后缀索引，比如 index 为 1 时，优先读取 "column$1" 列，没有时再读取 "column" 列
+     */
+    public RowMapping getRowMapping(Row row, int index) {
+        List<Object> key = new ArrayList<>(row.size() + 1);
+        key.add(index);
+        key.addAll(row.keySet());
+
+        RowMapping rowMapping = rowMappingCache.get(key);
+        if (rowMapping == null) {
+            rowMapping = buildRowMapping(row.keySet().toArray(new String[0]), index);
+            //列名组合过多时（比如动态的别名）不再缓存
+            if (rowMappingCache.size() < MAX_ROW_MAPPING_CACHE_SIZE) {
+                rowMappingCache.put(key, rowMapping);
+            }
+        }
+        return rowMapping;
+    }
+
+
+    private RowMapping buildRowMapping(String[] rowKeys, int index) {
+        List<String> mappedRowKeys = new ArrayList<>();
+        List<ColumnInfo> columnInfos = new ArrayList<>();
         columnInfoMapping.forEach((column, columnInfo) -> {
             if (index <= 0) {
                 for (String rowKey : rowKeys) {
                     if (column.equalsIgnoreCase(rowKey)) {
-                        Object rowValue = row.get(rowKey);
-                        Object value = ConvertUtil.convert(rowValue, metaObject.getSetterType(columnInfo.property));
-                        if (onSetListener != null) {
-                            value = onSetListener.onSet(instance, columnInfo.property, value);
-                        }
-                        metaObject.setValue(columnInfo.property, value);
+                        mappedRowKeys.add(rowKey);
+                        columnInfos.add(columnInfo);
                     }
                 }
             } else {
                 for (int i = index; i >= 0; i--) {
                     String newColumn = i <= 0 ? column : column + "$" + i;
-                    boolean fillValue = false;
+                    String matchedRowKey = null;
                     for (String rowKey : rowKeys) {
                         if (newColumn.equalsIgnoreCase(rowKey)) {
-                            Object rowValue = row.get(rowKey);
-                            Object value = ConvertUtil.convert(rowValue, metaObject.getSetterType(columnInfo.property));
-                            if (onSetListener != null) {
-                                value = onSetListener.onSet(instance, columnInfo.property, value);
-                            }
-                            metaObject.setValue(columnInfo.property, value);
-                            fillValue = true;
+                            matchedRowKey = rowKey;
                             break;
                         }
                     }
-                    if (fillValue) {
+                    if (matchedRowKey != null) {
+                        mappedRowKeys.add(matchedRowKey);
+                        columnInfos.add(columnInfo);
                         break;
                     }
                 }
             }
         });
-        return (T) instance;
+
+        int[] columnIndexes = new int[columnInfos.size()];
+        for (int i = 0; i < columnIndexes.length; i++) {
+            columnIndexes[i] = columnIndexMapping.get(columnInfos.get(i).column);
+        }
+        return new RowMapping(rowKeys, mappedRowKeys.toArray(new String[0]), columnInfos.toArray(new ColumnInfo[0]), columnIndexes);
     }
 
 
@@ -717,12 +960,10 @@ public class TableInfo {
             return;
         }
 
-        MetaObject metaObject = EntityMetaObject.forObject(entityObject, reflectorFactory);
-        Object columnValue = getPropertyValue(metaObject, columnInfoMapping.get(versionColumn).property);
+        Object columnValue = getColumnValue(entityObject, versionColumn);
         if (columnValue == null) {
-            String name = columnInfoMapping.get(versionColumn).property;
-            Class<?> clazz = metaObject.getSetterType(name);
-            metaObject.setValue(name, ConvertUtil.convert(0L, clazz));
+            Class<?> clazz = columnInfoMapping.get(versionColumn).getPropertyType();
+            setColumnValue(entityObject, versionColumn, ConvertUtil.convert(0L, clazz));
         }
     }
 
@@ -736,7 +977,6 @@ public class TableInfo {
             return;
         }
 
-        MetaObject metaObject = EntityMetaObject.forObject(entityObject, reflectorFactory);
         Object[] tenantIds = TenantManager.getTenantIds();
         if (tenantIds == null || tenantIds.length == 0) {
             return;
@@ -745,7 +985,7 @@ public class TableInfo {
         //默认使用第一个作为插入的租户ID
         Object tenantId = tenantIds[0];
         if (tenantId != null) {
-            metaObject.setValue(columnInfoMapping.get(tenantIdColumn).property, tenantId);
+            setColumnValue(entityObject, tenantIdColumn, tenantId);
         }
     }
 
@@ -759,15 +999,13 @@ public class TableInfo {
             return;
         }
 
-        MetaObject metaObject = EntityMetaObject.forObject(entityObject, reflectorFactory);
-        Object columnValue = getPropertyValue(metaObject, columnInfoMapping.get(logicDeleteColumn).property);
+        Object columnValue = getColumnValue(entityObject, logicDeleteColumn);
         if (columnValue == null) {
-            String name = columnInfoMapping.get(logicDeleteColumn).property;
-            Class<?> clazz = metaObject.getSetterType(name);
+            Class<?> clazz = columnInfoMapping.get(logicDeleteColumn).getPropertyType();
             if (Number.class.isAssignableFrom(clazz)) {
-                metaObject.setValue(name, ConvertUtil.convert(0L, clazz));
+                setColumnValue(entityObject, logicDeleteColumn, ConvertUtil.convert(0L, clazz));
             } else if (clazz == Boolean.class) {
-                metaObject.setValue(name, false);
+                setColumnValue(entityObject, logicDeleteColumn, false);
             }
         }
     }
@@ -18,11 +18,11 @@ package com.mybatisflex.core.table;
 import com.mybatisflex.annotation.*;
 import com.mybatisflex.core.FlexConsts;
 import com.mybatisflex.core.FlexGlobalConfig;
+import com.mybatisflex.core.cache.EntityCacheConfig;
 import com.mybatisflex.core.exception.FlexExceptions;
 import com.mybatisflex.core.util.ClassUtil;
 import com.mybatisflex.core.util.CollectionUtil;
 import com.mybatisflex.core.util.StringUtil;
-import org.apache.ibatis.reflection.Reflector;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeHandler;
@@ -66,6 +66,11 @@ public class TableInfoFactory {
     private static final Map<Class<?>, TableInfo> entityTableMap = new ConcurrentHashMap<>();
     private static final Map<String, TableInfo> tableInfoMap = new ConcurrentHashMap<>();
 
+    /**
+     * 是否有 entity 通过 @Table 配置了 entity 缓存
+     */
+    private static volatile boolean entityCacheConfigured = false;
+
 
     public static TableInfo ofMapperClass(Class<?> mapperClass) {
         return MapUtil.computeIfAbsent(mapperTableInfoMap, mapperClass, key -> {
@@ -92,6 +97,11 @@ public class TableInfoFactory {
     }
 
 
+    public static boolean isEntityCacheConfigured() {
+        return entityCacheConfigured;
+    }
+
+
     private static Class<?> getEntityClass(Class<?> mapperClass) {
         Type[] genericInterfaces = mapperClass.getGenericInterfaces();
         if (genericInterfaces.length == 1) {
@@ -110,7 +120,9 @@ public class TableInfoFactory {
 
         TableInfo tableInfo = new TableInfo();
         tableInfo.setEntityClass(entityClass);
-        tableInfo.setReflector(new Reflector(entityClass));
+
+        //编译期生成的读写器，存在时不再需要通过反射读写属性
+        TableAccessor<?> tableAccessor = getTableAccessor(entityClass);
 
 
         //初始化表名
@@ -121,20 +133,28 @@ public class TableInfoFactory {
             tableInfo.setCamelToUnderline(table.camelToUnderline());
 
             if (table.onInsert() != NoneListener.class) {
-                tableInfo.setOnInsertListener(ClassUtil.newInstance(table.onInsert()));
+                InsertListener insertListener = tableAccessor != null ? tableAccessor.getInsertListener() : null;
+                tableInfo.setOnInsertListener(insertListener != null ? insertListener : ClassUtil.newInstance(table.onInsert()));
             }
 
             if (table.onUpdate() != NoneListener.class) {
-                tableInfo.setOnUpdateListener(ClassUtil.newInstance(table.onUpdate()));
+                UpdateListener updateListener = tableAccessor != null ? tableAccessor.getUpdateListener() : null;
+                tableInfo.setOnUpdateListener(updateListener != null ? updateListener : ClassUtil.newInstance(table.onUpdate()));
             }
 
             if (table.onSet() != NoneListener.class) {
-                tableInfo.setOnSetListener(ClassUtil.newInstance(table.onSet()));
+                SetListener setListener = tableAccessor != null ? tableAccessor.getSetListener() : null;
+                tableInfo.setOnSetListener(setListener != null ? setListener : ClassUtil.newInstance(table.onSet()));
             }
 
             if (StringUtil.isNotBlank(table.dataSource())) {
                 tableInfo.setDataSource(table.dataSource());
             }
+
+            if (table.entityCacheSize() > 0) {
+                tableInfo.setEntityCacheConfig(new EntityCacheConfig(table.entityCacheSize(), table.entityCacheTtl()));
+                entityCacheConfigured = true;
+            }
         } else {
             //默认为类名转驼峰下划线
             String tableName = StringUtil.camelToUnderline(entityClass.getSimpleName());
@@ -313,7 +333,76 @@ public class TableInfoFactory {
         tableInfo.setColumnInfoList(columnInfoList);
         tableInfo.setPrimaryKeyList(idInfos);
 
+        //按照列的索引构建属性的读写器，用于替代 MetaObject 的反射
+        tableInfo.setTableAccessor(tableAccessor);
+        tableInfo.setEntityAccessor(EntityAccessor.create(entityClass, tableAccessor, tableInfo::getReflector, tableInfo.getIndexedProperties()));
+
 
         return tableInfo;
     }
+
+
+    /**
+     * 加载 QueryEntityProcessor 生成的 entity 读写器，类名为 entity 类名 + "TableAccessor"，不存在或者已过期时返回 null
+     */
+    private static TableAccessor<?> getTableAccessor(Class<?> entityClass) {
+        if (entityClass.getClassLoader() == null) {
+            return null;
+        }
+        try {
+            Class<?> accessorClass = Class.forName(entityClass.getName() + TableAccessor.CLASS_NAME_SUFFIX, true, entityClass.getClassLoader());
+            if (!TableAccessor.class.isAssignableFrom(accessorClass)) {
+                return null;
+            }
+            TableAccessor<?> tableAccessor = (TableAccessor<?>) ClassUtil.newInstance(accessorClass);
+            return isAccessorMatched(entityClass, tableAccessor) ? tableAccessor : null;
+        } catch (ClassNotFoundException | LinkageError e) {
+            //没有生成或者生成的类已经过期（比如 entity 修改后没有重新编译），使用反射
+            return null;
+        }
+    }
+
+
+    /**
+     * 检查读写器是否与当前的 entity 一致，entity 修改后读写器没有重新生成时，读写器依然可以加载，但调用时会出现
+     * NoSuchMethodError 或者 ClassCastException，因此需要在加载时检查属性及其类型，并调用一次所有的读写方法
+     */
+    @SuppressWarnings("unchecked")
+    private static boolean isAccessorMatched(Class<?> entityClass, TableAccessor<?> tableAccessor) {
+        String[] properties = tableAccessor.getProperties();
+        Class<?>[] propertyTypes = tableAccessor.getPropertyTypes();
+        if (properties.length != propertyTypes.length) {
+            return false;
+        }
+
+        Map<String, Class<?>> fieldTypes = new HashMap<>();
+        for (Field field : ClassUtil.getAllFields(entityClass)) {
+            if (!Modifier.isStatic(field.getModifiers())) {
+                fieldTypes.putIfAbsent(field.getName(), field.getType());
+            }
+        }
+        for (int i = 0; i < properties.length; i++) {
+            if (fieldTypes.get(properties[i]) != propertyTypes[i]) {
+                return false;
+            }
+        }
+
+        TableAccessor<Object> accessor = (TableAccessor<Object>) tableAccessor;
+        Object entity;
+        try {
+            entity = accessor.newInstance();
+        } catch (LinkageError | ClassCastException e) {
+            return false;
+        }
+        for (int i = 0; i < properties.length; i++) {
+            try {
+                accessor.set(entity, i, accessor.get(entity, i));
+            } catch (LinkageError | ClassCastException e) {
+                return false;
+            } catch (RuntimeException e) {
+                //getter 或者 setter 自身抛出的异常，方法已经链接成功，说明读写器没有过期
+            }
+        }
+        return true;
+    }
 }
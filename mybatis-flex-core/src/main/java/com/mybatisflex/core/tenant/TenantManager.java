@@ -46,6 +46,14 @@ public class TenantManager {
     }
 
 
+    /**
+     * 当前线程是否忽略了 tenant 条件
+     */
+    public static boolean isIgnoreTenantCondition() {
+        return Boolean.TRUE.equals(ignoreFlags.get());
+    }
+
+
     public static Object[] getTenantIds() {
         Boolean ignoreFlag = ignoreFlags.get();
         if (ignoreFlag != null && ignoreFlag) {
@@ -15,6 +15,7 @@
  */
 package com.mybatisflex.core.transaction;
 
+import com.mybatisflex.core.cache.TableVersions;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 
@@ -197,6 +198,8 @@ public class TransactionalManager {
             if (holdMap.isEmpty()) {
                 CONNECTION_HOLDER.remove();
             }
+            //事务结束后，使事务中修改过的表的缓存失效
+            TableVersions.onTransactionCompletion(xid);
             if (exception != null) {
                 log.error("TransactionalManager.release() is error. cause: " + exception.getMessage(), exception);
             }
@@ -118,6 +118,19 @@ public class StringUtil {
     }
 
 
+    /**
+     * sqlBuilder 从 start 位置开始的内容是否为空白，用于避免 toString() 产生新的字符串
+     */
+    public static boolean isBlank(StringBuilder sqlBuilder, int start) {
+        for (int i = start, len = sqlBuilder.length(); i < len; i++) {
+            if (sqlBuilder.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
     public static boolean isAnyBlank(String... strings) {
         if (strings == null || strings.length == 0) {
             throw new IllegalArgumentException("args is empty.");
@@ -0,0 +1,6 @@
+package com.mybatisflex.coretest;
+
+import com.mybatisflex.core.BaseMapper;
+
+public interface AccountMapper extends BaseMapper<Account> {
+}
@@ -1,13 +1,16 @@
 package com.mybatisflex.coretest;
 
+import com.mybatisflex.core.FlexGlobalConfig;
 import com.mybatisflex.core.dialect.impl.CommonsDialectImpl;
 import com.mybatisflex.core.dialect.IDialect;
+import com.mybatisflex.core.dialect.InListProcesser;
 import com.mybatisflex.core.dialect.KeywordWrap;
 import com.mybatisflex.core.dialect.LimitOffsetProcesser;
 import com.mybatisflex.core.query.CPI;
 import com.mybatisflex.core.query.QueryWrapper;
 import com.mybatisflex.core.table.TableInfo;
 import com.mybatisflex.core.table.TableInfoFactory;
+import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.Arrays;
@@ -348,6 +351,87 @@ public class AccountSqlTester {
     }
 
 
+    @Test
+    public void testQuerySqlCache() {
+        //默认不缓存
+        CommonsDialectImpl defaultDialect = new CommonsDialectImpl();
+        defaultDialect.forSelectListByQuery(QueryWrapper.create().select().from(ACCOUNT).where(ACCOUNT.ID.ge(100)));
+        Assert.assertEquals(0, defaultDialect.getQuerySqlCache().size());
+
+        FlexGlobalConfig.getDefaultConfig().setQuerySqlCacheSize(16);
+        try {
+            CommonsDialectImpl dialect = new CommonsDialectImpl();
+
+            String sql1 = dialect.forSelectListByQuery(QueryWrapper.create()
+                    .select()
+                    .from(ACCOUNT)
+                    .where(ACCOUNT.ID.ge(100))
+                    .and(ACCOUNT.USER_NAME.like("michael"))
+                    .and(ACCOUNT.AGE.in(1, 2, 3)));
+
+            //参数值不同，命中缓存
+            String sql2 = dialect.forSelectListByQuery(QueryWrapper.create()
+                    .select()
+                    .from(ACCOUNT)
+                    .where(ACCOUNT.ID.ge(200))
+                    .and(ACCOUNT.USER_NAME.like("tom"))
+                    .and(ACCOUNT.AGE.in(4, 5, 6)));
+
+            //IN 参数数量不同 以及 when(false)，不命中缓存
+            String sql3 = dialect.forSelectListByQuery(QueryWrapper.create()
+                    .select()
+                    .from(ACCOUNT)
+                    .where(ACCOUNT.ID.ge(200))
+                    .and(ACCOUNT.USER_NAME.like("tom").when(false))
+                    .and(ACCOUNT.AGE.in(4, 5)));
+
+            System.out.println(sql1);
+            System.out.println(sql2);
+            System.out.println(sql3);
+            System.out.println("hit: " + dialect.getQuerySqlCache().getHitCount() + ", miss: " + dialect.getQuerySqlCache().getMissCount());
+
+            Assert.assertEquals(sql1, sql2);
+            Assert.assertNotEquals(sql1, sql3);
+            Assert.assertEquals(1, dialect.getQuerySqlCache().getHitCount());
+            Assert.assertEquals(2, dialect.getQuerySqlCache().getMissCount());
+        } finally {
+            FlexGlobalConfig.getDefaultConfig().setQuerySqlCacheSize(0);
+        }
+    }
+
+
+    @Test
+    public void testLargeInSql() {
+        Object[] ids = new Object[2500];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = (long) i;
+        }
+
+        QueryWrapper queryWrapper = QueryWrapper.create()
+                .select()
+                .from(ACCOUNT)
+                .where(ACCOUNT.ID.in(ids))
+                .and(ACCOUNT.AGE.notIn(1, 2, 3));
+
+        //oracle 的 in 最多 1000 个参数，拆分成多个 in
+        IDialect oracleDialect = new CommonsDialectImpl(KeywordWrap.DOUBLE_QUOTATION, LimitOffsetProcesser.ORACLE, InListProcesser.ORACLE);
+        String oracleSql = oracleDialect.forSelectListByQuery(queryWrapper);
+        System.out.println(oracleSql.length() > 300 ? oracleSql.substring(0, 150) + " ... " + oracleSql.substring(oracleSql.length() - 150) : oracleSql);
+        Assert.assertEquals(3, oracleSql.split("\"id\" IN \\(").length - 1);
+
+        //postgresql 参数较多时使用数组
+        IDialect pgDialect = new CommonsDialectImpl(KeywordWrap.DOUBLE_QUOTATION, LimitOffsetProcesser.POSTGRESQL, InListProcesser.POSTGRESQL);
+        String pgSql = pgDialect.forSelectListByQuery(queryWrapper);
+        System.out.println(pgSql);
+        Assert.assertTrue(pgSql.contains("\"id\" = ANY(?)"));
+        Assert.assertTrue(pgSql.contains("\"age\" NOT IN (?,?,?)"));
+
+        Object[] args = pgDialect.buildInConditionArgs(ids);
+        Assert.assertEquals(1, args.length);
+        Assert.assertEquals(3, pgDialect.buildInConditionArgs(new Object[]{1, 2, 3}).length);
+    }
+
+
     @Test
     public void testSelectLimitSql() {
         QueryWrapper queryWrapper = QueryWrapper.create()
@@ -0,0 +1,94 @@
+package com.mybatisflex.coretest;
+
+import com.mybatisflex.core.MybatisFlexBootstrap;
+import com.mybatisflex.core.row.Db;
+import com.mybatisflex.core.row.Row;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class BatchJdbcTester {
+
+    private static DataSource secondDataSource;
+    private static SqlSessionFactory secondSqlSessionFactory;
+
+    private MybatisFlexBootstrap bootstrap;
+
+    @BeforeClass
+    public static void beforeClass() {
+        secondSqlSessionFactory = H2TestSupport.startSecond();
+        secondDataSource = H2TestSupport.getSecondDataSource();
+    }
+
+    @Before
+    public void before() {
+        bootstrap = H2TestSupport.start();
+        H2TestSupport.resetAccounts(0);
+        H2TestSupport.execute(secondDataSource, "delete from tb_account");
+    }
+
+
+    @Test
+    public void testInsertBatch() {
+        List<Row> rows = new ArrayList<>();
+        for (long i = 1; i <= 5; i++) {
+            Row row = Row.of("id", i);
+            row.set("user_name", "name" + i);
+            rows.add(row);
+        }
+
+        //触发 flush 的数据也需要被插入
+        int[] results = Db.insertBatch("tb_account", rows, 2);
+        Assert.assertArrayEquals(new int[]{1, 1, 1, 1, 1}, results);
+        Assert.assertEquals(5, Db.selectCount("select count(*) from tb_account"));
+    }
+
+
+    @Test
+    public void testInsertBatchJdbc() {
+        AccountMapper mapper = bootstrap.getMapper(AccountMapper.class);
+        int[] results = mapper.insertBatchJdbc(newAccounts(5), 2);
+        Assert.assertArrayEquals(new int[]{1, 1, 1, 1, 1}, results);
+        Assert.assertEquals("name5", mapper.selectOneById(5L).getUserName());
+    }
+
+
+    @Test
+    public void testMapperEnvironment() {
+        //只在第二个环境中注册的 mapper，需要使用第二个环境的 SqlSessionFactory 执行
+        try (SqlSession sqlSession = secondSqlSessionFactory.openSession()) {
+            SecondAccountMapper mapper = sqlSession.getMapper(SecondAccountMapper.class);
+            Assert.assertArrayEquals(new int[]{1, 1, 1}, mapper.insertBatchJdbc(newAccounts(3), 2));
+
+            List<Account> accounts = newAccounts(2);
+            accounts.forEach(account -> account.setUserName("changed"));
+            Assert.assertArrayEquals(new int[]{1, 1}, mapper.updateBatchById(accounts, 10));
+        }
+
+        Assert.assertEquals(3, H2TestSupport.count(secondDataSource, "select count(*) from tb_account"));
+        Assert.assertEquals(2, H2TestSupport.count(secondDataSource, "select count(*) from tb_account where user_name = 'changed'"));
+        Assert.assertEquals(0, Db.selectCount("select count(*) from tb_account"));
+    }
+
+
+    private static List<Account> newAccounts(int count) {
+        List<Account> accounts = new ArrayList<>();
+        for (long i = 1; i <= count; i++) {
+            Account account = new Account();
+            account.setId(i);
+            account.setUserName("name" + i);
+            account.setSex(1);
+            account.setNormal(true);
+            accounts.add(account);
+        }
+        return accounts;
+    }
+}
@@ -0,0 +1,66 @@
+package com.mybatisflex.coretest;
+
+import com.mybatisflex.core.mybatis.ColumnResultHandler;
+import com.mybatisflex.core.query.QueryWrapper;
+import com.mybatisflex.core.row.Db;
+import org.apache.ibatis.executor.result.DefaultResultContext;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static com.mybatisflex.coretest.table.Tables.ACCOUNT;
+
+public class ColumnResultHandlerTester {
+
+    @Before
+    public void before() {
+        H2TestSupport.resetAccounts(5);
+        H2TestSupport.execute("update tb_account set age = null where id = 3");
+    }
+
+
+    @Test
+    public void testHandleResult() {
+        ColumnResultHandler.LongArray handler = new ColumnResultHandler.LongArray();
+        DefaultResultContext<Object> context = new DefaultResultContext<>();
+        for (int i = 0; i < 100; i++) {
+            context.nextResultObject(i % 10 == 0 ? null : i);
+            handler.handleResult(context);
+        }
+        long[] result = handler.getResult();
+        Assert.assertEquals(100, result.length);
+        Assert.assertEquals(0L, result[10]);
+        Assert.assertEquals(99L, result[99]);
+    }
+
+
+    @Test
+    public void testSelectArray() {
+        Assert.assertArrayEquals(new long[]{1, 2, 3, 4, 5}, Db.selectLongArray("select id from tb_account order by id"));
+        Assert.assertArrayEquals(new long[]{4, 5}, Db.selectLongArray("select id from tb_account where id > ? order by id", 3));
+
+        //数字类型的 null 读取为 0
+        Assert.assertArrayEquals(new int[]{18, 18, 0, 18, 18}, Db.selectIntArray("select age from tb_account order by id"));
+        Assert.assertArrayEquals(new double[]{1, 2}, Db.selectDoubleArray("select id from tb_account where id < 3 order by id"), 0);
+        Assert.assertEquals(0, Db.selectLongArray("select id from tb_account where id > 100").length);
+    }
+
+
+    @Test
+    public void testSelectByQuery() {
+        QueryWrapper queryWrapper = QueryWrapper.create()
+                .select(ACCOUNT.USER_NAME)
+                .from(ACCOUNT)
+                .where(ACCOUNT.ID.le(2))
+                .orderBy(ACCOUNT.ID.desc());
+        Assert.assertEquals(Arrays.asList("name2", "name1"), Db.selectStringListByQuery(queryWrapper));
+
+        QueryWrapper idQueryWrapper = QueryWrapper.create()
+                .select(ACCOUNT.ID)
+                .where(ACCOUNT.ID.ge(4))
+                .orderBy(ACCOUNT.ID.asc());
+        Assert.assertArrayEquals(new long[]{4, 5}, Db.selectLongArrayByQuery("tb_account", idQueryWrapper));
+    }
+}
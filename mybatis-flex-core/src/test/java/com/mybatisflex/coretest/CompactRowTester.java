@@ -0,0 +1,84 @@
+package com.mybatisflex.coretest;
+
+import com.mybatisflex.core.row.CompactRow;
+import com.mybatisflex.core.row.Row;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class CompactRowTester {
+
+    private static CompactRow newRow() {
+        CompactRow.Header header = new CompactRow.Header(Arrays.asList("id", "user_name", "id", "age"));
+        return new CompactRow(header, new Object[]{1L, "michael", 2L, CompactRow.absent()});
+    }
+
+
+    @Test
+    public void testHeader() {
+        CompactRow.Header header = new CompactRow.Header(Arrays.asList("id", "user_name", "id", "age"));
+        Assert.assertArrayEquals(new String[]{"id", "user_name", "id$1", "age"}, header.getColumns());
+    }
+
+
+    @Test
+    public void testReadAndModify() {
+        CompactRow row = newRow();
+        Assert.assertEquals(3, row.size());
+        Assert.assertEquals("michael", row.getString("user_name"));
+        Assert.assertEquals(Long.valueOf(2), row.getLong("id$1"));
+        Assert.assertFalse(row.containsKey("age"));
+        Assert.assertTrue(row.obtainModifyAttrs().isEmpty());
+
+        row.set("age", 18);
+        row.remove("id$1");
+        Assert.assertEquals(Arrays.asList("id", "user_name", "age"), new ArrayList<>(row.keySet()));
+        Assert.assertEquals(Arrays.asList("age"), new ArrayList<>(row.obtainModifyAttrs()));
+
+        //新的列，转换为普通的 Row
+        row.set("sex", 1);
+        Assert.assertEquals(Arrays.asList("id", "user_name", "age", "sex"), new ArrayList<>(row.keySet()));
+        Assert.assertEquals(Integer.valueOf(18), row.getInt("age"));
+
+        Row expected = Row.of("id", 1L).set("user_name", "michael").set("age", 18).set("sex", 1);
+        Assert.assertEquals(expected, row);
+    }
+
+
+    @Test
+    public void testClone() {
+        CompactRow row = newRow();
+        row.set("age", 18);
+
+        Row clone = (Row) row.clone();
+        Assert.assertEquals(row, clone);
+        Assert.assertEquals(Arrays.asList("age"), new ArrayList<>(clone.obtainModifyAttrs()));
+
+        //删除后添加新的列，被删除的列不能再出现
+        clone.remove("id");
+        clone.put("z", 3);
+        Assert.assertEquals(Arrays.asList("user_name", "id$1", "age", "z"), new ArrayList<>(clone.keySet()));
+        Assert.assertEquals(4, clone.size());
+
+        //修改 clone 不影响原来的 Row
+        clone.set("user_name", "other");
+        Assert.assertEquals("michael", row.getString("user_name"));
+        Assert.assertEquals(4, row.size());
+        Assert.assertEquals(Arrays.asList("age"), new ArrayList<>(row.obtainModifyAttrs()));
+    }
+
+
+    @Test
+    public void testCloneAfterInflate() {
+        CompactRow row = newRow();
+        row.put("sex", 1);
+
+        Row clone = (Row) row.clone();
+        clone.remove("id");
+        clone.put("z", 3);
+        Assert.assertFalse(clone.containsKey("id"));
+        Assert.assertEquals(Long.valueOf(1), row.getLong("id"));
+    }
+}
@@ -0,0 +1,187 @@
+package com.mybatisflex.coretest;
+
+import com.mybatisflex.core.FlexGlobalConfig;
+import com.mybatisflex.core.cache.TableVersions;
+import com.mybatisflex.core.cache.TransactionSynchronizer;
+import com.mybatisflex.core.datasource.DataSourceKey;
+import com.mybatisflex.core.dialect.DbType;
+import com.mybatisflex.core.dialect.DialectFactory;
+import com.mybatisflex.core.paginate.ConcurrentCounter;
+import com.mybatisflex.core.paginate.Page;
+import com.mybatisflex.core.query.QueryWrapper;
+import com.mybatisflex.core.tenant.TenantManager;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CompletableFuture;
+
+public class ConcurrentCounterTester {
+
+    @Test
+    public void testCallerThreadKeepsContext() {
+        FlexGlobalConfig config = FlexGlobalConfig.getDefaultConfig();
+        config.setPaginateExecutor(Runnable::run);
+        try {
+            DataSourceKey.use("ds2");
+            DialectFactory.setHintDbType(DbType.ORACLE);
+
+            Thread callerThread = Thread.currentThread();
+            CompletableFuture<Long> future = ConcurrentCounter.submit(newSqlSessionFactory(), sqlSession -> {
+                Assert.assertSame(callerThread, Thread.currentThread());
+                Assert.assertEquals("ds2", DataSourceKey.get());
+                Assert.assertEquals(DbType.ORACLE, DialectFactory.getHintDbType());
+                return 10L;
+            });
+            Assert.assertEquals(10L, ConcurrentCounter.join(future));
+
+            //在当前线程执行 count 查询后，数据源和方言不能被清除
+            Assert.assertEquals("ds2", DataSourceKey.get());
+            Assert.assertEquals(DbType.ORACLE, DialectFactory.getHintDbType());
+        } finally {
+            config.setPaginateExecutor(null);
+            DataSourceKey.clear();
+            DialectFactory.clearHintDbType();
+        }
+    }
+
+
+    @Test
+    public void testOtherThreadReceivesContext() throws Exception {
+        FlexGlobalConfig config = FlexGlobalConfig.getDefaultConfig();
+        Thread[] workers = new Thread[1];
+        config.setPaginateExecutor(command -> {
+            workers[0] = new Thread(command);
+            workers[0].start();
+        });
+        try {
+            DataSourceKey.use("ds2");
+            CompletableFuture<Long> future = ConcurrentCounter.submit(newSqlSessionFactory(), sqlSession -> {
+                Assert.assertNotNull(sqlSession);
+                return "ds2".equals(DataSourceKey.get()) ? 1L : 0L;
+            });
+            Assert.assertEquals(1L, ConcurrentCounter.join(future));
+            workers[0].join();
+            Assert.assertEquals("ds2", DataSourceKey.get());
+        } finally {
+            config.setPaginateExecutor(null);
+            DataSourceKey.clear();
+        }
+    }
+
+
+    @Test
+    public void testIgnoreTenantCondition() throws Exception {
+        FlexGlobalConfig config = FlexGlobalConfig.getDefaultConfig();
+        Thread[] workers = new Thread[1];
+        config.setPaginateExecutor(command -> {
+            workers[0] = new Thread(command);
+            workers[0].start();
+        });
+        try {
+            TenantManager.ignoreTenantCondition();
+            CompletableFuture<Long> future = ConcurrentCounter.submit(newSqlSessionFactory()
+                    , sqlSession -> TenantManager.isIgnoreTenantCondition() ? 1L : 0L);
+            Assert.assertEquals(1L, ConcurrentCounter.join(future));
+            workers[0].join();
+            Assert.assertTrue(TenantManager.isIgnoreTenantCondition());
+
+            //在当前线程执行时，count 查询之后恢复原来的标识
+            config.setPaginateExecutor(Runnable::run);
+            TenantManager.restoreTenantCondition();
+            future = ConcurrentCounter.submit(newSqlSessionFactory(), sqlSession -> TenantManager.isIgnoreTenantCondition() ? 1L : 0L);
+            Assert.assertEquals(0L, ConcurrentCounter.join(future));
+            Assert.assertFalse(TenantManager.isIgnoreTenantCondition());
+        } finally {
+            config.setPaginateExecutor(null);
+            TenantManager.restoreTenantCondition();
+        }
+    }
+
+
+    @Test
+    public void testTransactionActive() {
+        H2TestSupport.start();
+        FlexGlobalConfig config = FlexGlobalConfig.getDefaultConfig();
+        config.setPaginateConcurrentEnable(true);
+        boolean[] active = {false};
+        TableVersions.setTransactionSynchronizer(new TransactionSynchronizer() {
+            @Override
+            public boolean registerAfterCompletion(Runnable callback) {
+                return false;
+            }
+
+            @Override
+            public boolean isTransactionActive() {
+                return active[0];
+            }
+        });
+        try {
+            Assert.assertTrue(ConcurrentCounter.isEnable());
+
+            //在外部事务中时，count 查询需要使用事务的连接
+            active[0] = true;
+            Assert.assertFalse(ConcurrentCounter.isEnable());
+        } finally {
+            TableVersions.setTransactionSynchronizer(null);
+            config.setPaginateConcurrentEnable(false);
+        }
+    }
+
+
+    @Test
+    public void testPaginate() {
+        H2TestSupport.resetAccounts(3);
+        FlexGlobalConfig config = FlexGlobalConfig.getDefaultConfig();
+        config.setPaginateConcurrentEnable(true);
+        try {
+            AccountMapper mapper = H2TestSupport.start().getMapper(AccountMapper.class);
+            Page<Account> page = mapper.paginate(2, 2, QueryWrapper.create());
+            Assert.assertEquals(3, page.getTotalRow());
+            Assert.assertEquals(1, page.getRecords().size());
+
+            //超出总页数时返回空数据
+            page = mapper.paginate(3, 2, QueryWrapper.create());
+            Assert.assertEquals(3, page.getTotalRow());
+            Assert.assertTrue(page.getRecords().isEmpty());
+        } finally {
+            config.setPaginateConcurrentEnable(false);
+        }
+    }
+
+
+    @Test
+    public void testPaginateMapperEnvironment() {
+        SqlSessionFactory secondSqlSessionFactory = H2TestSupport.startSecond();
+        H2TestSupport.resetAccounts(0);
+        H2TestSupport.execute(H2TestSupport.getSecondDataSource(), "delete from tb_account");
+        for (int i = 1; i <= 3; i++) {
+            H2TestSupport.execute(H2TestSupport.getSecondDataSource()
+                    , "insert into tb_account(id, user_name, sex, is_normal, is_delete) values(" + i + ", 'name" + i + "', 1, true, false)");
+        }
+
+        FlexGlobalConfig config = FlexGlobalConfig.getDefaultConfig();
+        config.setPaginateConcurrentEnable(true);
+        try (SqlSession sqlSession = secondSqlSessionFactory.openSession()) {
+            Assert.assertTrue(ConcurrentCounter.isEnable());
+
+            //count 查询和数据查询使用同一个环境
+            Page<Account> page = sqlSession.getMapper(SecondAccountMapper.class).paginate(1, 2, QueryWrapper.create());
+            Assert.assertEquals(3, page.getTotalRow());
+            Assert.assertEquals(2, page.getRecords().size());
+        } finally {
+            config.setPaginateConcurrentEnable(false);
+            H2TestSupport.execute(H2TestSupport.getSecondDataSource(), "delete from tb_account");
+        }
+    }
+
+
+    private static SqlSessionFactory newSqlSessionFactory() {
+        SqlSession sqlSession = (SqlSession) Proxy.newProxyInstance(SqlSession.class.getClassLoader()
+                , new Class[]{SqlSession.class}, (proxy, method, args) -> null);
+        return (SqlSessionFactory) Proxy.newProxyInstance(SqlSessionFactory.class.getClassLoader()
+                , new Class[]{SqlSessionFactory.class}, (proxy, method, args) -> "openSession".equals(method.getName()) ? sqlSession : null);
+    }
+}
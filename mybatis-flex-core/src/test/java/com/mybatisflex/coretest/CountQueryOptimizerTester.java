@@ -0,0 +1,57 @@
+package com.mybatisflex.coretest;
+
+import com.mybatisflex.core.dialect.IDialect;
+import com.mybatisflex.core.dialect.impl.CommonsDialectImpl;
+import com.mybatisflex.core.query.QueryWrapper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import static com.mybatisflex.core.query.QueryMethods.count;
+import static com.mybatisflex.core.query.QueryMethods.distinct;
+import static com.mybatisflex.coretest.table.Tables.ACCOUNT;
+import static com.mybatisflex.coretest.table.Tables.ARTICLE;
+
+public class CountQueryOptimizerTester {
+
+    @Test
+    public void testSelectCountOptimizeSql() {
+        IDialect dialect = new CommonsDialectImpl();
+
+        //没有被 where 引用的 left join 会被移除，order by 会被忽略
+        QueryWrapper queryWrapper1 = QueryWrapper.create()
+                .select(ACCOUNT.ID, ACCOUNT.USER_NAME, ARTICLE.TITLE)
+                .from(ACCOUNT)
+                .leftJoin(ARTICLE).on(ACCOUNT.ID.eq(ARTICLE.ACCOUNT_ID))
+                .where(ACCOUNT.AGE.ge(18))
+                .orderBy(ACCOUNT.ID.desc());
+        String sql1 = dialect.forSelectCountByQuery(queryWrapper1);
+        Assert.assertEquals("SELECT COUNT(*) FROM `tb_account` WHERE `tb_account`.`age` >=  ? ", sql1);
+
+        //被 where 引用的 left join 需要保留
+        QueryWrapper queryWrapper2 = QueryWrapper.create()
+                .select()
+                .from(ACCOUNT)
+                .leftJoin(ARTICLE).on(ACCOUNT.ID.eq(ARTICLE.ACCOUNT_ID))
+                .where(ARTICLE.TITLE.like("mybatis"));
+        String sql2 = dialect.forSelectCountByQuery(queryWrapper2);
+        Assert.assertTrue(sql2.contains("LEFT JOIN"));
+
+        //group by 通过子查询统计分组的数量
+        QueryWrapper queryWrapper3 = QueryWrapper.create()
+                .select(ACCOUNT.AGE, count())
+                .from(ACCOUNT)
+                .where(ACCOUNT.ID.ge(100))
+                .groupBy(ACCOUNT.AGE)
+                .orderBy(ACCOUNT.AGE.desc())
+                .limit(10);
+        String sql3 = dialect.forSelectCountByQuery(queryWrapper3);
+        Assert.assertEquals("SELECT COUNT(*) FROM (SELECT `age` FROM `tb_account` WHERE `id` >=  ?  GROUP BY `age`) `t`", sql3);
+
+        //distinct
+        QueryWrapper queryWrapper4 = QueryWrapper.create()
+                .select(distinct(ACCOUNT.USER_NAME))
+                .from(ACCOUNT);
+        String sql4 = dialect.forSelectCountByQuery(queryWrapper4);
+        Assert.assertEquals("SELECT COUNT(*) FROM (SELECT  DISTINCT `user_name` FROM `tb_account`) `t`", sql4);
+    }
+}
@@ -0,0 +1,57 @@
+package com.mybatisflex.coretest;
+
+import com.mybatisflex.core.dialect.IDialect;
+import com.mybatisflex.core.dialect.impl.CommonsDialectImpl;
+import com.mybatisflex.core.paginate.CursorPage;
+import com.mybatisflex.core.paginate.CursorPaginator;
+import com.mybatisflex.core.query.QueryWrapper;
+import com.mybatisflex.core.table.TableInfo;
+import com.mybatisflex.core.table.TableInfoFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static com.mybatisflex.coretest.table.Tables.ACCOUNT;
+
+public class CursorPaginatorTester {
+
+    @Test
+    public void testCursorPaginate() {
+        IDialect dialect = new CommonsDialectImpl();
+        TableInfo tableInfo = TableInfoFactory.ofEntityClass(Account.class);
+
+        QueryWrapper queryWrapper = QueryWrapper.create()
+                .select()
+                .from(ACCOUNT)
+                .where(ACCOUNT.USER_NAME.like("michael"))
+                .or(ACCOUNT.SEX.eq(1))
+                .orderBy(ACCOUNT.AGE.desc());
+        String originalSql = dialect.forSelectListByQuery(queryWrapper);
+
+        List<String> sqls = new ArrayList<>();
+        Function<QueryWrapper, List<Account>> selectFunction = wrapper -> {
+            sqls.add(dialect.forSelectListByQuery(wrapper));
+            List<Account> accounts = new ArrayList<>();
+            for (int i = 1; i <= 3; i++) {
+                Account account = new Account();
+                account.setId((long) i);
+                account.setAge(20 - i);
+                accounts.add(account);
+            }
+            return accounts;
+        };
+
+        CursorPage<Account> page = CursorPaginator.paginate(null, 2, queryWrapper, tableInfo.getPrimaryKeys(), selectFunction, tableInfo::getColumnValue);
+        Assert.assertEquals(2, page.getRecords().size());
+        Assert.assertArrayEquals(new Object[]{18, 2L}, CursorPaginator.decodeCursor(page.getNextCursor()));
+
+        CursorPaginator.paginate(page.getNextCursor(), 2, queryWrapper, tableInfo.getPrimaryKeys(), selectFunction, tableInfo::getColumnValue);
+        Assert.assertEquals("SELECT * FROM `tb_account` WHERE (`user_name` LIKE  ?  OR `sex` =  ? ) AND (`age` <  ?  OR (`age` =  ?  AND `tb_account`.`id` <  ? )) ORDER BY `age` DESC, `tb_account`.`id` DESC LIMIT 3", sqls.get(1));
+
+        //执行后恢复原来的 queryWrapper
+        Assert.assertEquals(originalSql, dialect.forSelectListByQuery(queryWrapper));
+    }
+}
@@ -0,0 +1,170 @@
+package com.mybatisflex.coretest;
+
+import com.mybatisflex.core.MybatisFlexBootstrap;
+import com.mybatisflex.core.dialect.DialectFactory;
+import com.mybatisflex.core.mybatis.SqlSessionCursor;
+import com.mybatisflex.core.query.QueryWrapper;
+import com.mybatisflex.core.row.Db;
+import com.mybatisflex.core.row.Row;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.SqlSession;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.mybatisflex.coretest.table.Tables.ACCOUNT;
+
+public class CursorQueryTester {
+
+    private static final List<Integer> fetchSizes = Collections.synchronizedList(new ArrayList<>());
+
+    private static MybatisFlexBootstrap bootstrap;
+
+    @BeforeClass
+    public static void beforeClass() {
+        bootstrap = H2TestSupport.start();
+        bootstrap.getConfiguration().addInterceptor(new FetchSizeRecorder());
+    }
+
+    @Before
+    public void before() {
+        H2TestSupport.resetAccounts(5);
+        fetchSizes.clear();
+    }
+
+
+    @Test
+    public void testMapperCursor() throws Exception {
+        AccountMapper mapper = bootstrap.getMapper(AccountMapper.class);
+        QueryWrapper queryWrapper = QueryWrapper.create()
+                .where(ACCOUNT.ID.ge(2))
+                .orderBy(ACCOUNT.ID.asc());
+
+        List<Long> ids = new ArrayList<>();
+        try (Cursor<Account> cursor = mapper.selectCursorByQuery(queryWrapper)) {
+            //游标由 SqlSession 持有，调用 mapper 方法之后不能立即关闭 SqlSession
+            Assert.assertTrue(cursor instanceof SqlSessionCursor);
+            for (Account account : cursor) {
+                ids.add(account.getId());
+            }
+            Assert.assertFalse(cursor.isOpen());
+        }
+        Assert.assertEquals(Arrays.asList(2L, 3L, 4L, 5L), ids);
+
+        //没有配置 fetchSize 时使用方言的 fetchSize
+        Assert.assertEquals(Collections.singletonList(DialectFactory.getDialect().getCursorFetchSize()), fetchSizes);
+    }
+
+
+    @Test
+    public void testDbCursor() throws Exception {
+        List<Object> userNames = new ArrayList<>();
+        try (Cursor<Row> cursor = Db.selectCursorByQuery("tb_account", QueryWrapper.create()
+                .where(ACCOUNT.ID.le(3))
+                .orderBy(ACCOUNT.ID.asc()))) {
+            for (Row row : cursor) {
+                //h2 返回的列名为大写
+                userNames.add(row.get("user_name", row.get("USER_NAME")));
+            }
+        }
+        Assert.assertEquals(Arrays.asList("name1", "name2", "name3"), userNames);
+
+        int count = 0;
+        try (Cursor<Row> cursor = Db.selectCursorBySql("select * from tb_account where id > ?", 3)) {
+            for (Row ignored : cursor) {
+                count++;
+            }
+        }
+        Assert.assertEquals(2, count);
+    }
+
+
+    @Test
+    public void testCloseSession() throws Exception {
+        AtomicInteger closeCount = new AtomicInteger();
+        SqlSession sqlSession = (SqlSession) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{SqlSession.class}
+                , (proxy, method, args) -> {
+                    if ("close".equals(method.getName())) {
+                        closeCount.incrementAndGet();
+                    }
+                    return null;
+                });
+
+        //遍历完成时关闭 SqlSession
+        SqlSessionCursor<String> cursor = new SqlSessionCursor<>(new ListCursor<>(Arrays.asList("a", "b")), sqlSession);
+        List<String> values = new ArrayList<>();
+        cursor.forEach(values::add);
+        Assert.assertEquals(Arrays.asList("a", "b"), values);
+        Assert.assertEquals(1, closeCount.get());
+
+        //重复关闭时只关闭一次
+        cursor.close();
+        Assert.assertEquals(1, closeCount.get());
+
+        //未遍历时手动关闭
+        new SqlSessionCursor<>(new ListCursor<>(Collections.singletonList("c")), sqlSession).close();
+        Assert.assertEquals(2, closeCount.get());
+    }
+
+
+    /**
+     * 记录游标查询执行后 statement 的 fetchSize
+     */
+    @Intercepts(@Signature(type = StatementHandler.class, method = "queryCursor", args = Statement.class))
+    public static class FetchSizeRecorder implements Interceptor {
+
+        @Override
+        public Object intercept(Invocation invocation) throws Throwable {
+            Object result = invocation.proceed();
+            fetchSizes.add(((Statement) invocation.getArgs()[0]).getFetchSize());
+            return result;
+        }
+    }
+
+
+    private static class ListCursor<T> implements Cursor<T> {
+
+        private final List<T> list;
+        private boolean open = true;
+
+        private ListCursor(List<T> list) {
+            this.list = list;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public boolean isConsumed() {
+            return false;
+        }
+
+        @Override
+        public int getCurrentIndex() {
+            return -1;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return list.iterator();
+        }
+
+        @Override
+        public void close() {
+            open = false;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.mybatisflex.coretest;
+
+import com.mybatisflex.core.row.Row;
+import com.mybatisflex.core.table.TableAccessor;
+import com.mybatisflex.core.table.TableInfo;
+import com.mybatisflex.core.table.TableInfoFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EntityAccessorTester {
+
+    @Test
+    public void testEntityAccessor() {
+        TableInfo tableInfo = TableInfoFactory.ofEntityClass(Account.class);
+
+        Account account = new Account();
+        account.setId(1L);
+        account.setUserName("michael");
+        account.setSex(1);
+
+        //逻辑删除字段没有对应的 getter（isDelete -> getDelete），通过反射设置
+        tableInfo.initLogicDeleteValueIfNecessary(account);
+        Assert.assertEquals(Boolean.FALSE, account.getDelete());
+
+        String[] insertColumns = tableInfo.obtainInsertColumns(account, true);
+        Object[] insertArgs = tableInfo.buildInsertSqlArgs(account, true);
+        Assert.assertEquals(insertColumns.length, insertArgs.length);
+        Assert.assertArrayEquals(new Object[]{1L, "michael", 1, false, false}, insertArgs);
+
+        Assert.assertArrayEquals(new Object[]{1L}, tableInfo.buildPkSqlArgs(account));
+        Assert.assertEquals("michael", tableInfo.getColumnValue(account, "user_name"));
+    }
+
+
+    @Test
+    public void testTableAccessor() {
+        //AccountTableAccessor 由 QueryEntityProcessor 在编译期生成
+        TableInfo tableInfo = TableInfoFactory.ofEntityClass(Account.class);
+        Assert.assertTrue(tableInfo.getTableAccessor() instanceof AccountTableAccessor);
+
+        Object account = tableInfo.getEntityAccessor().newInstance();
+        Assert.assertTrue(account instanceof Account);
+
+        Row row = Row.of("id", 1L);
+        row.set("user_name", "michael");
+        row.set("sex", 1);
+        Account newAccount = tableInfo.newInstanceByRow(row, 0);
+        Assert.assertEquals(Long.valueOf(1L), newAccount.getId());
+        Assert.assertEquals("michael", newAccount.getUserName());
+        Assert.assertEquals(1, newAccount.getSex());
+    }
+
+
+    @Test
+    public void testStaleTableAccessor() {
+        //读写器与 entity 的属性类型不一致时忽略该读写器，使用反射
+        TableInfo tableInfo = TableInfoFactory.ofEntityClass(StaleEntity.class);
+        Assert.assertNull(tableInfo.getTableAccessor());
+
+        Row row = Row.of("id", 1L);
+        row.set("name", "michael");
+        StaleEntity entity = tableInfo.newInstanceByRow(row, 0);
+        Assert.assertEquals(Long.valueOf(1L), entity.getId());
+        Assert.assertEquals("michael", entity.getName());
+        Assert.assertEquals("michael", tableInfo.getColumnValue(entity, "name"));
+    }
+
+
+    public static class StaleEntity {
+
+        private Long id;
+        private String name;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+
+    /**
+     * 模拟 entity 修改之后没有重新生成的读写器，name 原来是 Integer 类型
+     */
+    public static class StaleEntityTableAccessor implements TableAccessor<StaleEntity> {
+
+        @Override
+        public String[] getProperties() {
+            return new String[]{"id", "name"};
+        }
+
+        @Override
+        public Class<?>[] getPropertyTypes() {
+            return new Class<?>[]{Long.class, Integer.class};
+        }
+
+        @Override
+        public Object get(StaleEntity entity, int index) {
+            return index == 0 ? entity.getId() : Integer.valueOf(entity.getName());
+        }
+
+        @Override
+        public void set(StaleEntity entity, int index, Object value) {
+            if (index == 0) {
+                entity.setId((Long) value);
+            } else {
+                entity.setName(String.valueOf(value));
+            }
+        }
+
+        @Override
+        public StaleEntity newInstance() {
+            return new StaleEntity();
+        }
+    }
+}
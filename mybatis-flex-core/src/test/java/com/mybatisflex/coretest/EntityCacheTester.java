@@ -0,0 +1,186 @@
+package com.mybatisflex.coretest;
+
+import com.mybatisflex.core.FlexConsts;
+import com.mybatisflex.core.FlexGlobalConfig;
+import com.mybatisflex.core.MybatisFlexBootstrap;
+import com.mybatisflex.core.cache.EntityCache;
+import com.mybatisflex.core.cache.EntityCacheConfig;
+import com.mybatisflex.core.cache.TableVersions;
+import com.mybatisflex.core.table.TableInfoFactory;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.junit.*;
+
+import java.sql.Statement;
+import java.util.*;
+
+public class EntityCacheTester {
+
+    private static final List<Object> queriedIds = Collections.synchronizedList(new ArrayList<>());
+
+    private static MybatisFlexBootstrap bootstrap;
+
+    @BeforeClass
+    public static void beforeClass() {
+        bootstrap = H2TestSupport.start();
+        bootstrap.getConfiguration().addInterceptor(new PrimaryValueRecorder());
+    }
+
+    @Before
+    public void before() {
+        FlexGlobalConfig.getDefaultConfig().registerEntityCacheConfig(new EntityCacheConfig(16, 60 * 1000L), Account.class);
+        H2TestSupport.resetAccounts(3);
+        queriedIds.clear();
+    }
+
+    @After
+    public void after() {
+        EntityCache.clear();
+        FlexGlobalConfig.getDefaultConfig().getEntityCacheConfigs().remove(Account.class);
+    }
+
+
+    @Test
+    public void testRegion() {
+        EntityCache.Region region = EntityCache.getRegion(TableInfoFactory.ofEntityClass(Account.class));
+        Assert.assertNotNull(region);
+        Assert.assertSame(region, EntityCache.getRegion(TableInfoFactory.ofEntityClass(Account.class)));
+
+        Account account = new Account();
+        account.setId(1L);
+        Assert.assertEquals(1L, region.getId(account));
+
+        //传入的主键类型和 entity 中的不同时，也能命中缓存
+        region.put(region.createKey(1L), account, region.getVersion(), TableVersions.getGlobalVersion());
+        Assert.assertEquals(Long.valueOf(1L), ((Account) region.get(region.createKey(1))).getId());
+
+        //超出数量时淘汰最久未使用的
+        FlexGlobalConfig.getDefaultConfig().registerEntityCacheConfig(new EntityCacheConfig(2, 60 * 1000L), Account.class);
+        region = EntityCache.getRegion(TableInfoFactory.ofEntityClass(Account.class));
+        region.put(region.createKey(1L), account, region.getVersion(), TableVersions.getGlobalVersion());
+        region.put(region.createKey(2L), new Account(), region.getVersion(), TableVersions.getGlobalVersion());
+        region.put(region.createKey(3L), new Account(), region.getVersion(), TableVersions.getGlobalVersion());
+        Assert.assertEquals(2, region.size());
+        Assert.assertNull(region.get(region.createKey(1L)));
+
+        //表被修改后，缓存失效
+        TableVersions.increment("tb_account");
+        Assert.assertNull(region.get(region.createKey(3L)));
+
+        //查询期间表被修改过时，不缓存
+        long version = region.getVersion();
+        TableVersions.increment("tb_account");
+        region.put(region.createKey(4L), new Account(), version, TableVersions.getGlobalVersion());
+        Assert.assertNull(region.get(region.createKey(4L)));
+    }
+
+
+    @Test
+    public void testEnable() {
+        Assert.assertTrue(EntityCache.isEnable());
+        FlexGlobalConfig.getDefaultConfig().getEntityCacheConfigs().remove(Account.class);
+        Assert.assertEquals(TableInfoFactory.isEntityCacheConfigured(), EntityCache.isEnable());
+    }
+
+
+    @Test
+    public void testCopyEntity() {
+        AccountMapper mapper = bootstrap.getMapper(AccountMapper.class);
+        Account account = mapper.selectOneById(1L);
+        account.setUserName("changed");
+
+        Account cached = mapper.selectOneById(1L);
+        Assert.assertEquals("name1", cached.getUserName());
+        Assert.assertNotSame(account, cached);
+        Assert.assertEquals(Collections.singletonList(1L), queriedIds);
+    }
+
+
+    @Test
+    public void testQueryMissingIds() {
+        AccountMapper mapper = bootstrap.getMapper(AccountMapper.class);
+        mapper.selectOneById(2L);
+        queriedIds.clear();
+
+        //只查询缓存中不存在的主键，返回的数据按照传入的主键顺序排列
+        List<Account> accounts = mapper.selectListByIds(Arrays.asList(3L, 2L, 1L));
+        Assert.assertEquals(Arrays.asList(3L, 2L, 1L), getIds(accounts));
+        Assert.assertEquals(Collections.singletonList(Arrays.asList(3L, 1L)), queriedIds);
+
+        queriedIds.clear();
+        accounts = mapper.selectListByIds(Arrays.asList(1L, 3L, 2L));
+        Assert.assertEquals(Arrays.asList(1L, 3L, 2L), getIds(accounts));
+        Assert.assertTrue(queriedIds.isEmpty());
+    }
+
+
+    @Test
+    public void testLocalCacheKey() {
+        for (ExecutorType executorType : ExecutorType.values()) {
+            EntityCache.clear();
+            try (SqlSession sqlSession = bootstrap.getSqlSessionFactory().openSession(executorType)) {
+                AccountMapper mapper = sqlSession.getMapper(AccountMapper.class);
+                mapper.selectOneById(1L);
+                Assert.assertEquals(executorType.name(), 2, mapper.selectListByIds(Arrays.asList(1L, 2L)).size());
+
+                //只查询了主键 2，一级缓存不能使用 [1, 2] 的 key 保存只包含主键 2 的结果
+                EntityCache.clear();
+                Assert.assertEquals(executorType.name(), Arrays.asList(1L, 2L), getIds(mapper.selectListByIds(Arrays.asList(1L, 2L))));
+            }
+        }
+    }
+
+
+    @Test
+    public void testWriteInSession() {
+        AccountMapper mapper = bootstrap.getMapper(AccountMapper.class);
+        mapper.selectOneById(1L);
+
+        try (SqlSession sqlSession = bootstrap.getSqlSessionFactory().openSession()) {
+            AccountMapper sessionMapper = sqlSession.getMapper(AccountMapper.class);
+            Account update = new Account();
+            update.setId(1L);
+            update.setUserName("michael");
+            sessionMapper.update(update);
+
+            //修改过的表在提交之前不读取和写入缓存
+            queriedIds.clear();
+            Assert.assertEquals("michael", sessionMapper.selectOneById(1L).getUserName());
+            Assert.assertEquals(Collections.singletonList(1L), queriedIds);
+            sqlSession.rollback();
+        }
+
+        Assert.assertEquals("name1", mapper.selectOneById(1L).getUserName());
+    }
+
+
+    private static List<Long> getIds(List<Account> accounts) {
+        List<Long> ids = new ArrayList<>();
+        for (Account account : accounts) {
+            ids.add(account.getId());
+        }
+        return ids;
+    }
+
+
+    /**
+     * 记录实际执行的 sql 中的主键参数
+     */
+    @Intercepts(@Signature(type = StatementHandler.class, method = "parameterize", args = Statement.class))
+    public static class PrimaryValueRecorder implements Interceptor {
+
+        @Override
+        public Object intercept(Invocation invocation) throws Throwable {
+            Object parameter = ((StatementHandler) invocation.getTarget()).getBoundSql().getParameterObject();
+            if (parameter instanceof Map && ((Map<?, ?>) parameter).containsKey(FlexConsts.PRIMARY_VALUE)) {
+                queriedIds.add(((Map<?, ?>) parameter).get(FlexConsts.PRIMARY_VALUE));
+            }
+            return invocation.proceed();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.mybatisflex.coretest;
+
+import com.mybatisflex.core.FlexGlobalConfig;
+import com.mybatisflex.core.dialect.impl.CommonsDialectImpl;
+import com.mybatisflex.core.table.TableInfo;
+import com.mybatisflex.core.table.TableInfoFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class EntitySqlCacheTester {
+
+    @Test
+    public void testColumnsShape() {
+        TableInfo tableInfo = TableInfoFactory.ofEntityClass(Account.class);
+        CommonsDialectImpl dialect = new CommonsDialectImpl();
+        AtomicInteger buildCount = new AtomicInteger();
+
+        String sql1 = tableInfo.obtainSql(dialect, "test", Arrays.asList("user_name", "age"), () -> "sql" + buildCount.incrementAndGet());
+        //字段相同、顺序不同时使用同一个缓存
+        String sql2 = tableInfo.obtainSql(dialect, "test", Arrays.asList("age", "user_name"), () -> "sql" + buildCount.incrementAndGet());
+        Assert.assertEquals("sql1", sql1);
+        Assert.assertEquals(sql1, sql2);
+
+        //字段不同、sql 类型不同以及方言不同时，重新构建
+        Assert.assertEquals("sql2", tableInfo.obtainSql(dialect, "test", Arrays.asList("user_name"), () -> "sql" + buildCount.incrementAndGet()));
+        Assert.assertEquals("sql3", tableInfo.obtainSql(dialect, "other", Arrays.asList("user_name"), () -> "sql" + buildCount.incrementAndGet()));
+        Assert.assertEquals("sql4", tableInfo.obtainSql(new CommonsDialectImpl(), "test", Arrays.asList("user_name"), () -> "sql" + buildCount.incrementAndGet()));
+
+        //未知的字段不缓存
+        Assert.assertEquals("sql5", tableInfo.obtainSql(dialect, "test", Arrays.asList("unknown"), () -> "sql" + buildCount.incrementAndGet()));
+        Assert.assertEquals("sql6", tableInfo.obtainSql(dialect, "test", Arrays.asList("unknown"), () -> "sql" + buildCount.incrementAndGet()));
+    }
+
+
+    @Test
+    public void testUpdateSql() {
+        TableInfo tableInfo = TableInfoFactory.ofEntityClass(Article.class);
+        CommonsDialectImpl dialect = new CommonsDialectImpl();
+
+        Article article1 = new Article();
+        article1.setId(1L);
+        article1.setTitle("title");
+        article1.setVersion(5L);
+
+        Article article2 = new Article();
+        article2.setId(2L);
+        article2.setTitle("other title");
+        article2.setVersion(6L);
+
+        //乐观锁的版本号通过参数传入，版本号不同时 sql 相同
+        String sql = dialect.forUpdateEntity(tableInfo, article1, true);
+        Assert.assertSame(sql, dialect.forUpdateEntity(tableInfo, article2, true));
+        Assert.assertTrue(sql.endsWith("`version` = ?"));
+        Assert.assertFalse(sql.contains("5"));
+
+        Article article3 = new Article();
+        article3.setId(3L);
+        article3.setContent("content");
+        article3.setVersion(5L);
+        String contentSql = dialect.forUpdateEntity(tableInfo, article3, true);
+        Assert.assertNotEquals(sql, contentSql);
+        Assert.assertTrue(contentSql.contains("`content` = ?"));
+        Assert.assertFalse(contentSql.contains("`title`"));
+    }
+
+
+    @Test
+    public void testLogicDeleteValue() {
+        TableInfo tableInfo = TableInfoFactory.ofEntityClass(Account.class);
+        CommonsDialectImpl dialect = new CommonsDialectImpl();
+        FlexGlobalConfig config = FlexGlobalConfig.getDefaultConfig();
+
+        String sql = dialect.forDeleteEntityById(tableInfo);
+        Assert.assertSame(sql, dialect.forDeleteEntityById(tableInfo));
+
+        //修改逻辑删除的值之后，不能使用之前缓存的 sql
+        Object deletedValue = config.getDeletedValueOfLogicDelete();
+        config.setDeletedValueOfLogicDelete(9);
+        try {
+            String changedSql = dialect.forDeleteEntityById(tableInfo);
+            Assert.assertNotEquals(sql, changedSql);
+            Assert.assertTrue(changedSql.contains("`is_delete` = 9"));
+        } finally {
+            config.setDeletedValueOfLogicDelete(deletedValue);
+        }
+        Assert.assertEquals(sql, dialect.forDeleteEntityById(tableInfo));
+    }
+}
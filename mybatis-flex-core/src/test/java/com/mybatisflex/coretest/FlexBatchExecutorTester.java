@@ -0,0 +1,134 @@
+package com.mybatisflex.coretest;
+
+import com.mybatisflex.core.FlexGlobalConfig;
+import com.mybatisflex.core.MybatisFlexBootstrap;
+import com.mybatisflex.core.exception.MybatisFlexException;
+import com.mybatisflex.core.mybatis.executor.FlexBatchResult;
+import com.mybatisflex.core.row.Db;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class FlexBatchExecutorTester {
+
+    private MybatisFlexBootstrap bootstrap;
+
+    @Before
+    public void before() {
+        bootstrap = H2TestSupport.start();
+        H2TestSupport.resetAccounts(3);
+    }
+
+    @After
+    public void after() {
+        FlexGlobalConfig.getDefaultConfig().setBatchMaxOpenStatements(1);
+    }
+
+
+    @Test
+    public void testDefaultMaxOpenStatements() {
+        Assert.assertEquals(1, FlexGlobalConfig.getDefaultConfig().getBatchMaxOpenStatements());
+
+        //与 mybatis 原生的 BatchExecutor 一致，sql 变化时执行之前的 Statement，执行顺序与调用顺序一致
+        List<BatchResult> results = executeAlternately();
+        Assert.assertEquals(3, results.size());
+        Assert.assertArrayEquals(new int[]{0}, sequences(results.get(0)));
+        Assert.assertArrayEquals(new int[]{1}, sequences(results.get(1)));
+        Assert.assertArrayEquals(new int[]{2}, sequences(results.get(2)));
+        Assert.assertEquals("name1", bootstrap.getMapper(AccountMapper.class).selectOneById(1L).getUserName());
+    }
+
+
+    @Test
+    public void testMultipleOpenStatements() {
+        FlexGlobalConfig.getDefaultConfig().setBatchMaxOpenStatements(2);
+
+        //相同的 sql 在同一个 Statement 中累积，按照 Statement 第一次使用的顺序执行
+        List<BatchResult> results = executeAlternately();
+        Assert.assertEquals(2, results.size());
+        Assert.assertTrue(results.get(0).getSql().startsWith("UPDATE"));
+        Assert.assertArrayEquals(new int[]{0, 2}, sequences(results.get(0)));
+        Assert.assertArrayEquals(new int[]{1}, sequences(results.get(1)));
+        Assert.assertArrayEquals(new int[]{1, 1}, results.get(0).getUpdateCounts());
+    }
+
+
+    @Test
+    public void testExecuteBatchResults() {
+        Account account1 = newAccount(1L, "michael");
+        Account account2 = newAccount(100L, "none");
+        Account account3 = newAccount(3L, "jack");
+
+        int[] results = Db.executeBatch(AccountMapper.class, Arrays.asList(account1, account2, account3), 2, AccountMapper::update);
+        Assert.assertArrayEquals(new int[]{1, 0, 1}, results);
+        Assert.assertEquals("jack", bootstrap.getMapper(AccountMapper.class).selectOneById(3L).getUserName());
+    }
+
+
+    @Test
+    public void testExecuteBatchResultsInMultipleStatements() {
+        FlexGlobalConfig.getDefaultConfig().setBatchMaxOpenStatements(2);
+
+        //交替执行两种 sql 时，通过执行序号还原每条数据的影响行数
+        int[] results = Db.executeBatch(AccountMapper.class, Arrays.asList(1L, 100L, 2L, 200L), 4, (mapper, id) -> {
+            if (id < 100) {
+                mapper.update(newAccount(id, "michael"));
+            } else {
+                mapper.deleteById(id);
+            }
+        });
+        Assert.assertArrayEquals(new int[]{1, 0, 1, 0}, results);
+    }
+
+
+    @Test
+    public void testExecuteMultipleSqlForOneData() {
+        try {
+            Db.executeBatch(AccountMapper.class, Arrays.asList(1L, 2L), 2, (mapper, id) -> {
+                mapper.update(newAccount(id, "michael"));
+                mapper.deleteById(id + 100);
+            });
+            Assert.fail();
+        } catch (MybatisFlexException e) {
+            Assert.assertTrue(e.getMessage().contains("4 sql were executed for 2 data"));
+        }
+    }
+
+
+    /**
+     * 交替执行 update(1)、deleteById(100)、update(2)
+     */
+    private List<BatchResult> executeAlternately() {
+        try (SqlSession sqlSession = bootstrap.getSqlSessionFactory().openSession(ExecutorType.BATCH)) {
+            AccountMapper mapper = sqlSession.getMapper(AccountMapper.class);
+            mapper.update(newAccount(1L, "michael"));
+            mapper.deleteById(100L);
+            mapper.update(newAccount(2L, "jack"));
+            List<BatchResult> results = sqlSession.flushStatements();
+            sqlSession.rollback();
+            return results;
+        }
+    }
+
+
+    private static int[] sequences(BatchResult batchResult) {
+        return ((FlexBatchResult) batchResult).getSequences();
+    }
+
+
+    private static Account newAccount(Long id, String userName) {
+        Account account = new Account();
+        account.setId(id);
+        account.setUserName(userName);
+        account.setSex(1);
+        account.setNormal(true);
+        return account;
+    }
+}
@@ -0,0 +1,207 @@
+package com.mybatisflex.coretest;
+
+import com.mybatisflex.core.FlexGlobalConfig;
+import com.mybatisflex.core.MybatisFlexBootstrap;
+import com.mybatisflex.core.query.QueryWrapper;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
+import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static com.mybatisflex.coretest.table.Tables.ACCOUNT;
+import static com.mybatisflex.coretest.table.Tables.ARTICLE;
+
+public class FlexResultSetHandlerTester {
+
+    private static volatile boolean singleResultSet = false;
+
+    private MybatisFlexBootstrap bootstrap;
+    private AccountMapper mapper;
+
+    @BeforeClass
+    public static void beforeClass() {
+        H2TestSupport.start().getConfiguration().addInterceptor(new SingleResultSetInterceptor());
+    }
+
+    @Before
+    public void before() {
+        bootstrap = H2TestSupport.start();
+        H2TestSupport.resetAccounts(3);
+        H2TestSupport.execute("update tb_account set user_name = null, age = null where id = 3");
+        mapper = bootstrap.getMapper(AccountMapper.class);
+    }
+
+    @After
+    public void after() {
+        FlexGlobalConfig.getDefaultConfig().setFastResultMappingEnable(false);
+    }
+
+
+    @Test
+    public void testSelect() {
+        List<Account> accounts = compare(() -> mapper.selectListByQuery(QueryWrapper.create().orderBy(ACCOUNT.ID.asc())));
+        Assert.assertEquals(3, accounts.size());
+        Assert.assertEquals("name1", accounts.get(0).getUserName());
+        Assert.assertEquals(Integer.valueOf(18), accounts.get(0).getAge());
+        Assert.assertNull(accounts.get(2).getUserName());
+    }
+
+
+    @Test
+    public void testAllNullColumns() {
+        //与 mybatis 一致，所有列都为 null 时返回 null
+        List<Account> accounts = compare(() -> mapper.selectListByQuery(QueryWrapper.create()
+                .select(ACCOUNT.USER_NAME, ACCOUNT.AGE).where(ACCOUNT.ID.ge(2)).orderBy(ACCOUNT.ID.asc())));
+        Assert.assertEquals(2, accounts.size());
+        Assert.assertEquals("name2", accounts.get(0).getUserName());
+        Assert.assertNull(accounts.get(1));
+
+        Configuration configuration = bootstrap.getConfiguration();
+        configuration.setReturnInstanceForEmptyRow(true);
+        try {
+            accounts = compare(() -> mapper.selectListByQuery(QueryWrapper.create()
+                    .select(ACCOUNT.USER_NAME, ACCOUNT.AGE).where(ACCOUNT.ID.eq(3))));
+            Assert.assertNotNull(accounts.get(0));
+        } finally {
+            configuration.setReturnInstanceForEmptyRow(false);
+        }
+    }
+
+
+    @Test
+    public void testCallSettersOnNulls() {
+        Configuration configuration = bootstrap.getConfiguration();
+        ObjectFactory objectFactory = configuration.getObjectFactory();
+        //通过 ObjectFactory 为 userName 设置默认值，用于判断是否调用了 setter
+        configuration.setObjectFactory(new DefaultObjectFactory() {
+            @Override
+            public <T> T create(Class<T> type) {
+                T object = super.create(type);
+                if (object instanceof Account) {
+                    ((Account) object).setUserName("default");
+                }
+                return object;
+            }
+        });
+        try {
+            QueryWrapper queryWrapper = QueryWrapper.create().select(ACCOUNT.ID, ACCOUNT.USER_NAME).where(ACCOUNT.ID.eq(3));
+            Assert.assertEquals("default", compare(() -> mapper.selectListByQuery(queryWrapper)).get(0).getUserName());
+
+            configuration.setCallSettersOnNulls(true);
+            Assert.assertNull(compare(() -> mapper.selectListByQuery(queryWrapper)).get(0).getUserName());
+        } finally {
+            configuration.setCallSettersOnNulls(false);
+            configuration.setObjectFactory(objectFactory);
+        }
+    }
+
+
+    @Test
+    public void testMappedPropertyColumn() {
+        //userName 已经在 ResultMap 中配置，mybatis 不会自动映射
+        List<Account> accounts = compare(() -> mapper.selectListByQuery(QueryWrapper.create()
+                .select(ACCOUNT.ID, ACCOUNT.USER_NAME.as("userName"), ACCOUNT.AGE).where(ACCOUNT.ID.le(2)).orderBy(ACCOUNT.ID.asc())));
+        Assert.assertEquals(2, accounts.size());
+        Assert.assertNull(accounts.get(0).getUserName());
+        Assert.assertEquals(Integer.valueOf(18), accounts.get(1).getAge());
+    }
+
+
+    @Test
+    public void testAutoMappingColumn() {
+        H2TestSupport.execute("delete from tb_article");
+        H2TestSupport.execute("insert into tb_article(id, account_id, title, is_delete) values(1, 1, 'title1', false)");
+
+        //account.userName 需要 mybatis 的自动映射，交给 mybatis 处理，此时 getResultSet 只能调用一次
+        FlexGlobalConfig.getDefaultConfig().setFastResultMappingEnable(true);
+        ArticleMapper articleMapper = bootstrap.getMapper(ArticleMapper.class);
+        List<Article> articles;
+        singleResultSet = true;
+        try {
+            articles = articleMapper.selectListByQuery(QueryWrapper.create()
+                    .select(ARTICLE.ID, ARTICLE.TITLE, ACCOUNT.USER_NAME.as("account.userName"))
+                    .from(ARTICLE)
+                    .leftJoin(ACCOUNT).on(ACCOUNT.ID.eq(ARTICLE.ACCOUNT_ID)));
+        } finally {
+            singleResultSet = false;
+        }
+        Assert.assertEquals(1, articles.size());
+        Assert.assertEquals("title1", articles.get(0).getTitle());
+        Assert.assertEquals("name1", articles.get(0).getAccount().getUserName());
+    }
+
+
+    /**
+     * 分别通过 mybatis 默认的映射和 FlexResultSetHandler 的映射执行查询，两者的结果需要一致
+     */
+    private List<Account> compare(Supplier<List<Account>> query) {
+        FlexGlobalConfig.getDefaultConfig().setFastResultMappingEnable(false);
+        List<Account> expected = query.get();
+
+        FlexGlobalConfig.getDefaultConfig().setFastResultMappingEnable(true);
+        List<Account> actual = query.get();
+
+        Assert.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(describe(expected.get(i)), describe(actual.get(i)));
+        }
+        return actual;
+    }
+
+
+    /**
+     * 模拟部分 jdbc 驱动的行为：同一个结果第二次调用 getResultSet 时返回 null
+     */
+    @Intercepts(@Signature(type = StatementHandler.class, method = "query", args = {Statement.class, ResultHandler.class}))
+    public static class SingleResultSetInterceptor implements Interceptor {
+
+        @Override
+        public Object intercept(Invocation invocation) throws Throwable {
+            if (!singleResultSet) {
+                return invocation.proceed();
+            }
+            Statement stmt = (Statement) invocation.getArgs()[0];
+            boolean[] fetched = {false};
+            Object proxy = Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{PreparedStatement.class}, (p, method, args) -> {
+                if ("getResultSet".equals(method.getName())) {
+                    if (fetched[0]) {
+                        return null;
+                    }
+                    fetched[0] = true;
+                }
+                try {
+                    return method.invoke(stmt, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+            });
+            return ((StatementHandler) invocation.getTarget()).query((Statement) proxy, (ResultHandler<?>) invocation.getArgs()[1]);
+        }
+    }
+
+
+    private static String describe(Account account) {
+        if (account == null) {
+            return null;
+        }
+        return account.getId() + "," + account.getUserName() + "," + account.getBirthday() + "," + account.getSex()
+                + "," + account.getAge() + "," + account.isNormal() + "," + account.getDelete();
+    }
+}
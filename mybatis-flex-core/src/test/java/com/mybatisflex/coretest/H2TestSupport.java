@@ -0,0 +1,110 @@
+package com.mybatisflex.coretest;
+
+import com.mybatisflex.core.MybatisFlexBootstrap;
+import com.mybatisflex.core.cache.TableVersions;
+import com.mybatisflex.core.datasource.FlexDataSource;
+import com.mybatisflex.core.mybatis.FlexConfiguration;
+import com.mybatisflex.core.mybatis.FlexSqlSessionFactoryBuilder;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.h2.jdbcx.JdbcDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 基于 H2 内存数据库的测试环境，所有的测试共享同一个 MybatisFlexBootstrap
+ */
+public class H2TestSupport {
+
+    private static JdbcDataSource dataSource;
+
+    private static JdbcDataSource secondDataSource;
+    private static SqlSessionFactory secondSqlSessionFactory;
+
+    public static synchronized MybatisFlexBootstrap start() {
+        if (dataSource == null) {
+            dataSource = new JdbcDataSource();
+            dataSource.setURL("jdbc:h2:mem:flex_core_test;DB_CLOSE_DELAY=-1;MODE=MySQL");
+            execute("create table tb_account(id bigint primary key auto_increment, user_name varchar(100), birthday timestamp"
+                    + ", sex int, age int, is_normal boolean, is_delete boolean)");
+            execute("create table tb_article(id bigint primary key auto_increment, uuid varchar(50), account_id bigint, title varchar(100)"
+                    + ", content text, created timestamp, modified timestamp, is_delete boolean, version bigint)");
+            MybatisFlexBootstrap.getInstance()
+                    .setDataSource(dataSource)
+                    .addMapper(AccountMapper.class)
+                    .addMapper(ArticleMapper.class)
+                    .start();
+        }
+        return MybatisFlexBootstrap.getInstance();
+    }
+
+
+    /**
+     * 重置 tb_account 的数据为 id 1 到 count，user_name 为 "name" + id
+     */
+    public static void resetAccounts(int count) {
+        start();
+        execute("delete from tb_account");
+        for (int i = 1; i <= count; i++) {
+            execute("insert into tb_account(id, user_name, sex, age, is_normal, is_delete) values(" + i + ", 'name" + i + "', 1, 18, true, false)");
+        }
+        //直接通过 jdbc 修改的数据，需要手动使缓存失效
+        TableVersions.incrementAll();
+    }
+
+
+    /**
+     * 第二个环境（second），使用另外一个 H2 数据库，只注册了 SecondAccountMapper
+     */
+    public static synchronized SqlSessionFactory startSecond() {
+        start();
+        if (secondSqlSessionFactory == null) {
+            secondDataSource = new JdbcDataSource();
+            secondDataSource.setURL("jdbc:h2:mem:flex_core_test_second;DB_CLOSE_DELAY=-1;MODE=MySQL");
+            execute(secondDataSource, "create table tb_account(id bigint primary key auto_increment, user_name varchar(100), birthday timestamp"
+                    + ", sex int, age int, is_normal boolean, is_delete boolean)");
+
+            FlexConfiguration configuration = new FlexConfiguration(new Environment("second", new JdbcTransactionFactory()
+                    , new FlexDataSource("second", secondDataSource)));
+            secondSqlSessionFactory = new FlexSqlSessionFactoryBuilder().build(configuration);
+            configuration.addMapper(SecondAccountMapper.class);
+        }
+        return secondSqlSessionFactory;
+    }
+
+
+    public static DataSource getSecondDataSource() {
+        startSecond();
+        return secondDataSource;
+    }
+
+
+    public static void execute(String sql) {
+        execute(dataSource, sql);
+    }
+
+
+    public static void execute(DataSource dataSource, String sql) {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+
+    public static long count(DataSource dataSource, String sql) {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()
+             ; ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
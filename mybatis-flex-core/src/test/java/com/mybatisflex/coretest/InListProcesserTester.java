@@ -0,0 +1,110 @@
+package com.mybatisflex.coretest;
+
+import com.mybatisflex.core.FlexGlobalConfig;
+import com.mybatisflex.core.dialect.DbType;
+import com.mybatisflex.core.dialect.DialectFactory;
+import com.mybatisflex.core.dialect.IDialect;
+import com.mybatisflex.core.dialect.InListProcesser;
+import com.mybatisflex.core.dialect.KeywordWrap;
+import com.mybatisflex.core.dialect.LimitOffsetProcesser;
+import com.mybatisflex.core.dialect.impl.CommonsDialectImpl;
+import com.mybatisflex.core.exception.MybatisFlexException;
+import com.mybatisflex.core.mybatis.TypeHandlerObject;
+import com.mybatisflex.core.query.CPI;
+import com.mybatisflex.core.query.QueryWrapper;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.mybatisflex.core.query.QueryMethods.exists;
+import static com.mybatisflex.coretest.table.Tables.ACCOUNT;
+import static com.mybatisflex.coretest.table.Tables.ARTICLE;
+
+public class InListProcesserTester {
+
+    private final IDialect pgDialect = new CommonsDialectImpl(KeywordWrap.DOUBLE_QUOTATION, LimitOffsetProcesser.POSTGRESQL, InListProcesser.POSTGRESQL);
+
+
+    @Before
+    public void before() {
+        DialectFactory.setHintDbType(DbType.MYSQL);
+    }
+
+
+    @After
+    public void after() {
+        DialectFactory.clearHintDbType();
+    }
+
+
+    @Test
+    public void testArgsWithRenderingDialect() {
+        QueryWrapper queryWrapper = QueryWrapper.create()
+                .select()
+                .from(ACCOUNT)
+                .where(ACCOUNT.ID.in(values(100)))
+                .and(ACCOUNT.AGE.ge(18).or(ACCOUNT.SEX.in(values(100))))
+                .and(exists(QueryWrapper.create().select(ARTICLE.ID).from(ARTICLE).where(ARTICLE.ID.in(values(100)))));
+
+        //全局的方言是 mysql，使用 postgresql 方言构建的 sql 和参数保持一致
+        String sql = pgDialect.forSelectListByQuery(queryWrapper);
+        Object[] args = CPI.getValueArray(queryWrapper, pgDialect);
+        Assert.assertEquals(3, sql.split("= ANY\\(\\?\\)").length - 1);
+        Assert.assertEquals(sql.length() - sql.replace("?", "").length(), args.length);
+        Assert.assertTrue(args[0] instanceof TypeHandlerObject);
+        Assert.assertTrue(args[2] instanceof TypeHandlerObject);
+        Assert.assertTrue(args[3] instanceof TypeHandlerObject);
+
+        //没有指定方言时，使用全局的方言
+        Assert.assertEquals(301, CPI.getValueArray(queryWrapper).length);
+    }
+
+
+    @Test
+    public void testPaddingWithRenderingDialect() {
+        FlexGlobalConfig.getDefaultConfig().setInParamsPaddingEnable(true);
+        try {
+            QueryWrapper queryWrapper = QueryWrapper.create()
+                    .select()
+                    .from(ACCOUNT)
+                    .where(ACCOUNT.ID.in(values(1500)));
+
+            //sqlserver 补齐后超出参数限制，不补齐；全局的 mysql 方言会补齐到 2048 个
+            IDialect sqlserverDialect = new CommonsDialectImpl(KeywordWrap.SQUARE_BRACKETS, LimitOffsetProcesser.DERBY, InListProcesser.SQLSERVER);
+            String sql = sqlserverDialect.forSelectListByQuery(queryWrapper);
+            Assert.assertEquals(1500, sql.length() - sql.replace("?", "").length());
+            Assert.assertEquals(1500, CPI.getValueArray(queryWrapper, sqlserverDialect).length);
+            Assert.assertEquals(2048, CPI.getValueArray(queryWrapper).length);
+        } finally {
+            FlexGlobalConfig.getDefaultConfig().setInParamsPaddingEnable(false);
+        }
+    }
+
+
+    @Test
+    public void testMixedArrayTypes() {
+        Object[] ids = values(100);
+        ids[50] = 50L;
+        QueryWrapper queryWrapper = QueryWrapper.create()
+                .select()
+                .from(ACCOUNT)
+                .where(ACCOUNT.ID.in(ids));
+
+        try {
+            CPI.getValueArray(queryWrapper, pgDialect);
+            Assert.fail("mixed types can not be passed as an array parameter");
+        } catch (MybatisFlexException e) {
+            Assert.assertTrue(e.getMessage().contains("java.lang.Long"));
+        }
+    }
+
+
+    private static Object[] values(int count) {
+        Object[] values = new Object[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = i;
+        }
+        return values;
+    }
+}
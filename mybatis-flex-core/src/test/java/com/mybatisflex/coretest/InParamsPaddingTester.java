@@ -0,0 +1,138 @@
+package com.mybatisflex.coretest;
+
+import com.mybatisflex.core.FlexGlobalConfig;
+import com.mybatisflex.core.MybatisFlexBootstrap;
+import com.mybatisflex.core.dialect.DbType;
+import com.mybatisflex.core.dialect.DialectFactory;
+import com.mybatisflex.core.dialect.IDialect;
+import com.mybatisflex.core.dialect.InListProcesser;
+import com.mybatisflex.core.dialect.KeywordWrap;
+import com.mybatisflex.core.dialect.LimitOffsetProcesser;
+import com.mybatisflex.core.dialect.impl.CommonsDialectImpl;
+import com.mybatisflex.core.query.CPI;
+import com.mybatisflex.core.query.QueryWrapper;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.mybatisflex.coretest.table.Tables.ACCOUNT;
+
+public class InParamsPaddingTester {
+
+    @Before
+    public void before() {
+        FlexGlobalConfig.getDefaultConfig().setInParamsPaddingEnable(true);
+        FlexGlobalConfig.getDefaultConfig().setQuerySqlCacheSize(16);
+    }
+
+
+    @After
+    public void after() {
+        FlexGlobalConfig.getDefaultConfig().setInParamsPaddingEnable(false);
+        FlexGlobalConfig.getDefaultConfig().setQuerySqlCacheSize(0);
+        DialectFactory.clearHintDbType();
+    }
+
+
+    @Test
+    public void testPadding() {
+        CommonsDialectImpl dialect = new CommonsDialectImpl();
+
+        QueryWrapper queryWrapper1 = QueryWrapper.create()
+                .select()
+                .from(ACCOUNT)
+                .where(ACCOUNT.ID.in(1, 2, 3));
+
+        QueryWrapper queryWrapper2 = QueryWrapper.create()
+                .select()
+                .from(ACCOUNT)
+                .where(ACCOUNT.ID.in(4, 5, 6, 7));
+
+        String sql1 = dialect.forSelectListByQuery(queryWrapper1);
+        String sql2 = dialect.forSelectListByQuery(queryWrapper2);
+
+        //3 个参数补齐到 4 个，和 4 个参数的 sql 一致
+        Assert.assertEquals(sql1, sql2);
+        Assert.assertEquals(1, dialect.getQuerySqlCache().getHitCount());
+        Assert.assertArrayEquals(new Object[]{1, 2, 3, 3}, CPI.getValueArray(queryWrapper1));
+    }
+
+
+    @Test
+    public void testMaxParameterCount() {
+        //sqlserver 最多 2000 个参数，1000 个补齐到 1024 个，1500 个补齐后超出限制，保持原来的数量
+        assertParamsCount(DbType.SQLSERVER, 1000, 1024);
+        assertParamsCount(DbType.SQLSERVER, 1500, 1500);
+
+        assertParamsCount(DbType.SYBASE, 1025, 1025);
+        assertParamsCount(DbType.SQLITE, 600, 600);
+        assertParamsCount(DbType.MYSQL, 1500, 2048);
+    }
+
+
+    @Test
+    public void testStatementParameterCount() {
+        IDialect dialect = new CommonsDialectImpl(KeywordWrap.SQUARE_BRACKETS, LimitOffsetProcesser.DERBY, InListProcesser.SQLSERVER);
+
+        //每个 in 条件补齐后都没有超出限制，但整条 sql 补齐后的 2048 个参数超出了 sqlserver 的限制，都不补齐
+        assertStatementParamsCount(dialect, 0, 1200, 600, 600);
+        assertStatementParamsCount(dialect, 0, 1024, 500, 500);
+
+        //queryWrapper 之外的参数，例如 update 的 set 参数
+        assertStatementParamsCount(dialect, 900, 1024, 600);
+        assertStatementParamsCount(dialect, 1000, 600, 600);
+    }
+
+
+    @Test
+    public void testMapperQuery() {
+        MybatisFlexBootstrap bootstrap = H2TestSupport.start();
+        H2TestSupport.resetAccounts(5);
+        AccountMapper mapper = bootstrap.getMapper(AccountMapper.class);
+
+        QueryWrapper queryWrapper = QueryWrapper.create().where(ACCOUNT.ID.in(1, 2, 3));
+        Assert.assertEquals(3, mapper.selectListByQuery(queryWrapper).size());
+        Assert.assertEquals(3, mapper.selectCountByQuery(queryWrapper));
+    }
+
+
+    private static void assertStatementParamsCount(IDialect dialect, int reservedCount, int expectedCount, int... valuesCounts) {
+        QueryWrapper queryWrapper = QueryWrapper.create()
+                .select()
+                .from(ACCOUNT);
+        for (int valuesCount : valuesCounts) {
+            queryWrapper.and(ACCOUNT.ID.in(values(valuesCount)));
+        }
+
+        CPI.withInParamsPadding(queryWrapper, dialect, reservedCount, () -> {
+            String sql = dialect.forSelectListByQuery(queryWrapper);
+            Assert.assertEquals(expectedCount, sql.length() - sql.replace("?", "").length());
+            Assert.assertEquals(expectedCount, CPI.getValueArray(queryWrapper, dialect).length);
+            return sql;
+        });
+    }
+
+
+    private static Object[] values(int count) {
+        Object[] values = new Object[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = i;
+        }
+        return values;
+    }
+
+
+    private static void assertParamsCount(DbType dbType, int valuesCount, int expectedCount) {
+        DialectFactory.setHintDbType(dbType);
+        QueryWrapper queryWrapper = QueryWrapper.create()
+                .select()
+                .from(ACCOUNT)
+                .where(ACCOUNT.ID.in(values(valuesCount)));
+
+        IDialect dialect = DialectFactory.getDialect();
+        String sql = dialect.forSelectListByQuery(queryWrapper);
+        Assert.assertEquals(expectedCount, sql.length() - sql.replace("?", "").length());
+        Assert.assertEquals(expectedCount, CPI.getValueArray(queryWrapper).length);
+    }
+}
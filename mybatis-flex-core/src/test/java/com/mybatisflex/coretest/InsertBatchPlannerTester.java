@@ -0,0 +1,51 @@
+package com.mybatisflex.coretest;
+
+import com.mybatisflex.core.dialect.IDialect;
+import com.mybatisflex.core.dialect.InListProcesser;
+import com.mybatisflex.core.dialect.KeywordWrap;
+import com.mybatisflex.core.dialect.LimitOffsetProcesser;
+import com.mybatisflex.core.dialect.impl.CommonsDialectImpl;
+import com.mybatisflex.core.provider.InsertBatchPlanner;
+import com.mybatisflex.core.table.TableInfo;
+import com.mybatisflex.core.table.TableInfoFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class InsertBatchPlannerTester {
+
+    @Test
+    public void testInsertBatchPlan() {
+        TableInfo tableInfo = TableInfoFactory.ofEntityClass(Account.class);
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 2100; i++) {
+            Account account = new Account();
+            account.setUserName("michael" + i);
+            accounts.add(account);
+        }
+
+        int argsCount = tableInfo.buildInsertSqlArgs(accounts.get(0), false).length;
+        IDialect sqlserverDialect = new CommonsDialectImpl(KeywordWrap.SQUARE_BRACKETS, LimitOffsetProcesser.DERBY, InListProcesser.SQLSERVER);
+        int batchSize = InsertBatchPlanner.computeBatchSize(tableInfo, sqlserverDialect, accounts, InsertBatchPlanner.DEFAULT_MAX_ROWS);
+        Assert.assertEquals(2000 / argsCount, batchSize);
+
+        //拆分后每批的条数最多相差 1 条
+        List<List<Account>> batches = InsertBatchPlanner.split(accounts, batchSize);
+        Assert.assertEquals((2100 + batchSize - 1) / batchSize, batches.size());
+        for (List<Account> batch : batches) {
+            Assert.assertTrue(batch.size() <= batchSize);
+            Assert.assertTrue(batches.get(0).size() - batch.size() <= 1);
+        }
+
+        //sql 大小的限制
+        CommonsDialectImpl mysqlDialect = new CommonsDialectImpl();
+        mysqlDialect.setMaxStatementSize(64 * 1024);
+        int mysqlBatchSize = InsertBatchPlanner.computeBatchSize(tableInfo, mysqlDialect, accounts, InsertBatchPlanner.DEFAULT_MAX_ROWS);
+        Assert.assertTrue(mysqlBatchSize < InsertBatchPlanner.DEFAULT_MAX_ROWS);
+
+        String sql = sqlserverDialect.forInsertEntityBatch(tableInfo, new ArrayList<>(accounts.subList(0, 2)));
+        Assert.assertEquals(sql, sqlserverDialect.forInsertEntityBatch(tableInfo, new ArrayList<>(accounts.subList(2, 4))));
+    }
+}
@@ -0,0 +1,52 @@
+package com.mybatisflex.coretest;
+
+import com.mybatisflex.core.FlexGlobalConfig;
+import com.mybatisflex.core.paginate.PaginateCountCache;
+import com.mybatisflex.core.query.QueryWrapper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import static com.mybatisflex.coretest.table.Tables.ACCOUNT;
+import static com.mybatisflex.coretest.table.Tables.ARTICLE;
+
+public class PaginateCountCacheTester {
+
+    @Test
+    public void testPaginateCountCache() {
+        FlexGlobalConfig.getDefaultConfig().setPaginateCountCacheSize(16);
+        try {
+            QueryWrapper queryWrapper = QueryWrapper.create()
+                    .select()
+                    .from(ACCOUNT)
+                    .leftJoin(ARTICLE).on(ACCOUNT.ID.eq(ARTICLE.ACCOUNT_ID))
+                    .where(ACCOUNT.AGE.ge(18));
+
+            PaginateCountCache.Key key = PaginateCountCache.createKey(queryWrapper, null);
+            Assert.assertNull(PaginateCountCache.get(key));
+            PaginateCountCache.put(key, 100);
+
+            //相同结构和参数的 queryWrapper 命中缓存
+            QueryWrapper sameQueryWrapper = QueryWrapper.create()
+                    .select()
+                    .from(ACCOUNT)
+                    .leftJoin(ARTICLE).on(ACCOUNT.ID.eq(ARTICLE.ACCOUNT_ID))
+                    .where(ACCOUNT.AGE.ge(18));
+            Assert.assertEquals(Long.valueOf(100), PaginateCountCache.get(PaginateCountCache.createKey(sameQueryWrapper, null)));
+
+            //参数不同时不命中
+            QueryWrapper otherQueryWrapper = QueryWrapper.create()
+                    .select()
+                    .from(ACCOUNT)
+                    .leftJoin(ARTICLE).on(ACCOUNT.ID.eq(ARTICLE.ACCOUNT_ID))
+                    .where(ACCOUNT.AGE.ge(20));
+            Assert.assertNull(PaginateCountCache.get(PaginateCountCache.createKey(otherQueryWrapper, null)));
+
+            //join 的表被修改后，缓存失效
+            PaginateCountCache.invalidate("`tb_article`");
+            Assert.assertNull(PaginateCountCache.get(key));
+        } finally {
+            PaginateCountCache.clear();
+            FlexGlobalConfig.getDefaultConfig().setPaginateCountCacheSize(0);
+        }
+    }
+}
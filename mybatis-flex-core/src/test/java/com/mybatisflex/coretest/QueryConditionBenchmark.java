@@ -0,0 +1,68 @@
+package com.mybatisflex.coretest;
+
+import com.mybatisflex.core.dialect.IDialect;
+import com.mybatisflex.core.dialect.impl.CommonsDialectImpl;
+import com.mybatisflex.core.query.QueryCondition;
+import com.mybatisflex.core.query.QueryWrapper;
+
+import static com.mybatisflex.coretest.table.Tables.ACCOUNT;
+
+/**
+ * QueryCondition 渲染 sql 的耗时测试，每个条件的平均耗时应该基本保持不变（线性增长）
+ * 耗时与运行环境有关，不作为单元测试执行，需要时手动运行 main 方法
+ */
+public class QueryConditionBenchmark {
+
+    private static final int[] CONDITION_COUNTS = {50, 100, 200, 400, 800, 1600};
+
+    public static void main(String[] args) {
+        IDialect dialect = new CommonsDialectImpl();
+
+        //预热
+        for (int i = 0; i < 200; i++) {
+            dialect.buildSelectSql(buildQueryWrapper(200));
+        }
+
+        for (int count : CONDITION_COUNTS) {
+            QueryWrapper queryWrapper = buildQueryWrapper(count);
+            int times = 200_000 / count;
+
+            long start = System.nanoTime();
+            int length = 0;
+            for (int i = 0; i < times; i++) {
+                length += dialect.buildSelectSql(queryWrapper).length();
+            }
+            long cost = System.nanoTime() - start;
+
+            System.out.printf("conditions: %5d, sql length: %7d, avg: %8.1f us/sql, %6.1f ns/condition%n"
+                    , count, length / times, cost / 1000.0 / times, (double) cost / times / count);
+        }
+    }
+
+
+    private static QueryWrapper buildQueryWrapper(int count) {
+        QueryWrapper queryWrapper = QueryWrapper.create()
+                .select()
+                .from(ACCOUNT)
+                .where(ACCOUNT.ID.ge(0));
+
+        for (int i = 1; i < count; i++) {
+            switch (i % 4) {
+                case 0:
+                    queryWrapper.and(ACCOUNT.USER_NAME.like("michael" + i));
+                    break;
+                case 1:
+                    queryWrapper.and(ACCOUNT.AGE.in(i, i + 1, i + 2));
+                    break;
+                case 2:
+                    QueryCondition brackets = ACCOUNT.SEX.eq(i).or(ACCOUNT.AGE.lt(i));
+                    queryWrapper.or(brackets);
+                    break;
+                default:
+                    queryWrapper.and(ACCOUNT.BIRTHDAY.isNotNull().when(i % 3 != 0));
+                    break;
+            }
+        }
+        return queryWrapper;
+    }
+}
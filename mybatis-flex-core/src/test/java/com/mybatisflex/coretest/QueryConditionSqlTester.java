@@ -0,0 +1,78 @@
+package com.mybatisflex.coretest;
+
+import com.mybatisflex.core.dialect.IDialect;
+import com.mybatisflex.core.dialect.impl.CommonsDialectImpl;
+import com.mybatisflex.core.query.QueryCondition;
+import com.mybatisflex.core.query.QueryWrapper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import static com.mybatisflex.core.query.QueryMethods.exists;
+import static com.mybatisflex.coretest.table.Tables.ACCOUNT;
+
+public class QueryConditionSqlTester {
+
+    private final IDialect dialect = new CommonsDialectImpl();
+
+
+    @Test
+    public void testBrackets() {
+        assertWhere("`id` >=  ?  AND (`age` <  ?  OR `sex` =  ? )"
+                , ACCOUNT.ID.ge(1).and(ACCOUNT.AGE.lt(3).or(ACCOUNT.SEX.eq(1))));
+
+        //前面的条件不生效时，只有括号后面还有条件才需要保留括号
+        assertWhere("`age` <  ?  OR `sex` =  ? ", QueryWrapper.create().select(ACCOUNT.ID).from(ACCOUNT)
+                .where(ACCOUNT.ID.ge(1).when(false))
+                .and(ACCOUNT.AGE.lt(3).or(ACCOUNT.SEX.eq(1))));
+        assertWhere("(`age` <  ?  OR `sex` =  ? ) AND `user_name` LIKE  ? ", QueryWrapper.create().select(ACCOUNT.ID).from(ACCOUNT)
+                .where(ACCOUNT.ID.ge(1).when(false))
+                .and(ACCOUNT.AGE.lt(3).or(ACCOUNT.SEX.eq(1)))
+                .and(ACCOUNT.USER_NAME.like("michael")));
+
+        //括号内没有生效的条件
+        assertWhere("`id` >=  ? ", QueryWrapper.create().select(ACCOUNT.ID).from(ACCOUNT)
+                .where(ACCOUNT.ID.ge(1))
+                .and(QueryCondition.createEmpty().and(ACCOUNT.AGE.lt(3).when(false))));
+    }
+
+
+    @Test
+    public void testSkipCondition() {
+        //跳过的条件不输出连接符，使用上一个生效条件的连接符
+        assertWhere("`id` >=  ?  AND `sex` =  ? ", QueryWrapper.create().select(ACCOUNT.ID).from(ACCOUNT)
+                .where(ACCOUNT.ID.ge(1))
+                .and(ACCOUNT.AGE.lt(3).when(false))
+                .or(ACCOUNT.SEX.eq(1)));
+
+        assertWhere("`id` >=  ?  AND  EXISTS (SELECT `id` FROM `tb_account`)", QueryWrapper.create().select(ACCOUNT.ID).from(ACCOUNT)
+                .where(ACCOUNT.ID.ge(1))
+                .and(exists(QueryWrapper.create().select(ACCOUNT.ID).from(ACCOUNT))));
+    }
+
+
+    @Test
+    public void testLongConditionChain() {
+        int count = 20000;
+        QueryWrapper queryWrapper = QueryWrapper.create().select(ACCOUNT.ID).from(ACCOUNT).where(ACCOUNT.ID.ge(0));
+        for (int i = 1; i < count; i++) {
+            queryWrapper.and(ACCOUNT.AGE.ne(i).when(i % 2 == 0));
+        }
+
+        //条件链通过循环渲染，条件很多时也不会栈溢出
+        String sql = dialect.forSelectListByQuery(queryWrapper);
+        int ageCount = (sql.length() - sql.replace("`age` !=", "").length()) / "`age` !=".length();
+        Assert.assertEquals((count - 1) / 2, ageCount);
+        Assert.assertFalse(sql.contains("AND  AND"));
+        Assert.assertTrue(sql.endsWith("`age` !=  ? "));
+    }
+
+
+    private void assertWhere(String expectedWhere, QueryCondition condition) {
+        assertWhere(expectedWhere, QueryWrapper.create().select(ACCOUNT.ID).from(ACCOUNT).where(condition));
+    }
+
+
+    private void assertWhere(String expectedWhere, QueryWrapper queryWrapper) {
+        Assert.assertEquals("SELECT `id` FROM `tb_account` WHERE " + expectedWhere, dialect.forSelectListByQuery(queryWrapper));
+    }
+}
@@ -0,0 +1,191 @@
+package com.mybatisflex.coretest;
+
+import com.mybatisflex.core.FlexConsts;
+import com.mybatisflex.core.FlexGlobalConfig;
+import com.mybatisflex.core.MybatisFlexBootstrap;
+import com.mybatisflex.core.cache.QueryResultCache;
+import com.mybatisflex.core.cache.TableVersions;
+import com.mybatisflex.core.dialect.impl.CommonsDialectImpl;
+import com.mybatisflex.core.query.CPI;
+import com.mybatisflex.core.query.QueryTableCollector;
+import com.mybatisflex.core.query.QueryWrapper;
+import com.mybatisflex.core.row.Row;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static com.mybatisflex.coretest.table.Tables.ACCOUNT;
+import static com.mybatisflex.coretest.table.Tables.ARTICLE;
+
+public class QueryResultCacheTester {
+
+    private final Configuration configuration = new Configuration();
+
+    @Before
+    public void before() {
+        FlexGlobalConfig.getDefaultConfig().setResultCacheSize(16);
+    }
+
+    @After
+    public void after() {
+        QueryResultCache.clear();
+        FlexGlobalConfig.getDefaultConfig().setResultCacheSize(0);
+        TableVersions.setTransactionSynchronizer(null);
+    }
+
+
+    @Test
+    public void testQueryTables() {
+        QueryWrapper queryWrapper = QueryWrapper.create()
+                .select()
+                .from(ACCOUNT)
+                .leftJoin(ARTICLE).on(ACCOUNT.ID.eq(ARTICLE.ACCOUNT_ID))
+                .where(ACCOUNT.AGE.ge(18));
+
+        List<String> tables = new ArrayList<>();
+        Assert.assertTrue(QueryTableCollector.collect(queryWrapper, tables));
+        Assert.assertEquals(Arrays.asList("tb_account", "tb_article"), tables);
+
+        //原生 sql 中包含子查询时，无法确定引用的表
+        Assert.assertFalse(QueryTableCollector.collect(QueryWrapper.create().from(ACCOUNT)
+                .where("id in (select account_id from tb_article)"), new ArrayList<>()));
+    }
+
+
+    @Test
+    public void testInvalidate() {
+        QueryWrapper queryWrapper = createQueryWrapper();
+        QueryResultCache.Key key = createKey(queryWrapper);
+        Assert.assertArrayEquals(new String[]{"tb_account", "tb_article"}, key.getTables());
+        Assert.assertNull(QueryResultCache.get(key));
+
+        QueryResultCache.put(key, Arrays.asList("a", "b"));
+        Assert.assertEquals(Arrays.asList("a", "b"), QueryResultCache.get(createKey(queryWrapper)));
+
+        //join 的表被修改后，缓存失效
+        QueryResultCache.invalidate("`tb_article`");
+        Assert.assertNull(QueryResultCache.get(key));
+    }
+
+
+    @Test
+    public void testCopyResult() {
+        Account account = new Account();
+        account.setId(1L);
+        account.setUserName("michael");
+        account.setBirthday(new Date(0));
+
+        Row row = Row.of("id", 1L);
+        row.set("user_name", "michael");
+
+        QueryResultCache.Key key = createKey(createQueryWrapper());
+        List<Object> result = new ArrayList<>(Arrays.asList(account, row));
+        QueryResultCache.put(key, result);
+
+        //修改写入缓存的对象，不影响缓存
+        account.setUserName("changed");
+        account.getBirthday().setTime(1000);
+        row.set("user_name", "changed");
+
+        List<Object> cached = QueryResultCache.get(key);
+        Account cachedAccount = (Account) cached.get(0);
+        Row cachedRow = (Row) cached.get(1);
+        Assert.assertNotSame(account, cachedAccount);
+        Assert.assertEquals("michael", cachedAccount.getUserName());
+        Assert.assertEquals(0, cachedAccount.getBirthday().getTime());
+        Assert.assertEquals("michael", cachedRow.getString("user_name"));
+
+        //修改读取到的对象，不影响下一次读取
+        cachedAccount.setUserName("changed");
+        cachedRow.set("user_name", "changed");
+        cached.clear();
+
+        List<Object> cachedAgain = QueryResultCache.get(key);
+        Assert.assertEquals(2, cachedAgain.size());
+        Assert.assertEquals("michael", ((Account) cachedAgain.get(0)).getUserName());
+        Assert.assertEquals("michael", ((Row) cachedAgain.get(1)).getString("user_name"));
+    }
+
+
+    @Test
+    public void testUncopyableResult() {
+        QueryResultCache.Key key = createKey(createQueryWrapper());
+        QueryResultCache.put(key, Collections.singletonList(new Object[]{1}));
+        Assert.assertNull(QueryResultCache.get(key));
+    }
+
+
+    @Test
+    public void testMapperQuery() {
+        MybatisFlexBootstrap bootstrap = H2TestSupport.start();
+        H2TestSupport.resetAccounts(2);
+
+        AccountMapper mapper = bootstrap.getMapper(AccountMapper.class);
+        QueryWrapper queryWrapper = QueryWrapper.create().where(ACCOUNT.ID.eq(1));
+        Account account = mapper.selectOneByQuery(queryWrapper);
+        Assert.assertEquals("name1", account.getUserName());
+        account.setUserName("changed");
+
+        long hitCount = QueryResultCache.getTableStats("tb_account").getHitCount();
+        Assert.assertEquals("name1", mapper.selectOneByQuery(queryWrapper).getUserName());
+        Assert.assertEquals(hitCount + 1, QueryResultCache.getTableStats("tb_account").getHitCount());
+
+        //通过 BaseMapper 修改之后，缓存失效
+        Account update = new Account();
+        update.setId(1L);
+        update.setUserName("michael");
+        mapper.update(update);
+        Assert.assertEquals("michael", mapper.selectOneByQuery(queryWrapper).getUserName());
+    }
+
+
+    @Test
+    public void testAfterTransactionCompletion() {
+        List<Runnable> callbacks = new ArrayList<>();
+        TableVersions.setTransactionSynchronizer(callbacks::add);
+
+        QueryWrapper queryWrapper = createQueryWrapper();
+        TableVersions.onSessionCompletion(Collections.singletonList("tb_account"));
+        Assert.assertEquals(1, callbacks.size());
+
+        //SqlSession 提交之后，外部事务提交之前，其他线程缓存了旧的数据
+        QueryResultCache.Key key = createKey(queryWrapper);
+        QueryResultCache.put(key, Arrays.asList("a", "b"));
+        Assert.assertNotNull(QueryResultCache.get(key));
+
+        //外部事务真正提交之后，缓存失效
+        callbacks.get(0).run();
+        Assert.assertNull(QueryResultCache.get(key));
+    }
+
+
+    private QueryWrapper createQueryWrapper() {
+        return QueryWrapper.create()
+                .select()
+                .from(ACCOUNT)
+                .leftJoin(ARTICLE).on(ACCOUNT.ID.eq(ARTICLE.ACCOUNT_ID))
+                .where(ACCOUNT.AGE.ge(18));
+    }
+
+
+    private QueryResultCache.Key createKey(QueryWrapper queryWrapper) {
+        String sql = new CommonsDialectImpl().forSelectListByQuery(queryWrapper);
+        MappedStatement ms = new MappedStatement.Builder(configuration, "test.selectListByQuery"
+                , new StaticSqlSource(configuration, sql), SqlCommandType.SELECT).useCache(true).build();
+
+        Map<String, Object> parameter = new HashMap<>();
+        parameter.put(FlexConsts.QUERY, queryWrapper);
+        parameter.put(FlexConsts.SQL_ARGS, CPI.getValueArray(queryWrapper));
+        BoundSql boundSql = ms.getBoundSql(parameter);
+        return QueryResultCache.createKey(ms, parameter, RowBounds.DEFAULT, boundSql);
+    }
+}
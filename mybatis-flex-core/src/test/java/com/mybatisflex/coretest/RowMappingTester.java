@@ -0,0 +1,38 @@
+package com.mybatisflex.coretest;
+
+import com.mybatisflex.core.row.Row;
+import com.mybatisflex.core.row.RowUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class RowMappingTester {
+
+    @Test
+    public void testRowMapping() {
+        List<Row> rows = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Row row = Row.of("ID", (long) i);
+            row.set("user_name", "name" + i);
+            row.set("user_name$1", "alias" + i);
+            rows.add(row);
+        }
+        //列名不同的 row 需要重新解析映射计划
+        Row otherRow = Row.of("id", "100");
+        otherRow.set("age", 18);
+        rows.add(otherRow);
+
+        List<Account> accounts = RowUtil.toEntityList(rows, Account.class);
+        Assert.assertEquals(Long.valueOf(2L), accounts.get(2).getId());
+        Assert.assertEquals("name2", accounts.get(2).getUserName());
+        Assert.assertEquals(Long.valueOf(100L), accounts.get(3).getId());
+        Assert.assertEquals(Integer.valueOf(18), accounts.get(3).getAge());
+        Assert.assertNull(accounts.get(3).getUserName());
+
+        List<Account> aliasAccounts = RowUtil.toEntityList(rows, Account.class, 1);
+        Assert.assertEquals("alias1", aliasAccounts.get(1).getUserName());
+        Assert.assertEquals(Long.valueOf(1L), aliasAccounts.get(1).getId());
+    }
+}
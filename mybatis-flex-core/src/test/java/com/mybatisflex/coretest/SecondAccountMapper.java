@@ -0,0 +1,9 @@
+package com.mybatisflex.coretest;
+
+import com.mybatisflex.core.BaseMapper;
+
+/**
+ * 只注册在第二个环境中的 mapper
+ */
+public interface SecondAccountMapper extends BaseMapper<Account> {
+}
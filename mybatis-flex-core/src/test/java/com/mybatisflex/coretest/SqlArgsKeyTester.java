@@ -0,0 +1,46 @@
+package com.mybatisflex.coretest;
+
+import com.mybatisflex.core.mybatis.TypeHandlerObject;
+import com.mybatisflex.core.mybatis.executor.SqlArgsKey;
+import org.apache.ibatis.type.StringTypeHandler;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+public class SqlArgsKeyTester {
+
+    @Test
+    public void testEquals() {
+        Object[] args = {1, "michael", new long[]{1, 2, 3}, new TypeHandlerObject(new StringTypeHandler(), "json", null)};
+        Object[] sameArgs = {1, "michael", new long[]{1, 2, 3}, new TypeHandlerObject(new StringTypeHandler(), "json", null)};
+        Assert.assertEquals(new SqlArgsKey(args), new SqlArgsKey(sameArgs));
+        Assert.assertEquals(new SqlArgsKey(args).hashCode(), new SqlArgsKey(sameArgs).hashCode());
+
+        Object[] otherArgs = {1, "michael", new long[]{1, 2, 4}, new TypeHandlerObject(new StringTypeHandler(), "json", null)};
+        Assert.assertNotEquals(new SqlArgsKey(args), new SqlArgsKey(otherArgs));
+
+        Object[] otherTypeHandlerArgs = {1, "michael", new long[]{1, 2, 3}, new TypeHandlerObject(new StringTypeHandler(), "other", null)};
+        Assert.assertNotEquals(new SqlArgsKey(args), new SqlArgsKey(otherTypeHandlerArgs));
+    }
+
+
+    @Test
+    public void testArrayTypes() {
+        //基本类型的数组和包装类型的数组不相等
+        Assert.assertNotEquals(new SqlArgsKey(new Object[]{new int[]{1}}), new SqlArgsKey(new Object[]{new Integer[]{1}}));
+        Assert.assertEquals(new SqlArgsKey(new Object[]{new Object[]{1, new int[]{2}}}), new SqlArgsKey(new Object[]{new Object[]{1, new int[]{2}}}));
+
+        //参数的类型不同时不相等
+        Assert.assertNotEquals(new SqlArgsKey(new Object[]{1}), new SqlArgsKey(new Object[]{1L}));
+        Assert.assertNotEquals(new SqlArgsKey(new Object[]{new BigDecimal("1")}), new SqlArgsKey(new Object[]{new BigDecimal("1.0")}));
+    }
+
+
+    @Test
+    public void testNull() {
+        Assert.assertEquals(new SqlArgsKey(null), new SqlArgsKey(null));
+        Assert.assertNotEquals(new SqlArgsKey(null), new SqlArgsKey(new Object[0]));
+        Assert.assertEquals(new SqlArgsKey(new Object[]{null, 1}), new SqlArgsKey(new Object[]{null, 1}));
+    }
+}
@@ -0,0 +1,90 @@
+package com.mybatisflex.coretest;
+
+import com.mybatisflex.core.MybatisFlexBootstrap;
+import com.mybatisflex.core.row.Db;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class UpdateBatchTester {
+
+    private MybatisFlexBootstrap bootstrap;
+
+    @Before
+    public void before() {
+        bootstrap = H2TestSupport.start();
+        H2TestSupport.resetAccounts(3);
+    }
+
+
+    @Test
+    public void testGroupOrder() {
+        List<String> datas = Arrays.asList("a1", "b1", "a2", "c1", "b2");
+        List<String> executed = new ArrayList<>();
+        int[] results = Db.executeBatch(AccountMapper.class, datas, 10, data -> data.charAt(0), (mapper, data) -> {
+            executed.add(data);
+            mapper.deleteById(Long.parseLong(data.substring(1)) + 100);
+        });
+
+        //组与组之间按照第一次出现的顺序，组内保持原来的顺序
+        Assert.assertEquals(Arrays.asList("a1", "a2", "b1", "b2", "c1"), executed);
+        Assert.assertEquals(5, results.length);
+    }
+
+
+    @Test
+    public void testGroupOrderWithKey() {
+        List<String> datas = Arrays.asList("a1", "b1", "a2", "b2", "a1", "c1", "b1");
+        List<String> executed = new ArrayList<>();
+        Db.executeBatch(AccountMapper.class, datas, 10, data -> data.charAt(1), data -> data.charAt(0), (mapper, data) -> {
+            executed.add(data);
+            mapper.deleteById(100L);
+        });
+
+        //相邻的数据 key 相同时，会先执行之前的分组，执行顺序不变
+        Assert.assertEquals(datas, executed);
+
+        executed.clear();
+        Db.executeBatch(AccountMapper.class, Arrays.asList("a1", "b2", "a3", "b1", "a2", "a4"), 10
+                , data -> data.charAt(1), data -> data.charAt(0), (mapper, data) -> {
+                    executed.add(data);
+                    mapper.deleteById(100L);
+                });
+        //key 1 再次出现时，先执行之前的分组，b1 不会被排到 a1 之前
+        Assert.assertEquals(Arrays.asList("a1", "a3", "b2", "b1", "a2", "a4"), executed);
+    }
+
+
+    @Test
+    public void testUpdateBatchById() {
+        Account account2 = newAccount(2L, "jack", 20);
+        Account account1First = newAccount(1L, "first", 30);
+        Account account1Second = newAccount(1L, "second", null);
+        Account missing = newAccount(100L, "none", null);
+
+        //更新的字段不同，但是主键 1 的数据需要按照原来的顺序执行
+        AccountMapper mapper = bootstrap.getMapper(AccountMapper.class);
+        int[] results = mapper.updateBatchById(Arrays.asList(account2, account1First, account1Second, missing), 10);
+        Assert.assertArrayEquals(new int[]{1, 1, 1, 0}, results);
+
+        Account account1 = mapper.selectOneById(1L);
+        Assert.assertEquals("second", account1.getUserName());
+        Assert.assertEquals(Integer.valueOf(30), account1.getAge());
+        Assert.assertEquals(Integer.valueOf(20), mapper.selectOneById(2L).getAge());
+    }
+
+
+    private static Account newAccount(Long id, String userName, Integer age) {
+        Account account = new Account();
+        account.setId(id);
+        account.setUserName(userName);
+        account.setAge(age);
+        account.setSex(1);
+        account.setNormal(true);
+        return account;
+    }
+}
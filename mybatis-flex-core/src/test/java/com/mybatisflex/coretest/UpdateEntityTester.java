@@ -0,0 +1,41 @@
+package com.mybatisflex.coretest;
+
+import com.mybatisflex.core.javassist.ModifyAttrsRecord;
+import com.mybatisflex.core.table.TableInfo;
+import com.mybatisflex.core.table.TableInfoFactory;
+import com.mybatisflex.core.util.UpdateEntity;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class UpdateEntityTester {
+
+    @Test
+    public void testUpdateEntityProxy() {
+        Account account = UpdateEntity.wrap(Account.class);
+        Assert.assertSame(account.getClass(), UpdateEntity.wrap(Account.class).getClass());
+
+        account.setId(1L);
+        account.setUserName("michael");
+        account.setAge(18);
+        ModifyAttrsRecord record = (ModifyAttrsRecord) account;
+        Assert.assertEquals(3, record.obtainModifyAttrs().size());
+        Assert.assertTrue(record.obtainModifyAttrs().contains("userName"));
+
+        TableInfo tableInfo = TableInfoFactory.ofEntityClass(Account.class);
+        Assert.assertEquals(Arrays.asList("user_name", "age"), new ArrayList<>(tableInfo.obtainUpdateColumns(account, false, false)));
+        Assert.assertEquals(Arrays.asList("id", "user_name", "age"), new ArrayList<>(tableInfo.obtainUpdateColumns(account, false, true)));
+        Assert.assertArrayEquals(new Object[]{"michael", 18}, tableInfo.buildUpdateSqlArgs(account, false, false));
+
+        //不在字段中的属性
+        record.addModifyAttr("other");
+        record.removeModifyAttr("age");
+        Assert.assertEquals(Arrays.asList("user_name"), new ArrayList<>(tableInfo.obtainUpdateColumns(account, false, false)));
+
+        record.clearModifyFlag();
+        Assert.assertTrue(record.obtainModifyAttrs().isEmpty());
+        Assert.assertTrue(tableInfo.obtainUpdateColumns(account, false, false).isEmpty());
+    }
+}
@@ -0,0 +1,130 @@
+package com.mybatisflex.coretest;
+
+import com.mybatisflex.core.MybatisFlexBootstrap;
+import com.mybatisflex.core.dialect.DbType;
+import com.mybatisflex.core.dialect.DialectFactory;
+import com.mybatisflex.core.dialect.InListProcesser;
+import com.mybatisflex.core.dialect.KeywordWrap;
+import com.mybatisflex.core.dialect.LimitOffsetProcesser;
+import com.mybatisflex.core.dialect.UpsertProcesser;
+import com.mybatisflex.core.dialect.impl.CommonsDialectImpl;
+import com.mybatisflex.core.exception.MybatisFlexException;
+import com.mybatisflex.core.table.TableInfo;
+import com.mybatisflex.core.table.TableInfoFactory;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class UpsertTester {
+
+    private MybatisFlexBootstrap bootstrap;
+
+    @Before
+    public void before() {
+        bootstrap = H2TestSupport.start();
+        H2TestSupport.resetAccounts(2);
+    }
+
+
+    @Test
+    public void testNoPrimaryKey() {
+        TableInfo tableInfo = new TableInfo();
+        tableInfo.setTableName("tb_no_pk");
+        tableInfo.setColumns(new String[]{"user_name"});
+
+        CommonsDialectImpl dialect = new CommonsDialectImpl();
+        List<UpsertProcesser> processers = Arrays.asList(UpsertProcesser.MYSQL, UpsertProcesser.POSTGRESQL
+                , UpsertProcesser.MERGE, UpsertProcesser.SQLSERVER, UpsertProcesser.ORACLE);
+        for (UpsertProcesser processer : processers) {
+            try {
+                processer.process(dialect, tableInfo, 2, 0);
+                Assert.fail("upsert without primary key must fail: " + processer.getClass().getSimpleName());
+            } catch (MybatisFlexException e) {
+                Assert.assertTrue(e.getMessage().contains("tb_no_pk"));
+            }
+        }
+    }
+
+
+    @Test
+    public void testUpsertBatchWithMerge() {
+        assertUpsertBatch(DbType.H2);
+    }
+
+
+    @Test
+    public void testUpsertBatchWithMysql() {
+        assertUpsertBatch(DbType.MYSQL);
+    }
+
+
+    @Test
+    public void testUpsertSql() {
+        TableInfo tableInfo = TableInfoFactory.ofEntityClass(Account.class);
+        Account account = new Account();
+        account.setId(1L);
+        List<Object> accounts = Arrays.asList(account, account);
+
+        CommonsDialectImpl mysqlDialect = new CommonsDialectImpl();
+        mysqlDialect.setUpsertProcesser(UpsertProcesser.MYSQL);
+        String mysqlSql = mysqlDialect.forUpsertEntityBatch(tableInfo, accounts);
+        Assert.assertTrue(mysqlSql.startsWith("INSERT INTO `tb_account`(`id`, "));
+        Assert.assertTrue(mysqlSql.contains(" ON DUPLICATE KEY UPDATE `user_name` = CASE WHEN `is_delete` = 0 THEN VALUES(`user_name`) ELSE `user_name` END"));
+
+        CommonsDialectImpl postgresqlDialect = new CommonsDialectImpl(KeywordWrap.DOUBLE_QUOTATION, LimitOffsetProcesser.POSTGRESQL);
+        postgresqlDialect.setUpsertProcesser(UpsertProcesser.POSTGRESQL);
+        String postgresqlSql = postgresqlDialect.forUpsertEntity(tableInfo, account);
+        Assert.assertTrue(postgresqlSql.contains(" ON CONFLICT (\"id\") DO UPDATE SET \"user_name\" = EXCLUDED.\"user_name\""));
+        Assert.assertTrue(postgresqlSql.endsWith(" WHERE \"tb_account\".\"is_delete\" = 0"));
+
+        CommonsDialectImpl sqlserverDialect = new CommonsDialectImpl(KeywordWrap.SQUARE_BRACKETS, LimitOffsetProcesser.DERBY, InListProcesser.SQLSERVER);
+        sqlserverDialect.setUpsertProcesser(UpsertProcesser.SQLSERVER);
+        String sqlserverSql = sqlserverDialect.forUpsertEntityBatch(tableInfo, accounts);
+        Assert.assertTrue(sqlserverSql.startsWith("MERGE INTO [tb_account] USING (VALUES (?, "));
+        Assert.assertTrue(sqlserverSql.endsWith(";"));
+
+        CommonsDialectImpl oracleDialect = new CommonsDialectImpl(KeywordWrap.DOUBLE_QUOTATION, LimitOffsetProcesser.ORACLE, InListProcesser.ORACLE);
+        oracleDialect.setUpsertProcesser(UpsertProcesser.ORACLE);
+        String oracleSql = oracleDialect.forUpsertEntityBatch(tableInfo, accounts);
+        Assert.assertTrue(oracleSql.contains(" FROM DUAL UNION ALL SELECT ?, "));
+
+        //参数与字段一一对应
+        Assert.assertEquals(tableInfo.obtainUpsertColumns().length, tableInfo.buildUpsertSqlArgs(account).length);
+    }
+
+
+    private void assertUpsertBatch(DbType dbType) {
+        DialectFactory.setHintDbType(dbType);
+        try {
+            assertUpsertBatch();
+        } finally {
+            DialectFactory.clearHintDbType();
+        }
+    }
+
+
+    private void assertUpsertBatch() {
+        AccountMapper mapper = bootstrap.getMapper(AccountMapper.class);
+        List<Account> accounts = Arrays.asList(newAccount(1L, "first"), newAccount(3L, "insert"), newAccount(1L, "last"));
+        mapper.upsertBatch(accounts);
+
+        //主键相同的数据只保留最后一条
+        Assert.assertEquals("last", mapper.selectOneById(1L).getUserName());
+        Assert.assertEquals("name2", mapper.selectOneById(2L).getUserName());
+        Assert.assertEquals("insert", mapper.selectOneById(3L).getUserName());
+        Assert.assertEquals(3, mapper.selectAll().size());
+    }
+
+
+    private static Account newAccount(Long id, String userName) {
+        Account account = new Account();
+        account.setId(id);
+        account.setUserName(userName);
+        account.setAge(20);
+        account.setSex(1);
+        return account;
+    }
+}
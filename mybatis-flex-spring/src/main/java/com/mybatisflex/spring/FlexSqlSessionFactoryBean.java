@@ -16,6 +16,7 @@
 package com.mybatisflex.spring;
 
 import com.mybatisflex.core.FlexConsts;
+import com.mybatisflex.core.cache.TableVersions;
 import com.mybatisflex.core.datasource.FlexDataSource;
 import com.mybatisflex.core.mybatis.FlexConfiguration;
 import com.mybatisflex.core.mybatis.FlexSqlSessionFactoryBuilder;
@@ -581,6 +582,11 @@ public class FlexSqlSessionFactoryBean extends SqlSessionFactoryBean
             }
         }
 
+        //SqlSession 由 Spring 管理时，事务结束后再次使缓存失效
+        if (this.transactionFactory == null || this.transactionFactory instanceof SpringManagedTransactionFactory) {
+            TableVersions.setTransactionSynchronizer(new SpringTransactionSynchronizer());
+        }
+
         targetConfiguration.setEnvironment(new Environment(this.environment,
                 this.transactionFactory == null ? new SpringManagedTransactionFactory() : this.transactionFactory,
                 dataSource instanceof FlexDataSource ? dataSource : new FlexDataSource(FlexConsts.NAME, dataSource)));